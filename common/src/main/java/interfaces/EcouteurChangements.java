@@ -0,0 +1,26 @@
+package interfaces;
+
+import model.Changement;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * Interface RMI d'un abonné au flux de changements du service BD.
+ *
+ * L'abonné est un objet exporté par le service central et transmis au service BD
+ * par {@link ServiceBDTypee#abonner}. Le service BD le rappelle avec des lots de
+ * changements, dans l'ordre de leurs numéros de séquence.
+ */
+public interface EcouteurChangements extends Remote {
+
+    /**
+     * Reçoit un lot de changements d'une instance du service BD.
+     *
+     * @param partition le nom de la partition émettrice
+     * @param changements les changements, par numéro de séquence croissant
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    void recevoir(String partition, List<Changement> changements) throws RemoteException;
+}
@@ -66,6 +66,21 @@ public interface ServiceBD extends Remote {
      */
     String getTablesAvecStatut(int restaurantId, String dateReservation, int creneauId) throws RemoteException;
 
+    /**
+     * Récupère la matrice de disponibilité d'un restaurant sur une période :
+     * pour chaque date et chaque créneau actif, l'état de chaque table.
+     *
+     * Chaque cellule de la matrice est une chaîne d'un caractère par table,
+     * dans l'ordre de la liste "tables" : '0' pour libre, '1' pour occupée.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateDebut la première date au format yyyy-MM-dd (incluse)
+     * @param dateFin la dernière date au format yyyy-MM-dd (incluse)
+     * @return un JSON contenant les tables, les créneaux, les dates et la matrice
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    String getDisponibilites(int restaurantId, String dateDebut, String dateFin) throws RemoteException;
+
     /**
      * Effectue une réservation de table pour un créneau spécifique.
      * Vérifie la disponibilité avant de créer la réservation.
@@ -78,6 +93,20 @@ public interface ServiceBD extends Remote {
      */
     String reserverTable(String jsonReservation) throws RemoteException;
 
+    /**
+     * Effectue un lot de réservations en une seule transaction.
+     *
+     * Format attendu : {"mode": "tout-ou-rien" | "au-mieux", "reservations": [...]},
+     * chaque élément ayant le format accepté par {@link #reserverTable(String)}.
+     * En mode "tout-ou-rien" (par défaut), un seul échec annule tout le lot ;
+     * en mode "au-mieux", les réservations valides sont enregistrées malgré les échecs.
+     *
+     * @param jsonLot un JSON contenant le mode et la liste des réservations
+     * @return un JSON contenant le résultat de chaque réservation du lot
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    String reserverTables(String jsonLot) throws RemoteException;
+
     /**
      * Vérifie la disponibilité d'une table pour un créneau et une date donnés.
      * Permet de valider une réservation avant de la confirmer.
@@ -112,6 +141,23 @@ public interface ServiceBD extends Remote {
      */
     String annulerReservation(int reservationId) throws RemoteException;
 
+    /**
+     * Invalide le cache des données de référence (restaurants, créneaux, tables).
+     * À appeler après une modification de ces données en base : la lecture suivante les recharge.
+     *
+     * @return un JSON confirmant l'invalidation
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    String invaliderReferentiel() throws RemoteException;
+
+    /**
+     * Récupère les statistiques de fonctionnement du service de base de données.
+     * Inclut notamment l'état du pool de connexions et les temps d'attente d'emprunt.
+     *
+     * @return un JSON contenant les statistiques du service
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    String getStatistiques() throws RemoteException;
 
     /**
      * Test de connectivité du service de base de données.
@@ -0,0 +1,334 @@
+package interfaces;
+
+import model.AnalyseOccupation;
+import model.Changement;
+import model.Creneau;
+import model.DemandeAttente;
+import model.MatriceDisponibilites;
+import model.OccupationCreneau;
+import model.OptionTable;
+import model.PageReservations;
+import model.PartitionBD;
+import model.Reservation;
+import model.Restaurant;
+import model.ResultatLot;
+import model.ResultatReservation;
+import model.TableResto;
+
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * Interface RMI typée du service de base de données.
+ *
+ * Elle expose les mêmes opérations que {@link ServiceBD}, mais elle renvoie
+ * les objets du modèle au lieu de chaînes JSON. Le JSON n'est alors produit
+ * qu'une fois, par le service central, au moment de répondre au client HTTP.
+ *
+ * Conventions d'erreur :
+ * - IllegalArgumentException : données invalides (date mal formée, réservation incomplète...)
+ * - IllegalStateException : erreur d'accès à la base de données
+ */
+public interface ServiceBDTypee extends ServiceBD {
+
+    /**
+     * Récupère la liste de tous les restaurants.
+     *
+     * @return les restaurants triés par nom
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    List<Restaurant> listerRestaurants() throws RemoteException;
+
+    /**
+     * Récupère la liste des créneaux horaires actifs.
+     *
+     * @return les créneaux actifs triés par ordre d'affichage
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    List<Creneau> listerCreneaux() throws RemoteException;
+
+    /**
+     * Récupère un créneau par son identifiant, actif ou non.
+     *
+     * @param creneauId l'identifiant du créneau
+     * @return le créneau, ou null s'il n'existe pas
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    Creneau trouverCreneau(int creneauId) throws RemoteException;
+
+    /**
+     * Récupère les tables libres d'un restaurant pour une date et un créneau.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateReservation la date au format yyyy-MM-dd
+     * @param creneauId l'identifiant du créneau
+     * @return les tables libres triées par numéro
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    List<TableResto> listerTablesLibres(int restaurantId, String dateReservation, int creneauId) throws RemoteException;
+
+    /**
+     * Récupère une table par son identifiant.
+     *
+     * @param tableId l'identifiant de la table
+     * @return la table, ou null si elle n'existe pas
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    TableResto trouverTable(int tableId) throws RemoteException;
+
+    /**
+     * Récupère toutes les tables d'un restaurant avec leur statut pour une date et un créneau.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateReservation la date au format yyyy-MM-dd
+     * @param creneauId l'identifiant du créneau
+     * @return les tables triées par numéro, avec le statut "libre" ou "occupee"
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    List<TableResto> listerTablesAvecStatut(int restaurantId, String dateReservation, int creneauId) throws RemoteException;
+
+    /**
+     * Calcule la matrice de disponibilité d'un restaurant sur une période.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateDebut la première date au format yyyy-MM-dd (incluse)
+     * @param dateFin la dernière date au format yyyy-MM-dd (incluse)
+     * @return la matrice dates × créneaux × tables
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    MatriceDisponibilites calculerDisponibilites(int restaurantId, String dateDebut, String dateFin) throws RemoteException;
+
+    /**
+     * Indique si une table est libre pour une date et un créneau.
+     *
+     * @param tableId l'identifiant de la table
+     * @param dateReservation la date au format yyyy-MM-dd
+     * @param creneauId l'identifiant du créneau
+     * @return true si la table est libre
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    boolean estDisponible(int tableId, String dateReservation, int creneauId) throws RemoteException;
+
+    /**
+     * Effectue une réservation.
+     *
+     * @param reservation la réservation à enregistrer
+     * @return le résultat, avec la réservation et son identifiant en cas de succès
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    ResultatReservation reserver(Reservation reservation) throws RemoteException;
+
+    /**
+     * Effectue un lot de réservations en une seule transaction.
+     *
+     * @param reservations les réservations à enregistrer
+     * @param toutOuRien true pour annuler tout le lot au premier échec
+     * @return le résultat de chaque réservation du lot
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    ResultatLot reserverLot(List<Reservation> reservations, boolean toutOuRien) throws RemoteException;
+
+    /**
+     * Réserve pour un groupe la plus petite table libre qui peut l'accueillir.
+     * Le choix de la table et la réservation se font en un seul appel, côté service BD.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateReservation la date au format yyyy-MM-dd
+     * @param creneauId l'identifiant du créneau
+     * @param nbConvives le nombre de convives
+     * @param nomClient le nom du client
+     * @param prenomClient le prénom du client
+     * @param telephone le téléphone du client
+     * @return le résultat, avec la réservation et sa table en cas de succès
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    ResultatReservation reserverMeilleureTable(int restaurantId, String dateReservation, int creneauId,
+                                               int nbConvives, String nomClient, String prenomClient,
+                                               String telephone) throws RemoteException;
+
+    /**
+     * Récupère les réservations confirmées d'un restaurant pour une date.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateReservation la date au format yyyy-MM-dd
+     * @return les réservations avec leur table et leur créneau
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    List<Reservation> listerReservations(int restaurantId, String dateReservation) throws RemoteException;
+
+    /**
+     * Parcourt l'historique des réservations d'un restaurant sur une période,
+     * de la plus récente à la plus ancienne, quel que soit leur statut.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateDebut première date de la période, au format yyyy-MM-dd
+     * @param dateFin dernière date de la période, au format yyyy-MM-dd
+     * @param curseur curseur renvoyé par la page précédente, ou null pour la première page
+     * @param taille nombre maximal de réservations de la page
+     * @return la page de réservations, avec leur table et leur créneau
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    PageReservations listerHistorique(int restaurantId, String dateDebut, String dateFin,
+                                      String curseur, int taille) throws RemoteException;
+
+    /**
+     * Parcourt les réservations archivées d'un restaurant sur une période,
+     * de la plus récente à la plus ancienne, quel que soit leur statut.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateDebut première date de la période, au format yyyy-MM-dd
+     * @param dateFin dernière date de la période, au format yyyy-MM-dd
+     * @param curseur curseur renvoyé par la page précédente, ou null pour la première page
+     * @param taille nombre maximal de réservations de la page
+     * @return la page de réservations archivées
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    PageReservations listerArchives(int restaurantId, String dateDebut, String dateFin,
+                                    String curseur, int taille) throws RemoteException;
+
+    /**
+     * Analyse l'occupation sur une période : tables et couverts réservés, et capacité
+     * offerte, par restaurant, par créneau et par jour de la semaine.
+     *
+     * @param restaurantId l'identifiant du restaurant, ou 0 pour tous les restaurants de la partition
+     * @param dateDebut première date de la période, au format yyyy-MM-dd
+     * @param dateFin dernière date de la période, au format yyyy-MM-dd
+     * @return l'analyse de la période
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    AnalyseOccupation analyserOccupation(int restaurantId, String dateDebut, String dateFin)
+            throws RemoteException;
+
+    /**
+     * Parcourt les réservations d'un client, retrouvé par son numéro de téléphone,
+     * de la plus récente à la plus ancienne, quel que soit leur statut.
+     *
+     * @param telephone le numéro de téléphone donné à la réservation
+     * @param curseur curseur renvoyé par la page précédente, ou null pour la première page
+     * @param taille nombre maximal de réservations de la page
+     * @return la page de réservations, avec leur table et leur créneau
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    PageReservations listerReservationsClient(String telephone, String curseur, int taille) throws RemoteException;
+
+    /**
+     * Donne l'occupation d'un restaurant pour une date, créneau par créneau :
+     * tables et couverts réservés, et capacité du restaurant. La réponse est lue
+     * dans des compteurs en mémoire, sans parcourir les réservations.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateReservation la date au format yyyy-MM-dd
+     * @return l'occupation de chaque créneau actif, par ordre d'affichage
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    List<OccupationCreneau> getOccupation(int restaurantId, String dateReservation) throws RemoteException;
+
+    /**
+     * Annule une réservation confirmée.
+     *
+     * @param reservationId l'identifiant de la réservation
+     * @return le résultat, avec la réservation annulée en cas de succès
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    ResultatReservation annuler(int reservationId) throws RemoteException;
+
+    /**
+     * Met une table en option pour une date et un créneau, le temps que le client
+     * termine sa réservation. Tant que l'option court, la table est présentée comme
+     * occupée et les autres réservations de cette table sur ce créneau sont refusées.
+     * Sans confirmation, l'option expire d'elle-même.
+     *
+     * @param tableId l'identifiant de la table
+     * @param dateReservation la date au format yyyy-MM-dd
+     * @param creneauId l'identifiant du créneau
+     * @param dureeSecondes la durée de l'option, 0 pour la durée par défaut
+     * @return l'option posée, ou null si la table est déjà réservée ou en option
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    OptionTable poserOption(int tableId, String dateReservation, int creneauId, int dureeSecondes)
+            throws RemoteException;
+
+    /**
+     * Confirme une option en enregistrant la réservation de la table. La réservation
+     * doit porter sur la table, la date et le créneau de l'option, et l'option doit
+     * encore courir.
+     *
+     * @param optionId l'identifiant de l'option
+     * @param reservation la réservation à enregistrer
+     * @return le résultat de la réservation
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    ResultatReservation confirmerOption(String optionId, Reservation reservation) throws RemoteException;
+
+    /**
+     * Lève une option avant son expiration, ce qui libère la table.
+     *
+     * @param optionId l'identifiant de l'option
+     * @return true si l'option courait encore
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    boolean leverOption(String optionId) throws RemoteException;
+
+    /**
+     * Inscrit un groupe en liste d'attente d'un créneau complet. Quand une annulation
+     * libère une table assez grande sur ce créneau, la demande est promue : sa
+     * réservation est enregistrée sans autre démarche du client.
+     *
+     * @param demande la demande à inscrire
+     * @return la demande inscrite, avec son identifiant et sa position, ou null si la liste est pleine
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    DemandeAttente inscrireAttente(DemandeAttente demande) throws RemoteException;
+
+    /**
+     * Consulte une demande de la liste d'attente : sa position si elle attend
+     * encore, la réservation obtenue si elle a été promue.
+     *
+     * @param attenteId l'identifiant de la demande
+     * @return la demande, ou null si elle n'existe pas
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    DemandeAttente consulterAttente(int attenteId) throws RemoteException;
+
+    /**
+     * Retire une demande de la liste d'attente.
+     *
+     * @param attenteId l'identifiant de la demande
+     * @return true si la demande attendait encore
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    boolean quitterAttente(int attenteId) throws RemoteException;
+
+    /**
+     * Abonne un écouteur au flux de changements de cette instance.
+     *
+     * Les changements dont la séquence suit {@code derniereSequence} et qui sont
+     * encore retenus lui sont renvoyés, puis les suivants au fil de l'eau. S'ils ne
+     * sont plus retenus, l'écouteur reçoit d'abord un changement de type
+     * {@link Changement.Type#RESYNCHRONISATION}.
+     *
+     * @param ecouteur l'écouteur à rappeler
+     * @param derniereSequence la dernière séquence déjà reçue, -1 pour ne recevoir que les suivantes
+     * @return la séquence du dernier changement publié par l'instance
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    long abonner(EcouteurChangements ecouteur, long derniereSequence) throws RemoteException;
+
+    /**
+     * Désabonne un écouteur du flux de changements.
+     *
+     * @param ecouteur l'écouteur à retirer
+     * @return true si l'écouteur était abonné
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    boolean desabonner(EcouteurChangements ecouteur) throws RemoteException;
+
+    /**
+     * Décrit la partition servie par cette instance : les restaurants dont elle
+     * a les données et la suite d'identifiants de réservation qu'elle attribue.
+     *
+     * @return la partition de l'instance
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    PartitionBD getPartition() throws RemoteException;
+}
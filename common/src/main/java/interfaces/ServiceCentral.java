@@ -18,6 +18,10 @@ public interface ServiceCentral extends Remote {
      * Le service BD doit être accessible via RMI et répondre au ping
      * pour que l'enregistrement soit accepté.
      *
+     * Plusieurs services BD peuvent être inscrits : chacun annonce sa partition,
+     * qui ne doit pas recouvrir celle d'une autre instance. Une instance qui se
+     * réinscrit sous le même nom de partition remplace la précédente.
+     *
      * @param serviceBD l'instance du service de base de données à enregistrer
      * @return true si l'enregistrement a réussi, false sinon
      * @throws RemoteException en cas d'erreur de communication RMI
@@ -46,6 +50,35 @@ public interface ServiceCentral extends Remote {
      */
     boolean supprimerService(String serviceType) throws RemoteException;
 
+    /**
+     * Désinscrit une seule partition du service BD, les autres restant en service.
+     *
+     * @param nomPartition le nom de la partition à retirer
+     * @return true si la partition était inscrite
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    boolean supprimerServiceBD(String nomPartition) throws RemoteException;
+
+    /**
+     * Désinscrit un réplica en lecture seule du service BD, sa partition restant en service.
+     *
+     * @param replica l'instance du réplica à retirer
+     * @return true si le réplica était inscrit
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    boolean supprimerReplicaBD(ServiceBD replica) throws RemoteException;
+
+    /**
+     * Invalide le cache des données de référence de toutes les instances du service BD,
+     * partitions et réplicas, après une modification des restaurants ou des tables en
+     * base. Les partitions publient l'invalidation dans leur flux de changements, ce
+     * qui vide aussi le cache de réponses du service central.
+     *
+     * @return le nombre d'instances invalidées
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    int invaliderReferentiel() throws RemoteException;
+
     /**
      * Retourne l'état de tous les services enregistrés.
      * Effectue un test de connectivité en temps réel sur chaque service
@@ -0,0 +1,106 @@
+package model;
+
+import java.io.Serializable;
+
+/**
+ * Occupation cumulée sur une période pour une valeur d'un axe d'analyse
+ * (un restaurant, un créneau ou un jour de la semaine) : tables et couverts
+ * réservés, et tables et places offertes sur les mêmes créneaux.
+ */
+public class AgregatOccupation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int cle;
+    private final long tablesReservees;
+    private final long couvertsReserves;
+    private final long tablesOffertes;
+    private final long placesOffertes;
+
+    /**
+     * Constructeur.
+     *
+     * @param cle valeur de l'axe : identifiant du restaurant ou du créneau, ou jour de la semaine (1 = lundi)
+     * @param tablesReservees nombre de tables réservées
+     * @param couvertsReserves nombre de convives des réservations
+     * @param tablesOffertes nombre de tables offertes, une par table et par créneau de chaque date
+     * @param placesOffertes nombre de places offertes
+     */
+    public AgregatOccupation(int cle, long tablesReservees, long couvertsReserves,
+                             long tablesOffertes, long placesOffertes) {
+        this.cle = cle;
+        this.tablesReservees = tablesReservees;
+        this.couvertsReserves = couvertsReserves;
+        this.tablesOffertes = tablesOffertes;
+        this.placesOffertes = placesOffertes;
+    }
+
+    /**
+     * Cumule deux agrégats de la même valeur d'axe.
+     *
+     * @param autre l'agrégat à ajouter
+     * @return l'agrégat cumulé
+     */
+    public AgregatOccupation ajouter(AgregatOccupation autre) {
+        return new AgregatOccupation(cle, tablesReservees + autre.tablesReservees,
+                couvertsReserves + autre.couvertsReserves, tablesOffertes + autre.tablesOffertes,
+                placesOffertes + autre.placesOffertes);
+    }
+
+    /**
+     * @return la valeur de l'axe
+     */
+    public int getCle() {
+        return cle;
+    }
+
+    /**
+     * @return le nombre de tables réservées
+     */
+    public long getTablesReservees() {
+        return tablesReservees;
+    }
+
+    /**
+     * @return le nombre de convives des réservations
+     */
+    public long getCouvertsReserves() {
+        return couvertsReserves;
+    }
+
+    /**
+     * @return le nombre de tables offertes
+     */
+    public long getTablesOffertes() {
+        return tablesOffertes;
+    }
+
+    /**
+     * @return le nombre de places offertes
+     */
+    public long getPlacesOffertes() {
+        return placesOffertes;
+    }
+
+    /**
+     * @return la part des tables offertes qui sont réservées, de 0 à 1
+     */
+    public double getTauxOccupation() {
+        return tablesOffertes == 0 ? 0.0 : (double) tablesReservees / tablesOffertes;
+    }
+
+    /**
+     * @return la part des places offertes qui sont occupées, de 0 à 1
+     */
+    public double getTauxRemplissage() {
+        return placesOffertes == 0 ? 0.0 : (double) couvertsReserves / placesOffertes;
+    }
+
+    @Override
+    public String toString() {
+        return "AgregatOccupation{" +
+                "cle=" + cle +
+                ", tables=" + tablesReservees + "/" + tablesOffertes +
+                ", couverts=" + couvertsReserves + "/" + placesOffertes +
+                '}';
+    }
+}
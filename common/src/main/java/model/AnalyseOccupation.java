@@ -0,0 +1,101 @@
+package model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Analyse de l'occupation sur une période, selon trois axes : par restaurant,
+ * par créneau et par jour de la semaine. Chaque axe est une liste d'agrégats
+ * triée par valeur d'axe.
+ *
+ * Les agrégats gardent les comptes et non les taux : les analyses de plusieurs
+ * partitions du service BD se cumulent par {@link #fusionner(AnalyseOccupation)}.
+ */
+public class AnalyseOccupation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int jourDebut;
+    private final int jourFin;
+    private final List<AgregatOccupation> parRestaurant;
+    private final List<AgregatOccupation> parCreneau;
+    private final List<AgregatOccupation> parJourSemaine;
+
+    /**
+     * Constructeur.
+     *
+     * @param jourDebut premier jour de la période (voir CodecDate)
+     * @param jourFin dernier jour de la période
+     * @param parRestaurant agrégats par restaurant, triés par identifiant
+     * @param parCreneau agrégats par créneau, triés par identifiant
+     * @param parJourSemaine agrégats par jour de la semaine, de 1 (lundi) à 7 (dimanche)
+     */
+    public AnalyseOccupation(int jourDebut, int jourFin, List<AgregatOccupation> parRestaurant,
+                             List<AgregatOccupation> parCreneau, List<AgregatOccupation> parJourSemaine) {
+        this.jourDebut = jourDebut;
+        this.jourFin = jourFin;
+        this.parRestaurant = parRestaurant;
+        this.parCreneau = parCreneau;
+        this.parJourSemaine = parJourSemaine;
+    }
+
+    /**
+     * Cumule l'analyse d'une autre partition sur la même période.
+     *
+     * @param autre l'analyse à cumuler
+     * @return l'analyse cumulée
+     */
+    public AnalyseOccupation fusionner(AnalyseOccupation autre) {
+        return new AnalyseOccupation(jourDebut, jourFin,
+                fusionner(parRestaurant, autre.parRestaurant),
+                fusionner(parCreneau, autre.parCreneau),
+                fusionner(parJourSemaine, autre.parJourSemaine));
+    }
+
+    /**
+     * @return le premier jour de la période (voir CodecDate)
+     */
+    public int getJourDebut() {
+        return jourDebut;
+    }
+
+    /**
+     * @return le dernier jour de la période
+     */
+    public int getJourFin() {
+        return jourFin;
+    }
+
+    /**
+     * @return les agrégats par restaurant
+     */
+    public List<AgregatOccupation> getParRestaurant() {
+        return parRestaurant;
+    }
+
+    /**
+     * @return les agrégats par créneau
+     */
+    public List<AgregatOccupation> getParCreneau() {
+        return parCreneau;
+    }
+
+    /**
+     * @return les agrégats par jour de la semaine
+     */
+    public List<AgregatOccupation> getParJourSemaine() {
+        return parJourSemaine;
+    }
+
+    private static List<AgregatOccupation> fusionner(List<AgregatOccupation> a, List<AgregatOccupation> b) {
+        TreeMap<Integer, AgregatOccupation> parCle = new TreeMap<>();
+        for (AgregatOccupation agregat : a) {
+            parCle.merge(agregat.getCle(), agregat, AgregatOccupation::ajouter);
+        }
+        for (AgregatOccupation agregat : b) {
+            parCle.merge(agregat.getCle(), agregat, AgregatOccupation::ajouter);
+        }
+        return new ArrayList<>(parCle.values());
+    }
+}
@@ -0,0 +1,119 @@
+package model;
+
+import java.io.Serializable;
+
+/**
+ * Changement des données du service BD, diffusé aux abonnés du flux de changements.
+ *
+ * Un changement désigne ce qui a changé (un créneau d'un restaurant à une date,
+ * ou tout le référentiel), pas les nouvelles valeurs : l'abonné invalide ce qu'il
+ * a gardé en cache et relit au besoin. Les changements de même type sur le même
+ * créneau sont regroupés en un seul avant l'envoi ; {@link #getNombre()} indique
+ * combien d'opérations il représente.
+ */
+public class Changement implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Type de changement.
+     */
+    public enum Type {
+        /** Réservation enregistrée sur un créneau. */
+        RESERVATION,
+        /** Réservation annulée sur un créneau. */
+        ANNULATION,
+        /** Table mise en option sur un créneau, ou option levée ou expirée. */
+        OPTION,
+        /** Restaurants, créneaux ou tables modifiés. */
+        REFERENTIEL,
+        /** Changements perdus pour l'abonné : tout ce qui vient du service doit être invalidé. */
+        RESYNCHRONISATION
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final int restaurantId;
+    private final int jour;
+    private final int creneauId;
+    private final int nombre;
+
+    /**
+     * Constructeur.
+     *
+     * @param sequence numéro de séquence du changement, croissant pour une instance du service BD
+     * @param type type de changement
+     * @param restaurantId identifiant du restaurant, 0 pour un changement global
+     * @param jour jour de réservation (voir CodecDate), 0 pour un changement global
+     * @param creneauId identifiant du créneau, 0 pour un changement global
+     * @param nombre nombre d'opérations regroupées dans ce changement
+     */
+    public Changement(long sequence, Type type, int restaurantId, int jour, int creneauId, int nombre) {
+        this.sequence = sequence;
+        this.type = type;
+        this.restaurantId = restaurantId;
+        this.jour = jour;
+        this.creneauId = creneauId;
+        this.nombre = nombre;
+    }
+
+    /**
+     * @return le numéro de séquence du changement (le plus grand des opérations regroupées)
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return le type de changement
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return l'identifiant du restaurant, 0 pour un changement global
+     */
+    public int getRestaurantId() {
+        return restaurantId;
+    }
+
+    /**
+     * @return le jour de réservation (voir CodecDate), 0 pour un changement global
+     */
+    public int getJour() {
+        return jour;
+    }
+
+    /**
+     * @return l'identifiant du créneau, 0 pour un changement global
+     */
+    public int getCreneauId() {
+        return creneauId;
+    }
+
+    /**
+     * @return le nombre d'opérations regroupées dans ce changement
+     */
+    public int getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return true si le changement porte sur tout le service et non sur un créneau
+     */
+    public boolean isGlobal() {
+        return type == Type.REFERENTIEL || type == Type.RESYNCHRONISATION;
+    }
+
+    @Override
+    public String toString() {
+        return "Changement{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", restaurantId=" + restaurantId +
+                ", jour=" + jour +
+                ", creneauId=" + creneauId +
+                ", nombre=" + nombre +
+                '}';
+    }
+}
@@ -0,0 +1,185 @@
+package model;
+
+import java.io.Serializable;
+
+/**
+ * Demande d'un groupe inscrit en liste d'attente sur un créneau complet d'un restaurant.
+ *
+ * La demande reste "en_attente" jusqu'à ce qu'une annulation libère une table
+ * assez grande : elle est alors "promue" en réservation. Le client peut aussi
+ * la retirer ("retiree").
+ */
+public class DemandeAttente implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Statut d'une demande qui attend une table. */
+    public static final String EN_ATTENTE = "en_attente";
+    /** Statut d'une demande transformée en réservation. */
+    public static final String PROMUE = "promue";
+    /** Statut d'une demande retirée par le client. */
+    public static final String RETIREE = "retiree";
+
+    private int id;
+    private final int restaurantId;
+    private final int jour;
+    private final int creneauId;
+    private final String nomClient;
+    private final String prenomClient;
+    private final String telephone;
+    private final int nbConvives;
+    private String statut;
+    private int reservationId;
+    private int position;
+
+    /**
+     * Constructeur d'une demande en attente, sans identifiant.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param nomClient nom du client
+     * @param prenomClient prénom du client
+     * @param telephone téléphone du client
+     * @param nbConvives nombre de convives
+     */
+    public DemandeAttente(int restaurantId, int jour, int creneauId, String nomClient, String prenomClient,
+                          String telephone, int nbConvives) {
+        this.restaurantId = restaurantId;
+        this.jour = jour;
+        this.creneauId = creneauId;
+        this.nomClient = nomClient;
+        this.prenomClient = prenomClient;
+        this.telephone = telephone;
+        this.nbConvives = nbConvives;
+        this.statut = EN_ATTENTE;
+    }
+
+    /**
+     * @return true si tous les champs obligatoires sont renseignés
+     */
+    public boolean isValide() {
+        return restaurantId > 0
+                && creneauId > 0
+                && nomClient != null && !nomClient.trim().isEmpty()
+                && prenomClient != null && !prenomClient.trim().isEmpty()
+                && telephone != null && !telephone.trim().isEmpty()
+                && nbConvives > 0;
+    }
+
+    /**
+     * @return l'identifiant de la demande, 0 avant son inscription
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @param id l'identifiant attribué à l'inscription
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return l'identifiant du restaurant
+     */
+    public int getRestaurantId() {
+        return restaurantId;
+    }
+
+    /**
+     * @return le jour de réservation (voir CodecDate)
+     */
+    public int getJour() {
+        return jour;
+    }
+
+    /**
+     * @return l'identifiant du créneau
+     */
+    public int getCreneauId() {
+        return creneauId;
+    }
+
+    /**
+     * @return le nom du client
+     */
+    public String getNomClient() {
+        return nomClient;
+    }
+
+    /**
+     * @return le prénom du client
+     */
+    public String getPrenomClient() {
+        return prenomClient;
+    }
+
+    /**
+     * @return le téléphone du client
+     */
+    public String getTelephone() {
+        return telephone;
+    }
+
+    /**
+     * @return le nombre de convives
+     */
+    public int getNbConvives() {
+        return nbConvives;
+    }
+
+    /**
+     * @return le statut de la demande ("en_attente", "promue" ou "retiree")
+     */
+    public String getStatut() {
+        return statut;
+    }
+
+    /**
+     * @param statut le nouveau statut de la demande
+     */
+    public void setStatut(String statut) {
+        this.statut = statut;
+    }
+
+    /**
+     * @return l'identifiant de la réservation d'une demande promue, 0 sinon
+     */
+    public int getReservationId() {
+        return reservationId;
+    }
+
+    /**
+     * @param reservationId l'identifiant de la réservation obtenue par promotion
+     */
+    public void setReservationId(int reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    /**
+     * @return le rang de la demande dans la file du créneau (à partir de 1), 0 si elle n'attend plus
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @param position le rang de la demande dans la file du créneau
+     */
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    @Override
+    public String toString() {
+        return "DemandeAttente{" +
+                "id=" + id +
+                ", restaurantId=" + restaurantId +
+                ", jour=" + jour +
+                ", creneauId=" + creneauId +
+                ", nbConvives=" + nbConvives +
+                ", statut='" + statut + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Matrice de disponibilité d'un restaurant sur une période.
+ *
+ * cellules[date][créneau] est une chaîne d'un caractère par table, dans l'ordre
+ * de la liste des tables : '0' pour une table libre, '1' pour une table occupée.
+ */
+public class MatriceDisponibilites implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int restaurantId;
+    private final List<TableResto> tables;
+    private final List<Creneau> creneaux;
+    private final List<String> dates;
+    private final String[][] cellules;
+
+    /**
+     * Constructeur.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param tables les tables du restaurant, par numéro
+     * @param creneaux les créneaux actifs, par ordre d'affichage
+     * @param dates les dates de la période au format yyyy-MM-dd
+     * @param cellules l'état des tables pour chaque date et chaque créneau
+     */
+    public MatriceDisponibilites(int restaurantId, List<TableResto> tables, List<Creneau> creneaux,
+                                 List<String> dates, String[][] cellules) {
+        this.restaurantId = restaurantId;
+        this.tables = tables;
+        this.creneaux = creneaux;
+        this.dates = dates;
+        this.cellules = cellules;
+    }
+
+    /**
+     * @return l'identifiant du restaurant
+     */
+    public int getRestaurantId() {
+        return restaurantId;
+    }
+
+    /**
+     * @return les tables du restaurant, dans l'ordre des caractères des cellules
+     */
+    public List<TableResto> getTables() {
+        return tables;
+    }
+
+    /**
+     * @return les créneaux actifs, dans l'ordre des colonnes
+     */
+    public List<Creneau> getCreneaux() {
+        return creneaux;
+    }
+
+    /**
+     * @return les dates de la période, dans l'ordre des lignes
+     */
+    public List<String> getDates() {
+        return dates;
+    }
+
+    /**
+     * @return l'état des tables pour chaque date et chaque créneau
+     */
+    public String[][] getCellules() {
+        return cellules;
+    }
+}
@@ -0,0 +1,121 @@
+package model;
+
+import java.io.Serializable;
+
+/**
+ * Occupation d'un restaurant pour une date et un créneau : tables et couverts
+ * réservés, et capacité du restaurant.
+ */
+public class OccupationCreneau implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int restaurantId;
+    private final int jour;
+    private final int creneauId;
+    private final int tablesReservees;
+    private final int couvertsReserves;
+    private final int nbTables;
+    private final int nbPlaces;
+
+    /**
+     * Constructeur d'une occupation sans capacité, telle que comptée en base.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param tablesReservees nombre de tables réservées
+     * @param couvertsReserves nombre de convives des réservations
+     */
+    public OccupationCreneau(int restaurantId, int jour, int creneauId, int tablesReservees, int couvertsReserves) {
+        this(restaurantId, jour, creneauId, tablesReservees, couvertsReserves, 0, 0);
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param tablesReservees nombre de tables réservées
+     * @param couvertsReserves nombre de convives des réservations
+     * @param nbTables nombre de tables du restaurant
+     * @param nbPlaces nombre de places du restaurant
+     */
+    public OccupationCreneau(int restaurantId, int jour, int creneauId, int tablesReservees, int couvertsReserves,
+                             int nbTables, int nbPlaces) {
+        this.restaurantId = restaurantId;
+        this.jour = jour;
+        this.creneauId = creneauId;
+        this.tablesReservees = tablesReservees;
+        this.couvertsReserves = couvertsReserves;
+        this.nbTables = nbTables;
+        this.nbPlaces = nbPlaces;
+    }
+
+    /**
+     * @return l'identifiant du restaurant
+     */
+    public int getRestaurantId() {
+        return restaurantId;
+    }
+
+    /**
+     * @return le jour de réservation (voir CodecDate)
+     */
+    public int getJour() {
+        return jour;
+    }
+
+    /**
+     * @return l'identifiant du créneau
+     */
+    public int getCreneauId() {
+        return creneauId;
+    }
+
+    /**
+     * @return le nombre de tables réservées
+     */
+    public int getTablesReservees() {
+        return tablesReservees;
+    }
+
+    /**
+     * @return le nombre de convives des réservations
+     */
+    public int getCouvertsReserves() {
+        return couvertsReserves;
+    }
+
+    /**
+     * @return le nombre de tables du restaurant
+     */
+    public int getNbTables() {
+        return nbTables;
+    }
+
+    /**
+     * @return le nombre de places du restaurant
+     */
+    public int getNbPlaces() {
+        return nbPlaces;
+    }
+
+    /**
+     * @return la part des tables réservées, de 0 à 1
+     */
+    public double getTauxOccupation() {
+        return nbTables == 0 ? 0.0 : (double) tablesReservees / nbTables;
+    }
+
+    @Override
+    public String toString() {
+        return "OccupationCreneau{" +
+                "restaurantId=" + restaurantId +
+                ", jour=" + jour +
+                ", creneauId=" + creneauId +
+                ", tables=" + tablesReservees + "/" + nbTables +
+                ", couverts=" + couvertsReserves + "/" + nbPlaces +
+                '}';
+    }
+}
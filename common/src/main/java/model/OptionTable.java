@@ -0,0 +1,107 @@
+package model;
+
+import utils.CodecDate;
+
+import java.io.Serializable;
+
+/**
+ * Option de courte durée posée sur une table pour une date et un créneau :
+ * la table est retenue pour un client le temps qu'il confirme sa réservation.
+ */
+public class OptionTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final int tableId;
+    private final int restaurantId;
+    private final int jour;
+    private final int creneauId;
+    private final long expireLe;
+
+    /**
+     * Constructeur.
+     *
+     * @param id identifiant de l'option
+     * @param tableId identifiant de la table
+     * @param restaurantId identifiant du restaurant de la table
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param expireLe date d'expiration, en millisecondes depuis l'époque
+     */
+    public OptionTable(String id, int tableId, int restaurantId, int jour, int creneauId, long expireLe) {
+        this.id = id;
+        this.tableId = tableId;
+        this.restaurantId = restaurantId;
+        this.jour = jour;
+        this.creneauId = creneauId;
+        this.expireLe = expireLe;
+    }
+
+    /**
+     * @return l'identifiant de l'option
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return l'identifiant de la table
+     */
+    public int getTableId() {
+        return tableId;
+    }
+
+    /**
+     * @return l'identifiant du restaurant de la table
+     */
+    public int getRestaurantId() {
+        return restaurantId;
+    }
+
+    /**
+     * @return le jour de réservation (voir CodecDate)
+     */
+    public int getJour() {
+        return jour;
+    }
+
+    /**
+     * @return la date de réservation au format yyyy-MM-dd
+     */
+    public String getDateReservation() {
+        return CodecDate.formater(jour);
+    }
+
+    /**
+     * @return l'identifiant du créneau
+     */
+    public int getCreneauId() {
+        return creneauId;
+    }
+
+    /**
+     * @return la date d'expiration, en millisecondes depuis l'époque
+     */
+    public long getExpireLe() {
+        return expireLe;
+    }
+
+    /**
+     * @param maintenant l'instant courant, en millisecondes depuis l'époque
+     * @return true si l'option a expiré
+     */
+    public boolean estExpiree(long maintenant) {
+        return maintenant >= expireLe;
+    }
+
+    @Override
+    public String toString() {
+        return "OptionTable{" +
+                "id='" + id + '\'' +
+                ", tableId=" + tableId +
+                ", jour=" + jour +
+                ", creneauId=" + creneauId +
+                ", expireLe=" + expireLe +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package model;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Page d'une liste de réservations parcourue par clé (historique, recherche par client).
+ *
+ * Le curseur est opaque pour l'appelant : il suffit de le renvoyer tel quel
+ * pour obtenir la page suivante.
+ */
+public class PageReservations implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final byte VERSION_CURSEUR = 1;
+
+    private final List<Reservation> reservations;
+    private final String curseurSuivant;
+
+    /**
+     * Constructeur.
+     *
+     * @param reservations les réservations de la page
+     * @param curseurSuivant le curseur de la page suivante, ou null si c'est la dernière page
+     */
+    public PageReservations(List<Reservation> reservations, String curseurSuivant) {
+        this.reservations = reservations;
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    /**
+     * @return les réservations de la page, de la plus récente à la plus ancienne
+     */
+    public List<Reservation> getReservations() {
+        return reservations;
+    }
+
+    /**
+     * @return le curseur de la page suivante, ou null si c'est la dernière page
+     */
+    public String getCurseurSuivant() {
+        return curseurSuivant;
+    }
+
+    /**
+     * Encode la clé de page (jour, identifiant) de la dernière réservation renvoyée.
+     * Les identifiants de réservation étant uniques entre partitions, la même clé
+     * reprend le parcours sur chacune d'elles.
+     *
+     * @param derniere la dernière réservation de la page
+     * @return le curseur de la page suivante
+     */
+    public static String curseurApres(Reservation derniere) {
+        byte[] cle = ByteBuffer.allocate(9).put(VERSION_CURSEUR)
+                .putInt(derniere.getJourReservation()).putInt(derniere.getId()).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cle);
+    }
+
+    /**
+     * Décode un curseur produit par {@link #curseurApres(Reservation)}.
+     *
+     * @param curseur le curseur renvoyé par le client
+     * @return le jour (epoch day) et l'identifiant de la dernière réservation lue
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public static int[] lireCurseur(String curseur) {
+        try {
+            ByteBuffer cle = ByteBuffer.wrap(Base64.getUrlDecoder().decode(curseur));
+            if (cle.remaining() == 9 && cle.get() == VERSION_CURSEUR) {
+                return new int[] {cle.getInt(), cle.getInt()};
+            }
+        } catch (IllegalArgumentException e) {
+            // base64 invalide, signalé ci-dessous
+        }
+        throw new IllegalArgumentException("Curseur de pagination invalide");
+    }
+}
@@ -0,0 +1,191 @@
+package model;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+/**
+ * Description d'une partition du service BD, annoncée au service central à l'inscription.
+ *
+ * Les restaurants sont répartis sur un anneau de {@link #NB_SLOTS} positions :
+ * un restaurant occupe la position donnée par le hachage de son identifiant,
+ * et chaque partition annonce les positions dont elle a les données. Ajouter
+ * une partition ne déplace que les positions qu'elle reprend.
+ *
+ * Les identifiants de réservation d'une partition sont disjoints de ceux des
+ * autres : la partition numéro p sur n n'attribue que des identifiants i tels
+ * que (i - 1) mod n = p. Le service central retrouve ainsi la partition d'une
+ * réservation à partir de son seul identifiant.
+ *
+ * Une instance en lecture seule est un réplica d'une partition : elle porte le
+ * même nom et les mêmes positions, lit une base de secours et ne sert que les
+ * lectures.
+ */
+public class PartitionBD implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Nombre de positions de l'anneau. */
+    public static final int NB_SLOTS = 1024;
+
+    private final String nom;
+    private final int numero;
+    private final int nombrePartitions;
+    private final BitSet slots;
+    private final boolean lectureSeule;
+
+    /**
+     * Constructeur.
+     *
+     * @param nom nom de la partition, unique parmi les partitions inscrites
+     * @param numero numéro de la partition, de 0 à nombrePartitions - 1
+     * @param nombrePartitions nombre total de partitions
+     * @param slots positions de l'anneau possédées par la partition
+     */
+    public PartitionBD(String nom, int numero, int nombrePartitions, BitSet slots) {
+        this(nom, numero, nombrePartitions, slots, false);
+    }
+
+    /**
+     * Constructeur d'une partition ou d'un réplica.
+     *
+     * @param nom nom de la partition, unique parmi les partitions inscrites
+     * @param numero numéro de la partition, de 0 à nombrePartitions - 1
+     * @param nombrePartitions nombre total de partitions
+     * @param slots positions de l'anneau possédées par la partition
+     * @param lectureSeule true pour un réplica en lecture seule de la partition
+     */
+    public PartitionBD(String nom, int numero, int nombrePartitions, BitSet slots, boolean lectureSeule) {
+        if (nom == null || nom.isBlank()) {
+            throw new IllegalArgumentException("Nom de partition manquant");
+        }
+        if (nombrePartitions < 1 || numero < 0 || numero >= nombrePartitions) {
+            throw new IllegalArgumentException("Numéro de partition invalide : " + numero + " sur " + nombrePartitions);
+        }
+        if (slots.isEmpty() || slots.length() > NB_SLOTS) {
+            throw new IllegalArgumentException("Positions de partition invalides");
+        }
+        this.nom = nom;
+        this.numero = numero;
+        this.nombrePartitions = nombrePartitions;
+        this.slots = (BitSet) slots.clone();
+        this.lectureSeule = lectureSeule;
+    }
+
+    /**
+     * @return un réplica en lecture seule de cette partition
+     */
+    public PartitionBD enLectureSeule() {
+        return new PartitionBD(nom, numero, nombrePartitions, slots, true);
+    }
+
+    /**
+     * Construit une partition à partir de sa configuration.
+     *
+     * @param nom nom de la partition
+     * @param numero numéro de la partition
+     * @param nombrePartitions nombre total de partitions
+     * @param plages positions possédées, sous la forme "0-511,768-1023" ; vide pour tout l'anneau
+     * @return la partition
+     */
+    public static PartitionBD lire(String nom, int numero, int nombrePartitions, String plages) {
+        BitSet slots = new BitSet(NB_SLOTS);
+        if (plages == null || plages.isBlank()) {
+            slots.set(0, NB_SLOTS);
+            return new PartitionBD(nom, numero, nombrePartitions, slots);
+        }
+        for (String plage : plages.split(",")) {
+            String[] bornes = plage.trim().split("-");
+            try {
+                int debut = Integer.parseInt(bornes[0].trim());
+                int fin = bornes.length > 1 ? Integer.parseInt(bornes[1].trim()) : debut;
+                if (bornes.length > 2 || debut < 0 || fin < debut || fin >= NB_SLOTS) {
+                    throw new IllegalArgumentException("Plage de positions invalide : " + plage);
+                }
+                slots.set(debut, fin + 1);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Plage de positions invalide : " + plage);
+            }
+        }
+        return new PartitionBD(nom, numero, nombrePartitions, slots);
+    }
+
+    /**
+     * Position d'un restaurant sur l'anneau.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @return la position, de 0 à {@link #NB_SLOTS} - 1
+     */
+    public static int slot(int restaurantId) {
+        // Mélange de murmur3 : des identifiants consécutifs sont dispersés sur l'anneau
+        int h = restaurantId;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, NB_SLOTS);
+    }
+
+    /**
+     * Numéro de la partition qui a attribué un identifiant de réservation.
+     *
+     * @param reservationId identifiant de réservation
+     * @param nombrePartitions nombre total de partitions
+     * @return le numéro de la partition
+     */
+    public static int numeroPourReservation(int reservationId, int nombrePartitions) {
+        return Math.floorMod(reservationId - 1, nombrePartitions);
+    }
+
+    /**
+     * @param restaurantId identifiant du restaurant
+     * @return true si les données du restaurant sont dans cette partition
+     */
+    public boolean possede(int restaurantId) {
+        return slots.get(slot(restaurantId));
+    }
+
+    /**
+     * @return le nom de la partition
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * @return le numéro de la partition
+     */
+    public int getNumero() {
+        return numero;
+    }
+
+    /**
+     * @return le nombre total de partitions
+     */
+    public int getNombrePartitions() {
+        return nombrePartitions;
+    }
+
+    /**
+     * @return une copie des positions de l'anneau possédées par la partition
+     */
+    public BitSet getSlots() {
+        return (BitSet) slots.clone();
+    }
+
+    /**
+     * @return true si l'instance est un réplica en lecture seule
+     */
+    public boolean isLectureSeule() {
+        return lectureSeule;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionBD{" +
+                "nom='" + nom + '\'' +
+                ", numero=" + numero + "/" + nombrePartitions +
+                ", slots=" + slots.cardinality() +
+                (lectureSeule ? ", lecture seule" : "") +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import utils.CodecDate;
+
 import java.io.Serializable;
 import java.util.Date;
 
@@ -158,6 +160,15 @@ public class Reservation implements Serializable {
         this.dateReservation = dateReservation;
     }
 
+    /**
+     * Retourne le jour de la réservation, sans l'heure.
+     *
+     * @return le numéro de jour depuis le 1970-01-01 (voir {@link CodecDate})
+     */
+    public int getJourReservation() {
+        return CodecDate.jour(dateReservation);
+    }
+
     /**
      * Retourne le nom du client.
      *
@@ -382,13 +393,13 @@ public class Reservation implements Serializable {
 
     /**
      * Retourne la clé unique pour éviter les doublons.
-     * Basée sur table + créneau + date.
+     * Basée sur table + créneau + jour.
      *
      * @return la clé unique de la réservation
      */
     public String getCleUnique() {
         return tableId + "_" + creneauId + "_" +
-                (dateReservation != null ? dateReservation.getTime() : "null");
+                (dateReservation != null ? CodecDate.formater(getJourReservation()) : "null");
     }
 
     /**
@@ -0,0 +1,59 @@
+package model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Résultat d'un lot de réservations : un résultat par réservation, dans l'ordre du lot.
+ */
+public class ResultatLot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean toutOuRien;
+    private final List<ResultatReservation> resultats;
+
+    /**
+     * Constructeur.
+     *
+     * @param toutOuRien true si le lot a été traité en mode tout ou rien
+     * @param resultats le résultat de chaque réservation du lot
+     */
+    public ResultatLot(boolean toutOuRien, List<ResultatReservation> resultats) {
+        this.toutOuRien = toutOuRien;
+        this.resultats = resultats;
+    }
+
+    /**
+     * @return true si le lot a été traité en mode tout ou rien
+     */
+    public boolean isToutOuRien() {
+        return toutOuRien;
+    }
+
+    /**
+     * @return le résultat de chaque réservation, dans l'ordre du lot
+     */
+    public List<ResultatReservation> getResultats() {
+        return resultats;
+    }
+
+    /**
+     * @return le nombre de réservations enregistrées
+     */
+    public int getReussies() {
+        int reussies = 0;
+        for (ResultatReservation resultat : resultats) {
+            if (resultat.isSucces()) {
+                reussies++;
+            }
+        }
+        return reussies;
+    }
+
+    /**
+     * @return true si toutes les réservations du lot ont été enregistrées
+     */
+    public boolean isSucces() {
+        return getReussies() == resultats.size();
+    }
+}
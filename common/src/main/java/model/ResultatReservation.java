@@ -0,0 +1,87 @@
+package model;
+
+import java.io.Serializable;
+
+/**
+ * Résultat d'une opération sur une réservation (création ou annulation).
+ * Transporte soit la réservation concernée, soit le motif de l'échec.
+ */
+public class ResultatReservation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean succes;
+    private final int reservationId;
+    private final Reservation reservation;
+    private final String message;
+
+    /**
+     * Constructeur complet.
+     *
+     * @param succes true si l'opération a réussi
+     * @param reservationId l'identifiant de la réservation concernée (0 si inconnu)
+     * @param reservation la réservation concernée, ou null
+     * @param message le message décrivant le résultat
+     */
+    public ResultatReservation(boolean succes, int reservationId, Reservation reservation, String message) {
+        this.succes = succes;
+        this.reservationId = reservationId;
+        this.reservation = reservation;
+        this.message = message;
+    }
+
+    /**
+     * Crée le résultat d'une opération réussie.
+     *
+     * @param reservation la réservation créée ou modifiée
+     * @param message le message de confirmation
+     * @return le résultat
+     */
+    public static ResultatReservation succes(Reservation reservation, String message) {
+        return new ResultatReservation(true, reservation.getId(), reservation, message);
+    }
+
+    /**
+     * Crée le résultat d'une opération en échec.
+     *
+     * @param reservationId l'identifiant de la réservation concernée (0 si inconnu)
+     * @param message le motif de l'échec
+     * @return le résultat
+     */
+    public static ResultatReservation echec(int reservationId, String message) {
+        return new ResultatReservation(false, reservationId, null, message);
+    }
+
+    /**
+     * @return true si l'opération a réussi
+     */
+    public boolean isSucces() {
+        return succes;
+    }
+
+    /**
+     * @return l'identifiant de la réservation concernée (0 si inconnu)
+     */
+    public int getReservationId() {
+        return reservationId;
+    }
+
+    /**
+     * @return la réservation concernée, ou null en cas d'échec
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * @return le message de confirmation ou le motif de l'échec
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultatReservation{succes=" + succes + ", reservationId=" + reservationId +
+                ", message='" + message + "'}";
+    }
+}
@@ -0,0 +1,44 @@
+package utils;
+
+/**
+ * Clé long d'un créneau à une date, pour un restaurant ou une table.
+ *
+ * La clé combine les trois identifiants : l'identifiant du restaurant (ou de la
+ * table) sur les bits de poids fort, puis le jour (voir {@link CodecDate}) sur
+ * 24 bits, puis le créneau sur 16 bits. Elle sert d'index aux structures en
+ * mémoire du service BD, sans allouer d'objet clé à chaque lecture.
+ */
+public final class CleCreneau {
+
+    private static final int BITS_CRENEAU = 16;
+    private static final int BITS_JOUR = 24;
+    private static final long MASQUE_CRENEAU = (1L << BITS_CRENEAU) - 1;
+    private static final long MASQUE_JOUR = (1L << BITS_JOUR) - 1;
+
+    private CleCreneau() {
+    }
+
+    /**
+     * Construit la clé d'un créneau à une date.
+     *
+     * @param id identifiant du restaurant ou de la table
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @return la clé
+     */
+    public static long cle(int id, long jour, int creneauId) {
+        return ((long) id << (BITS_JOUR + BITS_CRENEAU))
+                | ((jour & MASQUE_JOUR) << BITS_CRENEAU)
+                | (creneauId & MASQUE_CRENEAU);
+    }
+
+    /**
+     * Extrait le jour d'une clé, pour purger les dates passées.
+     *
+     * @param cle clé construite par {@link #cle(int, long, int)}
+     * @return le jour de réservation (voir CodecDate)
+     */
+    public static long jour(long cle) {
+        return (cle >>> BITS_CRENEAU) & MASQUE_JOUR;
+    }
+}
@@ -0,0 +1,163 @@
+package utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Codec des dates de réservation au format yyyy-MM-dd.
+ *
+ * Une date est représentée par son numéro de jour depuis le 1970-01-01 (epoch day),
+ * comme {@link LocalDate#toEpochDay()}. La lecture se fait caractère par caractère,
+ * sans expression régulière ni allocation, et le codec est sans état : il peut
+ * être utilisé par plusieurs threads, contrairement à SimpleDateFormat.
+ */
+public final class CodecDate {
+
+    /** Valeur renvoyée par {@link #lire(CharSequence)} pour une date invalide. */
+    public static final int INVALIDE = Integer.MIN_VALUE;
+
+    private static final String MESSAGE_INVALIDE = "Date invalide. Format attendu: yyyy-MM-dd";
+
+    private CodecDate() {
+    }
+
+    /**
+     * Lit une date au format yyyy-MM-dd.
+     *
+     * @param texte le texte à lire (seuls les 10 premiers caractères sont lus s'il est plus long)
+     * @return le numéro de jour, ou {@link #INVALIDE} si le texte n'est pas une date valide
+     */
+    public static int lire(CharSequence texte) {
+        if (texte == null || texte.length() < 10 || texte.charAt(4) != '-' || texte.charAt(7) != '-') {
+            return INVALIDE;
+        }
+        int annee = chiffres(texte, 0, 4);
+        int mois = chiffres(texte, 5, 7);
+        int jour = chiffres(texte, 8, 10);
+        if (annee < 0 || mois < 1 || mois > 12 || jour < 1 || jour > joursDansMois(annee, mois)) {
+            return INVALIDE;
+        }
+        return versJour(annee, mois, jour);
+    }
+
+    /**
+     * Lit une date au format yyyy-MM-dd, exactement.
+     *
+     * @param texte le texte à lire
+     * @return le numéro de jour
+     * @throws IllegalArgumentException si le texte n'est pas une date valide
+     */
+    public static int parser(CharSequence texte) {
+        int jour = texte != null && texte.length() == 10 ? lire(texte) : INVALIDE;
+        if (jour == INVALIDE) {
+            throw new IllegalArgumentException(MESSAGE_INVALIDE);
+        }
+        return jour;
+    }
+
+    /**
+     * Indique si un texte est une date valide au format yyyy-MM-dd.
+     *
+     * @param texte le texte à vérifier
+     * @return true si la date est valide
+     */
+    public static boolean estValide(CharSequence texte) {
+        return texte != null && texte.length() == 10 && lire(texte) != INVALIDE;
+    }
+
+    /**
+     * Formate un numéro de jour au format yyyy-MM-dd.
+     *
+     * @param jour le numéro de jour
+     * @return la date formatée
+     */
+    public static String formater(int jour) {
+        // Conversion inverse de versJour (algorithme "civil from days" de H. Hinnant)
+        int z = jour + 719468;
+        int ere = Math.floorDiv(z, 146097);
+        int jourEre = z - ere * 146097;
+        int anneeEre = (jourEre - jourEre / 1460 + jourEre / 36524 - jourEre / 146096) / 365;
+        int jourAnnee = jourEre - (365 * anneeEre + anneeEre / 4 - anneeEre / 100);
+        int mp = (5 * jourAnnee + 2) / 153;
+        int j = jourAnnee - (153 * mp + 2) / 5 + 1;
+        int m = mp < 10 ? mp + 3 : mp - 9;
+        int a = anneeEre + ere * 400 + (m <= 2 ? 1 : 0);
+
+        char[] texte = new char[10];
+        texte[0] = (char) ('0' + a / 1000 % 10);
+        texte[1] = (char) ('0' + a / 100 % 10);
+        texte[2] = (char) ('0' + a / 10 % 10);
+        texte[3] = (char) ('0' + a % 10);
+        texte[4] = '-';
+        texte[5] = (char) ('0' + m / 10);
+        texte[6] = (char) ('0' + m % 10);
+        texte[7] = '-';
+        texte[8] = (char) ('0' + j / 10);
+        texte[9] = (char) ('0' + j % 10);
+        return new String(texte);
+    }
+
+    /**
+     * Convertit un numéro de jour en date SQL, à lier directement dans une requête.
+     *
+     * @param jour le numéro de jour
+     * @return la date SQL à minuit, heure locale
+     */
+    public static java.sql.Date versSql(int jour) {
+        return java.sql.Date.valueOf(LocalDate.ofEpochDay(jour));
+    }
+
+    /**
+     * Retourne le numéro de jour d'une date, dans le fuseau local.
+     *
+     * @param date la date (java.util.Date ou java.sql.Date)
+     * @return le numéro de jour
+     */
+    public static int jour(Date date) {
+        if (date instanceof java.sql.Date) {
+            return (int) ((java.sql.Date) date).toLocalDate().toEpochDay();
+        }
+        return (int) Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    private static int chiffres(CharSequence texte, int debut, int fin) {
+        int valeur = 0;
+        for (int i = debut; i < fin; i++) {
+            int chiffre = texte.charAt(i) - '0';
+            if (chiffre < 0 || chiffre > 9) {
+                return -1;
+            }
+            valeur = valeur * 10 + chiffre;
+        }
+        return valeur;
+    }
+
+    private static int joursDansMois(int annee, int mois) {
+        switch (mois) {
+            case 2:
+                boolean bissextile = (annee % 4 == 0 && annee % 100 != 0) || annee % 400 == 0;
+                return bissextile ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Numéro de jour d'une date valide (algorithme "days from civil" de H. Hinnant).
+     */
+    private static int versJour(int annee, int mois, int jour) {
+        int a = mois <= 2 ? annee - 1 : annee;
+        int ere = Math.floorDiv(a, 400);
+        int anneeEre = a - ere * 400;
+        int jourAnnee = (153 * (mois > 2 ? mois - 3 : mois + 9) + 2) / 5 + jour - 1;
+        int jourEre = anneeEre * 365 + anneeEre / 4 - anneeEre / 100 + jourAnnee;
+        return ere * 146097 + jourEre - 719468;
+    }
+}
@@ -59,12 +59,52 @@ public class Configurateur {
         props.setProperty("central.keystore.path", "nancy-keystore.jks");
         props.setProperty("central.keystore.password", "password123");
         props.setProperty("central.host", "localhost");
+        props.setProperty("central.lecture.coherence.ms", "5000");
+        props.setProperty("central.cache.reponses.max", "10000");
+        props.setProperty("central.idempotence.max", "10000");
+        props.setProperty("central.idempotence.ttl.secondes", "600");
 
         // Service BD
+        props.setProperty("bd.stockage", "oracle");
+        props.setProperty("bd.embarque.url", "jdbc:h2:mem:nancyspot;MODE=Oracle;DB_CLOSE_DELAY=-1");
+        props.setProperty("bd.embarque.script", "src/create_tables.sql");
         props.setProperty("bd.jdbc.url", "jdbc:oracle:thin:@charlemagne:1521:XE");
         props.setProperty("bd.jdbc.user", "user");
         props.setProperty("bd.jdbc.password", "password");
         props.setProperty("bd.rmi.port", "1099");
+        props.setProperty("bd.pool.taille.min", "2");
+        props.setProperty("bd.pool.taille.max", "10");
+        props.setProperty("bd.pool.attente.max.ms", "5000");
+        props.setProperty("bd.pool.fuite.seuil.ms", "30000");
+        props.setProperty("bd.pool.validation.timeout.s", "2");
+        props.setProperty("bd.pool.validation.inactivite.ms", "30000");
+        props.setProperty("bd.pool.cache.requetes", "32");
+        props.setProperty("bd.concurrence.max", "8");
+        props.setProperty("bd.concurrence.file.max", "200");
+        props.setProperty("bd.concurrence.attente.max.ms", "5000");
+        props.setProperty("bd.cache.ttl.secondes", "600");
+        props.setProperty("bd.flux.retention", "10000");
+        props.setProperty("bd.flux.intervalle.ms", "50");
+        props.setProperty("bd.option.duree.secondes", "300");
+        props.setProperty("bd.option.duree.max.secondes", "900");
+        props.setProperty("bd.attente.max.creneau", "50");
+        props.setProperty("bd.import.taille.lot", "500");
+        props.setProperty("bd.archivage.horizon.jours", "365");
+        props.setProperty("bd.archivage.annulees.jours", "30");
+        props.setProperty("bd.archivage.taille.lot", "500");
+        props.setProperty("bd.archivage.pause.ms", "200");
+        props.setProperty("bd.archivage.intervalle.minutes", "60");
+        props.setProperty("bd.analyse.cache.max", "256");
+        props.setProperty("bd.analyse.cache.ttl.secondes", "300");
+        props.setProperty("bd.journal.repertoire", "journal");
+        props.setProperty("bd.journal.segment.mo", "16");
+        props.setProperty("bd.journal.synchronisation.ms", "10");
+        props.setProperty("bd.journal.synchrone", "false");
+        props.setProperty("bd.partition.nom", "bd");
+        props.setProperty("bd.partition.numero", "0");
+        props.setProperty("bd.partition.nombre", "1");
+        props.setProperty("bd.partition.slots", "");
+        props.setProperty("bd.partition.lecture.seule", "false");
 
         // Service Proxy
         props.setProperty("proxy.use.iut.proxy", "false");
@@ -1,12 +1,16 @@
 package utils;
 
 import com.sun.net.httpserver.HttpExchange;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -103,6 +107,27 @@ public class HttpUtils {
         }
     }
 
+    /**
+     * Extrait les paramètres de la chaîne de requête d'une URL.
+     *
+     * @param rawQuery la chaîne de requête encodée (URI#getRawQuery), peut être null
+     * @return les paramètres décodés, par nom
+     */
+    public static Map<String, String> parseQueryParams(String rawQuery) {
+        Map<String, String> parametres = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parametres;
+        }
+        for (String paire : rawQuery.split("&")) {
+            int egal = paire.indexOf('=');
+            if (egal > 0) {
+                parametres.put(URLDecoder.decode(paire.substring(0, egal), StandardCharsets.UTF_8),
+                        URLDecoder.decode(paire.substring(egal + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametres;
+    }
+
     /**
      * Gère une requête GET de manière standardisée.
      * Vérifie la méthode HTTP, exécute le service demandé et retourne la réponse.
@@ -271,4 +296,168 @@ public class HttpUtils {
             return errorMessage;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Validateur des demandes de réservation sans table choisie.
+     * Vérifie la présence de tous les champs obligatoires, la table étant attribuée par le serveur.
+     */
+    public static class DemandeTableValidator implements JsonValidator {
+        private String errorMessage;
+
+        /**
+         * Valide une demande de réservation sans table.
+         * Vérifie la présence des champs : restaurantId, creneauId, dateReservation,
+         * nbConvives, nomClient, prenomClient, telephone.
+         *
+         * @param json le JSON de la demande à valider
+         * @return true si toutes les données obligatoires sont présentes
+         */
+        @Override
+        public boolean validate(String json) {
+            try {
+                JSONObject jsonRequest = new JSONObject(json);
+
+                if (!jsonRequest.has("restaurantId") || !jsonRequest.has("creneauId") ||
+                        !jsonRequest.has("dateReservation") || !jsonRequest.has("nbConvives") ||
+                        !jsonRequest.has("nomClient") || !jsonRequest.has("prenomClient") ||
+                        !jsonRequest.has("telephone")) {
+
+                    errorMessage = "Données manquantes. Champs requis : restaurantId, creneauId, dateReservation, nbConvives, nomClient, prenomClient, telephone";
+                    return false;
+                }
+
+                return true;
+            } catch (Exception e) {
+                errorMessage = "JSON invalide : " + e.getMessage();
+                return false;
+            }
+        }
+
+        /**
+         * Retourne le message d'erreur de validation.
+         *
+         * @return le message d'erreur ou null si aucune erreur
+         */
+        @Override
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
+    /**
+     * Validateur spécialisé pour les lots de réservations.
+     * Vérifie la structure du lot puis chaque réservation avec le {@link ReservationValidator}.
+     */
+    public static class ReservationLotValidator implements JsonValidator {
+        private String errorMessage;
+
+        /**
+         * Valide un lot de réservations.
+         * Vérifie la présence d'un tableau "reservations" non vide, la valeur
+         * éventuelle de "mode" et les champs obligatoires de chaque réservation.
+         *
+         * @param json le JSON du lot à valider
+         * @return true si le lot est bien formé
+         */
+        @Override
+        public boolean validate(String json) {
+            try {
+                JSONObject jsonRequest = new JSONObject(json);
+
+                JSONArray reservations = jsonRequest.optJSONArray("reservations");
+                if (reservations == null || reservations.isEmpty()) {
+                    errorMessage = "Données manquantes. Le lot doit contenir un tableau 'reservations' non vide";
+                    return false;
+                }
+
+                String mode = jsonRequest.optString("mode", "tout-ou-rien");
+                if (!"tout-ou-rien".equals(mode) && !"au-mieux".equals(mode)) {
+                    errorMessage = "Mode invalide. Valeurs possibles : tout-ou-rien, au-mieux";
+                    return false;
+                }
+
+                ReservationValidator validator = new ReservationValidator();
+                for (int i = 0; i < reservations.length(); i++) {
+                    Object reservation = reservations.get(i);
+                    if (!(reservation instanceof JSONObject) || !validator.validate(reservation.toString())) {
+                        errorMessage = "Réservation " + i + " invalide : "
+                                + (validator.getErrorMessage() != null ? validator.getErrorMessage() : "objet JSON attendu");
+                        return false;
+                    }
+                }
+
+                return true;
+            } catch (Exception e) {
+                errorMessage = "JSON invalide : " + e.getMessage();
+                return false;
+            }
+        }
+
+        /**
+         * Retourne le message d'erreur de validation.
+         *
+         * @return le message d'erreur ou null si aucune erreur
+         */
+        @Override
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
+    /**
+     * Validateur spécialisé pour la pose ou la levée d'une option sur une table.
+     */
+    public static class OptionValidator implements JsonValidator {
+        private final boolean levee;
+        private String errorMessage;
+
+        /**
+         * Constructeur du validateur.
+         *
+         * @param levee true pour valider une levée d'option, false pour une pose
+         */
+        public OptionValidator(boolean levee) {
+            this.levee = levee;
+        }
+
+        /**
+         * Valide une demande d'option.
+         * Vérifie la présence des champs : tableId, creneauId et dateReservation
+         * pour une pose, tableId et optionId pour une levée.
+         *
+         * @param json le JSON de la demande à valider
+         * @return true si toutes les données obligatoires sont présentes
+         */
+        @Override
+        public boolean validate(String json) {
+            try {
+                JSONObject jsonRequest = new JSONObject(json);
+
+                if (levee && (!jsonRequest.has("tableId") || !jsonRequest.has("optionId"))) {
+                    errorMessage = "Données manquantes. Champs requis : tableId, optionId";
+                    return false;
+                }
+                if (!levee && (!jsonRequest.has("tableId") || !jsonRequest.has("creneauId") ||
+                        !jsonRequest.has("dateReservation"))) {
+                    errorMessage = "Données manquantes. Champs requis : tableId, creneauId, dateReservation";
+                    return false;
+                }
+
+                return true;
+            } catch (Exception e) {
+                errorMessage = "JSON invalide : " + e.getMessage();
+                return false;
+            }
+        }
+
+        /**
+         * Retourne le message d'erreur de validation.
+         *
+         * @return le message d'erreur ou null si aucune erreur
+         */
+        @Override
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+}
@@ -0,0 +1,738 @@
+package utils;
+
+import model.AgregatOccupation;
+import model.AnalyseOccupation;
+import model.Creneau;
+import model.DemandeAttente;
+import model.MatriceDisponibilites;
+import model.OccupationCreneau;
+import model.OptionTable;
+import model.PageReservations;
+import model.Reservation;
+import model.Restaurant;
+import model.ResultatLot;
+import model.ResultatReservation;
+import model.TableResto;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Conversion entre les objets du modèle et leurs représentations JSON.
+ *
+ * Les formats produits sont ceux de l'API HTTP du service central. Le service BD
+ * s'en sert pour son interface JSON, et le service central pour rendre les
+ * réponses de l'interface typée. Le JSON n'est ainsi écrit qu'à un seul endroit.
+ */
+public final class JsonModele {
+
+    private JsonModele() {
+    }
+
+    /**
+     * Rend la liste des restaurants.
+     *
+     * @param restaurants les restaurants
+     * @param timestamp l'horodatage de la réponse
+     * @return la réponse JSON
+     */
+    public static String restaurants(List<Restaurant> restaurants, long timestamp) {
+        JSONArray jsonArray = new JSONArray();
+        for (Restaurant resto : restaurants) {
+            JSONObject jsonResto = new JSONObject();
+            jsonResto.put("id", resto.getId());
+            jsonResto.put("nom", resto.getNom());
+            jsonResto.put("adresse", resto.getAdresse());
+            jsonResto.put("telephone", resto.getTelephone());
+            jsonResto.put("latitude", resto.getLatitude());
+            jsonResto.put("longitude", resto.getLongitude());
+            jsonArray.put(jsonResto);
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("restaurants", jsonArray);
+        response.put("count", restaurants.size());
+        response.put("timestamp", timestamp);
+        return response.toString();
+    }
+
+    /**
+     * Rend la liste des créneaux.
+     *
+     * @param creneaux les créneaux
+     * @param timestamp l'horodatage de la réponse
+     * @return la réponse JSON
+     */
+    public static String creneaux(List<Creneau> creneaux, long timestamp) {
+        JSONArray jsonArray = new JSONArray();
+        for (Creneau creneau : creneaux) {
+            JSONObject jsonCreneau = new JSONObject();
+            jsonCreneau.put("id", creneau.getId());
+            jsonCreneau.put("libelle", creneau.getLibelle());
+            jsonCreneau.put("heureDebut", creneau.getHeureDebut());
+            jsonCreneau.put("heureFin", creneau.getHeureFin());
+            jsonCreneau.put("description", creneau.getDescription());
+            jsonCreneau.put("plageHoraire", creneau.getPlageHoraire());
+            jsonCreneau.put("ordreAffichage", creneau.getOrdreAffichage());
+            jsonArray.put(jsonCreneau);
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("creneaux", jsonArray);
+        response.put("count", creneaux.size());
+        response.put("timestamp", timestamp);
+        return response.toString();
+    }
+
+    /**
+     * Rend un créneau, ou l'erreur "Créneau non trouvé" s'il est null.
+     *
+     * @param creneauId l'identifiant demandé
+     * @param creneau le créneau, ou null
+     * @param timestamp l'horodatage de la réponse
+     * @return la réponse JSON
+     */
+    public static String creneau(int creneauId, Creneau creneau, long timestamp) {
+        if (creneau == null) {
+            JSONObject errorResponse = new JSONObject();
+            errorResponse.put("error", true);
+            errorResponse.put("message", "Créneau non trouvé");
+            errorResponse.put("creneauId", creneauId);
+            return errorResponse.toString();
+        }
+
+        JSONObject jsonCreneau = new JSONObject();
+        jsonCreneau.put("id", creneau.getId());
+        jsonCreneau.put("libelle", creneau.getLibelle());
+        jsonCreneau.put("heureDebut", creneau.getHeureDebut());
+        jsonCreneau.put("heureFin", creneau.getHeureFin());
+        jsonCreneau.put("description", creneau.getDescription());
+        jsonCreneau.put("plageHoraire", creneau.getPlageHoraire());
+        jsonCreneau.put("actif", creneau.isActif());
+        jsonCreneau.put("ordreAffichage", creneau.getOrdreAffichage());
+
+        JSONObject response = new JSONObject();
+        response.put("creneau", jsonCreneau);
+        response.put("timestamp", timestamp);
+        return response.toString();
+    }
+
+    /**
+     * Rend la liste des tables libres d'un restaurant pour une date et un créneau.
+     *
+     * @param tables les tables libres
+     * @param restaurantId l'identifiant du restaurant
+     * @param date la date demandée
+     * @param creneauId l'identifiant du créneau
+     * @return la réponse JSON
+     */
+    public static String tablesLibres(List<TableResto> tables, int restaurantId, String date, int creneauId) {
+        JSONArray jsonArray = new JSONArray();
+        for (TableResto table : tables) {
+            JSONObject jsonTable = new JSONObject();
+            jsonTable.put("id", table.getId());
+            jsonTable.put("restaurantId", table.getRestaurantId());
+            jsonTable.put("numeroTable", table.getNumeroTable());
+            jsonTable.put("nbPlaces", table.getNbPlaces());
+            jsonTable.put("statut", table.getStatut() != null ? table.getStatut() : "libre");
+            jsonArray.put(jsonTable);
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("tables", jsonArray);
+        response.put("count", tables.size());
+        response.put("restaurantId", restaurantId);
+        if (!"toutes".equals(date)) {
+            response.put("dateReservation", date);
+            response.put("creneauId", creneauId);
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend la liste des tables d'un restaurant avec leur statut pour une date et un créneau.
+     *
+     * @param tables les tables avec leur statut
+     * @param restaurantId l'identifiant du restaurant
+     * @param date la date demandée
+     * @param creneauId l'identifiant du créneau
+     * @return la réponse JSON
+     */
+    public static String tablesAvecStatut(List<TableResto> tables, int restaurantId, String date, int creneauId) {
+        JSONArray jsonArray = new JSONArray();
+        for (TableResto table : tables) {
+            JSONObject jsonTable = new JSONObject();
+            jsonTable.put("id", table.getId());
+            jsonTable.put("restaurantId", table.getRestaurantId());
+            jsonTable.put("numeroTable", table.getNumeroTable());
+            jsonTable.put("nbPlaces", table.getNbPlaces());
+            jsonTable.put("statut", table.getStatut());
+            jsonTable.put("disponible", "libre".equals(table.getStatut()));
+            jsonArray.put(jsonTable);
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("tables", jsonArray);
+        response.put("count", tables.size());
+        response.put("restaurantId", restaurantId);
+        response.put("dateReservation", date);
+        response.put("creneauId", creneauId);
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend l'occupation d'un restaurant pour une date, créneau par créneau.
+     *
+     * @param occupations l'occupation de chaque créneau actif
+     * @param restaurantId l'identifiant du restaurant
+     * @param date la date demandée
+     * @return la réponse JSON
+     */
+    public static String occupation(List<OccupationCreneau> occupations, int restaurantId, String date) {
+        JSONArray jsonCreneaux = new JSONArray();
+        for (OccupationCreneau occupation : occupations) {
+            JSONObject jsonCreneau = new JSONObject();
+            jsonCreneau.put("creneauId", occupation.getCreneauId());
+            jsonCreneau.put("tablesReservees", occupation.getTablesReservees());
+            jsonCreneau.put("couvertsReserves", occupation.getCouvertsReserves());
+            jsonCreneau.put("tauxOccupation", occupation.getTauxOccupation());
+            jsonCreneaux.put(jsonCreneau);
+        }
+
+        OccupationCreneau premiere = occupations.isEmpty() ? null : occupations.get(0);
+        JSONObject response = new JSONObject();
+        response.put("restaurantId", restaurantId);
+        response.put("dateReservation", date);
+        response.put("nbTables", premiere != null ? premiere.getNbTables() : 0);
+        response.put("nbPlaces", premiere != null ? premiere.getNbPlaces() : 0);
+        response.put("creneaux", jsonCreneaux);
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend une analyse de l'occupation sur une période, avec le total et les trois axes.
+     *
+     * @param analyse l'analyse calculée
+     * @param restaurantId l'identifiant du restaurant, ou 0 pour tous les restaurants
+     * @param dateDebut la première date de la période
+     * @param dateFin la dernière date de la période
+     * @return la réponse JSON
+     */
+    public static String analyseOccupation(AnalyseOccupation analyse, int restaurantId,
+                                           String dateDebut, String dateFin) {
+        AgregatOccupation total = new AgregatOccupation(0, 0, 0, 0, 0);
+        for (AgregatOccupation agregat : analyse.getParRestaurant()) {
+            total = total.ajouter(agregat);
+        }
+
+        JSONObject response = new JSONObject();
+        if (restaurantId > 0) {
+            response.put("restaurantId", restaurantId);
+        }
+        response.put("dateDebut", dateDebut);
+        response.put("dateFin", dateFin);
+        response.put("nbJours", analyse.getJourFin() - analyse.getJourDebut() + 1);
+        response.put("total", agregat(total));
+        response.put("parRestaurant", agregats(analyse.getParRestaurant(), "restaurantId"));
+        response.put("parCreneau", agregats(analyse.getParCreneau(), "creneauId"));
+        response.put("parJourSemaine", agregats(analyse.getParJourSemaine(), "jourSemaine"));
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    private static JSONArray agregats(List<AgregatOccupation> agregats, String nomCle) {
+        JSONArray json = new JSONArray();
+        for (AgregatOccupation agregat : agregats) {
+            json.put(agregat(agregat).put(nomCle, agregat.getCle()));
+        }
+        return json;
+    }
+
+    private static JSONObject agregat(AgregatOccupation agregat) {
+        JSONObject json = new JSONObject();
+        json.put("tablesReservees", agregat.getTablesReservees());
+        json.put("couvertsReserves", agregat.getCouvertsReserves());
+        json.put("tablesOffertes", agregat.getTablesOffertes());
+        json.put("placesOffertes", agregat.getPlacesOffertes());
+        json.put("tauxOccupation", agregat.getTauxOccupation());
+        json.put("tauxRemplissage", agregat.getTauxRemplissage());
+        return json;
+    }
+
+    /**
+     * Rend la matrice de disponibilité d'un restaurant.
+     *
+     * @param matrice la matrice calculée
+     * @param dateDebut la première date demandée
+     * @param dateFin la dernière date demandée
+     * @return la réponse JSON
+     */
+    public static String disponibilites(MatriceDisponibilites matrice, String dateDebut, String dateFin) {
+        JSONArray jsonTables = new JSONArray();
+        for (TableResto table : matrice.getTables()) {
+            JSONObject jsonTable = new JSONObject();
+            jsonTable.put("id", table.getId());
+            jsonTable.put("numeroTable", table.getNumeroTable());
+            jsonTable.put("nbPlaces", table.getNbPlaces());
+            jsonTables.put(jsonTable);
+        }
+
+        JSONArray jsonCreneaux = new JSONArray();
+        for (Creneau creneau : matrice.getCreneaux()) {
+            JSONObject jsonCreneau = new JSONObject();
+            jsonCreneau.put("id", creneau.getId());
+            jsonCreneau.put("libelle", creneau.getLibelle());
+            jsonCreneau.put("plageHoraire", creneau.getPlageHoraire());
+            jsonCreneaux.put(jsonCreneau);
+        }
+
+        JSONArray jsonMatrice = new JSONArray();
+        for (String[] ligne : matrice.getCellules()) {
+            jsonMatrice.put(new JSONArray(ligne));
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("restaurantId", matrice.getRestaurantId());
+        response.put("dateDebut", dateDebut);
+        response.put("dateFin", dateFin);
+        response.put("tables", jsonTables);
+        response.put("creneaux", jsonCreneaux);
+        response.put("dates", new JSONArray(matrice.getDates()));
+        response.put("matrice", jsonMatrice);
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend le résultat de la vérification de disponibilité d'une table.
+     *
+     * @param tableId l'identifiant de la table
+     * @param date la date demandée
+     * @param creneauId l'identifiant du créneau
+     * @param disponible true si la table est libre
+     * @return la réponse JSON
+     */
+    public static String disponibilite(int tableId, String date, int creneauId, boolean disponible) {
+        JSONObject response = new JSONObject();
+        response.put("tableId", tableId);
+        response.put("dateReservation", date);
+        response.put("creneauId", creneauId);
+        response.put("disponible", disponible);
+        response.put("statut", disponible ? "libre" : "occupee");
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend le résultat d'une réservation.
+     *
+     * @param resultat le résultat de la réservation
+     * @return la réponse JSON
+     */
+    public static String resultatReservation(ResultatReservation resultat) {
+        JSONObject response = new JSONObject();
+        response.put("success", resultat.isSucces());
+        response.put("message", resultat.getMessage());
+        if (resultat.isSucces()) {
+            response.put("reservationId", resultat.getReservationId());
+            response.put("reservation", reservation(resultat.getReservation()));
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend le résultat de la pose d'une option sur une table.
+     *
+     * @param option l'option posée, ou null si la table est déjà réservée ou en option
+     * @return la réponse JSON
+     */
+    public static String option(OptionTable option) {
+        JSONObject response = new JSONObject();
+        response.put("success", option != null);
+        if (option != null) {
+            response.put("optionId", option.getId());
+            response.put("tableId", option.getTableId());
+            response.put("dateReservation", option.getDateReservation());
+            response.put("creneauId", option.getCreneauId());
+            response.put("expireLe", option.getExpireLe());
+        } else {
+            response.put("message", "La table est déjà réservée ou en option pour ce créneau");
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend le résultat de la levée d'une option.
+     *
+     * @param optionId l'identifiant de l'option
+     * @param levee true si l'option courait encore
+     * @return la réponse JSON
+     */
+    public static String leveeOption(String optionId, boolean levee) {
+        JSONObject response = new JSONObject();
+        response.put("success", levee);
+        response.put("optionId", optionId);
+        response.put("message", levee ? "Option levée" : "Option inconnue ou expirée");
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend une demande de liste d'attente : sa position si elle attend encore,
+     * la réservation obtenue si elle a été promue.
+     *
+     * @param demande la demande, ou null si la liste est pleine ou la demande inconnue
+     * @param messageAbsente le message rendu quand la demande est null
+     * @return la réponse JSON
+     */
+    public static String demandeAttente(DemandeAttente demande, String messageAbsente) {
+        JSONObject response = new JSONObject();
+        response.put("success", demande != null);
+        if (demande != null) {
+            response.put("attenteId", demande.getId());
+            response.put("restaurantId", demande.getRestaurantId());
+            response.put("dateReservation", CodecDate.formater(demande.getJour()));
+            response.put("creneauId", demande.getCreneauId());
+            response.put("nbConvives", demande.getNbConvives());
+            response.put("statut", demande.getStatut());
+            if (DemandeAttente.EN_ATTENTE.equals(demande.getStatut())) {
+                response.put("position", demande.getPosition());
+            } else if (DemandeAttente.PROMUE.equals(demande.getStatut())) {
+                response.put("reservationId", demande.getReservationId());
+            }
+        } else {
+            response.put("message", messageAbsente);
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend le résultat du retrait d'une demande de la liste d'attente.
+     *
+     * @param attenteId l'identifiant de la demande
+     * @param retiree true si la demande attendait encore
+     * @return la réponse JSON
+     */
+    public static String retraitAttente(int attenteId, boolean retiree) {
+        JSONObject response = new JSONObject();
+        response.put("success", retiree);
+        response.put("attenteId", attenteId);
+        response.put("message", retiree ? "Demande retirée de la liste d'attente"
+                : "Demande inconnue, déjà promue ou déjà retirée");
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Construit une demande de liste d'attente à partir de sa représentation JSON.
+     *
+     * @param jsonObj le JSON de la demande
+     * @return la demande
+     * @throws IllegalArgumentException si un champ est manquant ou invalide
+     */
+    public static DemandeAttente lireDemandeAttente(JSONObject jsonObj) {
+        String[] requiredFields = {"restaurantId", "creneauId", "dateReservation", "nomClient", "prenomClient", "telephone", "nbConvives"};
+        for (String field : requiredFields) {
+            if (!jsonObj.has(field)) {
+                throw new IllegalArgumentException("Champ obligatoire manquant: " + field);
+            }
+        }
+
+        int jour = CodecDate.parser(jsonObj.optString("dateReservation"));
+        DemandeAttente demande;
+        try {
+            demande = new DemandeAttente(jsonObj.getInt("restaurantId"), jour, jsonObj.getInt("creneauId"),
+                    jsonObj.getString("nomClient"), jsonObj.getString("prenomClient"),
+                    jsonObj.getString("telephone"), jsonObj.getInt("nbConvives"));
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Données de la demande invalides: " + e.getMessage());
+        }
+
+        if (!demande.isValide()) {
+            throw new IllegalArgumentException("Données de la demande invalides");
+        }
+        return demande;
+    }
+
+    /**
+     * Rend le résultat d'une annulation.
+     *
+     * @param resultat le résultat de l'annulation
+     * @return la réponse JSON
+     */
+    public static String resultatAnnulation(ResultatReservation resultat) {
+        JSONObject response = new JSONObject();
+        response.put("success", resultat.isSucces());
+        response.put("reservationId", resultat.getReservationId());
+        response.put("message", resultat.getMessage());
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend le résultat d'un lot de réservations, réservation par réservation.
+     *
+     * @param lot le résultat du lot
+     * @return la réponse JSON
+     */
+    public static JSONObject resultatLot(ResultatLot lot) {
+        JSONArray resultats = new JSONArray();
+        List<ResultatReservation> liste = lot.getResultats();
+        for (int i = 0; i < liste.size(); i++) {
+            ResultatReservation resultat = liste.get(i);
+            JSONObject jsonResultat = new JSONObject();
+            jsonResultat.put("index", i);
+            jsonResultat.put("success", resultat.isSucces());
+            if (resultat.isSucces()) {
+                jsonResultat.put("reservationId", resultat.getReservationId());
+                jsonResultat.put("reservation", reservation(resultat.getReservation()));
+            } else {
+                jsonResultat.put("message", resultat.getMessage());
+            }
+            resultats.put(jsonResultat);
+        }
+
+        int reussies = lot.getReussies();
+        JSONObject response = new JSONObject();
+        response.put("success", reussies == liste.size());
+        response.put("mode", lot.isToutOuRien() ? "tout-ou-rien" : "au-mieux");
+        response.put("total", liste.size());
+        response.put("reussies", reussies);
+        response.put("echecs", liste.size() - reussies);
+        response.put("resultats", resultats);
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+
+    /**
+     * Rend la liste des réservations d'un restaurant pour une date.
+     *
+     * @param reservations les réservations
+     * @param restaurantId l'identifiant du restaurant
+     * @param date la date demandée
+     * @return la réponse JSON
+     */
+    public static String reservations(List<Reservation> reservations, int restaurantId, String date) {
+        JSONArray jsonArray = new JSONArray();
+        for (Reservation reservation : reservations) {
+            jsonArray.put(reservation(reservation));
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("reservations", jsonArray);
+        response.put("count", reservations.size());
+        response.put("restaurantId", restaurantId);
+        response.put("dateReservation", date);
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
+    /**
+     * Rend une page de l'historique des réservations d'un restaurant.
+     *
+     * @param page la page de réservations
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateDebut première date de la période
+     * @param dateFin dernière date de la période
+     * @return la réponse JSON
+     */
+    public static String historiqueReservations(PageReservations page, int restaurantId,
+                                                String dateDebut, String dateFin) {
+        JSONObject response = pageReservations(page);
+        response.put("restaurantId", restaurantId);
+        response.put("dateDebut", dateDebut);
+        response.put("dateFin", dateFin);
+        return response.toString();
+    }
+
+    /**
+     * Rend une page des réservations d'un client.
+     *
+     * @param page la page de réservations
+     * @param telephone le téléphone recherché
+     * @return la réponse JSON
+     */
+    public static String reservationsClient(PageReservations page, String telephone) {
+        JSONObject response = pageReservations(page);
+        response.put("telephone", telephone);
+        return response.toString();
+    }
+
+    /**
+     * Rend une réservation.
+     *
+     * @param reservation la réservation
+     * @return l'objet JSON de la réservation
+     */
+    public static JSONObject reservation(Reservation reservation) {
+        JSONObject jsonReservation = new JSONObject();
+        jsonReservation.put("id", reservation.getId());
+        jsonReservation.put("tableId", reservation.getTableId());
+        jsonReservation.put("creneauId", reservation.getCreneauId());
+        jsonReservation.put("dateReservation", formaterDate(reservation.getDateReservation()));
+        jsonReservation.put("nomClient", reservation.getNomClient());
+        jsonReservation.put("prenomClient", reservation.getPrenomClient());
+        jsonReservation.put("telephone", reservation.getTelephone());
+        jsonReservation.put("nbConvives", reservation.getnbConvives());
+        jsonReservation.put("statut", reservation.getStatut());
+        jsonReservation.put("nomComplet", reservation.getNomComplet());
+
+        if (reservation.getDateCreation() != null) {
+            jsonReservation.put("dateCreation", reservation.getDateCreation().getTime());
+        }
+
+        if (reservation.getTable() != null) {
+            JSONObject tableInfo = new JSONObject();
+            tableInfo.put("numeroTable", reservation.getTable().getNumeroTable());
+            tableInfo.put("nbPlaces", reservation.getTable().getNbPlaces());
+            jsonReservation.put("table", tableInfo);
+        }
+
+        if (reservation.getCreneau() != null) {
+            JSONObject creneauInfo = new JSONObject();
+            creneauInfo.put("libelle", reservation.getCreneau().getLibelle());
+            creneauInfo.put("heureDebut", reservation.getCreneau().getHeureDebut());
+            creneauInfo.put("heureFin", reservation.getCreneau().getHeureFin());
+            creneauInfo.put("description", reservation.getCreneau().getDescription());
+            jsonReservation.put("creneau", creneauInfo);
+        }
+
+        return jsonReservation;
+    }
+
+    /**
+     * Construit une réservation à partir de sa représentation JSON.
+     *
+     * @param jsonObj le JSON de la réservation
+     * @return la réservation
+     * @throws IllegalArgumentException si un champ est manquant ou invalide
+     */
+    public static Reservation lireReservation(JSONObject jsonObj) {
+        // Validation des champs obligatoires
+        String[] requiredFields = {"tableId", "creneauId", "dateReservation", "nomClient", "prenomClient", "telephone", "nbConvives"};
+        for (String field : requiredFields) {
+            if (!jsonObj.has(field)) {
+                throw new IllegalArgumentException("Champ obligatoire manquant: " + field);
+            }
+        }
+
+        Reservation reservation = new Reservation();
+        try {
+            reservation.setTableId(jsonObj.getInt("tableId"));
+            reservation.setCreneauId(jsonObj.getInt("creneauId"));
+            reservation.setNomClient(jsonObj.getString("nomClient"));
+            reservation.setPrenomClient(jsonObj.getString("prenomClient"));
+            reservation.setTelephone(jsonObj.getString("telephone"));
+            reservation.setnbConvives(jsonObj.getInt("nbConvives"));
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Données de réservation invalides: " + e.getMessage());
+        }
+
+        // Parsing de la date : seul le jour est conservé, l'heure éventuelle relève du créneau
+        String dateStr = jsonObj.optString("dateReservation");
+        int jour = dateStr.length() == 10 || (dateStr.length() == 16 && estHeure(dateStr, 11))
+                ? CodecDate.lire(dateStr) : CodecDate.INVALIDE;
+        if (jour == CodecDate.INVALIDE) {
+            throw new IllegalArgumentException("Format de date invalide. Utilisez yyyy-MM-dd ou yyyy-MM-dd HH:mm");
+        }
+        reservation.setDateReservation(CodecDate.versSql(jour));
+
+        if (!reservation.isValide()) {
+            throw new IllegalArgumentException("Données de réservation invalides");
+        }
+        return reservation;
+    }
+
+    /**
+     * Rend une erreur de traitement.
+     *
+     * @param message le message d'erreur
+     * @return la réponse JSON
+     */
+    public static String erreur(String message) {
+        JSONObject errorResponse = new JSONObject();
+        errorResponse.put("error", true);
+        errorResponse.put("message", message);
+        errorResponse.put("timestamp", System.currentTimeMillis());
+        return errorResponse.toString();
+    }
+
+    /**
+     * Rend l'échec d'une opération de réservation (création ou lot).
+     *
+     * @param message le message d'erreur
+     * @return la réponse JSON
+     */
+    public static String echecReservation(String message) {
+        JSONObject errorResponse = new JSONObject();
+        errorResponse.put("success", false);
+        errorResponse.put("error", true);
+        errorResponse.put("message", message);
+        return errorResponse.toString();
+    }
+
+    /**
+     * Rend une erreur de validation des données reçues.
+     *
+     * @param message le message d'erreur
+     * @return la réponse JSON
+     */
+    public static String erreurValidation(String message) {
+        JSONObject errorResponse = new JSONObject();
+        errorResponse.put("error", true);
+        errorResponse.put("validation", true);
+        errorResponse.put("message", message);
+        errorResponse.put("timestamp", System.currentTimeMillis());
+        return errorResponse.toString();
+    }
+
+    /**
+     * Formate une date de réservation au format yyyy-MM-dd.
+     *
+     * @param date la date (java.util.Date ou java.sql.Date)
+     * @return la date formatée
+     */
+    public static String formaterDate(Date date) {
+        return CodecDate.formater(CodecDate.jour(date));
+    }
+
+    /**
+     * Rend les réservations d'une page et le curseur de la page suivante (null sur la dernière page).
+     */
+    private static JSONObject pageReservations(PageReservations page) {
+        JSONArray jsonArray = new JSONArray();
+        for (Reservation reservation : page.getReservations()) {
+            jsonArray.put(reservation(reservation));
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("reservations", jsonArray);
+        response.put("count", page.getReservations().size());
+        response.put("curseurSuivant", page.getCurseurSuivant() != null ? page.getCurseurSuivant() : JSONObject.NULL);
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+
+    /**
+     * Vérifie la présence d'une heure " HH:mm" à partir de la position donnée.
+     */
+    private static boolean estHeure(String texte, int debut) {
+        if (texte.charAt(debut - 1) != ' ' || texte.charAt(debut + 2) != ':') {
+            return false;
+        }
+        int heures = (texte.charAt(debut) - '0') * 10 + (texte.charAt(debut + 1) - '0');
+        int minutes = (texte.charAt(debut + 3) - '0') * 10 + (texte.charAt(debut + 4) - '0');
+        return Character.isDigit(texte.charAt(debut)) && Character.isDigit(texte.charAt(debut + 1))
+                && Character.isDigit(texte.charAt(debut + 3)) && Character.isDigit(texte.charAt(debut + 4))
+                && heures < 24 && minutes < 60;
+    }
+}
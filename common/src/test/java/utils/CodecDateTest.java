@@ -0,0 +1,88 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du codec des dates, comparé à {@link LocalDate}.
+ */
+class CodecDateTest {
+
+    @Test
+    void allerRetourSurTouteLaPlageLisible() {
+        int premier = (int) LocalDate.of(0, 1, 1).toEpochDay();
+        int dernier = (int) LocalDate.of(9999, 12, 31).toEpochDay();
+        for (int jour = premier; jour <= dernier; jour++) {
+            String attendu = LocalDate.ofEpochDay(jour).toString();
+            assertEquals(attendu, CodecDate.formater(jour));
+            assertEquals(jour, CodecDate.lire(attendu), attendu);
+        }
+    }
+
+    @Test
+    void epoqueEtJoursNegatifs() {
+        assertEquals(0, CodecDate.lire("1970-01-01"));
+        assertEquals("1970-01-01", CodecDate.formater(0));
+        assertEquals(-1, CodecDate.lire("1969-12-31"));
+        assertEquals("1969-12-31", CodecDate.formater(-1));
+        assertEquals(-365, CodecDate.lire("1969-01-01"));
+        assertEquals("1900-02-28", CodecDate.formater((int) LocalDate.of(1900, 2, 28).toEpochDay()));
+        assertEquals("0000-01-01", CodecDate.formater((int) LocalDate.of(0, 1, 1).toEpochDay()));
+    }
+
+    @Test
+    void anneesBissextiles() {
+        assertTrue(CodecDate.estValide("2024-02-29"));
+        assertTrue(CodecDate.estValide("2000-02-29"));
+        assertFalse(CodecDate.estValide("1900-02-29"));
+        assertFalse(CodecDate.estValide("2023-02-29"));
+        assertFalse(CodecDate.estValide("2024-02-30"));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), CodecDate.lire("2024-02-29"));
+        assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), CodecDate.lire("2000-02-29"));
+    }
+
+    @Test
+    void premierMarsSuitLaFinDeFevrier() {
+        for (int annee : new int[] {1900, 1969, 1970, 2000, 2023, 2024, 2100}) {
+            LocalDate mars = LocalDate.of(annee, 3, 1);
+            int jour = CodecDate.lire(mars.toString());
+            assertEquals(mars.toEpochDay(), jour);
+            assertEquals(mars.minusDays(1).toString(), CodecDate.formater(jour - 1));
+            assertEquals(mars.toString(), CodecDate.formater(jour));
+        }
+    }
+
+    @Test
+    void datesInvalidesRefusees() {
+        for (String texte : new String[] {null, "", "2024-1-01", "2024/01/01", "2024-00-10",
+                "2024-13-01", "2024-04-31", "2024-01-00", "20a4-01-01", "2024-01-0x"}) {
+            assertEquals(CodecDate.INVALIDE, CodecDate.lire(texte), String.valueOf(texte));
+            assertFalse(CodecDate.estValide(texte));
+        }
+        assertThrows(IllegalArgumentException.class, () -> CodecDate.parser("2024-02-30"));
+    }
+
+    @Test
+    void lireIgnoreLaSuiteMaisParserExigeLaLongueurExacte() {
+        int jour = (int) LocalDate.of(2024, 5, 17).toEpochDay();
+        assertEquals(jour, CodecDate.lire("2024-05-17T12:00:00"));
+        assertFalse(CodecDate.estValide("2024-05-17T12:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> CodecDate.parser("2024-05-17 "));
+        assertEquals(jour, CodecDate.parser("2024-05-17"));
+    }
+
+    @Test
+    void conversionsSqlEtDate() {
+        int jour = (int) LocalDate.of(2024, 2, 29).toEpochDay();
+        java.sql.Date sql = CodecDate.versSql(jour);
+        assertEquals("2024-02-29", sql.toString());
+        assertEquals(jour, CodecDate.jour(sql));
+        assertEquals(jour, CodecDate.jour(new java.util.Date(sql.getTime())));
+    }
+}
@@ -16,6 +16,11 @@ cat > config.properties << EOF
 # Configuration Service BD - Généré automatiquement
 # $(date)
 
+# Stockage : oracle ou embarque (base H2 en mémoire, pour les tests de charge)
+bd.stockage=${BD_STOCKAGE:-oracle}
+bd.embarque.url=${BD_EMBARQUE_URL:-jdbc:h2:mem:nancyspot;MODE=Oracle;DB_CLOSE_DELAY=-1}
+bd.embarque.script=${BD_EMBARQUE_SCRIPT:-src/create_tables.sql}
+
 # Configuration Base de Données
 bd.jdbc.url=${BD_JDBC_URL}
 bd.jdbc.user=${BD_JDBC_USER}
@@ -23,6 +28,64 @@ bd.jdbc.password=${BD_JDBC_PASSWORD}
 bd.rmi.name=${BD_RMI_NAME:-ServiceBD}
 bd.rmi.port=${BD_RMI_PORT:-1099}
 
+# Pool de connexions
+bd.pool.taille.min=${BD_POOL_TAILLE_MIN:-2}
+bd.pool.taille.max=${BD_POOL_TAILLE_MAX:-10}
+bd.pool.attente.max.ms=${BD_POOL_ATTENTE_MAX_MS:-5000}
+bd.pool.fuite.seuil.ms=${BD_POOL_FUITE_SEUIL_MS:-30000}
+bd.pool.validation.timeout.s=${BD_POOL_VALIDATION_TIMEOUT_S:-2}
+bd.pool.validation.inactivite.ms=${BD_POOL_VALIDATION_INACTIVITE_MS:-30000}
+bd.pool.cache.requetes=${BD_POOL_CACHE_REQUETES:-32}
+
+# Opérations simultanées sur la base ; au-delà elles attendent, et les lectures
+# sont refusées quand la file d'attente est pleine
+bd.concurrence.max=${BD_CONCURRENCE_MAX:-8}
+bd.concurrence.file.max=${BD_CONCURRENCE_FILE_MAX:-200}
+bd.concurrence.attente.max.ms=${BD_CONCURRENCE_ATTENTE_MAX_MS:-5000}
+
+# Cache des données de référence
+bd.cache.ttl.secondes=${BD_CACHE_TTL_SECONDES:-600}
+
+# Flux de changements vers le service central
+bd.flux.retention=${BD_FLUX_RETENTION:-10000}
+bd.flux.intervalle.ms=${BD_FLUX_INTERVALLE_MS:-50}
+
+# Options de courte durée sur les tables
+bd.option.duree.secondes=${BD_OPTION_DUREE_SECONDES:-300}
+bd.option.duree.max.secondes=${BD_OPTION_DUREE_MAX_SECONDES:-900}
+
+# Listes d'attente des créneaux complets
+bd.attente.max.creneau=${BD_ATTENTE_MAX_CRENEAU:-50}
+
+# Import en masse des restaurants (outil Importation)
+bd.import.taille.lot=${BD_IMPORT_TAILLE_LOT:-500}
+
+# Archivage des réservations anciennes (horizon à 0 pour le désactiver)
+bd.archivage.horizon.jours=${BD_ARCHIVAGE_HORIZON_JOURS:-365}
+bd.archivage.annulees.jours=${BD_ARCHIVAGE_ANNULEES_JOURS:-30}
+bd.archivage.taille.lot=${BD_ARCHIVAGE_TAILLE_LOT:-500}
+bd.archivage.pause.ms=${BD_ARCHIVAGE_PAUSE_MS:-200}
+bd.archivage.intervalle.minutes=${BD_ARCHIVAGE_INTERVALLE_MINUTES:-60}
+
+# Cache des analyses d'occupation (par restaurant et période)
+bd.analyse.cache.max=${BD_ANALYSE_CACHE_MAX:-256}
+bd.analyse.cache.ttl.secondes=${BD_ANALYSE_CACHE_TTL_SECONDES:-300}
+
+# Journal local des réservations (répertoire vide pour le désactiver)
+bd.journal.repertoire=${BD_JOURNAL_REPERTOIRE-/app/journal}
+bd.journal.segment.mo=${BD_JOURNAL_SEGMENT_MO:-16}
+bd.journal.synchronisation.ms=${BD_JOURNAL_SYNCHRONISATION_MS:-10}
+bd.journal.synchrone=${BD_JOURNAL_SYNCHRONE:-false}
+
+# Partition du service BD : numéro parmi le nombre de partitions, et positions
+# de l'anneau des restaurants possédées (vide pour tout l'anneau, de 0 à 1023)
+bd.partition.nom=${BD_PARTITION_NOM:-bd}
+bd.partition.numero=${BD_PARTITION_NUMERO:-0}
+bd.partition.nombre=${BD_PARTITION_NOMBRE:-1}
+bd.partition.slots=${BD_PARTITION_SLOTS:-}
+# Réplica en lecture seule de la partition, sur une base de secours
+bd.partition.lecture.seule=${BD_PARTITION_LECTURE_SEULE:-false}
+
 # Configuration Service Central
 central.host=${CENTRAL_HOST:-service-central}
 central.rmi.port=${CENTRAL_RMI_PORT:-1098}
@@ -16,6 +16,16 @@ central.host=${CENTRAL_HOST:-service-central}
 # Configuration HTTP
 central.http.port=${CENTRAL_HTTP_PORT:-8080}
 
+# Lectures d'un client envoyées à la partition principale après une écriture (0 pour désactiver)
+central.lecture.coherence.ms=${CENTRAL_LECTURE_COHERENCE_MS:-5000}
+
+# Réponses gardées en cache, invalidées par le flux de changements du service BD (0 pour désactiver)
+central.cache.reponses.max=${CENTRAL_CACHE_REPONSES_MAX:-10000}
+
+# Réponses des réservations gardées par clé d'idempotence (en-tête Idempotency-Key)
+central.idempotence.max=${CENTRAL_IDEMPOTENCE_MAX:-10000}
+central.idempotence.ttl.secondes=${CENTRAL_IDEMPOTENCE_TTL_SECONDES:-600}
+
 # Configuration HTTPS
 central.https.enabled=${CENTRAL_HTTPS_ENABLED:-true}
 central.https.port=${CENTRAL_HTTPS_PORT:-8443}
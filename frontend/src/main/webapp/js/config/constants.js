@@ -20,12 +20,21 @@ export const NANCY_CONFIG = {
         /** Endpoint pour effectuer une réservation */
         RESERVER: '/reserver',
 
+        /** Endpoint pour mettre une table en option le temps de la réservation */
+        POSER_OPTION: '/reserver/option',
+
+        /** Endpoint pour lever une option avant son expiration */
+        LEVER_OPTION: '/reserver/option/lever',
+
         /** Endpoint pour récupérer la liste des créneaux disponibles */
         CRENEAUX: '/creneaux',
 
         /** Endpoint pour récupérer un créneau spécifique */
         CRENEAU_BY_ID: '/creneaux',
 
+        /** Endpoint pour récupérer la matrice de disponibilité d'un restaurant sur une période */
+        DISPONIBILITES: '/disponibilites',
+
         /** Endpoint pour vérifier la disponibilité d'une table */
         VERIFIER_DISPONIBILITE: '/tables/disponibilite',
 
@@ -166,6 +175,16 @@ export const NANCY_CONFIG = {
         TIME_DISPLAY: 'HH:mm'
     },
 
+    /** Configuration des requêtes d'écriture (POST) */
+    REQUETES: {
+        /** Délai au-delà duquel une requête POST est abandonnée puis renvoyée (ms) */
+        DELAI_POST_MS: 10000,
+        /** Nombre maximal d'envois d'une même requête POST */
+        TENTATIVES_POST: 3,
+        /** Pause avant un renvoi, multipliée par le numéro de la tentative (ms) */
+        PAUSE_RENVOI_MS: 500
+    },
+
     /** Configuration des animations et délais */
     ANIMATION: {
         /** Délai d'attente avant transition (ms) */
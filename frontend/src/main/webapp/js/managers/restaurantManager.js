@@ -19,6 +19,7 @@ export class RestaurantManager {
             selectedDate: null,
             selectedCreneauId: null,
             selectedTableId: null,
+            option: null,
             currentStep: 'date' // 'date', 'creneau', 'table'
         };
 
@@ -108,6 +109,7 @@ export class RestaurantManager {
             selectedDate: null,
             selectedCreneauId: null,
             selectedTableId: null,
+            option: null,
             currentStep: 'date'
         };
 
@@ -338,6 +340,54 @@ export class RestaurantManager {
         }
     }
 
+    /**
+     * Met la table choisie en option le temps de remplir le formulaire, après avoir
+     * levé l'option de la table choisie précédemment
+     */
+    async poserOption(tableId) {
+        this.leverOption();
+        const { selectedDate, selectedCreneauId } = this.reservationState;
+
+        try {
+            const result = await this.api.post(NANCY_CONFIG.ENDPOINTS.POSER_OPTION, {
+                tableId: tableId,
+                dateReservation: selectedDate,
+                creneauId: selectedCreneauId
+            });
+
+            if (this.reservationState.selectedTableId !== tableId) {
+                // Une autre table a été choisie entre-temps
+                if (result.success) {
+                    this.leverOption({ optionId: result.optionId, tableId: tableId });
+                }
+                return;
+            }
+
+            if (result.success) {
+                this.reservationState.option = { optionId: result.optionId, tableId: tableId };
+            } else {
+                UIUtils.showToast(result.message || 'Table retenue par un autre client', 'warning');
+            }
+        } catch (error) {
+            // Sans option, la réservation reste possible : la base tranchera
+            console.warn('Option non posée:', error);
+        }
+    }
+
+    /**
+     * Lève une option en cours, sans attendre la réponse
+     */
+    leverOption(option = null) {
+        const aLever = option || this.reservationState.option;
+        if (!option) {
+            this.reservationState.option = null;
+        }
+        if (!aLever) return;
+
+        this.api.post(NANCY_CONFIG.ENDPOINTS.LEVER_OPTION, aLever)
+            .catch(error => console.warn('Option non levée:', error));
+    }
+
     /**
      * Gère la sélection d'une table
      */
@@ -354,6 +404,7 @@ export class RestaurantManager {
         tableCard.classList.add('selected');
 
         this.reservationState.selectedTableId = tableId;
+        this.poserOption(tableId);
 
         // Mise à jour du champ caché
         const tableIdInput = document.getElementById('tableId');
@@ -447,6 +498,9 @@ export class RestaurantManager {
             telephone: formData.get('telephone'),
             nbConvives: parseInt(formData.get('nbConvives'))
         };
+        if (this.reservationState.option?.tableId === reservation.tableId) {
+            reservation.optionId = this.reservationState.option.optionId;
+        }
 
         // Validation finale avec vérification capacité table
         if (!this.validateReservation(reservation)) {
@@ -461,6 +515,8 @@ export class RestaurantManager {
             const result = await this.api.post(NANCY_CONFIG.ENDPOINTS.RESERVER, reservation);
 
             if (result.success) {
+                // L'option est confirmée par la réservation : rien à lever
+                this.reservationState.option = null;
                 this.showReservationSuccess(result, reservation);
             } else {
                 this.showReservationError(result.message || 'Erreur lors de la réservation');
@@ -590,6 +646,8 @@ export class RestaurantManager {
      * Ferme et supprime le formulaire modal de réservation
      */
     hideReservationForm() {
+        this.leverOption();
+
         const modal = document.getElementById('reservation-modal');
         const backdrop = document.querySelector('.modal-backdrop');
 
@@ -603,6 +661,7 @@ export class RestaurantManager {
             selectedDate: null,
             selectedCreneauId: null,
             selectedTableId: null,
+            option: null,
             currentStep: 'date'
         };
     }
@@ -1,5 +1,24 @@
 import { NANCY_CONFIG } from '../config/constants.js';
 
+const CLE_CLIENT = 'nancyspot.clientId';
+
+/**
+ * Tire un UUID v4 au hasard. crypto.randomUUID n'existe que dans un contexte
+ * sécurisé (HTTPS ou localhost) : ailleurs, l'UUID est formé à partir de
+ * crypto.getRandomValues, disponible partout
+ * @returns {string} UUID au format 8-4-4-4-12
+ */
+function uuidAleatoire() {
+    if (typeof crypto.randomUUID === 'function') {
+        return crypto.randomUUID();
+    }
+    const octets = crypto.getRandomValues(new Uint8Array(16));
+    octets[6] = (octets[6] & 0x0f) | 0x40;
+    octets[8] = (octets[8] & 0x3f) | 0x80;
+    const hex = Array.from(octets, octet => octet.toString(16).padStart(2, '0')).join('');
+    return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+}
+
 /**
  * Service pour les appels API vers le backend
  * Gère les requêtes HTTP avec gestion d'erreurs
@@ -13,6 +32,21 @@ export class ApiService {
      */
     constructor() {
         this.baseUrl = NANCY_CONFIG.API_BASE_URL;
+        this.clientId = this.lireClientId();
+    }
+
+    /**
+     * Identifiant de l'onglet, envoyé dans l'en-tête X-Client-Id : après une
+     * réservation, le serveur lit ses données à jour pour ce client
+     * @returns {string} Identifiant tiré au hasard, conservé le temps de la session
+     */
+    lireClientId() {
+        let clientId = sessionStorage.getItem(CLE_CLIENT);
+        if (!clientId) {
+            clientId = uuidAleatoire();
+            sessionStorage.setItem(CLE_CLIENT, clientId);
+        }
+        return clientId;
     }
 
     /**
@@ -22,22 +56,27 @@ export class ApiService {
      * @param {string} [options.method] - Méthode HTTP (GET, POST, etc.)
      * @param {Object} [options.headers] - En-têtes HTTP additionnels
      * @param {string} [options.body] - Corps de la requête pour POST
+     * @param {AbortSignal} [options.signal] - Signal d'abandon de la requête
      * @returns {Promise<Object>} Données JSON de la réponse
      * @throws {Error} En cas d'erreur HTTP ou de réponse invalide
      */
     async request(endpoint, options = {}) {
+        const { headers, ...autresOptions } = options;
         try {
             const response = await fetch(`${this.baseUrl}${endpoint}`, {
+                ...autresOptions,
                 headers: {
                     'Accept': 'application/json',
                     'Content-Type': 'application/json',
-                    ...options.headers
-                },
-                ...options
+                    'X-Client-Id': this.clientId,
+                    ...headers
+                }
             });
 
             if (!response.ok) {
-                throw new Error(`HTTP ${response.status}: ${response.statusText}`);
+                const erreur = new Error(`HTTP ${response.status}: ${response.statusText}`);
+                erreur.status = response.status;
+                throw erreur;
             }
 
             const data = await response.json();
@@ -65,16 +104,53 @@ export class ApiService {
     }
 
     /**
-     * Effectue une requête POST avec des données JSON
+     * Effectue une requête POST avec des données JSON.
+     * La requête porte une clé d'idempotence (en-tête Idempotency-Key) : si elle
+     * n'aboutit pas dans le délai, ou si le serveur répond par une erreur 5xx, elle
+     * est renvoyée avec la même clé, et le serveur rend alors la réponse de la
+     * première au lieu de réserver une seconde fois.
      * @param {string} endpoint - Point d'entrée de l'API
      * @param {Object} data - Données à envoyer dans le corps de la requête
      * @returns {Promise<Object>} Données JSON de la réponse
-     * @throws {Error} En cas d'erreur de requête
+     * @throws {Error} En cas d'erreur de requête, après le dernier renvoi
      */
     async post(endpoint, data) {
-        return this.request(endpoint, {
-            method: 'POST',
-            body: JSON.stringify(data)
-        });
+        const { DELAI_POST_MS, TENTATIVES_POST, PAUSE_RENVOI_MS } = NANCY_CONFIG.REQUETES;
+        const cle = uuidAleatoire();
+        const body = JSON.stringify(data);
+
+        for (let tentative = 1; ; tentative++) {
+            const abandon = new AbortController();
+            const minuterie = setTimeout(() => abandon.abort(), DELAI_POST_MS);
+            try {
+                return await this.request(endpoint, {
+                    method: 'POST',
+                    headers: { 'Idempotency-Key': cle },
+                    body,
+                    signal: abandon.signal
+                });
+            } catch (error) {
+                if (tentative >= TENTATIVES_POST || !this.estRenvoyable(error)) {
+                    throw error;
+                }
+                console.warn(`Renvoi ${tentative}/${TENTATIVES_POST - 1} de ${endpoint}:`, error.message);
+                await new Promise(resolve => setTimeout(resolve, PAUSE_RENVOI_MS * tentative));
+            } finally {
+                clearTimeout(minuterie);
+            }
+        }
+    }
+
+    /**
+     * Indique si une requête en échec peut être renvoyée : délai dépassé,
+     * erreur réseau ou erreur du serveur. Une réponse applicative (table déjà
+     * réservée, données invalides) n'est jamais renvoyée.
+     * @param {Error} error - Erreur levée par request()
+     * @returns {boolean} true si un renvoi peut aboutir
+     */
+    estRenvoyable(error) {
+        return error.name === 'AbortError'
+            || error instanceof TypeError
+            || (error.status !== undefined && error.status >= 500);
     }
 }
\ No newline at end of file
@@ -1,3 +1,7 @@
+BEGIN EXECUTE IMMEDIATE 'DROP TABLE reservation_archive CASCADE CONSTRAINTS'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP TABLE liste_attente CASCADE CONSTRAINTS'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP TABLE reservation CASCADE CONSTRAINTS'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP TABLE tables_resto CASCADE CONSTRAINTS'; EXCEPTION WHEN OTHERS THEN NULL; END;
@@ -14,12 +18,15 @@ BEGIN EXECUTE IMMEDIATE 'DROP SEQUENCE seq_creneau'; EXCEPTION WHEN OTHERS THEN
 /
 BEGIN EXECUTE IMMEDIATE 'DROP SEQUENCE seq_reservation'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP SEQUENCE seq_liste_attente'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 
 
 CREATE SEQUENCE seq_restaurant START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE seq_tables_resto START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE seq_creneau START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE seq_reservation START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE seq_liste_attente START WITH 1 INCREMENT BY 1;
 
 
 CREATE TABLE restaurant (
@@ -67,6 +74,38 @@ CREATE TABLE reservation (
                              CONSTRAINT chk_reservation_date CHECK (date_reservation >= DATE '2025-01-01')
 );
 
+-- Réservations passées déplacées par l'archivage du service BD. Sans clé étrangère :
+-- elles restent consultables après la suppression de leur table ou de leur restaurant.
+CREATE TABLE reservation_archive (
+                                     id NUMBER PRIMARY KEY,
+                                     restaurant_id NUMBER NOT NULL,
+                                     table_id NUMBER NOT NULL,
+                                     creneau_id NUMBER NOT NULL,
+                                     date_reservation DATE NOT NULL,
+                                     nom_client VARCHAR2(100) NOT NULL,
+                                     prenom_client VARCHAR2(100) NOT NULL,
+                                     telephone VARCHAR2(20) NOT NULL,
+                                     nb_convives NUMBER NOT NULL,
+                                     date_creation TIMESTAMP,
+                                     statut VARCHAR2(20) NOT NULL,
+                                     date_archivage TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE liste_attente (
+                               id NUMBER PRIMARY KEY,
+                               restaurant_id NUMBER NOT NULL,
+                               creneau_id NUMBER NOT NULL,
+                               date_reservation DATE NOT NULL,
+                               nom_client VARCHAR2(100) NOT NULL,
+                               prenom_client VARCHAR2(100) NOT NULL,
+                               telephone VARCHAR2(20) NOT NULL,
+                               nb_convives NUMBER NOT NULL,
+                               date_inscription TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                               statut VARCHAR2(20) DEFAULT 'en_attente' CHECK (statut IN ('en_attente', 'promue', 'retiree')),
+                               reservation_id NUMBER,
+                               CONSTRAINT chk_attente_personnes CHECK (nb_convives BETWEEN 1 AND 20)
+);
+
 
 ALTER TABLE tables_resto ADD CONSTRAINT fk_table_restaurant
     FOREIGN KEY (restaurant_id) REFERENCES restaurant(id) ON DELETE CASCADE;
@@ -80,14 +119,33 @@ ALTER TABLE reservation ADD CONSTRAINT fk_reservation_table
 ALTER TABLE reservation ADD CONSTRAINT fk_reservation_creneau
     FOREIGN KEY (creneau_id) REFERENCES creneau(id);
 
-ALTER TABLE reservation ADD CONSTRAINT uk_reservation_unique
-    UNIQUE (table_id, creneau_id, date_reservation);
+ALTER TABLE liste_attente ADD CONSTRAINT fk_attente_restaurant
+    FOREIGN KEY (restaurant_id) REFERENCES restaurant(id) ON DELETE CASCADE;
+
+ALTER TABLE liste_attente ADD CONSTRAINT fk_attente_creneau
+    FOREIGN KEY (creneau_id) REFERENCES creneau(id);
+
+-- Une table ne peut avoir qu'une réservation confirmée par créneau et par date.
+-- Les lignes annulées ont une clé entièrement NULL et ne sont donc pas indexées.
+CREATE UNIQUE INDEX uk_reservation_confirmee ON reservation (
+    CASE WHEN statut = 'confirmee' THEN table_id END,
+    CASE WHEN statut = 'confirmee' THEN creneau_id END,
+    CASE WHEN statut = 'confirmee' THEN date_reservation END
+);
 
 
 CREATE INDEX idx_reservation_date ON reservation(date_reservation);
-CREATE INDEX idx_reservation_table_date ON reservation(table_id, date_reservation);
+-- Historique et recherche par client, parcourus par clé (date_reservation, id)
+CREATE INDEX idx_reservation_table_date ON reservation(table_id, date_reservation, id);
+CREATE INDEX idx_reservation_telephone ON reservation(telephone, date_reservation, id);
 CREATE INDEX idx_reservation_creneau ON reservation(creneau_id);
 CREATE INDEX idx_tables_restaurant ON tables_resto(restaurant_id);
+-- Demandes en attente relues au démarrage du service BD
+CREATE INDEX idx_attente_statut_date ON liste_attente(statut, date_reservation);
+-- Historique archivé d'un restaurant, parcouru par clé (date_reservation, id)
+CREATE INDEX idx_archive_restaurant_date ON reservation_archive(restaurant_id, date_reservation, id);
+-- Analyses d'occupation de tous les restaurants d'une période
+CREATE INDEX idx_archive_date ON reservation_archive(date_reservation);
 
 
 INSERT INTO creneau (id, libelle, heure_debut, heure_fin, actif, ordre_affichage)
@@ -123,48 +181,71 @@ INSERT INTO restaurant (id, nom, adresse, telephone, latitude, longitude) VALUES
 INSERT INTO restaurant (id, nom, adresse, telephone, latitude, longitude) VALUES
     (seq_restaurant.NEXTVAL, 'Chicken Spot', '3 bis Rue des Tiercelins, 54000 Nancy', '03 83 35 00 02', 48.6918, 6.1816);
 
--- Insertion des tables (6 par restaurant)
-DECLARE
-    nb_places NUMBER;
-BEGIN
-    FOR resto_id IN 1..9 LOOP
-            FOR table_num IN 1..6 LOOP
-                    CASE
-                        WHEN resto_id IN (6, 7) THEN -- CROUS (plus de places)
-                        CASE table_num
-                            WHEN 1 THEN nb_places := 4;
-                            WHEN 2 THEN nb_places := 6;
-                            WHEN 3 THEN nb_places := 8;
-                            WHEN 4 THEN nb_places := 10;
-                            WHEN 5 THEN nb_places := 12;
-                            WHEN 6 THEN nb_places := 4;
-                            END CASE;
-                        WHEN resto_id IN (1, 2, 3, 9) THEN -- Fast-foods
-                        CASE table_num
-                            WHEN 1 THEN nb_places := 2;
-                            WHEN 2 THEN nb_places := 2;
-                            WHEN 3 THEN nb_places := 4;
-                            WHEN 4 THEN nb_places := 4;
-                            WHEN 5 THEN nb_places := 6;
-                            WHEN 6 THEN nb_places := 2;
-                            END CASE;
-                        ELSE -- Restaurants traditionnels
-                        CASE table_num
-                            WHEN 1 THEN nb_places := 2;
-                            WHEN 2 THEN nb_places := 4;
-                            WHEN 3 THEN nb_places := 4;
-                            WHEN 4 THEN nb_places := 6;
-                            WHEN 5 THEN nb_places := 8;
-                            WHEN 6 THEN nb_places := 2;
-                            END CASE;
-                        END CASE;
-
-                    INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places)
-                    VALUES (seq_tables_resto.NEXTVAL, resto_id, table_num, nb_places);
-                END LOOP;
-        END LOOP;
-END;
-/
+-- Insertion des tables (6 par restaurant) : la restauration rapide (1, 2, 3 et 9) a de
+-- petites tables, les CROUS (6 et 7) de grandes tables, les restaurants traditionnels
+-- (4, 5 et 8) des tables de 2 à 8 places.
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 1, 1, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 1, 2, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 1, 3, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 1, 4, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 1, 5, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 1, 6, 2);
+
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 2, 1, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 2, 2, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 2, 3, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 2, 4, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 2, 5, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 2, 6, 2);
+
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 3, 1, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 3, 2, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 3, 3, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 3, 4, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 3, 5, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 3, 6, 2);
+
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 4, 1, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 4, 2, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 4, 3, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 4, 4, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 4, 5, 8);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 4, 6, 2);
+
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 5, 1, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 5, 2, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 5, 3, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 5, 4, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 5, 5, 8);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 5, 6, 2);
+
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 6, 1, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 6, 2, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 6, 3, 8);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 6, 4, 10);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 6, 5, 12);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 6, 6, 4);
+
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 7, 1, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 7, 2, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 7, 3, 8);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 7, 4, 10);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 7, 5, 12);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 7, 6, 4);
+
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 8, 1, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 8, 2, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 8, 3, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 8, 4, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 8, 5, 8);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 8, 6, 2);
+
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 9, 1, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 9, 2, 2);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 9, 3, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 9, 4, 4);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 9, 5, 6);
+INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (seq_tables_resto.NEXTVAL, 9, 6, 2);
 
 INSERT INTO reservation (id, table_id, creneau_id, date_reservation, nom_client, prenom_client, telephone, nb_convives)
 VALUES (seq_reservation.NEXTVAL, 3, 1, TRUNC(SYSDATE), 'Korban', 'Ryan', '0612345678', 4);
@@ -2,16 +2,90 @@ import utils.Configurateur;
 
 /**
  * Configuration du service BD.
- * Contient les paramètres de connexion à la base Oracle et au service central.
+ * Contient le type de stockage (Oracle ou base embarquée), les paramètres de
+ * connexion à la base Oracle, du pool de connexions, du journal des réservations,
+ * de la partition servie et du service central.
  */
 public class BDConfig {
 
+    public final String stockage;
+
+    public final String embarqueUrl;
+
+    public final String embarqueScript;
+
     public final String jdbcUrl;
 
     public final String jdbcUser;
 
     public final String jdbcPassword;
 
+    public final int poolTailleMin;
+
+    public final int poolTailleMax;
+
+    public final long poolAttenteMaxMs;
+
+    public final long poolSeuilFuiteMs;
+
+    public final int poolValidationTimeoutSecondes;
+
+    public final long poolValidationInactiviteMs;
+
+    public final int poolCacheRequetes;
+
+    public final int concurrenceMax;
+
+    public final int concurrenceFileMax;
+
+    public final long concurrenceAttenteMaxMs;
+
+    public final long cacheTtlSecondes;
+
+    public final int fluxRetention;
+
+    public final long fluxIntervalleMs;
+
+    public final int optionDureeSecondes;
+
+    public final int optionDureeMaxSecondes;
+
+    public final int attenteMaxCreneau;
+
+    public final int importTailleLot;
+
+    public final int archivageHorizonJours;
+
+    public final int archivageAnnuleesJours;
+
+    public final int archivageTailleLot;
+
+    public final long archivagePauseMs;
+
+    public final long archivageIntervalleMinutes;
+
+    public final int analyseCacheMax;
+
+    public final long analyseCacheTtlSecondes;
+
+    public final String journalRepertoire;
+
+    public final int journalSegmentMo;
+
+    public final long journalSynchronisationMs;
+
+    public final boolean journalSynchrone;
+
+    public final String partitionNom;
+
+    public final int partitionNumero;
+
+    public final int partitionNombre;
+
+    public final String partitionSlots;
+
+    public final boolean partitionLectureSeule;
+
     public final String centralHost;
 
     public final int centralPort;
@@ -22,9 +96,45 @@ public class BDConfig {
      * @param config le gestionnaire de configuration
      */
     public BDConfig(Configurateur config) {
+        this.stockage = config.getString("bd.stockage");
+        this.embarqueUrl = config.getString("bd.embarque.url");
+        this.embarqueScript = config.getString("bd.embarque.script");
         this.jdbcUrl = config.getString("bd.jdbc.url");
         this.jdbcUser = config.getString("bd.jdbc.user");
         this.jdbcPassword = config.getString("bd.jdbc.password");
+        this.poolTailleMin = config.getInt("bd.pool.taille.min");
+        this.poolTailleMax = config.getInt("bd.pool.taille.max");
+        this.poolAttenteMaxMs = config.getInt("bd.pool.attente.max.ms");
+        this.poolSeuilFuiteMs = config.getInt("bd.pool.fuite.seuil.ms");
+        this.poolValidationTimeoutSecondes = config.getInt("bd.pool.validation.timeout.s");
+        this.poolValidationInactiviteMs = config.getInt("bd.pool.validation.inactivite.ms");
+        this.poolCacheRequetes = config.getInt("bd.pool.cache.requetes");
+        this.concurrenceMax = config.getInt("bd.concurrence.max");
+        this.concurrenceFileMax = config.getInt("bd.concurrence.file.max");
+        this.concurrenceAttenteMaxMs = config.getInt("bd.concurrence.attente.max.ms");
+        this.cacheTtlSecondes = config.getInt("bd.cache.ttl.secondes");
+        this.fluxRetention = config.getInt("bd.flux.retention");
+        this.fluxIntervalleMs = config.getInt("bd.flux.intervalle.ms");
+        this.optionDureeSecondes = config.getInt("bd.option.duree.secondes");
+        this.optionDureeMaxSecondes = config.getInt("bd.option.duree.max.secondes");
+        this.attenteMaxCreneau = config.getInt("bd.attente.max.creneau");
+        this.importTailleLot = config.getInt("bd.import.taille.lot");
+        this.archivageHorizonJours = config.getInt("bd.archivage.horizon.jours");
+        this.archivageAnnuleesJours = config.getInt("bd.archivage.annulees.jours");
+        this.archivageTailleLot = config.getInt("bd.archivage.taille.lot");
+        this.archivagePauseMs = config.getInt("bd.archivage.pause.ms");
+        this.archivageIntervalleMinutes = config.getInt("bd.archivage.intervalle.minutes");
+        this.analyseCacheMax = config.getInt("bd.analyse.cache.max");
+        this.analyseCacheTtlSecondes = config.getInt("bd.analyse.cache.ttl.secondes");
+        this.journalRepertoire = config.getString("bd.journal.repertoire");
+        this.journalSegmentMo = config.getInt("bd.journal.segment.mo");
+        this.journalSynchronisationMs = config.getInt("bd.journal.synchronisation.ms");
+        this.journalSynchrone = config.getBoolean("bd.journal.synchrone");
+        this.partitionNom = config.getString("bd.partition.nom");
+        this.partitionNumero = config.getInt("bd.partition.numero");
+        this.partitionNombre = config.getInt("bd.partition.nombre");
+        this.partitionSlots = config.getString("bd.partition.slots");
+        this.partitionLectureSeule = config.getBoolean("bd.partition.lecture.seule");
         this.centralHost = config.getString("central.host");
         this.centralPort = config.getInt("central.rmi.port");
     }
@@ -0,0 +1,89 @@
+import dao.PoolConnexions;
+import dao.RestaurantDAO;
+import importation.ImportateurMasse;
+import interfaces.ServiceCentral;
+import org.json.JSONObject;
+import utils.Configurateur;
+
+import java.nio.file.Path;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Outil d'import en masse des restaurants et de leurs tables dans la base Oracle.
+ *
+ * Utilise la configuration du service BD (connexion à la base, service central).
+ * Une fois les fichiers importés, il demande au service central d'invalider le
+ * référentiel des instances du service BD inscrites : les nouveaux restaurants
+ * sont servis sans attendre l'expiration des caches.
+ *
+ * Usage : {@code java -cp ... Importation <config bd.properties> <fichier.csv|fichier.json>...}
+ */
+public class Importation {
+
+    private static final Logger LOGGER = Logger.getLogger(Importation.class.getName());
+
+    /**
+     * Point d'entrée de l'outil d'import.
+     *
+     * @param args le fichier de configuration du service BD, puis les fichiers à importer
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage : Importation <config bd.properties> <fichier.csv|fichier.json>...");
+            System.exit(2);
+        }
+
+        BDConfig config = new BDConfig(new Configurateur(args[0]));
+        if ("embarque".equals(config.stockage)) {
+            System.err.println("La base embarquée vit dans le processus du service BD : import impossible");
+            System.exit(2);
+        }
+
+        LOGGER.info("=== Import en masse des restaurants ===");
+        LOGGER.info("URL BD: " + config.jdbcUrl + ", lots de " + config.importTailleLot + " restaurants");
+
+        ImportateurMasse importateur = null;
+        try (PoolConnexions pool = new PoolConnexions(config.jdbcUrl, config.jdbcUser, config.jdbcPassword,
+                1, 1, config.poolAttenteMaxMs, config.poolSeuilFuiteMs, config.poolValidationTimeoutSecondes,
+                config.poolValidationInactiviteMs, config.poolCacheRequetes)) {
+            importateur = new ImportateurMasse(new RestaurantDAO(pool), config.importTailleLot);
+            for (int i = 1; i < args.length; i++) {
+                JSONObject bilan = importateur.importer(Path.of(args[i]));
+                System.out.println(bilan.toString(2));
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Import interrompu", e);
+            // Les lots validés avant l'erreur sont en base : ils doivent être servis
+            invaliderReferentiel(config, importateur != null ? importateur.getNbEcrits() : 0);
+            System.exit(1);
+        }
+
+        invaliderReferentiel(config, importateur.getNbEcrits());
+    }
+
+    /**
+     * Demande au service central d'invalider le référentiel des instances du service BD.
+     * Sans service central joignable, les caches expirent d'eux-mêmes
+     * (bd.cache.ttl.secondes).
+     *
+     * @param config la configuration du service BD
+     * @param ecrits le nombre de restaurants écrits en base, lots d'un import interrompu compris
+     */
+    private static void invaliderReferentiel(BDConfig config, int ecrits) {
+        if (ecrits == 0) {
+            return;
+        }
+        try {
+            Registry registry = LocateRegistry.getRegistry(config.centralHost, config.centralPort);
+            ServiceCentral serviceCentral = (ServiceCentral) registry.lookup("ServiceCentral");
+            int invalidees = serviceCentral.invaliderReferentiel();
+            LOGGER.info("Référentiel invalidé sur " + invalidees + " instance(s) du service BD");
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Service central injoignable : les caches expireront après "
+                    + config.cacheTtlSecondes + " s", e);
+        }
+    }
+}
@@ -1,11 +1,24 @@
 import interfaces.ServiceCentral;
 import interfaces.ServiceBD;
+import archivage.ArchivageReservations;
+import dao.PoolConnexions;
+import dao.RestaurantDAO;
+import dao.Stockage;
+import dao.StockageEmbarque;
+import dao.StockageLimite;
+import flux.FluxChangements;
+import journal.JournalReservations;
+import model.PartitionBD;
 import rmi.BaseDonnee;
+import rmi.ParametresBaseDonnee;
 import utils.Configurateur;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
+import java.sql.SQLException;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -31,7 +44,60 @@ public class Main {
             LOGGER.info("=== Démarrage du Service BD ===");
             logConfig(config);
 
-            BaseDonnee baseDonnee = new BaseDonnee(config.jdbcUrl, config.jdbcUser, config.jdbcPassword);
+            PartitionBD partition = PartitionBD.lire(config.partitionNom, config.partitionNumero,
+                    config.partitionNombre, config.partitionSlots);
+            if (config.partitionLectureSeule) {
+                partition = partition.enLectureSeule();
+            }
+
+            boolean embarque = "embarque".equals(config.stockage);
+            PoolConnexions pool = embarque
+                    ? new PoolConnexions(config.embarqueUrl, "sa", "",
+                            config.poolTailleMin, config.poolTailleMax, config.poolAttenteMaxMs,
+                            config.poolSeuilFuiteMs, config.poolValidationTimeoutSecondes,
+                            config.poolValidationInactiviteMs, config.poolCacheRequetes)
+                    : new PoolConnexions(config.jdbcUrl, config.jdbcUser, config.jdbcPassword,
+                            config.poolTailleMin, config.poolTailleMax, config.poolAttenteMaxMs,
+                            config.poolSeuilFuiteMs, config.poolValidationTimeoutSecondes,
+                            config.poolValidationInactiviteMs, config.poolCacheRequetes);
+
+            Stockage base = embarque
+                    ? new StockageEmbarque(pool, config.embarqueScript, partition.getNumero(),
+                            partition.getNombrePartitions())
+                    : new RestaurantDAO(pool, partition.getNumero(), partition.getNombrePartitions());
+            Stockage stockage = new StockageLimite(base, config.concurrenceMax, config.concurrenceFileMax,
+                    config.concurrenceAttenteMaxMs);
+
+            JournalReservations journal = null;
+            if (!config.journalRepertoire.isEmpty()) {
+                journal = new JournalReservations(Path.of(config.journalRepertoire),
+                        config.journalSegmentMo * 1024 * 1024, config.journalSynchronisationMs,
+                        config.journalSynchrone);
+                if (embarque) {
+                    restaurerDepuisJournal(journal, (StockageEmbarque) base);
+                }
+            }
+
+            FluxChangements changements = new FluxChangements(partition.getNom(), config.fluxRetention,
+                    config.fluxIntervalleMs);
+            ArchivageReservations archivage = null;
+            if (config.archivageHorizonJours > 0 && !partition.isLectureSeule()) {
+                archivage = new ArchivageReservations(stockage, config.archivageHorizonJours,
+                        config.archivageAnnuleesJours, config.archivageTailleLot, config.archivagePauseMs);
+                archivage.demarrer(config.archivageIntervalleMinutes);
+            }
+            ParametresBaseDonnee parametres = new ParametresBaseDonnee();
+            parametres.journal = journal;
+            parametres.partition = partition;
+            parametres.changements = changements;
+            parametres.archivage = archivage;
+            parametres.ttlReferentielSecondes = config.cacheTtlSecondes;
+            parametres.dureeOptionSecondes = config.optionDureeSecondes;
+            parametres.dureeOptionMaxSecondes = config.optionDureeMaxSecondes;
+            parametres.attenteMaxParCreneau = config.attenteMaxCreneau;
+            parametres.analysesMax = config.analyseCacheMax;
+            parametres.ttlAnalysesSecondes = config.analyseCacheTtlSecondes;
+            BaseDonnee baseDonnee = new BaseDonnee(stockage, parametres);
 
             ServiceBD serviceBDStub = (ServiceBD) UnicastRemoteObject.exportObject(baseDonnee, 0);
 
@@ -48,7 +114,7 @@ public class Main {
                 System.exit(1);
             }
 
-            addShutdownHook(serviceCentral);
+            addShutdownHook(serviceCentral, serviceBDStub, baseDonnee, partition, pool, journal, archivage);
 
             Thread.currentThread().join();
 
@@ -64,23 +130,98 @@ public class Main {
      * @param config la configuration à afficher
      */
     private static void logConfig(BDConfig config) {
-        LOGGER.info("URL BD: " + config.jdbcUrl);
+        if ("embarque".equals(config.stockage)) {
+            LOGGER.info("Stockage: base embarquée " + config.embarqueUrl + " (script " + config.embarqueScript + ")");
+        } else {
+            LOGGER.info("URL BD: " + config.jdbcUrl);
+        }
+        LOGGER.info("Pool de connexions: " + config.poolTailleMin + " à " + config.poolTailleMax + " connexions");
+        LOGGER.info("Concurrence BD: " + config.concurrenceMax + " opérations, file de "
+                + config.concurrenceFileMax);
+        if (config.journalRepertoire.isEmpty()) {
+            LOGGER.info("Journal des réservations: désactivé");
+        } else {
+            LOGGER.info("Journal des réservations: " + config.journalRepertoire
+                    + (config.journalSynchrone ? " (écritures synchrones)" : ""));
+        }
+        LOGGER.info("Flux de changements: " + config.fluxRetention + " changements retenus, diffusion toutes les "
+                + config.fluxIntervalleMs + " ms");
+        LOGGER.info("Options sur les tables: " + config.optionDureeSecondes + " s par défaut, "
+                + config.optionDureeMaxSecondes + " s au plus");
+        LOGGER.info("Listes d'attente: " + config.attenteMaxCreneau + " demandes par créneau au plus");
+        if (config.archivageHorizonJours > 0) {
+            LOGGER.info("Archivage: réservations de plus de " + config.archivageHorizonJours + " jours ("
+                    + config.archivageAnnuleesJours + " jours si annulées), lots de " + config.archivageTailleLot
+                    + ", toutes les " + config.archivageIntervalleMinutes + " min");
+        } else {
+            LOGGER.info("Archivage: désactivé");
+        }
+        LOGGER.info("Analyses d'occupation: " + config.analyseCacheMax + " gardées au plus, "
+                + config.analyseCacheTtlSecondes + " s chacune");
+        LOGGER.info("Partition: " + config.partitionNom + " (" + config.partitionNumero + "/" + config.partitionNombre
+                + (config.partitionSlots.isEmpty() ? ", tout l'anneau" : ", positions " + config.partitionSlots)
+                + (config.partitionLectureSeule ? ", lecture seule" : "") + ")");
         LOGGER.info("Service Central: " + config.centralHost + ":" + config.centralPort);
     }
 
     /**
-     * Configure un hook d'arrêt pour se désenregistrer proprement.
+     * Rejoue le journal dans la base embarquée, qui repart vide à chaque démarrage.
+     *
+     * @param journal le journal des réservations
+     * @param stockage la base embarquée
+     */
+    private static void restaurerDepuisJournal(JournalReservations journal, StockageEmbarque stockage)
+            throws IOException, SQLException {
+        int[] restaurees = new int[1];
+        int relues = journal.rejouer(1, evenement -> {
+            try {
+                if (stockage.restaurer(evenement.getReservation())) {
+                    restaurees[0]++;
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Restauration impossible de l'évènement "
+                        + evenement.getSequence() + ": " + e.getMessage(), e);
+            }
+        });
+        stockage.terminerRestauration();
+        LOGGER.info("Journal rejoué dans la base embarquée: " + relues + " évènement(s), "
+                + restaurees[0] + " appliqué(s)");
+    }
+
+    /**
+     * Configure un hook d'arrêt pour se désenregistrer proprement, arrêter le
+     * service, fermer le journal et le pool de connexions.
      *
      * @param serviceCentral le service central pour la désinscription
+     * @param serviceBD l'instance inscrite, à désinscrire si c'est un réplica
+     * @param baseDonnee le service à arrêter
+     * @param partition la partition servie, à désinscrire
+     * @param pool le pool de connexions à fermer
+     * @param journal le journal à fermer, ou null s'il est désactivé
+     * @param archivage l'archivage à arrêter, ou null s'il est désactivé
      */
-    private static void addShutdownHook(ServiceCentral serviceCentral) {
+    private static void addShutdownHook(ServiceCentral serviceCentral, ServiceBD serviceBD, BaseDonnee baseDonnee,
+                                        PartitionBD partition, PoolConnexions pool, JournalReservations journal,
+                                        ArchivageReservations archivage) {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             try {
-                serviceCentral.supprimerService("BD");
+                if (partition.isLectureSeule()) {
+                    serviceCentral.supprimerReplicaBD(serviceBD);
+                } else {
+                    serviceCentral.supprimerServiceBD(partition.getNom());
+                }
                 LOGGER.info("Service BD désinscrit du Service Central");
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "Erreur lors de la désinscription", e);
             }
+            baseDonnee.close();
+            if (archivage != null) {
+                archivage.close();
+            }
+            if (journal != null) {
+                journal.close();
+            }
+            pool.close();
         }));
     }
 }
\ No newline at end of file
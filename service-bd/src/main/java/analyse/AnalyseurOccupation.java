@@ -0,0 +1,367 @@
+package analyse;
+
+import cache.ReferentielCache;
+import dao.Stockage;
+import model.AgregatOccupation;
+import model.AnalyseOccupation;
+import model.Creneau;
+import model.OccupationCreneau;
+import model.PartitionBD;
+import model.Restaurant;
+import model.TableResto;
+import org.json.JSONObject;
+import utils.CodecDate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Analyses de l'occupation des restaurants sur une période : taux d'occupation
+ * par restaurant, par créneau et par jour de la semaine.
+ *
+ * Les réservations confirmées de la période, y compris celles déjà archivées,
+ * sont comptées en une seule requête groupée par (restaurant, date, créneau). Les lignes obtenues sont cumulées
+ * sur les trois axes par un découpage fork/join : chaque tâche cumule une
+ * tranche de lignes, puis les cumuls partiels sont additionnés. La capacité
+ * offerte (tables et places de chaque créneau actif, pour chaque date) vient
+ * du référentiel.
+ *
+ * Les analyses sont gardées par (restaurant, période), l'analyse de tous les
+ * restaurants de la partition sous le restaurant 0. Une réservation ou une
+ * annulation retire les analyses de son restaurant et de toute la partition
+ * dont la période contient sa date. Une analyse expire aussi après une durée
+ * fixe, pour les écritures que cette instance ne voit pas (réplica en lecture
+ * seule), et dès que le contenu du référentiel change.
+ */
+public class AnalyseurOccupation {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalyseurOccupation.class.getName());
+
+    /** Nombre maximal de jours d'une période analysée. */
+    public static final int NB_JOURS_MAX = 366;
+
+    /** Nombre de lignes en dessous duquel une tâche cumule sans se découper. */
+    private static final int SEUIL_DECOUPAGE = 2048;
+
+    private final Stockage stockage;
+    private final ReferentielCache referentiel;
+    private final PartitionBD partition;
+    private final int tailleMax;
+    private final long ttlMs;
+    private final Map<String, Entree> analyses = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder nbLectures = new LongAdder();
+    private final LongAdder nbSucces = new LongAdder();
+    private final LongAdder nbCalculs = new LongAdder();
+    private final LongAdder nbRetraits = new LongAdder();
+    private volatile long derniereDureeMs;
+
+    /**
+     * Constructeur de l'analyseur.
+     *
+     * @param stockage stockage des réservations
+     * @param referentiel référentiel des restaurants, tables et créneaux
+     * @param partition partition servie, dont les restaurants sont analysés
+     * @param tailleMax nombre maximal d'analyses gardées (0 pour ne rien garder)
+     * @param ttlMs durée de vie d'une analyse gardée
+     */
+    public AnalyseurOccupation(Stockage stockage, ReferentielCache referentiel, PartitionBD partition,
+                               int tailleMax, long ttlMs) {
+        this.stockage = stockage;
+        this.referentiel = referentiel;
+        this.partition = partition;
+        this.tailleMax = tailleMax;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Retourne l'analyse gardée pour un restaurant et une période, ou la calcule.
+     *
+     * @param restaurantId identifiant du restaurant, ou 0 pour tous les restaurants de la partition
+     * @param jourDebut premier jour de la période (voir CodecDate)
+     * @param jourFin dernier jour de la période
+     * @return l'analyse de la période
+     * @throws SQLException en cas d'erreur de lecture en base
+     * @throws IllegalArgumentException si la période est invalide ou le restaurant inconnu
+     */
+    public AnalyseOccupation analyser(int restaurantId, int jourDebut, int jourFin) throws SQLException {
+        if (jourFin < jourDebut) {
+            throw new IllegalArgumentException("La date de fin doit suivre la date de début");
+        }
+        if (jourFin - jourDebut + 1 > NB_JOURS_MAX) {
+            throw new IllegalArgumentException("Période trop longue : " + NB_JOURS_MAX + " jours au plus");
+        }
+        nbLectures.increment();
+        ReferentielCache.Referentiel ref = referentiel.get();
+        String cle = restaurantId + ":" + jourDebut + ":" + jourFin;
+        Entree entree = analyses.get(cle);
+        if (entree != null && entree.versionReferentiel == ref.getVersion()
+                && System.currentTimeMillis() - entree.calculeLe < ttlMs) {
+            nbSucces.increment();
+            return entree.analyse;
+        }
+
+        long versionAvant = version.get();
+        AnalyseOccupation analyse = calculer(ref, restaurantId, jourDebut, jourFin);
+        if (version.get() == versionAvant && tailleMax > 0) {
+            if (analyses.size() >= tailleMax) {
+                long limite = System.currentTimeMillis() - ttlMs;
+                analyses.values().removeIf(e -> e.calculeLe < limite);
+            }
+            Entree nouvelle = new Entree(analyse, restaurantId, jourDebut, jourFin, ref.getVersion());
+            if (analyses.size() < tailleMax) {
+                analyses.put(cle, nouvelle);
+                // Une invalidation entre le contrôle et l'ajout a pu ne pas voir l'analyse
+                if (version.get() != versionAvant) {
+                    analyses.remove(cle, nouvelle);
+                }
+            }
+        }
+        return analyse;
+    }
+
+    /**
+     * Retire les analyses qui couvrent une date d'un restaurant, après une
+     * réservation ou une annulation.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de la réservation (voir CodecDate)
+     */
+    public void invalider(int restaurantId, int jour) {
+        // La version change avant le retrait : un calcul en cours ne sera pas gardé
+        version.incrementAndGet();
+        analyses.values().removeIf(e -> {
+            if ((e.restaurantId != restaurantId && e.restaurantId != 0)
+                    || jour < e.jourDebut || jour > e.jourFin) {
+                return false;
+            }
+            nbRetraits.increment();
+            return true;
+        });
+    }
+
+    /**
+     * Retourne les statistiques de l'analyseur.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        stats.put("tailleMax", tailleMax);
+        stats.put("entrees", analyses.size());
+        stats.put("lectures", nbLectures.sum());
+        stats.put("succes", nbSucces.sum());
+        stats.put("calculs", nbCalculs.sum());
+        stats.put("retraits", nbRetraits.sum());
+        stats.put("derniereDureeMs", derniereDureeMs);
+        return stats;
+    }
+
+    private AnalyseOccupation calculer(ReferentielCache.Referentiel ref, int restaurantId,
+                                       int jourDebut, int jourFin) throws SQLException {
+        long debut = System.currentTimeMillis();
+
+        // Capacité de chaque restaurant analysé : nombre de tables et de places
+        Map<Integer, int[]> capacites = new TreeMap<>();
+        if (restaurantId > 0) {
+            if (ref.getRestaurants().stream().noneMatch(r -> r.getId() == restaurantId)) {
+                throw new IllegalArgumentException("Restaurant inconnu : " + restaurantId);
+            }
+            capacites.put(restaurantId, capacite(ref, restaurantId));
+        } else {
+            for (Restaurant restaurant : ref.getRestaurants()) {
+                if (partition.possede(restaurant.getId())) {
+                    capacites.put(restaurant.getId(), capacite(ref, restaurant.getId()));
+                }
+            }
+        }
+        Set<Integer> creneaux = new HashSet<>();
+        for (Creneau creneau : ref.getCreneauxActifs()) {
+            creneaux.add(creneau.getId());
+        }
+
+        List<OccupationCreneau> lignes = restaurantId > 0
+                ? stockage.compterOccupationsRestaurant(restaurantId,
+                        CodecDate.versSql(jourDebut), CodecDate.versSql(jourFin))
+                : stockage.compterOccupations(CodecDate.versSql(jourDebut), CodecDate.versSql(jourFin));
+        Cumul cumul = ForkJoinPool.commonPool().invoke(
+                new Agregation(lignes, 0, lignes.size(), capacites.keySet(), creneaux));
+
+        AnalyseOccupation analyse = assembler(ref, cumul, capacites, jourDebut, jourFin);
+        nbCalculs.increment();
+        derniereDureeMs = System.currentTimeMillis() - debut;
+        LOGGER.fine("Analyse d'occupation " + restaurantId + " du " + CodecDate.formater(jourDebut)
+                + " au " + CodecDate.formater(jourFin) + " : " + lignes.size() + " lignes en "
+                + derniereDureeMs + " ms");
+        return analyse;
+    }
+
+    /**
+     * Joint les réservations cumulées à la capacité offerte sur chaque axe.
+     * Un restaurant offre chacune de ses tables à chaque créneau actif de chaque date.
+     */
+    private static AnalyseOccupation assembler(ReferentielCache.Referentiel ref, Cumul cumul,
+                                               Map<Integer, int[]> capacites, int jourDebut, int jourFin) {
+        long nbJours = jourFin - jourDebut + 1;
+        long nbCreneaux = ref.getCreneauxActifs().size();
+        long[] joursSemaine = new long[8];
+        for (int jour = jourDebut; jour <= jourFin; jour++) {
+            joursSemaine[jourSemaine(jour)]++;
+        }
+        long tables = 0;
+        long places = 0;
+
+        List<AgregatOccupation> parRestaurant = new ArrayList<>(capacites.size());
+        for (Map.Entry<Integer, int[]> capacite : capacites.entrySet()) {
+            long[] reserve = cumul.parRestaurant.getOrDefault(capacite.getKey(), new long[2]);
+            int nbTables = capacite.getValue()[0];
+            int nbPlaces = capacite.getValue()[1];
+            tables += nbTables;
+            places += nbPlaces;
+            parRestaurant.add(new AgregatOccupation(capacite.getKey(), reserve[0], reserve[1],
+                    nbTables * nbCreneaux * nbJours, nbPlaces * nbCreneaux * nbJours));
+        }
+
+        List<AgregatOccupation> parCreneau = new ArrayList<>();
+        for (Creneau creneau : ref.getCreneauxActifs()) {
+            long[] reserve = cumul.parCreneau.getOrDefault(creneau.getId(), new long[2]);
+            parCreneau.add(new AgregatOccupation(creneau.getId(), reserve[0], reserve[1],
+                    tables * nbJours, places * nbJours));
+        }
+        parCreneau.sort((a, b) -> Integer.compare(a.getCle(), b.getCle()));
+
+        List<AgregatOccupation> parJourSemaine = new ArrayList<>();
+        for (int jour = 1; jour <= 7; jour++) {
+            if (joursSemaine[jour] > 0) {
+                long[] reserve = cumul.parJourSemaine[jour];
+                parJourSemaine.add(new AgregatOccupation(jour, reserve[0], reserve[1],
+                        tables * nbCreneaux * joursSemaine[jour], places * nbCreneaux * joursSemaine[jour]));
+            }
+        }
+        return new AnalyseOccupation(jourDebut, jourFin, parRestaurant, parCreneau, parJourSemaine);
+    }
+
+    private static int[] capacite(ReferentielCache.Referentiel ref, int restaurantId) {
+        int[] capacite = new int[2];
+        for (TableResto table : ref.getTablesRestaurant(restaurantId)) {
+            capacite[0]++;
+            capacite[1] += table.getNbPlaces();
+        }
+        return capacite;
+    }
+
+    /** Jour de la semaine d'un jour de CodecDate, de 1 (lundi) à 7 : le jour 0 est un jeudi. */
+    private static int jourSemaine(int jour) {
+        return Math.floorMod(jour + 3, 7) + 1;
+    }
+
+    /**
+     * Tables et couverts réservés cumulés sur les trois axes ({tables, couverts}).
+     */
+    private static final class Cumul {
+        private final Map<Integer, long[]> parRestaurant = new HashMap<>();
+        private final Map<Integer, long[]> parCreneau = new HashMap<>();
+        private final long[][] parJourSemaine = new long[8][2];
+
+        private void ajouter(OccupationCreneau ligne) {
+            ajouter(parRestaurant.computeIfAbsent(ligne.getRestaurantId(), k -> new long[2]),
+                    ligne.getTablesReservees(), ligne.getCouvertsReserves());
+            ajouter(parCreneau.computeIfAbsent(ligne.getCreneauId(), k -> new long[2]),
+                    ligne.getTablesReservees(), ligne.getCouvertsReserves());
+            ajouter(parJourSemaine[jourSemaine(ligne.getJour())],
+                    ligne.getTablesReservees(), ligne.getCouvertsReserves());
+        }
+
+        private void ajouter(Cumul autre) {
+            autre.parRestaurant.forEach((cle, valeur) ->
+                    ajouter(parRestaurant.computeIfAbsent(cle, k -> new long[2]), valeur[0], valeur[1]));
+            autre.parCreneau.forEach((cle, valeur) ->
+                    ajouter(parCreneau.computeIfAbsent(cle, k -> new long[2]), valeur[0], valeur[1]));
+            for (int jour = 1; jour <= 7; jour++) {
+                ajouter(parJourSemaine[jour], autre.parJourSemaine[jour][0], autre.parJourSemaine[jour][1]);
+            }
+        }
+
+        private static void ajouter(long[] compte, long tables, long couverts) {
+            compte[0] += tables;
+            compte[1] += couverts;
+        }
+    }
+
+    /**
+     * Cumul d'une tranche de lignes, découpée en deux tant qu'elle dépasse le seuil.
+     * Seules les lignes des restaurants analysés et des créneaux actifs sont cumulées.
+     */
+    private static final class Agregation extends RecursiveTask<Cumul> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<OccupationCreneau> lignes;
+        private final int debut;
+        private final int fin;
+        private final Set<Integer> restaurants;
+        private final Set<Integer> creneaux;
+
+        private Agregation(List<OccupationCreneau> lignes, int debut, int fin,
+                           Set<Integer> restaurants, Set<Integer> creneaux) {
+            this.lignes = lignes;
+            this.debut = debut;
+            this.fin = fin;
+            this.restaurants = restaurants;
+            this.creneaux = creneaux;
+        }
+
+        @Override
+        protected Cumul compute() {
+            if (fin - debut <= SEUIL_DECOUPAGE) {
+                Cumul cumul = new Cumul();
+                for (int i = debut; i < fin; i++) {
+                    OccupationCreneau ligne = lignes.get(i);
+                    if (restaurants.contains(ligne.getRestaurantId()) && creneaux.contains(ligne.getCreneauId())) {
+                        cumul.ajouter(ligne);
+                    }
+                }
+                return cumul;
+            }
+            int milieu = (debut + fin) >>> 1;
+            Agregation gauche = new Agregation(lignes, debut, milieu, restaurants, creneaux);
+            gauche.fork();
+            Cumul cumul = new Agregation(lignes, milieu, fin, restaurants, creneaux).compute();
+            cumul.ajouter(gauche.join());
+            return cumul;
+        }
+    }
+
+    /**
+     * Analyse gardée, avec ce qu'il faut pour la retirer ou la juger périmée.
+     */
+    private static final class Entree {
+        private final AnalyseOccupation analyse;
+        private final int restaurantId;
+        private final int jourDebut;
+        private final int jourFin;
+        private final long versionReferentiel;
+        private final long calculeLe = System.currentTimeMillis();
+
+        private Entree(AnalyseOccupation analyse, int restaurantId, int jourDebut, int jourFin,
+                       long versionReferentiel) {
+            this.analyse = analyse;
+            this.restaurantId = restaurantId;
+            this.jourDebut = jourDebut;
+            this.jourFin = jourFin;
+            this.versionReferentiel = versionReferentiel;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package archivage;
+
+import dao.Stockage;
+import org.json.JSONObject;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Archivage périodique des réservations anciennes.
+ *
+ * Les réservations antérieures à l'horizon de rétention, et les réservations
+ * annulées plus tôt encore, quittent la table reservation pour la table
+ * reservation_archive : les index et les lectures des réservations vivantes ne
+ * grossissent plus avec l'historique, qui reste consultable par page.
+ *
+ * Le déplacement se fait par lots, chacun dans sa propre transaction courte,
+ * avec une pause entre deux lots pour laisser passer les réservations en cours.
+ * Toutes les réservations déplacées sont passées : les index en mémoire du
+ * service BD, qui ne portent que sur les dates à venir, ne sont pas touchés.
+ */
+public class ArchivageReservations implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ArchivageReservations.class.getName());
+
+    private final Stockage stockage;
+    private final int horizonJours;
+    private final int horizonAnnuleesJours;
+    private final int tailleLot;
+    private final long pauseMs;
+    private final ScheduledExecutorService planificateur;
+
+    private final LongAdder nbLancements = new LongAdder();
+    private final LongAdder nbArchivees = new LongAdder();
+    private final LongAdder nbErreurs = new LongAdder();
+    private final AtomicLong dernierLancement = new AtomicLong();
+    private final AtomicLong derniereDureeMs = new AtomicLong();
+
+    /**
+     * Constructeur de l'archivage, inactif jusqu'à {@link #demarrer(long)}.
+     *
+     * @param stockage stockage des réservations
+     * @param horizonJours âge en jours au-delà duquel une réservation est archivée
+     * @param horizonAnnuleesJours âge en jours au-delà duquel une réservation annulée est archivée
+     * @param tailleLot nombre de réservations déplacées par transaction
+     * @param pauseMs pause entre deux lots, en millisecondes
+     */
+    public ArchivageReservations(Stockage stockage, int horizonJours, int horizonAnnuleesJours,
+                                 int tailleLot, long pauseMs) {
+        if (horizonJours < 1 || horizonAnnuleesJours < 1 || horizonAnnuleesJours > horizonJours) {
+            throw new IllegalArgumentException("Horizons d'archivage invalides : " + horizonJours
+                    + " jours, " + horizonAnnuleesJours + " jours pour les annulées");
+        }
+        if (tailleLot < 1 || pauseMs < 0) {
+            throw new IllegalArgumentException("Lots d'archivage invalides : " + tailleLot
+                    + " réservations, pause de " + pauseMs + " ms");
+        }
+        this.stockage = stockage;
+        this.horizonJours = horizonJours;
+        this.horizonAnnuleesJours = horizonAnnuleesJours;
+        this.tailleLot = tailleLot;
+        this.pauseMs = pauseMs;
+        this.planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "archivage-reservations");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lance l'archivage à intervalle régulier, une première fois peu après le démarrage.
+     *
+     * @param intervalleMinutes délai entre la fin d'un passage et le début du suivant
+     */
+    public void demarrer(long intervalleMinutes) {
+        if (intervalleMinutes < 1) {
+            throw new IllegalArgumentException("Intervalle d'archivage invalide : " + intervalleMinutes);
+        }
+        planificateur.scheduleWithFixedDelay(this::lancer, 1, intervalleMinutes * 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Archive toutes les réservations au-delà des horizons, lot par lot.
+     *
+     * @return le nombre de réservations archivées
+     * @throws SQLException en cas d'erreur SQL, les lots déjà validés restent archivés
+     */
+    public int archiver() throws SQLException {
+        LocalDate aujourdhui = LocalDate.now();
+        Date avant = Date.valueOf(aujourdhui.minusDays(horizonJours));
+        Date annuleesAvant = Date.valueOf(aujourdhui.minusDays(horizonAnnuleesJours));
+
+        long debut = System.currentTimeMillis();
+        int total = 0;
+        try {
+            while (true) {
+                int archivees = stockage.archiverReservations(avant, annuleesAvant, tailleLot);
+                total += archivees;
+                nbArchivees.add(archivees);
+                if (archivees < tailleLot) {
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            nbLancements.increment();
+            dernierLancement.set(debut);
+            derniereDureeMs.set(System.currentTimeMillis() - debut);
+        }
+        if (total > 0) {
+            LOGGER.info("Archivage : " + total + " réservations déplacées en "
+                    + derniereDureeMs.get() + " ms");
+        }
+        return total;
+    }
+
+    /**
+     * Statistiques de l'archivage.
+     *
+     * @return passages, réservations archivées, erreurs et durée du dernier passage
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        stats.put("horizonJours", horizonJours);
+        stats.put("horizonAnnuleesJours", horizonAnnuleesJours);
+        stats.put("tailleLot", tailleLot);
+        stats.put("lancements", nbLancements.sum());
+        stats.put("archivees", nbArchivees.sum());
+        stats.put("erreurs", nbErreurs.sum());
+        stats.put("dernierLancement", dernierLancement.get());
+        stats.put("derniereDureeMs", derniereDureeMs.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        planificateur.shutdownNow();
+    }
+
+    private void lancer() {
+        try {
+            archiver();
+        } catch (SQLException | RuntimeException e) {
+            nbErreurs.increment();
+            LOGGER.log(Level.WARNING, "Erreur archivage des réservations", e);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package attente;
+
+import dao.Stockage;
+import model.DemandeAttente;
+import org.json.JSONObject;
+import utils.CleCreneau;
+import utils.CodecDate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Listes d'attente des créneaux complets, une par (restaurant, date, créneau).
+ *
+ * Chaque liste est une file bornée en mémoire, dans l'ordre d'inscription, et
+ * chaque demande est aussi écrite en base : les files sont rechargées depuis la
+ * base au démarrage. Les opérations sur une file (inscription, retrait,
+ * promotion) sont sérialisées par un verrou propre à la file : deux créneaux
+ * différents ne se bloquent jamais.
+ *
+ * Quand une annulation libère une table, {@link #promouvoir} choisit dans la file
+ * du créneau le groupe qui l'occupe le mieux : le plus nombreux de ceux qui
+ * tiennent à la table, et à nombre égal le premier inscrit. La réservation est
+ * enregistrée aussitôt, sans que le client ait à redemander la table.
+ *
+ * Les files des dates passées sont purgées périodiquement.
+ */
+public class ListesAttente implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ListesAttente.class.getName());
+
+    private static final long PERIODE_PURGE_MINUTES = 60;
+
+    /**
+     * Enregistrement de la réservation d'une demande promue.
+     */
+    @FunctionalInterface
+    public interface Promotion {
+        /**
+         * @param demande la demande choisie
+         * @return true si la réservation est enregistrée, false si la table est déjà reprise
+         * @throws SQLException en cas d'erreur d'écriture en base
+         */
+        boolean reserver(DemandeAttente demande) throws SQLException;
+    }
+
+    private final Stockage stockage;
+    private final int tailleMax;
+    private final ConcurrentHashMap<Long, List<DemandeAttente>> files = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, DemandeAttente> enAttente = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService purge;
+
+    private final LongAdder nbInscrites = new LongAdder();
+    private final LongAdder nbRefusees = new LongAdder();
+    private final LongAdder nbRetirees = new LongAdder();
+    private final LongAdder nbPromues = new LongAdder();
+    private final LongAdder nbPromotionsManquees = new LongAdder();
+
+    /**
+     * Constructeur des listes, vides jusqu'à {@link #charger()}.
+     *
+     * @param stockage stockage où sont écrites les demandes
+     * @param tailleMax nombre maximal de demandes en attente par créneau
+     */
+    public ListesAttente(Stockage stockage, int tailleMax) {
+        if (tailleMax < 1) {
+            throw new IllegalArgumentException("Taille de liste d'attente invalide : " + tailleMax);
+        }
+        this.stockage = stockage;
+        this.tailleMax = tailleMax;
+        this.purge = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "attente-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purge.scheduleAtFixedRate(this::purgerDatesPassees,
+                PERIODE_PURGE_MINUTES, PERIODE_PURGE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Recharge les demandes en attente des dates à venir.
+     * Appelée au démarrage, avant que les annulations ne soient acceptées.
+     *
+     * @throws SQLException en cas d'erreur de lecture en base
+     */
+    public void charger() throws SQLException {
+        int aujourdhui = (int) LocalDate.now().toEpochDay();
+        files.clear();
+        enAttente.clear();
+        List<DemandeAttente> demandes = stockage.findAttentes(CodecDate.versSql(aujourdhui));
+        for (DemandeAttente demande : demandes) {
+            file(demande.getRestaurantId(), demande.getJour(), demande.getCreneauId()).add(demande);
+            enAttente.put(demande.getId(), demande);
+        }
+        LOGGER.info("Listes d'attente rechargées : " + demandes.size() + " demandes en attente");
+    }
+
+    /**
+     * Inscrit une demande dans la file de son créneau, si la file n'est pas pleine.
+     *
+     * @param demande la demande à inscrire, qui reçoit son identifiant et sa position
+     * @return true si la demande est inscrite, false si la file est pleine
+     * @throws SQLException en cas d'erreur d'écriture en base
+     */
+    public boolean inscrire(DemandeAttente demande) throws SQLException {
+        List<DemandeAttente> file = file(demande.getRestaurantId(), demande.getJour(), demande.getCreneauId());
+        synchronized (file) {
+            if (file.size() >= tailleMax) {
+                nbRefusees.increment();
+                return false;
+            }
+            for (DemandeAttente existante : file) {
+                if (existante.getTelephone().equals(demande.getTelephone())) {
+                    throw new IllegalArgumentException("Ce client est déjà en liste d'attente pour ce créneau");
+                }
+            }
+            stockage.inscrireAttente(demande);
+            file.add(demande);
+            enAttente.put(demande.getId(), demande);
+            demande.setPosition(file.size());
+        }
+        nbInscrites.increment();
+        return true;
+    }
+
+    /**
+     * Retire une demande en attente.
+     *
+     * @param attenteId identifiant de la demande
+     * @return true si la demande était en attente
+     * @throws SQLException en cas d'erreur d'écriture en base
+     */
+    public boolean retirer(int attenteId) throws SQLException {
+        DemandeAttente demande = enAttente.get(attenteId);
+        if (demande == null) {
+            return false;
+        }
+        List<DemandeAttente> file = file(demande.getRestaurantId(), demande.getJour(), demande.getCreneauId());
+        synchronized (file) {
+            if (!file.contains(demande) || !stockage.retirerAttente(attenteId)) {
+                return false;
+            }
+            file.remove(demande);
+            enAttente.remove(attenteId);
+        }
+        demande.setStatut(DemandeAttente.RETIREE);
+        nbRetirees.increment();
+        return true;
+    }
+
+    /**
+     * Promeut la demande qui occupe le mieux une table libérée.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param nbPlaces nombre de places de la table libérée
+     * @param promotion enregistrement de la réservation de la demande choisie
+     * @return la demande promue, ou null si aucune demande ne tient à la table
+     * @throws SQLException en cas d'erreur d'écriture en base
+     */
+    public DemandeAttente promouvoir(int restaurantId, int jour, int creneauId, int nbPlaces,
+                                     Promotion promotion) throws SQLException {
+        List<DemandeAttente> file = files.get(CleCreneau.cle(restaurantId, jour, creneauId));
+        if (file == null) {
+            return null;
+        }
+        synchronized (file) {
+            DemandeAttente choisie = null;
+            for (DemandeAttente demande : file) {
+                if (demande.getNbConvives() <= nbPlaces
+                        && (choisie == null || demande.getNbConvives() > choisie.getNbConvives())) {
+                    choisie = demande;
+                }
+            }
+            if (choisie == null) {
+                return null;
+            }
+            if (!promotion.reserver(choisie)) {
+                nbPromotionsManquees.increment();
+                return null;
+            }
+            file.remove(choisie);
+            enAttente.remove(choisie.getId());
+            choisie.setStatut(DemandeAttente.PROMUE);
+            choisie.setPosition(0);
+            nbPromues.increment();
+            return choisie;
+        }
+    }
+
+    /**
+     * Retourne une demande encore en attente, avec sa position dans la file.
+     *
+     * @param attenteId identifiant de la demande
+     * @return la demande, ou null si elle n'est plus en attente
+     */
+    public DemandeAttente consulter(int attenteId) {
+        DemandeAttente demande = enAttente.get(attenteId);
+        if (demande == null) {
+            return null;
+        }
+        List<DemandeAttente> file = file(demande.getRestaurantId(), demande.getJour(), demande.getCreneauId());
+        synchronized (file) {
+            demande.setPosition(file.indexOf(demande) + 1);
+        }
+        return demande;
+    }
+
+    /**
+     * Liste les demandes en attente sur un créneau, par ordre d'inscription.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @return les demandes, avec leur position
+     */
+    public List<DemandeAttente> lister(int restaurantId, int jour, int creneauId) {
+        List<DemandeAttente> file = files.get(CleCreneau.cle(restaurantId, jour, creneauId));
+        if (file == null) {
+            return new ArrayList<>();
+        }
+        synchronized (file) {
+            for (int i = 0; i < file.size(); i++) {
+                file.get(i).setPosition(i + 1);
+            }
+            return new ArrayList<>(file);
+        }
+    }
+
+    /**
+     * Retourne les statistiques des listes d'attente.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        stats.put("tailleMax", tailleMax);
+        stats.put("creneaux", files.size());
+        stats.put("enAttente", enAttente.size());
+        stats.put("inscrites", nbInscrites.sum());
+        stats.put("refusees", nbRefusees.sum());
+        stats.put("retirees", nbRetirees.sum());
+        stats.put("promues", nbPromues.sum());
+        stats.put("promotionsManquees", nbPromotionsManquees.sum());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        purge.shutdownNow();
+        files.clear();
+        enAttente.clear();
+    }
+
+    private List<DemandeAttente> file(int restaurantId, int jour, int creneauId) {
+        return files.computeIfAbsent(CleCreneau.cle(restaurantId, jour, creneauId), k -> new ArrayList<>());
+    }
+
+    private void purgerDatesPassees() {
+        try {
+            long aujourdhui = LocalDate.now().toEpochDay();
+            int avant = enAttente.size();
+            files.keySet().removeIf(cle -> CleCreneau.jour(cle) < aujourdhui);
+            enAttente.values().removeIf(demande -> demande.getJour() < aujourdhui);
+            int purgees = avant - enAttente.size();
+            if (purgees > 0) {
+                LOGGER.info("Listes d'attente : " + purgees + " demandes de dates passées purgées");
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Erreur purge des listes d'attente", e);
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package cache;
+
+import dao.Stockage;
+import model.OccupationCreneau;
+import org.json.JSONObject;
+import utils.CleCreneau;
+import utils.CodecDate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compteurs en mémoire de l'occupation des restaurants.
+ *
+ * Pour chaque (restaurant, date, créneau), un compteur tient le nombre de tables
+ * réservées et le nombre de couverts de ces réservations. Les deux valeurs sont
+ * rangées dans un même long (couverts sur les 32 bits de poids fort, tables sur
+ * les 32 bits de poids faible) : une réservation ou une annulation les met à jour
+ * par une seule addition atomique, et une lecture les obtient ensemble, cohérentes.
+ * Les compteurs sont indexés par une {@link CleCreneau}, comme l'index de disponibilité, et
+ * répartis dans une table concurrente : deux créneaux différents ne se disputent
+ * jamais le même compteur.
+ *
+ * Les compteurs des dates à venir sont reconstruits depuis la base au démarrage,
+ * puis tenus à jour par les réservations et les annulations enregistrées en base.
+ * Les dates passées sont purgées périodiquement.
+ */
+public class CompteursOccupation implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(CompteursOccupation.class.getName());
+
+    private static final int DECALAGE_COUVERTS = 32;
+    /** Dernier jour du décompte fait au démarrage. */
+    private static final int JOUR_MAX = CodecDate.parser("9999-12-31");
+
+    private static final long PERIODE_PURGE_MINUTES = 60;
+
+    private final Stockage stockage;
+    private final ConcurrentHashMap<Long, AtomicLong> compteurs = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService purge;
+
+    private final LongAdder nbLectures = new LongAdder();
+    private final LongAdder nbMisesAJour = new LongAdder();
+    private volatile long reconstruitLe;
+
+    /**
+     * Constructeur des compteurs, vides jusqu'à {@link #reconstruire()}.
+     *
+     * @param stockage stockage utilisé pour compter les réservations existantes
+     */
+    public CompteursOccupation(Stockage stockage) {
+        this.stockage = stockage;
+        this.purge = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "occupations-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purge.scheduleAtFixedRate(this::purgerDatesPassees,
+                PERIODE_PURGE_MINUTES, PERIODE_PURGE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Reconstruit les compteurs à partir des réservations confirmées à venir.
+     * Appelée au démarrage, avant que les réservations ne soient acceptées.
+     *
+     * @throws SQLException en cas d'erreur de lecture en base
+     */
+    public void reconstruire() throws SQLException {
+        int aujourdhui = (int) LocalDate.now().toEpochDay();
+        compteurs.clear();
+        int nbCreneaux = 0;
+        for (OccupationCreneau occupation : stockage.compterOccupations(CodecDate.versSql(aujourdhui),
+                CodecDate.versSql(JOUR_MAX))) {
+            compteurs.put(CleCreneau.cle(occupation.getRestaurantId(), occupation.getJour(), occupation.getCreneauId()),
+                    new AtomicLong(paquet(occupation.getTablesReservees(), occupation.getCouvertsReserves())));
+            nbCreneaux++;
+        }
+        reconstruitLe = System.currentTimeMillis();
+        LOGGER.info("Compteurs d'occupation reconstruits : " + nbCreneaux + " créneaux occupés");
+    }
+
+    /**
+     * Compte une réservation enregistrée en base.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param couverts nombre de convives de la réservation
+     */
+    public void ajouter(int restaurantId, int jour, int creneauId, int couverts) {
+        compteurs.computeIfAbsent(CleCreneau.cle(restaurantId, jour, creneauId), k -> new AtomicLong())
+                .addAndGet(paquet(1, couverts));
+        nbMisesAJour.increment();
+    }
+
+    /**
+     * Décompte une réservation annulée en base.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param couverts nombre de convives de la réservation
+     */
+    public void retirer(int restaurantId, int jour, int creneauId, int couverts) {
+        // Sans compteur, la réservation n'a pas été comptée : date passée et purgée
+        AtomicLong compteur = compteurs.get(CleCreneau.cle(restaurantId, jour, creneauId));
+        if (compteur != null) {
+            compteur.addAndGet(-paquet(1, couverts));
+            nbMisesAJour.increment();
+        }
+    }
+
+    /**
+     * Retourne le compteur d'un créneau, à décoder avec {@link #tables(long)} et {@link #couverts(long)}.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @return les tables et couverts réservés, dans un même long
+     */
+    public long lire(int restaurantId, int jour, int creneauId) {
+        nbLectures.increment();
+        AtomicLong compteur = compteurs.get(CleCreneau.cle(restaurantId, jour, creneauId));
+        return compteur != null ? compteur.get() : 0L;
+    }
+
+    /**
+     * @param valeur valeur lue par {@link #lire}
+     * @return le nombre de tables réservées
+     */
+    public static int tables(long valeur) {
+        return (int) valeur;
+    }
+
+    /**
+     * @param valeur valeur lue par {@link #lire}
+     * @return le nombre de couverts réservés
+     */
+    public static int couverts(long valeur) {
+        return (int) (valeur >> DECALAGE_COUVERTS);
+    }
+
+    /**
+     * Retourne les statistiques des compteurs.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        stats.put("entrees", compteurs.size());
+        stats.put("lectures", nbLectures.sum());
+        stats.put("misesAJour", nbMisesAJour.sum());
+        stats.put("reconstruitLe", reconstruitLe);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        purge.shutdownNow();
+        compteurs.clear();
+    }
+
+    private void purgerDatesPassees() {
+        try {
+            long aujourdhui = LocalDate.now().toEpochDay();
+            int avant = compteurs.size();
+            compteurs.keySet().removeIf(cle -> CleCreneau.jour(cle) < aujourdhui);
+            int purges = avant - compteurs.size();
+            if (purges > 0) {
+                LOGGER.info("Compteurs d'occupation : " + purges + " entrées passées purgées");
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Erreur purge des compteurs d'occupation", e);
+        }
+    }
+
+    private static long paquet(int tables, int couverts) {
+        return ((long) couverts << DECALAGE_COUVERTS) + tables;
+    }
+
+}
@@ -0,0 +1,526 @@
+package cache;
+
+import dao.Stockage;
+import model.TableResto;
+import org.json.JSONObject;
+import utils.CleCreneau;
+import utils.CodecDate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Index en mémoire de la disponibilité des tables.
+ *
+ * Pour chaque (restaurant, date, créneau), un bitset indique les tables réservées :
+ * le bit i correspond à la i-ème table du restaurant (par numéro de table).
+ * Les bitsets sont indexés par une clé long ({@link CleCreneau}) qui combine les trois identifiants.
+ *
+ * Un bitset est chargé depuis la base à la première lecture. Il est ensuite tenu
+ * à jour par les réservations et les annulations, qui sont écrites en base avant
+ * d'être reportées dans l'index. Les dates passées sont purgées périodiquement.
+ *
+ * La liste des tables vient du cache du référentiel. Si la disposition des salles
+ * change au rechargement du référentiel, tous les bitsets sont abandonnés.
+ *
+ * Pour l'attribution automatique, les tables de chaque restaurant sont aussi
+ * rangées par capacité croissante : la plus petite table libre qui convient est
+ * prise par une opération atomique sur son bit, avant l'écriture en base.
+ *
+ * Sur un réplica en lecture seule, la base est modifiée par la réplication et non
+ * par cette instance : l'index ne garde alors aucun bitset et relit la base à
+ * chaque lecture.
+ *
+ * La taille de l'index est bornée : seuls sont gardés les bitsets d'un restaurant
+ * et d'un créneau connus du référentiel, pour une date comprise entre aujourd'hui
+ * et {@link #HORIZON_JOURS} jours, dans la limite de entreesMax bitsets. Les autres
+ * lectures relisent la base sans rien garder ; la contrainte d'unicité en base
+ * reste alors seule juge des conflits entre deux attributions.
+ */
+public class DisponibiliteIndex implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(DisponibiliteIndex.class.getName());
+
+    private static final long PERIODE_PURGE_MINUTES = 60;
+
+    /** Nombre de jours après aujourd'hui au-delà duquel un bitset n'est pas gardé. */
+    static final int HORIZON_JOURS = 366;
+
+    /** Nombre maximal de bitsets gardés par défaut. */
+    public static final int ENTREES_MAX_DEFAUT = 100_000;
+
+    private static final AtomicLongArray AUCUNE_OCCUPATION = new AtomicLongArray(1);
+
+    private final Stockage stockage;
+    private final ReferentielCache referentielCache;
+    private final ConcurrentHashMap<Long, AtomicLongArray> occupations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService purge;
+    private final boolean memoriser;
+    private final int entreesMax;
+
+    private final LongAdder nbLectures = new LongAdder();
+    private final LongAdder nbChargements = new LongAdder();
+    private final LongAdder nbAttributions = new LongAdder();
+    private final LongAdder nbNonMemorises = new LongAdder();
+
+    private volatile Plan plan;
+
+    /**
+     * Constructeur de l'index.
+     *
+     * @param stockage stockage utilisé pour charger les réservations
+     * @param referentielCache cache du référentiel fournissant les tables
+     */
+    public DisponibiliteIndex(Stockage stockage, ReferentielCache referentielCache) {
+        this(stockage, referentielCache, true);
+    }
+
+    /**
+     * Constructeur de l'index, avec ou sans conservation des bitsets.
+     *
+     * @param stockage stockage utilisé pour charger les réservations
+     * @param referentielCache cache du référentiel fournissant les tables
+     * @param memoriser false pour relire la base à chaque lecture (réplica en lecture seule)
+     */
+    public DisponibiliteIndex(Stockage stockage, ReferentielCache referentielCache, boolean memoriser) {
+        this(stockage, referentielCache, memoriser, ENTREES_MAX_DEFAUT);
+    }
+
+    /**
+     * Constructeur de l'index, avec un nombre maximal de bitsets gardés.
+     *
+     * @param stockage stockage utilisé pour charger les réservations
+     * @param referentielCache cache du référentiel fournissant les tables
+     * @param memoriser false pour relire la base à chaque lecture (réplica en lecture seule)
+     * @param entreesMax nombre maximal de bitsets gardés en mémoire
+     */
+    public DisponibiliteIndex(Stockage stockage, ReferentielCache referentielCache, boolean memoriser,
+                              int entreesMax) {
+        if (entreesMax < 0) {
+            throw new IllegalArgumentException("Nombre maximal d'entrées invalide : " + entreesMax);
+        }
+        this.stockage = stockage;
+        this.memoriser = memoriser;
+        this.entreesMax = entreesMax;
+        this.referentielCache = referentielCache;
+        this.purge = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "disponibilites-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purge.scheduleAtFixedRate(this::purgerDatesPassees,
+                PERIODE_PURGE_MINUTES, PERIODE_PURGE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Retourne les tables libres d'un restaurant pour une date et un créneau.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @return tables libres, triées par numéro
+     * @throws SQLException en cas d'erreur de chargement depuis la base
+     */
+    public List<TableResto> getTablesLibres(int restaurantId, int jour, int creneauId) throws SQLException {
+        Plan courant = getPlan();
+        TableResto[] tables = courant.tables(restaurantId);
+        AtomicLongArray bits = occupation(courant, restaurantId, jour, creneauId);
+
+        List<TableResto> libres = new ArrayList<>(tables.length);
+        for (int i = 0; i < tables.length; i++) {
+            if (!estReservee(bits, i)) {
+                libres.add(copie(tables[i], "libre"));
+            }
+        }
+        return libres;
+    }
+
+    /**
+     * Retourne toutes les tables d'un restaurant avec leur statut pour une date et un créneau.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @return tables avec leur statut ("libre" ou "occupee"), triées par numéro
+     * @throws SQLException en cas d'erreur de chargement depuis la base
+     */
+    public List<TableResto> getTablesAvecStatut(int restaurantId, int jour, int creneauId) throws SQLException {
+        Plan courant = getPlan();
+        TableResto[] tables = courant.tables(restaurantId);
+        AtomicLongArray bits = occupation(courant, restaurantId, jour, creneauId);
+
+        List<TableResto> resultat = new ArrayList<>(tables.length);
+        for (int i = 0; i < tables.length; i++) {
+            resultat.add(copie(tables[i], estReservee(bits, i) ? "occupee" : "libre"));
+        }
+        return resultat;
+    }
+
+    /**
+     * Indique si une table est libre pour une date et un créneau.
+     * Une table inconnue est considérée libre, comme le ferait la requête en base.
+     *
+     * @param tableId identifiant de la table
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @return true si la table est libre
+     * @throws SQLException en cas d'erreur de chargement depuis la base
+     */
+    public boolean estDisponible(int tableId, int jour, int creneauId) throws SQLException {
+        Plan courant = getPlan();
+        Emplacement emplacement = courant.emplacements.get(tableId);
+        if (emplacement == null) {
+            return true;
+        }
+        AtomicLongArray bits = occupation(courant, emplacement.restaurantId, jour, creneauId);
+        return !estReservee(bits, emplacement.position);
+    }
+
+    /**
+     * Prend la plus petite table libre d'au moins nbConvives places (à capacité
+     * égale, celle de plus petit numéro) et la marque occupée dans l'index.
+     *
+     * Le bit de la table est posé par compare-and-set : deux appels concurrents ne
+     * prennent jamais la même table. L'appelant enregistre ensuite la réservation
+     * en base ; si l'écriture échoue sur une erreur, il rend la table avec
+     * {@link #marquerLiberee}. Si la base refuse la table (déjà réservée hors de
+     * l'index), elle reste marquée occupée et l'appelant peut redemander une table.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param nbConvives nombre de convives
+     * @return la table prise, ou null si aucune table libre n'a assez de places
+     * @throws SQLException en cas d'erreur de chargement depuis la base
+     */
+    public TableResto prendreMeilleureTable(int restaurantId, int jour, int creneauId, int nbConvives)
+            throws SQLException {
+        return prendreMeilleureTable(restaurantId, jour, creneauId, nbConvives, tableId -> false);
+    }
+
+    /**
+     * Prend la plus petite table libre d'au moins nbConvives places, comme
+     * {@link #prendreMeilleureTable(int, int, int, int)}, en écartant des tables
+     * que l'index ne connaît pas comme occupées (tables en option par exemple).
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param nbConvives nombre de convives
+     * @param exclue indique, par identifiant, les tables à ne pas prendre
+     * @return la table prise, ou null si aucune table libre n'a assez de places
+     * @throws SQLException en cas d'erreur de chargement depuis la base
+     */
+    public TableResto prendreMeilleureTable(int restaurantId, int jour, int creneauId, int nbConvives,
+                                            IntPredicate exclue) throws SQLException {
+        Plan courant = getPlan();
+        TableResto[] tables = courant.tables(restaurantId);
+        int[] parCapacite = courant.parCapacite(restaurantId);
+        AtomicLongArray bits = occupation(courant, restaurantId, jour, creneauId);
+
+        for (int position : parCapacite) {
+            if (tables[position].getNbPlaces() >= nbConvives && !exclue.test(tables[position].getId())
+                    && prendre(bits, position)) {
+                nbAttributions.increment();
+                return copie(tables[position], "occupee");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reporte dans l'index une réservation enregistrée en base.
+     *
+     * @param tableId identifiant de la table réservée
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     */
+    public void marquerReservee(int tableId, int jour, int creneauId) {
+        modifier(tableId, jour, creneauId, true);
+    }
+
+    /**
+     * Reporte dans l'index une annulation enregistrée en base.
+     *
+     * @param tableId identifiant de la table libérée
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     */
+    public void marquerLiberee(int tableId, int jour, int creneauId) {
+        modifier(tableId, jour, creneauId, false);
+    }
+
+    /**
+     * Retourne les statistiques de l'index.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        stats.put("memorisation", memoriser);
+        stats.put("entrees", occupations.size());
+        stats.put("entreesMax", entreesMax);
+        stats.put("nonMemorises", nbNonMemorises.sum());
+        stats.put("lectures", nbLectures.sum());
+        stats.put("chargements", nbChargements.sum());
+        stats.put("attributions", nbAttributions.sum());
+        Plan courant = plan;
+        stats.put("tables", courant != null ? courant.emplacements.size() : 0);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        purge.shutdownNow();
+        occupations.clear();
+    }
+
+    /**
+     * Retourne le bitset d'occupation, en le chargeant depuis la base au premier accès.
+     * Le chargement a lieu dans computeIfAbsent : une écriture concurrente sur la même
+     * clé attend la fin du chargement avant de s'appliquer.
+     *
+     * Un restaurant sans table n'a rien à charger. Hors des bornes de l'index
+     * (créneau inconnu, date hors horizon, index plein), le bitset est relu sans être gardé.
+     */
+    private AtomicLongArray occupation(Plan courant, int restaurantId,
+                                       int jour, int creneauId) throws SQLException {
+        nbLectures.increment();
+        if (courant.tables(restaurantId).length == 0) {
+            return AUCUNE_OCCUPATION;
+        }
+        long cle = CleCreneau.cle(restaurantId, jour, creneauId);
+        AtomicLongArray bits = occupations.get(cle);
+        if (bits != null) {
+            return bits;
+        }
+
+        if (!memoriser || !aMemoriser(courant, jour, creneauId)) {
+            if (memoriser) {
+                nbNonMemorises.increment();
+            }
+            try {
+                return charger(courant, restaurantId, jour, creneauId);
+            } catch (ChargementException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            return occupations.computeIfAbsent(cle, k -> charger(courant, restaurantId, jour, creneauId));
+        } catch (ChargementException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean aMemoriser(Plan courant, int jour, int creneauId) {
+        long aujourdhui = LocalDate.now().toEpochDay();
+        return jour >= aujourdhui && jour <= aujourdhui + HORIZON_JOURS
+                && courant.referentiel.getCreneau(creneauId) != null
+                && occupations.size() < entreesMax;
+    }
+
+    private AtomicLongArray charger(Plan courant, int restaurantId, int jour, int creneauId) {
+        try {
+            int nbTables = courant.tables(restaurantId).length;
+            AtomicLongArray bits = new AtomicLongArray(Math.max(1, (nbTables + 63) >>> 6));
+            Map<Integer, Emplacement> emplacements = courant.emplacements;
+            for (int tableId : stockage.findTablesReservees(restaurantId, CodecDate.versSql(jour), creneauId)) {
+                Emplacement emplacement = emplacements.get(tableId);
+                if (emplacement != null) {
+                    reserver(bits, emplacement.position);
+                }
+            }
+            nbChargements.increment();
+            return bits;
+        } catch (SQLException e) {
+            throw new ChargementException(e);
+        }
+    }
+
+    private void modifier(int tableId, int jour, int creneauId, boolean reservee) {
+        Plan courant = plan;
+        if (courant == null) {
+            return;
+        }
+        Emplacement emplacement = courant.emplacements.get(tableId);
+        if (emplacement == null) {
+            return;
+        }
+
+        long cle = CleCreneau.cle(emplacement.restaurantId, jour, creneauId);
+        occupations.computeIfPresent(cle, (k, bits) -> {
+            if (reservee) {
+                reserver(bits, emplacement.position);
+            } else {
+                liberer(bits, emplacement.position);
+            }
+            return bits;
+        });
+    }
+
+    private Plan getPlan() throws SQLException {
+        ReferentielCache.Referentiel referentiel = referentielCache.get();
+        Plan courant = plan;
+        if (courant == null || courant.version != referentiel.getVersion()) {
+            synchronized (this) {
+                courant = plan;
+                if (courant == null || courant.version != referentiel.getVersion()) {
+                    Plan nouveau = new Plan(referentiel);
+                    if (courant != null && !Arrays.equals(courant.disposition, nouveau.disposition)) {
+                        occupations.clear();
+                        LOGGER.info("Disposition des salles modifiée, index de disponibilité vidé");
+                    }
+                    plan = nouveau;
+                    courant = nouveau;
+                }
+            }
+        }
+        return courant;
+    }
+
+    private void purgerDatesPassees() {
+        try {
+            long aujourdhui = LocalDate.now().toEpochDay();
+            int avant = occupations.size();
+            occupations.keySet().removeIf(cle -> CleCreneau.jour(cle) < aujourdhui);
+            int purgees = avant - occupations.size();
+            if (purgees > 0) {
+                LOGGER.info("Index de disponibilité : " + purgees + " entrées passées purgées");
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Erreur purge de l'index de disponibilité", e);
+        }
+    }
+
+    private static boolean estReservee(AtomicLongArray bits, int position) {
+        return (bits.get(position >>> 6) & (1L << position)) != 0;
+    }
+
+    private static void reserver(AtomicLongArray bits, int position) {
+        long masque = 1L << position;
+        bits.getAndUpdate(position >>> 6, mot -> mot | masque);
+    }
+
+    /**
+     * Pose le bit d'une table s'il n'est pas déjà posé.
+     *
+     * @return true si la table était libre et vient d'être prise
+     */
+    private static boolean prendre(AtomicLongArray bits, int position) {
+        int indice = position >>> 6;
+        long masque = 1L << position;
+        long mot;
+        do {
+            mot = bits.get(indice);
+            if ((mot & masque) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(indice, mot, mot | masque));
+        return true;
+    }
+
+    private static void liberer(AtomicLongArray bits, int position) {
+        long masque = ~(1L << position);
+        bits.getAndUpdate(position >>> 6, mot -> mot & masque);
+    }
+
+    private static TableResto copie(TableResto table, String statut) {
+        return new TableResto(table.getId(), table.getRestaurantId(), table.getNumeroTable(),
+                table.getNbPlaces(), statut);
+    }
+
+    /**
+     * Plan des salles : tables de chaque restaurant et position de chaque table dans son bitset.
+     * La disposition résume l'ordre des tables pour détecter un changement de positions.
+     * Les positions sont aussi rangées par capacité croissante, puis par numéro de table.
+     */
+    private static final class Plan {
+        private static final TableResto[] AUCUNE = new TableResto[0];
+        private static final int[] AUCUNE_POSITION = new int[0];
+
+        final ReferentielCache.Referentiel referentiel;
+        final long version;
+        final long[] disposition;
+        final Map<Integer, TableResto[]> tablesParRestaurant = new HashMap<>();
+        final Map<Integer, int[]> positionsParCapacite = new HashMap<>();
+        final Map<Integer, Emplacement> emplacements = new HashMap<>();
+
+        Plan(ReferentielCache.Referentiel referentiel) {
+            List<TableResto> tables = referentiel.getTables();
+            this.referentiel = referentiel;
+            this.version = referentiel.getVersion();
+            this.disposition = new long[tables.size()];
+            Map<Integer, List<TableResto>> parRestaurant = new HashMap<>();
+            for (int i = 0; i < tables.size(); i++) {
+                TableResto table = tables.get(i);
+                disposition[i] = ((long) table.getRestaurantId() << 32) | (table.getId() & 0xFFFFFFFFL);
+                parRestaurant.computeIfAbsent(table.getRestaurantId(), k -> new ArrayList<>()).add(table);
+            }
+            for (Map.Entry<Integer, List<TableResto>> entry : parRestaurant.entrySet()) {
+                TableResto[] salle = entry.getValue().toArray(AUCUNE);
+                tablesParRestaurant.put(entry.getKey(), salle);
+                for (int i = 0; i < salle.length; i++) {
+                    emplacements.put(salle[i].getId(), new Emplacement(entry.getKey(), i));
+                }
+                positionsParCapacite.put(entry.getKey(), IntStream.range(0, salle.length).boxed()
+                        .sorted(Comparator.<Integer>comparingInt(i -> salle[i].getNbPlaces())
+                                .thenComparingInt(i -> salle[i].getNumeroTable()))
+                        .mapToInt(Integer::intValue)
+                        .toArray());
+            }
+        }
+
+        TableResto[] tables(int restaurantId) {
+            return tablesParRestaurant.getOrDefault(restaurantId, AUCUNE);
+        }
+
+        int[] parCapacite(int restaurantId) {
+            return positionsParCapacite.getOrDefault(restaurantId, AUCUNE_POSITION);
+        }
+    }
+
+    /**
+     * Restaurant d'une table et rang de la table dans le bitset de ce restaurant.
+     */
+    private static final class Emplacement {
+        final int restaurantId;
+        final int position;
+
+        Emplacement(int restaurantId, int position) {
+            this.restaurantId = restaurantId;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Transporte une erreur SQL hors de computeIfAbsent.
+     */
+    private static final class ChargementException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ChargementException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package cache;
+
+import dao.Stockage;
+import model.Creneau;
+import model.Restaurant;
+import model.TableResto;
+import org.json.JSONObject;
+import utils.JsonModele;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache en lecture des données de référence : restaurants, créneaux et tables.
+ *
+ * Ces données changent rarement. Elles sont chargées en un seul instantané
+ * immuable, avec leur JSON déjà rendu, et servies sans accès à la base.
+ * L'instantané est rechargé à l'expiration de sa durée de vie, ou dès la
+ * lecture qui suit une invalidation explicite.
+ *
+ * Un seul appelant recharge et les autres continuent d'utiliser l'ancien
+ * instantané. Si le rechargement échoue, l'ancien instantané est conservé.
+ * Chaque instantané porte la génération d'invalidation lue avant sa lecture
+ * en base : un rechargement commencé avant une invalidation ne la masque pas,
+ * la lecture suivante recharge encore. Seul un rechargement dont le contenu
+ * diffère de l'instantané précédent change la version et est signalé.
+ */
+public class ReferentielCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ReferentielCache.class.getName());
+
+    private final Stockage stockage;
+    private final long ttlMs;
+    private final Runnable apresRechargement;
+
+    private final AtomicBoolean rechargementEnCours = new AtomicBoolean();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder nbLectures = new LongAdder();
+    private final LongAdder nbChargements = new LongAdder();
+    private final LongAdder nbInvalidations = new LongAdder();
+
+    private volatile Referentiel courant;
+
+    /**
+     * Constructeur du cache.
+     *
+     * @param stockage stockage utilisé pour charger les données de référence
+     * @param ttlMs durée de vie d'un instantané en millisecondes
+     */
+    public ReferentielCache(Stockage stockage, long ttlMs) {
+        this(stockage, ttlMs, () -> { });
+    }
+
+    /**
+     * Constructeur du cache avec une action appelée après chaque rechargement.
+     *
+     * @param stockage stockage utilisé pour charger les données de référence
+     * @param ttlMs durée de vie d'un instantané en millisecondes
+     * @param apresRechargement action appelée après chaque chargement qui suit le premier
+     *                          et change le contenu du référentiel
+     */
+    public ReferentielCache(Stockage stockage, long ttlMs, Runnable apresRechargement) {
+        this.stockage = stockage;
+        this.ttlMs = ttlMs;
+        this.apresRechargement = apresRechargement;
+    }
+
+    /**
+     * Retourne l'instantané courant des données de référence.
+     *
+     * @return l'instantané, chargé depuis la base si nécessaire
+     * @throws SQLException si aucun instantané n'existe et que le chargement échoue
+     */
+    public Referentiel get() throws SQLException {
+        nbLectures.increment();
+        Referentiel referentiel = courant;
+
+        if (referentiel == null) {
+            synchronized (this) {
+                referentiel = courant;
+                if (referentiel == null) {
+                    referentiel = charger();
+                }
+            }
+            return referentiel;
+        }
+
+        boolean perime = referentiel.generation != generation.get()
+                || System.currentTimeMillis() - referentiel.chargeLe > ttlMs;
+        if (perime && rechargementEnCours.compareAndSet(false, true)) {
+            try {
+                referentiel = charger();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Rechargement du référentiel impossible, ancien instantané conservé", e);
+            } finally {
+                rechargementEnCours.set(false);
+            }
+        }
+        return referentiel;
+    }
+
+    /**
+     * Invalide l'instantané courant : la prochaine lecture recharge depuis la base,
+     * et l'instantané courant reste servi si ce rechargement échoue.
+     * À appeler après toute modification des restaurants, créneaux ou tables.
+     */
+    public void invalider() {
+        generation.incrementAndGet();
+        nbInvalidations.increment();
+        LOGGER.info("Référentiel invalidé");
+    }
+
+    /**
+     * Retourne les statistiques du cache.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        Referentiel referentiel = courant;
+        stats.put("charge", referentiel != null);
+        if (referentiel != null) {
+            stats.put("version", referentiel.version);
+            stats.put("ageMs", System.currentTimeMillis() - referentiel.chargeLe);
+        }
+        stats.put("ttlMs", ttlMs);
+        stats.put("lectures", nbLectures.sum());
+        stats.put("chargements", nbChargements.sum());
+        stats.put("invalidations", nbInvalidations.sum());
+        return stats;
+    }
+
+    private Referentiel charger() throws SQLException {
+        // Génération lue avant la base : une invalidation pendant la lecture fera recharger
+        long generationLue = generation.get();
+        List<Restaurant> restaurants = stockage.findAll();
+        List<Creneau> creneaux = stockage.findAllCreneaux();
+        List<TableResto> tables = stockage.findAllTables();
+        String contenu = contenu(restaurants, creneaux, tables);
+
+        Referentiel referentiel;
+        boolean change;
+        synchronized (this) {
+            Referentiel precedent = courant;
+            change = precedent == null || !precedent.contenu.equals(contenu);
+            long version = change ? versions.incrementAndGet() : precedent.version;
+            referentiel = new Referentiel(version, generationLue, contenu, restaurants, creneaux, tables);
+            courant = referentiel;
+        }
+        nbChargements.increment();
+        if (!change) {
+            LOGGER.fine("Référentiel relu sans changement (version " + referentiel.version + ")");
+            return referentiel;
+        }
+        LOGGER.info("Référentiel chargé (version " + referentiel.version + ") : "
+                + referentiel.restaurants.size() + " restaurants, "
+                + referentiel.creneauxActifs.size() + " créneaux actifs, "
+                + referentiel.tables.size() + " tables");
+        if (referentiel.version > 1) {
+            apresRechargement.run();
+        }
+        return referentiel;
+    }
+
+    /**
+     * Rend le contenu des données de référence, sans date de chargement,
+     * pour savoir si un rechargement les a changées.
+     */
+    private static String contenu(List<Restaurant> restaurants, List<Creneau> creneaux, List<TableResto> tables) {
+        StringBuilder contenu = new StringBuilder(JsonModele.restaurants(restaurants, 0));
+        for (Creneau creneau : creneaux) {
+            contenu.append('\n').append(JsonModele.creneau(creneau.getId(), creneau, 0));
+        }
+        for (TableResto table : tables) {
+            contenu.append('\n').append(table.getId()).append(':').append(table.getRestaurantId())
+                    .append(':').append(table.getNumeroTable()).append(':').append(table.getNbPlaces())
+                    .append(':').append(table.getStatut());
+        }
+        return contenu.toString();
+    }
+
+    /**
+     * Instantané immuable des données de référence et de leur rendu JSON.
+     * Les objets du modèle qu'il contient sont partagés et ne doivent pas être modifiés.
+     */
+    public static final class Referentiel {
+        private final long version;
+        private final long generation;
+        private final String contenu;
+        private final long chargeLe;
+        private final List<Restaurant> restaurants;
+        private final List<Creneau> creneauxActifs;
+        private final Map<Integer, Creneau> creneauxParId;
+        private final List<TableResto> tables;
+        private final Map<Integer, TableResto> tablesParId;
+        private final Map<Integer, List<TableResto>> tablesParRestaurant;
+        private final String jsonRestaurants;
+        private final String jsonCreneaux;
+        private final Map<Integer, String> jsonCreneauParId;
+
+        private Referentiel(long version, long generation, String contenu, List<Restaurant> restaurants,
+                            List<Creneau> creneaux, List<TableResto> tables) {
+            this.version = version;
+            this.generation = generation;
+            this.contenu = contenu;
+            this.chargeLe = System.currentTimeMillis();
+            this.restaurants = Collections.unmodifiableList(new ArrayList<>(restaurants));
+            this.tables = Collections.unmodifiableList(new ArrayList<>(tables));
+
+            Map<Integer, TableResto> tableParId = new HashMap<>();
+            Map<Integer, List<TableResto>> parRestaurant = new HashMap<>();
+            for (TableResto table : tables) {
+                tableParId.put(table.getId(), table);
+                parRestaurant.computeIfAbsent(table.getRestaurantId(), id -> new ArrayList<>()).add(table);
+            }
+            this.tablesParId = Collections.unmodifiableMap(tableParId);
+            parRestaurant.replaceAll((id, liste) -> Collections.unmodifiableList(liste));
+            this.tablesParRestaurant = Collections.unmodifiableMap(parRestaurant);
+
+            List<Creneau> actifs = new ArrayList<>();
+            Map<Integer, Creneau> parId = new HashMap<>();
+            Map<Integer, String> jsonParId = new HashMap<>();
+            for (Creneau creneau : creneaux) {
+                parId.put(creneau.getId(), creneau);
+                jsonParId.put(creneau.getId(), JsonModele.creneau(creneau.getId(), creneau, chargeLe));
+                if (creneau.isActif()) {
+                    actifs.add(creneau);
+                }
+            }
+            this.creneauxActifs = Collections.unmodifiableList(actifs);
+            this.creneauxParId = Collections.unmodifiableMap(parId);
+            this.jsonCreneauParId = Collections.unmodifiableMap(jsonParId);
+
+            this.jsonRestaurants = JsonModele.restaurants(this.restaurants, chargeLe);
+            this.jsonCreneaux = JsonModele.creneaux(this.creneauxActifs, chargeLe);
+        }
+
+        /**
+         * @return numéro de version de l'instantané, croissant à chaque changement du contenu
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return date de chargement de l'instantané (epoch millis)
+         */
+        public long getChargeLe() {
+            return chargeLe;
+        }
+
+        /**
+         * @return la liste des restaurants triés par nom
+         */
+        public List<Restaurant> getRestaurants() {
+            return restaurants;
+        }
+
+        /**
+         * @return la liste des créneaux actifs triés par ordre d'affichage
+         */
+        public List<Creneau> getCreneauxActifs() {
+            return creneauxActifs;
+        }
+
+        /**
+         * @param creneauId identifiant du créneau
+         * @return le créneau, actif ou non, ou null s'il n'existe pas
+         */
+        public Creneau getCreneau(int creneauId) {
+            return creneauxParId.get(creneauId);
+        }
+
+        /**
+         * @return toutes les tables, triées par restaurant puis par numéro
+         */
+        public List<TableResto> getTables() {
+            return tables;
+        }
+
+        /**
+         * @param tableId identifiant de la table
+         * @return la table, ou null si elle n'existe pas
+         */
+        public TableResto getTable(int tableId) {
+            return tablesParId.get(tableId);
+        }
+
+        /**
+         * @param restaurantId identifiant du restaurant
+         * @return les tables du restaurant, triées par numéro, vide si le restaurant n'en a pas
+         */
+        public List<TableResto> getTablesRestaurant(int restaurantId) {
+            return tablesParRestaurant.getOrDefault(restaurantId, Collections.emptyList());
+        }
+
+        /**
+         * @return la réponse JSON de la liste des restaurants
+         */
+        public String getJsonRestaurants() {
+            return jsonRestaurants;
+        }
+
+        /**
+         * @return la réponse JSON de la liste des créneaux actifs
+         */
+        public String getJsonCreneaux() {
+            return jsonCreneaux;
+        }
+
+        /**
+         * @param creneauId identifiant du créneau
+         * @return la réponse JSON du créneau, ou null s'il n'existe pas
+         */
+        public String getJsonCreneau(int creneauId) {
+            return jsonCreneauParId.get(creneauId);
+        }
+    }
+}
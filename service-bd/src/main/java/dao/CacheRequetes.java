@@ -0,0 +1,276 @@
+package dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache des requêtes préparées d'une connexion physique du pool.
+ *
+ * Les requêtes sont indexées par leur texte SQL (et leurs options de préparation).
+ * Une requête déjà préparée sur la connexion est réutilisée telle quelle :
+ * le close() de l'appelant ne fait que réinitialiser ses paramètres.
+ * Le cache est borné (LRU) et n'est utilisé que par l'emprunteur courant
+ * de la connexion, il n'a donc pas besoin d'être synchronisé.
+ *
+ * Une requête remise à l'appelant rend, par getConnection(), la connexion
+ * prêtée par le pool et non la connexion physique : la fermer rend la
+ * connexion au pool. Une requête évincée du cache pendant son utilisation, ou
+ * préparée hors cache, est gardée à part jusqu'à la restitution de la
+ * connexion, pour être fermée même si l'appelant l'a oubliée.
+ */
+final class CacheRequetes {
+
+    private static final Logger LOGGER = Logger.getLogger(CacheRequetes.class.getName());
+
+    private final Connection connexion;
+    private final LongAdder nbReutilisations;
+    private final LongAdder nbPreparations;
+    private final Map<String, Entree> entrees;
+    private final List<Entree> horsCache = new ArrayList<>();
+
+    /**
+     * Constructeur du cache.
+     *
+     * @param connexion connexion physique propriétaire des requêtes
+     * @param capacite nombre maximal de requêtes conservées
+     * @param nbReutilisations compteur partagé des requêtes trouvées dans le cache
+     * @param nbPreparations compteur partagé des requêtes préparées
+     */
+    CacheRequetes(Connection connexion, int capacite, LongAdder nbReutilisations, LongAdder nbPreparations) {
+        this.connexion = connexion;
+        this.nbReutilisations = nbReutilisations;
+        this.nbPreparations = nbPreparations;
+        this.entrees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entree> eldest) {
+                if (size() <= capacite) {
+                    return false;
+                }
+                Entree evincee = eldest.getValue();
+                evincee.evincer();
+                if (evincee.enUtilisation) {
+                    horsCache.add(evincee);
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Indique si une méthode de Connection est une préparation de requête que le cache sait traiter.
+     *
+     * @param method la méthode appelée sur la connexion
+     * @param args les arguments de l'appel
+     * @return true si l'appel peut passer par le cache
+     */
+    static boolean estCachable(Method method, Object[] args) {
+        String nom = method.getName();
+        if (args == null || !(args[0] instanceof String)) {
+            return false;
+        }
+        if ("prepareCall".equals(nom)) {
+            return args.length == 1;
+        }
+        if ("prepareStatement".equals(nom)) {
+            return args.length == 1 || (args.length == 2 && args[1] instanceof String[]);
+        }
+        return false;
+    }
+
+    /**
+     * Retourne la requête préparée correspondant à l'appel, depuis le cache si possible.
+     *
+     * @param method la méthode de préparation appelée
+     * @param args les arguments de l'appel
+     * @param pretee la connexion prêtée à l'appelant, rendue par getConnection() de la requête
+     * @return une requête préparée utilisable par l'appelant
+     * @throws SQLException en cas d'erreur de préparation
+     */
+    PreparedStatement preparer(Method method, Object[] args, Connection pretee) throws SQLException {
+        String cle = cle(method, args);
+        Entree entree = entrees.get(cle);
+
+        if (entree != null && entree.fermee) {
+            entrees.remove(cle);
+            entree = null;
+        }
+
+        if (entree != null) {
+            if (!entree.enUtilisation) {
+                entree.preter(pretee);
+                nbReutilisations.increment();
+                return entree.proxy;
+            }
+            // Même requête déjà ouverte par l'appelant : préparation hors cache, fermée à sa fermeture
+            nbPreparations.increment();
+            Entree copie = new Entree(preparerPhysique(method, args));
+            copie.evincee = true;
+            copie.preter(pretee);
+            horsCache.add(copie);
+            return copie.proxy;
+        }
+
+        nbPreparations.increment();
+        PreparedStatement statement = preparerPhysique(method, args);
+        entree = new Entree(statement);
+        entree.preter(pretee);
+        entrees.put(cle, entree);
+        return entree.proxy;
+    }
+
+    /**
+     * Libère les requêtes que l'emprunteur aurait oublié de fermer,
+     * avant que la connexion ne soit rendue au pool.
+     */
+    void libererTout() {
+        for (Iterator<Entree> it = entrees.values().iterator(); it.hasNext(); ) {
+            Entree entree = it.next();
+            if (entree.enUtilisation) {
+                entree.reinitialiser();
+                if (entree.fermee) {
+                    it.remove();
+                }
+            }
+        }
+        for (Entree entree : horsCache) {
+            if (entree.enUtilisation) {
+                entree.reinitialiser();
+            }
+        }
+        horsCache.clear();
+    }
+
+    private PreparedStatement preparerPhysique(Method method, Object[] args) throws SQLException {
+        try {
+            return (PreparedStatement) method.invoke(connexion, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Erreur de préparation de requête", e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new SQLException("Erreur de préparation de requête", e);
+        }
+    }
+
+    private static String cle(Method method, Object[] args) {
+        String sql = (String) args[0];
+        if ("prepareCall".equals(method.getName())) {
+            return "call:" + sql;
+        }
+        if (args.length == 2) {
+            return sql + "#" + Arrays.toString((String[]) args[1]);
+        }
+        return sql;
+    }
+
+    /**
+     * Requête préparée conservée dans le cache.
+     * Le proxy remis à l'appelant intercepte close() pour garder la requête ouverte.
+     */
+    private static final class Entree implements InvocationHandler {
+        final PreparedStatement statement;
+        final PreparedStatement proxy;
+        Connection pretee;
+        boolean enUtilisation;
+        boolean evincee;
+        boolean fermee;
+
+        Entree(PreparedStatement statement) {
+            this.statement = statement;
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{type}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (enUtilisation) {
+                        reinitialiser();
+                    }
+                    return null;
+                case "isClosed":
+                    return !enUtilisation || fermee || statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            if (!enUtilisation) {
+                throw new SQLException("Requête déjà fermée");
+            }
+            if ("getConnection".equals(method.getName())) {
+                return pretee;
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        void preter(Connection pretee) {
+            this.pretee = pretee;
+            enUtilisation = true;
+        }
+
+        /**
+         * Remet la requête dans son état initial pour le prochain emprunteur.
+         */
+        void reinitialiser() {
+            enUtilisation = false;
+            pretee = null;
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Réinitialisation de requête impossible, fermeture", e);
+                fermer();
+                return;
+            }
+            if (evincee) {
+                fermer();
+            }
+        }
+
+        /**
+         * Retire la requête du cache : elle est fermée dès qu'elle n'est plus utilisée.
+         */
+        void evincer() {
+            evincee = true;
+            if (!enUtilisation) {
+                fermer();
+            }
+        }
+
+        private void fermer() {
+            fermee = true;
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Erreur fermeture requête préparée", e);
+            }
+        }
+    }
+}
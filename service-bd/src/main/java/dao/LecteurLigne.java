@@ -0,0 +1,26 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Construit un objet à partir de la ligne courante d'un ResultSet.
+ *
+ * Les lecteurs du DAO lisent les colonnes par position, dans l'ordre de la
+ * clause SELECT de leur requête : aucune recherche de colonne par nom
+ * n'est faite pour chaque ligne.
+ *
+ * @param <T> le type d'objet construit
+ */
+@FunctionalInterface
+public interface LecteurLigne<T> {
+
+    /**
+     * Lit la ligne courante.
+     *
+     * @param rs le ResultSet, positionné sur la ligne à lire
+     * @return l'objet construit
+     * @throws SQLException en cas d'erreur de lecture
+     */
+    T lire(ResultSet rs) throws SQLException;
+}
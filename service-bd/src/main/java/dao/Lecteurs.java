@@ -0,0 +1,144 @@
+package dao;
+
+import model.Creneau;
+import model.DemandeAttente;
+import model.OccupationCreneau;
+import model.Reservation;
+import model.Restaurant;
+import model.TableResto;
+import utils.CodecDate;
+
+/**
+ * Lecteurs de ligne partagés par les requêtes du DAO.
+ *
+ * Chaque lecteur est déclaré à côté de la liste de colonnes qu'il lit : une
+ * requête qui utilise un lecteur commence sa clause SELECT par cette liste,
+ * dans le même ordre.
+ */
+final class Lecteurs {
+
+    static final String COLONNES_RESTAURANT = "id, nom, adresse, telephone, latitude, longitude";
+
+    static final LecteurLigne<Restaurant> RESTAURANT = rs -> {
+        Restaurant resto = new Restaurant();
+        resto.setId(rs.getInt(1));
+        resto.setNom(rs.getString(2));
+        resto.setAdresse(rs.getString(3));
+        resto.setTelephone(rs.getString(4));
+        resto.setLatitude(rs.getDouble(5));
+        resto.setLongitude(rs.getDouble(6));
+        return resto;
+    };
+
+    static final String COLONNES_CRENEAU = "id, libelle, heure_debut, heure_fin, actif, ordre_affichage";
+
+    static final LecteurLigne<Creneau> CRENEAU = rs -> {
+        Creneau creneau = new Creneau();
+        creneau.setId(rs.getInt(1));
+        creneau.setLibelle(rs.getString(2));
+        creneau.setHeureDebut(rs.getString(3));
+        creneau.setHeureFin(rs.getString(4));
+        creneau.setActif(rs.getInt(5) == 1);
+        creneau.setOrdreAffichage(rs.getInt(6));
+        return creneau;
+    };
+
+    /** Colonnes d'une table, sur l'alias t de tables_resto. */
+    static final String COLONNES_TABLE = "t.id, t.restaurant_id, t.numero_table, t.nb_places";
+
+    static final LecteurLigne<TableResto> TABLE = rs -> {
+        TableResto table = new TableResto();
+        table.setId(rs.getInt(1));
+        table.setRestaurantId(rs.getInt(2));
+        table.setNumeroTable(rs.getInt(3));
+        table.setNbPlaces(rs.getInt(4));
+        return table;
+    };
+
+    static final LecteurLigne<TableResto> TABLE_LIBRE = rs -> {
+        TableResto table = TABLE.lire(rs);
+        table.setStatut("libre");
+        return table;
+    };
+
+    /** Colonnes d'une table suivies de son statut. */
+    static final LecteurLigne<TableResto> TABLE_AVEC_STATUT = rs -> {
+        TableResto table = TABLE.lire(rs);
+        table.setStatut(rs.getString(5));
+        return table;
+    };
+
+    /** Colonnes d'une occupation, sur l'alias r de reservation. */
+    static final String COLONNES_OCCUPATION = "r.table_id, r.creneau_id, r.date_reservation";
+
+    static final LecteurLigne<Reservation> OCCUPATION = rs -> {
+        Reservation reservation = new Reservation();
+        reservation.setTableId(rs.getInt(1));
+        reservation.setCreneauId(rs.getInt(2));
+        reservation.setDateReservation(rs.getDate(3));
+        return reservation;
+    };
+
+    /** Colonnes du décompte des réservations par restaurant, date et créneau (alias r, avec restaurant_id). */
+    static final String COLONNES_COMPTE_OCCUPATION =
+            "r.restaurant_id, r.date_reservation, r.creneau_id, COUNT(*), SUM(r.nb_convives)";
+
+    static final LecteurLigne<OccupationCreneau> COMPTE_OCCUPATION = rs -> new OccupationCreneau(
+            rs.getInt(1), CodecDate.jour(rs.getDate(2)), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+
+    /** Colonnes d'une réservation avec sa table et son créneau (alias r, t et c). */
+    static final String COLONNES_RESERVATION_COMPLETE =
+            "r.id, r.table_id, r.creneau_id, r.date_reservation, " +
+            "r.nom_client, r.prenom_client, r.telephone, r.nb_convives, " +
+            "r.date_creation, r.statut, " +
+            "t.numero_table, t.nb_places, " +
+            "c.libelle, c.heure_debut, c.heure_fin";
+
+    static final LecteurLigne<Reservation> RESERVATION_COMPLETE = rs -> {
+        Reservation reservation = new Reservation();
+        reservation.setId(rs.getInt(1));
+        int tableId = rs.getInt(2);
+        int creneauId = rs.getInt(3);
+        reservation.setTableId(tableId);
+        reservation.setCreneauId(creneauId);
+        reservation.setDateReservation(rs.getDate(4));
+        reservation.setNomClient(rs.getString(5));
+        reservation.setPrenomClient(rs.getString(6));
+        reservation.setTelephone(rs.getString(7));
+        reservation.setnbConvives(rs.getInt(8));
+        reservation.setDateCreation(rs.getTimestamp(9));
+        reservation.setStatut(rs.getString(10));
+
+        TableResto table = new TableResto();
+        table.setId(tableId);
+        table.setNumeroTable(rs.getInt(11));
+        table.setNbPlaces(rs.getInt(12));
+        reservation.setTable(table);
+
+        Creneau creneau = new Creneau();
+        creneau.setId(creneauId);
+        creneau.setLibelle(rs.getString(13));
+        creneau.setHeureDebut(rs.getString(14));
+        creneau.setHeureFin(rs.getString(15));
+        reservation.setCreneau(creneau);
+
+        return reservation;
+    };
+
+    /** Colonnes d'une demande de la liste d'attente. */
+    static final String COLONNES_ATTENTE =
+            "id, restaurant_id, date_reservation, creneau_id, nom_client, prenom_client, telephone, " +
+            "nb_convives, statut, reservation_id";
+
+    static final LecteurLigne<DemandeAttente> ATTENTE = rs -> {
+        DemandeAttente demande = new DemandeAttente(rs.getInt(2), CodecDate.jour(rs.getDate(3)), rs.getInt(4),
+                rs.getString(5), rs.getString(6), rs.getString(7), rs.getInt(8));
+        demande.setId(rs.getInt(1));
+        demande.setStatut(rs.getString(9));
+        demande.setReservationId(rs.getInt(10));
+        return demande;
+    };
+
+    private Lecteurs() {
+    }
+}
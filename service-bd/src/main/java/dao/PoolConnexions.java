@@ -0,0 +1,468 @@
+package dao;
+
+import org.json.JSONObject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool borné de connexions JDBC pour le service BD.
+ *
+ * Les connexions physiques sont ouvertes une seule fois puis prêtées aux DAO.
+ * La connexion prêtée est un proxy : son close() rend la connexion physique
+ * au pool au lieu de la fermer, ce qui évite de refaire le login Oracle
+ * à chaque requête.
+ *
+ * Fonctionnalités :
+ * - Taille minimale maintenue et taille maximale bornée par un sémaphore ; le nombre
+ *   de connexions physiques ouvertes est compté à l'ouverture et à la fermeture,
+ *   et ne dépasse jamais la taille maximale
+ * - Connexion rendue fermée remplacée aussitôt, sans attendre la surveillance
+ * - Validation des connexions restées inactives avant de les prêter
+ * - Détection des fuites (connexion empruntée trop longtemps)
+ * - Cache des requêtes préparées propre à chaque connexion physique
+ * - Statistiques sur les temps d'attente d'emprunt
+ */
+public class PoolConnexions implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(PoolConnexions.class.getName());
+
+    private final String dbUrl;
+    private final String dbUser;
+    private final String dbPassword;
+    private final int tailleMin;
+    private final int tailleMax;
+    private final long attenteMaxMs;
+    private final long seuilFuiteMs;
+    private final int validationTimeoutSecondes;
+    private final long validationInactiviteMs;
+    private final int tailleCacheRequetes;
+
+    private final BlockingDeque<ConnexionPhysique> libres = new LinkedBlockingDeque<>();
+    private final Set<Emprunt> emprunts = ConcurrentHashMap.newKeySet();
+    private final Semaphore permis;
+    private final AtomicInteger nbPhysiques = new AtomicInteger();
+    private final ScheduledExecutorService surveillance;
+
+    private final LongAdder nbEmprunts = new LongAdder();
+    private final LongAdder attenteTotaleNanos = new LongAdder();
+    private final AtomicLong attenteMaxNanos = new AtomicLong();
+    private final LongAdder nbDelaisDepasses = new LongAdder();
+    private final LongAdder nbConnexionsCreees = new LongAdder();
+    private final LongAdder nbConnexionsInvalidees = new LongAdder();
+    private final LongAdder nbFuites = new LongAdder();
+    private final LongAdder nbRequetesReutilisees = new LongAdder();
+    private final LongAdder nbRequetesPreparees = new LongAdder();
+
+    private volatile boolean ferme;
+
+    /**
+     * Constructeur du pool.
+     * Ouvre immédiatement les connexions minimales et démarre la surveillance des fuites.
+     *
+     * @param dbUrl URL de connexion à la base
+     * @param dbUser nom d'utilisateur
+     * @param dbPassword mot de passe
+     * @param tailleMin nombre de connexions maintenues ouvertes
+     * @param tailleMax nombre maximal de connexions simultanées
+     * @param attenteMaxMs délai maximal d'attente d'une connexion libre
+     * @param seuilFuiteMs durée d'emprunt au-delà de laquelle une fuite est signalée (0 pour désactiver)
+     * @param validationTimeoutSecondes délai accordé à la validation d'une connexion
+     * @param validationInactiviteMs durée d'inactivité au-delà de laquelle une connexion est revalidée
+     * @param tailleCacheRequetes nombre de requêtes préparées conservées par connexion (0 pour désactiver)
+     */
+    public PoolConnexions(String dbUrl, String dbUser, String dbPassword,
+                          int tailleMin, int tailleMax, long attenteMaxMs, long seuilFuiteMs,
+                          int validationTimeoutSecondes, long validationInactiviteMs,
+                          int tailleCacheRequetes) {
+        if (tailleMax < 1 || tailleMin < 0 || tailleMin > tailleMax) {
+            throw new IllegalArgumentException("Tailles de pool invalides : min=" + tailleMin + ", max=" + tailleMax);
+        }
+
+        this.dbUrl = dbUrl;
+        this.dbUser = dbUser;
+        this.dbPassword = dbPassword;
+        this.tailleMin = tailleMin;
+        this.tailleMax = tailleMax;
+        this.attenteMaxMs = attenteMaxMs;
+        this.seuilFuiteMs = seuilFuiteMs;
+        this.validationTimeoutSecondes = validationTimeoutSecondes;
+        this.validationInactiviteMs = validationInactiviteMs;
+        this.tailleCacheRequetes = tailleCacheRequetes;
+        this.permis = new Semaphore(tailleMax, true);
+
+        this.surveillance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-connexions-surveillance");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        remplirJusquAuMinimum();
+
+        long periode = seuilFuiteMs > 0 ? Math.max(1000, seuilFuiteMs / 2) : 30_000;
+        surveillance.scheduleAtFixedRate(this::surveiller, periode, periode, TimeUnit.MILLISECONDS);
+
+        LOGGER.info("Pool de connexions créé (min=" + tailleMin + ", max=" + tailleMax + ")");
+    }
+
+    /**
+     * Emprunte une connexion au pool.
+     * La connexion retournée doit être fermée (try-with-resources) pour être rendue.
+     *
+     * @return connexion JDBC prêtée
+     * @throws SQLException si aucune connexion n'est disponible dans le délai ou en cas d'erreur d'ouverture
+     */
+    public Connection getConnection() throws SQLException {
+        if (ferme) {
+            throw new SQLException("Pool de connexions fermé");
+        }
+
+        long debut = System.nanoTime();
+        try {
+            if (!permis.tryAcquire(attenteMaxMs, TimeUnit.MILLISECONDS)) {
+                nbDelaisDepasses.increment();
+                throw new SQLException("Aucune connexion disponible après " + attenteMaxMs + " ms (pool de "
+                        + tailleMax + " connexions saturé)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente de connexion interrompue", e);
+        }
+
+        try {
+            ConnexionPhysique physique = prendreConnexionValide(debut);
+            enregistrerAttente(System.nanoTime() - debut);
+
+            Emprunt emprunt = new Emprunt(physique, seuilFuiteMs > 0 ? new Throwable("Emprunt de connexion") : null);
+            emprunts.add(emprunt);
+            return emprunt.proxy;
+
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne les statistiques du pool.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        long total = nbEmprunts.sum();
+
+        JSONObject stats = new JSONObject();
+        stats.put("tailleMin", tailleMin);
+        stats.put("tailleMax", tailleMax);
+        stats.put("connexionsActives", emprunts.size());
+        stats.put("connexionsLibres", libres.size());
+        stats.put("connexionsOuvertes", nbPhysiques.get());
+        stats.put("emprunts", total);
+        stats.put("attenteMoyenneMs", total == 0 ? 0.0 : attenteTotaleNanos.sum() / (total * 1_000_000.0));
+        stats.put("attenteMaxMs", attenteMaxNanos.get() / 1_000_000.0);
+        stats.put("delaisDepasses", nbDelaisDepasses.sum());
+        stats.put("connexionsCreees", nbConnexionsCreees.sum());
+        stats.put("connexionsInvalidees", nbConnexionsInvalidees.sum());
+        stats.put("fuitesDetectees", nbFuites.sum());
+        stats.put("requetesReutilisees", nbRequetesReutilisees.sum());
+        stats.put("requetesPreparees", nbRequetesPreparees.sum());
+        return stats;
+    }
+
+    /**
+     * Ferme le pool et toutes les connexions libres.
+     * Les connexions encore empruntées sont fermées à leur restitution.
+     */
+    @Override
+    public void close() {
+        ferme = true;
+        surveillance.shutdownNow();
+
+        ConnexionPhysique physique;
+        while ((physique = libres.pollFirst()) != null) {
+            fermerPhysique(physique);
+        }
+
+        LOGGER.info("Pool de connexions fermé - " + getStatistiques());
+    }
+
+    /**
+     * Prend une connexion libre en la validant si elle est restée inactive trop longtemps,
+     * ou en ouvre une nouvelle si aucune n'est disponible et que la taille maximale
+     * n'est pas atteinte. Sinon, une connexion est en train d'être rendue ou ouverte
+     * par la surveillance : elle est attendue dans le délai restant.
+     */
+    private ConnexionPhysique prendreConnexionValide(long debut) throws SQLException {
+        while (true) {
+            ConnexionPhysique physique = libres.pollFirst();
+            if (physique == null) {
+                ConnexionPhysique ouverte = ouvrirConnexion();
+                if (ouverte != null) {
+                    return ouverte;
+                }
+                physique = attendreConnexionLibre(debut);
+            }
+            long inactivite = System.currentTimeMillis() - physique.derniereUtilisation;
+            if (inactivite < validationInactiviteMs || estValide(physique)) {
+                return physique;
+            }
+            nbConnexionsInvalidees.increment();
+            LOGGER.warning("Connexion invalide retirée du pool après " + inactivite + " ms d'inactivité");
+            fermerPhysique(physique);
+        }
+    }
+
+    private ConnexionPhysique attendreConnexionLibre(long debut) throws SQLException {
+        long reste = TimeUnit.MILLISECONDS.toNanos(attenteMaxMs) - (System.nanoTime() - debut);
+        ConnexionPhysique physique;
+        try {
+            physique = libres.pollFirst(Math.max(0, reste), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente de connexion interrompue", e);
+        }
+        if (physique == null) {
+            nbDelaisDepasses.increment();
+            throw new SQLException("Aucune connexion disponible après " + attenteMaxMs + " ms ("
+                    + tailleMax + " connexions ouvertes)");
+        }
+        return physique;
+    }
+
+    /**
+     * Ouvre une nouvelle connexion physique, si la taille maximale n'est pas atteinte.
+     *
+     * @return la connexion, ou null si la taille maximale est atteinte
+     */
+    private ConnexionPhysique ouvrirConnexion() throws SQLException {
+        int ouvertes;
+        do {
+            ouvertes = nbPhysiques.get();
+            if (ouvertes >= tailleMax) {
+                return null;
+            }
+        } while (!nbPhysiques.compareAndSet(ouvertes, ouvertes + 1));
+
+        Connection connexion;
+        try {
+            connexion = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+        } catch (SQLException | RuntimeException e) {
+            nbPhysiques.decrementAndGet();
+            throw e;
+        }
+        nbConnexionsCreees.increment();
+        CacheRequetes cache = tailleCacheRequetes > 0
+                ? new CacheRequetes(connexion, tailleCacheRequetes, nbRequetesReutilisees, nbRequetesPreparees)
+                : null;
+        return new ConnexionPhysique(connexion, cache);
+    }
+
+    /**
+     * Rend une connexion physique au pool après l'avoir remise dans un état propre.
+     */
+    private void rendre(Emprunt emprunt) {
+        emprunts.remove(emprunt);
+        ConnexionPhysique physique = emprunt.physique;
+
+        try {
+            if (physique.connexion.isClosed()) {
+                nbConnexionsInvalidees.increment();
+                fermerPhysique(physique);
+                remplacer();
+                return;
+            }
+            if (physique.cache != null) {
+                physique.cache.libererTout();
+            }
+            if (!physique.connexion.getAutoCommit()) {
+                physique.connexion.rollback();
+                physique.connexion.setAutoCommit(true);
+            }
+            physique.derniereUtilisation = System.currentTimeMillis();
+
+            if (ferme) {
+                fermerPhysique(physique);
+            } else {
+                libres.offerFirst(physique);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Connexion rendue dans un état invalide, fermeture", e);
+            nbConnexionsInvalidees.increment();
+            fermerPhysique(physique);
+            remplacer();
+        } finally {
+            permis.release();
+        }
+    }
+
+    /**
+     * Tâche périodique : signale les fuites et maintient la taille minimale.
+     */
+    private void surveiller() {
+        try {
+            if (seuilFuiteMs > 0) {
+                long maintenant = System.currentTimeMillis();
+                for (Emprunt emprunt : emprunts) {
+                    if (!emprunt.fuiteSignalee && maintenant - emprunt.debut > seuilFuiteMs) {
+                        emprunt.fuiteSignalee = true;
+                        nbFuites.increment();
+                        LOGGER.log(Level.WARNING, "Fuite de connexion probable : empruntée depuis "
+                                + (maintenant - emprunt.debut) + " ms", emprunt.origine);
+                    }
+                }
+            }
+            remplirJusquAuMinimum();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Erreur surveillance du pool", e);
+        }
+    }
+
+    /**
+     * Ouvre des connexions jusqu'à atteindre la taille minimale.
+     */
+    private void remplirJusquAuMinimum() {
+        while (!ferme && nbPhysiques.get() < tailleMin) {
+            try {
+                ConnexionPhysique physique = ouvrirConnexion();
+                if (physique == null) {
+                    return;
+                }
+                libres.offerLast(physique);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Impossible d'ouvrir les connexions minimales du pool", e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Demande au fil de surveillance de remplacer une connexion fermée,
+     * pour que l'appelant qui la rend n'attende pas une ouverture de session.
+     */
+    private void remplacer() {
+        if (ferme) {
+            return;
+        }
+        try {
+            surveillance.execute(this::remplirJusquAuMinimum);
+        } catch (RejectedExecutionException e) {
+            // Pool fermé entre-temps
+        }
+    }
+
+    private boolean estValide(ConnexionPhysique physique) {
+        try {
+            return physique.connexion.isValid(validationTimeoutSecondes);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void enregistrerAttente(long attenteNanos) {
+        nbEmprunts.increment();
+        attenteTotaleNanos.add(attenteNanos);
+        attenteMaxNanos.accumulateAndGet(attenteNanos, Math::max);
+    }
+
+    private void fermerPhysique(ConnexionPhysique physique) {
+        nbPhysiques.decrementAndGet();
+        try {
+            physique.connexion.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Erreur fermeture connexion physique", e);
+        }
+    }
+
+    /**
+     * Connexion JDBC réellement ouverte vers la base.
+     */
+    private static final class ConnexionPhysique {
+        final Connection connexion;
+        final CacheRequetes cache;
+        volatile long derniereUtilisation;
+
+        ConnexionPhysique(Connection connexion, CacheRequetes cache) {
+            this.connexion = connexion;
+            this.cache = cache;
+            this.derniereUtilisation = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Prêt d'une connexion physique à un appelant.
+     * Le proxy exposé intercepte close() pour rendre la connexion au pool
+     * et les préparations de requêtes pour passer par le cache de la connexion.
+     */
+    private final class Emprunt implements InvocationHandler {
+        final ConnexionPhysique physique;
+        final Throwable origine;
+        final long debut = System.currentTimeMillis();
+        final Connection proxy;
+        volatile boolean fuiteSignalee;
+        private volatile boolean rendue;
+
+        Emprunt(ConnexionPhysique physique, Throwable origine) {
+            this.physique = physique;
+            this.origine = origine;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!rendue) {
+                            rendue = true;
+                            rendre(this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return rendue || physique.connexion.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConnexionPool[" + physique.connexion + "]";
+                default:
+                    break;
+            }
+
+            if (rendue) {
+                throw new SQLException("Connexion déjà rendue au pool");
+            }
+
+            if (physique.cache != null && CacheRequetes.estCachable(method, args)) {
+                return physique.cache.preparer(method, args, this.proxy);
+            }
+
+            try {
+                return method.invoke(physique.connexion, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dao;
+
+/**
+ * Profil de volume d'une requête de lecture.
+ *
+ * Le profil fixe le nombre de lignes ramenées par aller-retour (fetch size)
+ * et la capacité initiale de la liste résultat. Les pilotes appliquent sinon
+ * leur valeur par défaut (10 lignes pour Oracle), ce qui multiplie les
+ * allers-retours sur les grandes lectures.
+ */
+public enum ProfilLecture {
+
+    /** Lecture d'une seule ligne, par identifiant. */
+    UNITAIRE(1, 1),
+
+    /** Lignes d'un seul restaurant : ses tables, ses réservations d'un jour. */
+    RESTAURANT(64, 16),
+
+    /** Tables de référence complètes : restaurants, créneaux, toutes les tables. */
+    REFERENTIEL(256, 64),
+
+    /** Lignes d'une période : occupations de plusieurs semaines. */
+    PERIODE(1000, 256);
+
+    private final int tailleLot;
+    private final int tailleInitiale;
+
+    ProfilLecture(int tailleLot, int tailleInitiale) {
+        this.tailleLot = tailleLot;
+        this.tailleInitiale = tailleInitiale;
+    }
+
+    /**
+     * @return le nombre de lignes ramenées par aller-retour
+     */
+    public int getTailleLot() {
+        return tailleLot;
+    }
+
+    /**
+     * @return la capacité initiale de la liste résultat
+     */
+    public int getTailleInitiale() {
+        return tailleInitiale;
+    }
+}
@@ -0,0 +1,113 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requête de lecture précompilée, avec son lecteur de ligne et son profil de volume.
+ *
+ * Comme {@link RequeteSQL}, chaque requête est déclarée une seule fois sous forme
+ * de constante ; elle porte en plus la façon de lire ses lignes, ce qui retire
+ * des méthodes du DAO les boucles de lecture écrites à la main.
+ *
+ * @param <T> le type d'objet lu pour chaque ligne
+ */
+public final class RequeteLecture<T> {
+
+    private final RequeteSQL requete;
+    private final LecteurLigne<T> lecteur;
+    private final ProfilLecture profil;
+
+    /**
+     * Constructeur d'une requête de lecture.
+     *
+     * @param nom nom de la requête, utilisé dans les logs
+     * @param sql texte SQL de la requête, dont les colonnes suivent l'ordre attendu par le lecteur
+     * @param lecteur lecteur d'une ligne
+     * @param profil profil de volume de la requête
+     */
+    public RequeteLecture(String nom, String sql, LecteurLigne<T> lecteur, ProfilLecture profil) {
+        this.requete = new RequeteSQL(nom, sql);
+        this.lecteur = lecteur;
+        this.profil = profil;
+    }
+
+    /**
+     * Prépare la requête sur une connexion, avec la taille de lot de son profil.
+     *
+     * @param conn la connexion empruntée au pool
+     * @return la requête préparée, à fermer après usage
+     * @throws SQLException en cas d'erreur de préparation
+     */
+    public PreparedStatement preparer(Connection conn) throws SQLException {
+        PreparedStatement pstmt = requete.preparer(conn);
+        pstmt.setFetchSize(profil.getTailleLot());
+        return pstmt;
+    }
+
+    /**
+     * Exécute la requête préparée et lit toutes ses lignes.
+     *
+     * @param pstmt la requête préparée par {@link #preparer(Connection)}, paramètres renseignés
+     * @return les objets lus, dans l'ordre des lignes
+     * @throws SQLException en cas d'erreur SQL
+     */
+    public List<T> lister(PreparedStatement pstmt) throws SQLException {
+        return lire(pstmt, profil.getTailleInitiale());
+    }
+
+    /**
+     * Exécute la requête préparée lorsque le nombre de lignes est connu à l'avance,
+     * comme pour une page : toutes les lignes arrivent en un seul aller-retour.
+     *
+     * @param pstmt la requête préparée, paramètres renseignés
+     * @param nombre le nombre maximal de lignes attendues
+     * @return les objets lus, dans l'ordre des lignes
+     * @throws SQLException en cas d'erreur SQL
+     */
+    public List<T> lister(PreparedStatement pstmt, int nombre) throws SQLException {
+        pstmt.setFetchSize(nombre);
+        return lire(pstmt, nombre);
+    }
+
+    /**
+     * Exécute la requête préparée et lit sa première ligne.
+     *
+     * @param pstmt la requête préparée, paramètres renseignés
+     * @return l'objet lu, ou null si la requête ne retourne aucune ligne
+     * @throws SQLException en cas d'erreur SQL
+     */
+    public T lireUne(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? lecteur.lire(rs) : null;
+        }
+    }
+
+    /**
+     * Retourne le nom de la requête.
+     *
+     * @return le nom de la requête
+     */
+    public String getNom() {
+        return requete.getNom();
+    }
+
+    private List<T> lire(PreparedStatement pstmt, int tailleInitiale) throws SQLException {
+        List<T> resultats = new ArrayList<>(tailleInitiale);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                resultats.add(lecteur.lire(rs));
+            }
+        }
+        return resultats;
+    }
+
+    @Override
+    public String toString() {
+        return requete.getNom();
+    }
+}
@@ -0,0 +1,88 @@
+package dao;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Requête SQL précompilée et réutilisable.
+ *
+ * Chaque requête du DAO est déclarée une seule fois sous forme de constante.
+ * Sa préparation passe par la connexion empruntée au pool, qui renvoie
+ * la requête déjà préparée sur cette connexion lorsqu'elle existe :
+ * le texte SQL n'est donc ni reconstruit ni réanalysé à chaque appel.
+ */
+public final class RequeteSQL {
+
+    private final String nom;
+    private final String sql;
+
+    /**
+     * Constructeur d'une requête.
+     *
+     * @param nom nom de la requête, utilisé dans les logs
+     * @param sql texte SQL de la requête
+     */
+    public RequeteSQL(String nom, String sql) {
+        this.nom = nom;
+        this.sql = sql;
+    }
+
+    /**
+     * Prépare la requête sur une connexion.
+     *
+     * @param conn la connexion empruntée au pool
+     * @return la requête préparée, à fermer après usage
+     * @throws SQLException en cas d'erreur de préparation
+     */
+    public PreparedStatement preparer(Connection conn) throws SQLException {
+        return conn.prepareStatement(sql);
+    }
+
+    /**
+     * Prépare la requête sur une connexion en demandant le retour de colonnes générées.
+     *
+     * @param conn la connexion empruntée au pool
+     * @param colonnesGenerees les colonnes dont la valeur générée doit être retournée
+     * @return la requête préparée, à fermer après usage
+     * @throws SQLException en cas d'erreur de préparation
+     */
+    public PreparedStatement preparer(Connection conn, String... colonnesGenerees) throws SQLException {
+        return conn.prepareStatement(sql, colonnesGenerees);
+    }
+
+    /**
+     * Prépare la requête comme appel de bloc PL/SQL ou de procédure.
+     *
+     * @param conn la connexion empruntée au pool
+     * @return l'appel préparé, à fermer après usage
+     * @throws SQLException en cas d'erreur de préparation
+     */
+    public CallableStatement preparerAppel(Connection conn) throws SQLException {
+        return conn.prepareCall(sql);
+    }
+
+    /**
+     * Retourne le nom de la requête.
+     *
+     * @return le nom de la requête
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Retourne le texte SQL de la requête.
+     *
+     * @return le texte SQL
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public String toString() {
+        return nom;
+    }
+}
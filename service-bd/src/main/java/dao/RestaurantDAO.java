@@ -4,39 +4,291 @@ import model.Restaurant;
 import model.TableResto;
 import model.Reservation;
 import model.Creneau;
+import model.DemandeAttente;
+import model.OccupationCreneau;
+import org.json.JSONObject;
+import utils.CodecDate;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
 
 /**
  * DAO pour la gestion des restaurants, tables et réservations avec support des créneaux.
  * Assure la persistance des données dans la base Oracle.
+ *
+ * Les requêtes de lecture sont en SQL standard et sont réutilisées par
+ * {@link StockageEmbarque}. Les écritures s'appuient sur PL/SQL et sur les
+ * séquences Oracle.
+ *
+ * Lorsque le service BD est partitionné, la partition numéro p sur n tire ses
+ * identifiants de réservation de la séquence sous la forme (valeur - 1) * n + p + 1 :
+ * les identifiants des partitions sont disjoints sans coordination entre elles.
+ * Avec une seule partition, l'identifiant est la valeur de la séquence.
  */
-public class RestaurantDAO {
+public class RestaurantDAO implements Stockage {
 
     private static final Logger LOGGER = Logger.getLogger(RestaurantDAO.class.getName());
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
 
-    private final String dbUrl;
-    private final String dbUser;
-    private final String dbPassword;
+    private static final RequeteLecture<Restaurant> FIND_ALL = new RequeteLecture<>("findAll",
+            "SELECT " + Lecteurs.COLONNES_RESTAURANT + " FROM restaurant ORDER BY nom",
+            Lecteurs.RESTAURANT, ProfilLecture.REFERENTIEL);
+
+    private static final RequeteLecture<Creneau> FIND_CRENEAUX_ACTIFS = new RequeteLecture<>("findCreneauxActifs",
+            "SELECT " + Lecteurs.COLONNES_CRENEAU + " " +
+            "FROM creneau WHERE actif = 1 ORDER BY ordre_affichage, heure_debut",
+            Lecteurs.CRENEAU, ProfilLecture.REFERENTIEL);
+
+    private static final RequeteLecture<Creneau> FIND_TOUS_CRENEAUX = new RequeteLecture<>("findAllCreneaux",
+            "SELECT " + Lecteurs.COLONNES_CRENEAU + " " +
+            "FROM creneau ORDER BY ordre_affichage, heure_debut",
+            Lecteurs.CRENEAU, ProfilLecture.REFERENTIEL);
+
+    private static final RequeteLecture<Creneau> FIND_CRENEAU_BY_ID = new RequeteLecture<>("findCreneauById",
+            "SELECT " + Lecteurs.COLONNES_CRENEAU + " " +
+            "FROM creneau WHERE id = ?",
+            Lecteurs.CRENEAU, ProfilLecture.UNITAIRE);
+
+    private static final RequeteLecture<TableResto> FIND_TABLES_RESTAURANT = new RequeteLecture<>("findAllTablesRestaurant",
+            "SELECT " + Lecteurs.COLONNES_TABLE + " " +
+            "FROM tables_resto t WHERE t.restaurant_id = ? ORDER BY t.numero_table",
+            Lecteurs.TABLE, ProfilLecture.RESTAURANT);
+
+    private static final RequeteLecture<TableResto> FIND_TOUTES_TABLES = new RequeteLecture<>("findAllTables",
+            "SELECT " + Lecteurs.COLONNES_TABLE + " " +
+            "FROM tables_resto t ORDER BY t.restaurant_id, t.numero_table",
+            Lecteurs.TABLE, ProfilLecture.REFERENTIEL);
+
+    private static final RequeteSQL FIND_TABLES_RESERVEES = new RequeteSQL("findTablesReservees",
+            "SELECT r.table_id FROM reservation r " +
+            "JOIN tables_resto t ON r.table_id = t.id " +
+            "WHERE t.restaurant_id = ? " +
+            "AND r.creneau_id = ? " +
+            "AND r.date_reservation = ? " +
+            "AND r.statut = 'confirmee'");
+
+    private static final RequeteLecture<Reservation> FIND_OCCUPATIONS_PERIODE = new RequeteLecture<>("findOccupationsPeriode",
+            "SELECT " + Lecteurs.COLONNES_OCCUPATION + " FROM reservation r " +
+            "JOIN tables_resto t ON r.table_id = t.id " +
+            "WHERE t.restaurant_id = ? " +
+            "AND r.date_reservation BETWEEN ? AND ? " +
+            "AND r.statut = 'confirmee'",
+            Lecteurs.OCCUPATION, ProfilLecture.PERIODE);
+
+    // Réservations vivantes et archivées lues dans la même requête : une réservation
+    // archivée pendant la lecture n'est ni perdue ni comptée deux fois
+    private static final RequeteLecture<OccupationCreneau> COMPTER_OCCUPATIONS = new RequeteLecture<>("compterOccupations",
+            "SELECT " + Lecteurs.COLONNES_COMPTE_OCCUPATION + " FROM (" +
+            "SELECT t.restaurant_id, r.date_reservation, r.creneau_id, r.nb_convives FROM reservation r " +
+            "JOIN tables_resto t ON r.table_id = t.id " +
+            "WHERE r.date_reservation BETWEEN ? AND ? " +
+            "AND r.statut = 'confirmee' " +
+            "UNION ALL " +
+            "SELECT a.restaurant_id, a.date_reservation, a.creneau_id, a.nb_convives FROM reservation_archive a " +
+            "WHERE a.date_reservation BETWEEN ? AND ? " +
+            "AND a.statut = 'confirmee'" +
+            ") r GROUP BY r.restaurant_id, r.date_reservation, r.creneau_id",
+            Lecteurs.COMPTE_OCCUPATION, ProfilLecture.PERIODE);
+
+    private static final RequeteLecture<OccupationCreneau> COMPTER_OCCUPATIONS_RESTAURANT = new RequeteLecture<>(
+            "compterOccupationsRestaurant",
+            "SELECT " + Lecteurs.COLONNES_COMPTE_OCCUPATION + " FROM (" +
+            "SELECT t.restaurant_id, r.date_reservation, r.creneau_id, r.nb_convives FROM reservation r " +
+            "JOIN tables_resto t ON r.table_id = t.id " +
+            "WHERE t.restaurant_id = ? " +
+            "AND r.date_reservation BETWEEN ? AND ? " +
+            "AND r.statut = 'confirmee' " +
+            "UNION ALL " +
+            "SELECT a.restaurant_id, a.date_reservation, a.creneau_id, a.nb_convives FROM reservation_archive a " +
+            "WHERE a.restaurant_id = ? " +
+            "AND a.date_reservation BETWEEN ? AND ? " +
+            "AND a.statut = 'confirmee'" +
+            ") r GROUP BY r.restaurant_id, r.date_reservation, r.creneau_id",
+            Lecteurs.COMPTE_OCCUPATION, ProfilLecture.PERIODE);
+
+    private static final RequeteLecture<TableResto> FIND_TABLES_LIBRES = new RequeteLecture<>("findTablesLibresPourCreneau",
+            "SELECT " + Lecteurs.COLONNES_TABLE + " " +
+            "FROM tables_resto t " +
+            "WHERE t.restaurant_id = ? " +
+            "AND NOT EXISTS (" +
+            "    SELECT 1 FROM reservation r " +
+            "    WHERE r.table_id = t.id " +
+            "    AND r.creneau_id = ? " +
+            "    AND r.date_reservation = ? " +
+            "    AND r.statut = 'confirmee'" +
+            ") " +
+            "ORDER BY t.numero_table",
+            Lecteurs.TABLE_LIBRE, ProfilLecture.RESTAURANT);
+
+    private static final RequeteLecture<TableResto> FIND_TABLES_AVEC_STATUT = new RequeteLecture<>("findTablesAvecStatut",
+            "SELECT " + Lecteurs.COLONNES_TABLE + ", " +
+            "CASE WHEN r.id IS NOT NULL THEN 'occupee' ELSE 'libre' END as statut " +
+            "FROM tables_resto t " +
+            "LEFT JOIN reservation r ON (t.id = r.table_id " +
+            "    AND r.creneau_id = ? " +
+            "    AND r.date_reservation = ? " +
+            "    AND r.statut = 'confirmee') " +
+            "WHERE t.restaurant_id = ? " +
+            "ORDER BY t.numero_table",
+            Lecteurs.TABLE_AVEC_STATUT, ProfilLecture.RESTAURANT);
+
+    private static final RequeteSQL VERIFIER_DISPONIBILITE = new RequeteSQL("verifierDisponibilite",
+            "SELECT COUNT(*) FROM reservation " +
+            "WHERE table_id = ? AND creneau_id = ? " +
+            "AND date_reservation = ? " +
+            "AND statut = 'confirmee'");
+
+    /** Code d'erreur Oracle ORA-00001 : violation de contrainte d'unicité. */
+    private static final int ERREUR_UNICITE = 1;
+
+    private static final RequeteSQL INSERER_RESERVATION = new RequeteSQL("reserverTable",
+            "BEGIN " +
+            "INSERT INTO reservation " +
+            "(id, table_id, creneau_id, date_reservation, nom_client, prenom_client, " +
+            "telephone, nb_convives, date_creation, statut) " +
+            "VALUES ((seq_reservation.NEXTVAL - 1) * ? + ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, 'confirmee') " +
+            "RETURNING id INTO ?; " +
+            "END;");
+
+    private static final RequeteSQL ALLOUER_IDS_RESERVATION = new RequeteSQL("reserverTables.identifiants",
+            "SELECT (seq_reservation.NEXTVAL - 1) * ? + ? FROM dual CONNECT BY LEVEL <= ?");
+
+    private static final RequeteSQL INSERER_RESERVATION_LOT = new RequeteSQL("reserverTables.insertion",
+            "INSERT INTO reservation " +
+            "(id, table_id, creneau_id, date_reservation, nom_client, prenom_client, " +
+            "telephone, nb_convives, date_creation, statut) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, 'confirmee')");
+
+    /** Réservations avec leur table et leur créneau, lues par {@link Lecteurs#RESERVATION_COMPLETE}. */
+    private static final String SELECT_RESERVATIONS_COMPLETES =
+            "SELECT " + Lecteurs.COLONNES_RESERVATION_COMPLETE + " " +
+            "FROM reservation r " +
+            "JOIN tables_resto t ON r.table_id = t.id " +
+            "JOIN creneau c ON r.creneau_id = c.id ";
+
+    private static final RequeteLecture<Reservation> FIND_RESERVATIONS_DATE = new RequeteLecture<>("findReservationsPourDate",
+            SELECT_RESERVATIONS_COMPLETES +
+            "WHERE t.restaurant_id = ? " +
+            "AND r.date_reservation = ? " +
+            "AND r.statut = 'confirmee' " +
+            "ORDER BY c.ordre_affichage, t.numero_table",
+            Lecteurs.RESERVATION_COMPLETE, ProfilLecture.RESTAURANT);
+
+    // Pagination par clé (date, id) : l'index sur (table_id, date_reservation, id)
+    // ou (telephone, date_reservation, id) évite de trier tout l'historique
+    private static final RequeteLecture<Reservation> FIND_HISTORIQUE_RESTAURANT = new RequeteLecture<>("findHistoriqueRestaurant",
+            SELECT_RESERVATIONS_COMPLETES +
+            "WHERE t.restaurant_id = ? " +
+            "AND r.date_reservation BETWEEN ? AND ? " +
+            "AND (r.date_reservation < ? OR (r.date_reservation = ? AND r.id < ?)) " +
+            "ORDER BY r.date_reservation DESC, r.id DESC " +
+            "FETCH FIRST ? ROWS ONLY",
+            Lecteurs.RESERVATION_COMPLETE, ProfilLecture.RESTAURANT);
+
+    private static final RequeteLecture<Reservation> FIND_ARCHIVES_RESTAURANT = new RequeteLecture<>("findArchivesRestaurant",
+            "SELECT " + Lecteurs.COLONNES_RESERVATION_COMPLETE + " " +
+            "FROM reservation_archive r " +
+            "LEFT JOIN tables_resto t ON r.table_id = t.id " +
+            "LEFT JOIN creneau c ON r.creneau_id = c.id " +
+            "WHERE r.restaurant_id = ? " +
+            "AND r.date_reservation BETWEEN ? AND ? " +
+            "AND (r.date_reservation < ? OR (r.date_reservation = ? AND r.id < ?)) " +
+            "ORDER BY r.date_reservation DESC, r.id DESC " +
+            "FETCH FIRST ? ROWS ONLY",
+            Lecteurs.RESERVATION_COMPLETE, ProfilLecture.RESTAURANT);
+
+    private static final RequeteLecture<Reservation> FIND_RESERVATIONS_CLIENT = new RequeteLecture<>("findReservationsClient",
+            SELECT_RESERVATIONS_COMPLETES +
+            "WHERE r.telephone = ? " +
+            "AND (r.date_reservation < ? OR (r.date_reservation = ? AND r.id < ?)) " +
+            "ORDER BY r.date_reservation DESC, r.id DESC " +
+            "FETCH FIRST ? ROWS ONLY",
+            Lecteurs.RESERVATION_COMPLETE, ProfilLecture.RESTAURANT);
+
+    private static final RequeteSQL ANNULER_RESERVATION = new RequeteSQL("annulerReservation",
+            "BEGIN " +
+            "UPDATE reservation SET statut = 'annulee' WHERE id = ? AND statut = 'confirmee' " +
+            "RETURNING table_id, creneau_id, date_reservation, nb_convives INTO ?, ?, ?, ?; " +
+            "? := SQL%ROWCOUNT; " +
+            "END;");
+
+    private static final RequeteSQL INSERER_ATTENTE = new RequeteSQL("inscrireAttente",
+            "INSERT INTO liste_attente " +
+            "(id, restaurant_id, creneau_id, date_reservation, nom_client, prenom_client, " +
+            "telephone, nb_convives, date_inscription, statut) " +
+            "VALUES (seq_liste_attente.NEXTVAL, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, 'en_attente')");
+
+    private static final RequeteLecture<DemandeAttente> FIND_ATTENTES = new RequeteLecture<>("findAttentes",
+            "SELECT " + Lecteurs.COLONNES_ATTENTE + " FROM liste_attente " +
+            "WHERE statut = 'en_attente' AND date_reservation >= ? " +
+            "ORDER BY id",
+            Lecteurs.ATTENTE, ProfilLecture.PERIODE);
+
+    private static final RequeteLecture<DemandeAttente> FIND_ATTENTE = new RequeteLecture<>("findAttente",
+            "SELECT " + Lecteurs.COLONNES_ATTENTE + " FROM liste_attente WHERE id = ?",
+            Lecteurs.ATTENTE, ProfilLecture.UNITAIRE);
+
+    private static final RequeteSQL RETIRER_ATTENTE = new RequeteSQL("retirerAttente",
+            "UPDATE liste_attente SET statut = 'retiree' WHERE id = ? AND statut = 'en_attente'");
+
+    private static final RequeteSQL ALLOUER_IDS_RESTAURANT = new RequeteSQL("importerRestaurants.restaurants",
+            "SELECT seq_restaurant.NEXTVAL FROM dual CONNECT BY LEVEL <= ?");
+
+    private static final RequeteSQL ALLOUER_IDS_TABLE = new RequeteSQL("importerRestaurants.tables",
+            "SELECT seq_tables_resto.NEXTVAL FROM dual CONNECT BY LEVEL <= ?");
+
+    private static final RequeteSQL INSERER_RESTAURANT = new RequeteSQL("importerRestaurants.restaurant",
+            "INSERT INTO restaurant (id, nom, adresse, telephone, latitude, longitude) VALUES (?, ?, ?, ?, ?, ?)");
+
+    private static final RequeteSQL INSERER_TABLE = new RequeteSQL("importerRestaurants.table",
+            "INSERT INTO tables_resto (id, restaurant_id, numero_table, nb_places) VALUES (?, ?, ?, ?)");
+
+    private static final RequeteSQL SELECTIONNER_ARCHIVES = new RequeteSQL("archiverReservations.selection",
+            "SELECT id FROM reservation " +
+            "WHERE date_reservation < ? AND (date_reservation < ? OR statut = 'annulee') " +
+            "ORDER BY date_reservation, id " +
+            "FETCH FIRST ? ROWS ONLY");
+
+    private static final RequeteSQL COPIER_ARCHIVE = new RequeteSQL("archiverReservations.copie",
+            "INSERT INTO reservation_archive " +
+            "(id, restaurant_id, table_id, creneau_id, date_reservation, nom_client, prenom_client, " +
+            "telephone, nb_convives, date_creation, statut, date_archivage) " +
+            "SELECT r.id, t.restaurant_id, r.table_id, r.creneau_id, r.date_reservation, r.nom_client, " +
+            "r.prenom_client, r.telephone, r.nb_convives, r.date_creation, r.statut, CURRENT_TIMESTAMP " +
+            "FROM reservation r JOIN tables_resto t ON r.table_id = t.id WHERE r.id = ?");
+
+    private static final RequeteSQL SUPPRIMER_ARCHIVEE = new RequeteSQL("archiverReservations.suppression",
+            "DELETE FROM reservation WHERE id = ?");
+
+    private static final RequeteSQL PROMOUVOIR_ATTENTE = new RequeteSQL("promouvoirAttente",
+            "UPDATE liste_attente SET statut = 'promue', reservation_id = ? WHERE id = ? AND statut = 'en_attente'");
+
+    private final PoolConnexions pool;
+    private final int nombrePartitions;
+    private final int numeroPartition;
 
     /**
-     * Constructeur du DAO.
+     * Constructeur du DAO, pour un service BD non partitionné.
      *
-     * @param dbUrl URL de connexion à la base
-     * @param dbUser nom d'utilisateur
-     * @param dbPassword mot de passe
+     * @param pool pool de connexions à la base
      */
-    public RestaurantDAO(String dbUrl, String dbUser, String dbPassword) {
-        this.dbUrl = dbUrl;
-        this.dbUser = dbUser;
-        this.dbPassword = dbPassword;
+    public RestaurantDAO(PoolConnexions pool) {
+        this(pool, 0, 1);
+    }
+
+    /**
+     * Constructeur du DAO d'une partition du service BD.
+     *
+     * @param pool pool de connexions à la base
+     * @param numeroPartition numéro de la partition, de 0 à nombrePartitions - 1
+     * @param nombrePartitions nombre total de partitions
+     */
+    public RestaurantDAO(PoolConnexions pool, int numeroPartition, int nombrePartitions) {
+        this.pool = pool;
+        this.numeroPartition = numeroPartition;
+        this.nombrePartitions = nombrePartitions;
     }
 
     /**
@@ -45,24 +297,14 @@ public class RestaurantDAO {
      * @return liste des restaurants
      * @throws SQLException en cas d'erreur SQL
      */
+    @Override
     public List<Restaurant> findAll() throws SQLException {
-        List<Restaurant> restaurants = new ArrayList<>();
-        String sql = "SELECT id, nom, adresse, telephone, latitude, longitude FROM restaurant ORDER BY nom";
+        List<Restaurant> restaurants;
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                Restaurant resto = new Restaurant();
-                resto.setId(rs.getInt("id"));
-                resto.setNom(rs.getString("nom"));
-                resto.setAdresse(rs.getString("adresse"));
-                resto.setTelephone(rs.getString("telephone"));
-                resto.setLatitude(rs.getDouble("latitude"));
-                resto.setLongitude(rs.getDouble("longitude"));
-                restaurants.add(resto);
-            }
+             PreparedStatement pstmt = FIND_ALL.preparer(conn)) {
+
+            restaurants = FIND_ALL.lister(pstmt);
 
             LOGGER.info("Trouvé " + restaurants.size() + " restaurants");
 
@@ -81,24 +323,12 @@ public class RestaurantDAO {
      * @throws SQLException en cas d'erreur SQL
      */
     public List<Creneau> findCreneauxActifs() throws SQLException {
-        List<Creneau> creneaux = new ArrayList<>();
-        String sql = "SELECT id, libelle, heure_debut, heure_fin, actif, ordre_affichage " +
-                "FROM creneau WHERE actif = 1 ORDER BY ordre_affichage, heure_debut";
+        List<Creneau> creneaux;
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                Creneau creneau = new Creneau();
-                creneau.setId(rs.getInt("id"));
-                creneau.setLibelle(rs.getString("libelle"));
-                creneau.setHeureDebut(rs.getString("heure_debut"));
-                creneau.setHeureFin(rs.getString("heure_fin"));
-                creneau.setActif(rs.getInt("actif") == 1);
-                creneau.setOrdreAffichage(rs.getInt("ordre_affichage"));
-                creneaux.add(creneau);
-            }
+             PreparedStatement pstmt = FIND_CRENEAUX_ACTIFS.preparer(conn)) {
+
+            creneaux = FIND_CRENEAUX_ACTIFS.lister(pstmt);
 
             LOGGER.info("Trouvé " + creneaux.size() + " créneaux actifs");
 
@@ -110,6 +340,31 @@ public class RestaurantDAO {
         return creneaux;
     }
 
+    /**
+     * Récupère tous les créneaux, actifs ou non.
+     *
+     * @return liste des créneaux triés par ordre d'affichage
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<Creneau> findAllCreneaux() throws SQLException {
+        List<Creneau> creneaux;
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_TOUS_CRENEAUX.preparer(conn)) {
+
+            creneaux = FIND_TOUS_CRENEAUX.lister(pstmt);
+
+            LOGGER.info("Trouvé " + creneaux.size() + " créneaux");
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findAllCreneaux", e);
+            throw e;
+        }
+
+        return creneaux;
+    }
+
     /**
      * Récupère un créneau par son ID.
      *
@@ -118,33 +373,18 @@ public class RestaurantDAO {
      * @throws SQLException en cas d'erreur SQL
      */
     public Creneau findCreneauById(int creneauId) throws SQLException {
-        String sql = "SELECT id, libelle, heure_debut, heure_fin, actif, ordre_affichage " +
-                "FROM creneau WHERE id = ?";
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = FIND_CRENEAU_BY_ID.preparer(conn)) {
 
             pstmt.setInt(1, creneauId);
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Creneau creneau = new Creneau();
-                    creneau.setId(rs.getInt("id"));
-                    creneau.setLibelle(rs.getString("libelle"));
-                    creneau.setHeureDebut(rs.getString("heure_debut"));
-                    creneau.setHeureFin(rs.getString("heure_fin"));
-                    creneau.setActif(rs.getInt("actif") == 1);
-                    creneau.setOrdreAffichage(rs.getInt("ordre_affichage"));
-                    return creneau;
-                }
-            }
+            return FIND_CRENEAU_BY_ID.lireUne(pstmt);
 
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Erreur findCreneauById " + creneauId, e);
             throw e;
         }
-
-        return null;
     }
 
     /**
@@ -155,25 +395,14 @@ public class RestaurantDAO {
      * @throws SQLException en cas d'erreur SQL
      */
     public List<TableResto> findAllTablesRestaurant(int restaurantId) throws SQLException {
-        List<TableResto> tables = new ArrayList<>();
-        String sql = "SELECT id, restaurant_id, numero_table, nb_places " +
-                "FROM tables_resto WHERE restaurant_id = ? ORDER BY numero_table";
+        List<TableResto> tables;
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = FIND_TABLES_RESTAURANT.preparer(conn)) {
 
             pstmt.setInt(1, restaurantId);
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    TableResto table = new TableResto();
-                    table.setId(rs.getInt("id"));
-                    table.setRestaurantId(rs.getInt("restaurant_id"));
-                    table.setNumeroTable(rs.getInt("numero_table"));
-                    table.setNbPlaces(rs.getInt("nb_places"));
-                    tables.add(table);
-                }
-            }
+            tables = FIND_TABLES_RESTAURANT.lister(pstmt);
 
             LOGGER.info("Trouvé " + tables.size() + " tables pour restaurant " + restaurantId);
 
@@ -186,48 +415,178 @@ public class RestaurantDAO {
     }
 
     /**
-     * Récupère les tables libres pour un restaurant, une date et un créneau donnés.
+     * Récupère toutes les tables de tous les restaurants.
+     *
+     * @return liste des tables, triées par restaurant puis par numéro
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<TableResto> findAllTables() throws SQLException {
+        List<TableResto> tables;
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_TOUTES_TABLES.preparer(conn)) {
+
+            tables = FIND_TOUTES_TABLES.lister(pstmt);
+
+            LOGGER.info("Trouvé " + tables.size() + " tables");
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findAllTables", e);
+            throw e;
+        }
+
+        return tables;
+    }
+
+    /**
+     * Récupère les identifiants des tables réservées d'un restaurant pour une date et un créneau.
      *
      * @param restaurantId identifiant du restaurant
      * @param dateReservation date de réservation
      * @param creneauId identifiant du créneau
-     * @return liste des tables libres
+     * @return identifiants des tables ayant une réservation confirmée
      * @throws SQLException en cas d'erreur SQL
      */
-    public List<TableResto> findTablesLibresPourCreneau(int restaurantId, String dateReservation,
-                                                        int creneauId) throws SQLException {
-        List<TableResto> tables = new ArrayList<>();
-        String sql = "SELECT t.id, t.restaurant_id, t.numero_table, t.nb_places " +
-                "FROM tables_resto t " +
-                "WHERE t.restaurant_id = ? " +
-                "AND NOT EXISTS (" +
-                "    SELECT 1 FROM reservation r " +
-                "    WHERE r.table_id = t.id " +
-                "    AND r.creneau_id = ? " +
-                "    AND r.date_reservation = TO_DATE(?, 'YYYY-MM-DD') " +
-                "    AND r.statut = 'confirmee'" +
-                ") " +
-                "ORDER BY t.numero_table";
+    @Override
+    public List<Integer> findTablesReservees(int restaurantId, java.sql.Date dateReservation,
+                                             int creneauId) throws SQLException {
+        List<Integer> tableIds = new ArrayList<>();
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = FIND_TABLES_RESERVEES.preparer(conn)) {
 
             pstmt.setInt(1, restaurantId);
             pstmt.setInt(2, creneauId);
-            pstmt.setString(3, dateReservation);
+            pstmt.setDate(3, dateReservation);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    TableResto table = new TableResto();
-                    table.setId(rs.getInt("id"));
-                    table.setRestaurantId(rs.getInt("restaurant_id"));
-                    table.setNumeroTable(rs.getInt("numero_table"));
-                    table.setNbPlaces(rs.getInt("nb_places"));
-                    table.setStatut("libre");
-                    tables.add(table);
+                    tableIds.add(rs.getInt(1));
                 }
             }
 
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findTablesReservees", e);
+            throw e;
+        }
+
+        return tableIds;
+    }
+
+    /**
+     * Récupère en une requête les occupations d'un restaurant sur une période.
+     * Seuls la table, le créneau et la date des réservations confirmées sont renseignés.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @return les réservations confirmées de la période
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<Reservation> findOccupationsPeriode(int restaurantId, java.sql.Date debut,
+                                                    java.sql.Date fin) throws SQLException {
+        List<Reservation> occupations;
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_OCCUPATIONS_PERIODE.preparer(conn)) {
+
+            pstmt.setInt(1, restaurantId);
+            pstmt.setDate(2, debut);
+            pstmt.setDate(3, fin);
+
+            occupations = FIND_OCCUPATIONS_PERIODE.lister(pstmt);
+
+            LOGGER.info("Trouvé " + occupations.size() + " occupations pour restaurant " + restaurantId
+                    + " du " + debut + " au " + fin);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findOccupationsPeriode", e);
+            throw e;
+        }
+
+        return occupations;
+    }
+
+    /**
+     * Compte en une requête les réservations confirmées de tous les restaurants sur une période,
+     * archivées comprises.
+     *
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @return le nombre de tables et de couverts réservés de chaque créneau occupé
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<OccupationCreneau> compterOccupations(java.sql.Date debut, java.sql.Date fin) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = COMPTER_OCCUPATIONS.preparer(conn)) {
+
+            pstmt.setDate(1, debut);
+            pstmt.setDate(2, fin);
+            pstmt.setDate(3, debut);
+            pstmt.setDate(4, fin);
+            return COMPTER_OCCUPATIONS.lister(pstmt);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur compterOccupations", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Compte les réservations confirmées d'un restaurant sur une période, par date et créneau,
+     * archivées comprises.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @return le nombre de tables et de couverts réservés de chaque créneau occupé
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<OccupationCreneau> compterOccupationsRestaurant(int restaurantId, java.sql.Date debut,
+                                                                java.sql.Date fin) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = COMPTER_OCCUPATIONS_RESTAURANT.preparer(conn)) {
+
+            pstmt.setInt(1, restaurantId);
+            pstmt.setDate(2, debut);
+            pstmt.setDate(3, fin);
+            pstmt.setInt(4, restaurantId);
+            pstmt.setDate(5, debut);
+            pstmt.setDate(6, fin);
+            return COMPTER_OCCUPATIONS_RESTAURANT.lister(pstmt);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur compterOccupationsRestaurant", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Récupère les tables libres pour un restaurant, une date et un créneau donnés.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param dateReservation date de réservation
+     * @param creneauId identifiant du créneau
+     * @return liste des tables libres
+     * @throws SQLException en cas d'erreur SQL
+     */
+    public List<TableResto> findTablesLibresPourCreneau(int restaurantId, java.sql.Date dateReservation,
+                                                        int creneauId) throws SQLException {
+        List<TableResto> tables;
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_TABLES_LIBRES.preparer(conn)) {
+
+            pstmt.setInt(1, restaurantId);
+            pstmt.setInt(2, creneauId);
+            pstmt.setDate(3, dateReservation);
+
+            tables = FIND_TABLES_LIBRES.lister(pstmt);
+
             LOGGER.info("Trouvé " + tables.size() + " tables libres pour restaurant " +
                     restaurantId + ", date " + dateReservation + ", créneau " + creneauId);
 
@@ -248,37 +607,18 @@ public class RestaurantDAO {
      * @return liste des tables avec statut
      * @throws SQLException en cas d'erreur SQL
      */
-    public List<TableResto> findTablesAvecStatut(int restaurantId, String dateReservation,
+    public List<TableResto> findTablesAvecStatut(int restaurantId, java.sql.Date dateReservation,
                                                  int creneauId) throws SQLException {
-        List<TableResto> tables = new ArrayList<>();
-        String sql = "SELECT t.id, t.restaurant_id, t.numero_table, t.nb_places, " +
-                "CASE WHEN r.id IS NOT NULL THEN 'occupee' ELSE 'libre' END as statut " +
-                "FROM tables_resto t " +
-                "LEFT JOIN reservation r ON (t.id = r.table_id " +
-                "    AND r.creneau_id = ? " +
-                "    AND r.date_reservation = TO_DATE(?, 'YYYY-MM-DD') " +
-                "    AND r.statut = 'confirmee') " +
-                "WHERE t.restaurant_id = ? " +
-                "ORDER BY t.numero_table";
+        List<TableResto> tables;
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = FIND_TABLES_AVEC_STATUT.preparer(conn)) {
 
             pstmt.setInt(1, creneauId);
-            pstmt.setString(2, dateReservation);
+            pstmt.setDate(2, dateReservation);
             pstmt.setInt(3, restaurantId);
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    TableResto table = new TableResto();
-                    table.setId(rs.getInt("id"));
-                    table.setRestaurantId(rs.getInt("restaurant_id"));
-                    table.setNumeroTable(rs.getInt("numero_table"));
-                    table.setNbPlaces(rs.getInt("nb_places"));
-                    table.setStatut(rs.getString("statut"));
-                    tables.add(table);
-                }
-            }
+            tables = FIND_TABLES_AVEC_STATUT.lister(pstmt);
 
             LOGGER.info("Récupéré statut de " + tables.size() + " tables pour restaurant " +
                     restaurantId + ", date " + dateReservation + ", créneau " + creneauId);
@@ -300,18 +640,14 @@ public class RestaurantDAO {
      * @return true si disponible
      * @throws SQLException en cas d'erreur SQL
      */
-    public boolean verifierDisponibilite(int tableId, String dateReservation, int creneauId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM reservation " +
-                "WHERE table_id = ? AND creneau_id = ? " +
-                "AND date_reservation = TO_DATE(?, 'YYYY-MM-DD') " +
-                "AND statut = 'confirmee'";
+    public boolean verifierDisponibilite(int tableId, java.sql.Date dateReservation, int creneauId) throws SQLException {
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = VERIFIER_DISPONIBILITE.preparer(conn)) {
 
             pstmt.setInt(1, tableId);
             pstmt.setInt(2, creneauId);
-            pstmt.setString(3, dateReservation);
+            pstmt.setDate(3, dateReservation);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -330,73 +666,143 @@ public class RestaurantDAO {
     /**
      * Effectue une réservation.
      *
+     * L'insertion et la récupération de l'identifiant se font en un seul aller-retour.
+     * La disponibilité n'est pas vérifiée au préalable : c'est l'index unique
+     * sur les réservations confirmées qui refuse une table déjà prise.
+     *
      * @param reservation la réservation à effectuer
-     * @return true si succès
+     * @return true si succès, false si la table est déjà réservée pour ce créneau
      * @throws SQLException en cas d'erreur SQL
      */
+    @Override
     public boolean reserverTable(Reservation reservation) throws SQLException {
-        Connection conn = null;
-        PreparedStatement pstmtCheck = null;
-        PreparedStatement pstmtInsert = null;
+        try (Connection conn = getConnection();
+             CallableStatement cstmt = INSERER_RESERVATION.preparerAppel(conn)) {
+
+            lierSuiteIdentifiants(cstmt, 1);
+            cstmt.setInt(3, reservation.getTableId());
+            cstmt.setInt(4, reservation.getCreneauId());
+            cstmt.setDate(5, CodecDate.versSql(reservation.getJourReservation()));
+            cstmt.setString(6, reservation.getNomClient());
+            cstmt.setString(7, reservation.getPrenomClient());
+            cstmt.setString(8, reservation.getTelephone());
+            cstmt.setInt(9, reservation.getnbConvives());
+            cstmt.registerOutParameter(10, Types.INTEGER);
+
+            cstmt.execute();
+            reservation.setId(cstmt.getInt(10));
+
+            LOGGER.info("Réservation effectuée avec succès, ID: " + reservation.getId());
+            return true;
+
+        } catch (SQLException e) {
+            if (estViolationUnicite(e)) {
+                LOGGER.warning("Table " + reservation.getTableId() + " déjà réservée pour ce créneau");
+                return false;
+            }
+            LOGGER.log(Level.SEVERE, "Erreur lors de la réservation", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Effectue un lot de réservations dans une seule transaction.
+     *
+     * Les identifiants sont alloués en une requête sur la séquence, puis les
+     * insertions sont envoyées par batch JDBC. En mode tout ou rien, le premier
+     * échec annule l'ensemble du lot. Sinon, les lignes en échec sont écartées
+     * et le batch reprend avec les réservations suivantes.
+     *
+     * Les réservations insérées reçoivent leur identifiant. Pour chaque réservation,
+     * le tableau retourné contient null en cas de succès, ou le motif de l'échec.
+     *
+     * @param reservations les réservations à effectuer
+     * @param toutOuRien true pour annuler tout le lot au premier échec
+     * @return motif d'échec de chaque réservation, null si elle a été enregistrée
+     * @throws SQLException en cas d'erreur SQL autre qu'un échec d'insertion
+     */
+    @Override
+    public String[] reserverTables(List<Reservation> reservations, boolean toutOuRien) throws SQLException {
+        String[] echecs = new String[reservations.size()];
+        if (reservations.isEmpty()) {
+            return echecs;
+        }
 
+        Connection conn = null;
         try {
             conn = getConnection();
             conn.setAutoCommit(false);
 
-            // Vérifier la disponibilité
-            String sqlCheck = "SELECT COUNT(*) FROM reservation " +
-                    "WHERE table_id = ? AND creneau_id = ? " +
-                    "AND date_reservation = ? AND statut = 'confirmee'";
+            int[] ids = allouerIdsReservation(conn, reservations.size());
 
-            pstmtCheck = conn.prepareStatement(sqlCheck);
-            pstmtCheck.setInt(1, reservation.getTableId());
-            pstmtCheck.setInt(2, reservation.getCreneauId());
-            pstmtCheck.setDate(3, new java.sql.Date(reservation.getDateReservation().getTime()));
+            List<Integer> restantes = new ArrayList<>(reservations.size());
+            for (int i = 0; i < reservations.size(); i++) {
+                restantes.add(i);
+            }
 
-            try (ResultSet rs = pstmtCheck.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    LOGGER.warning("Table " + reservation.getTableId() + " déjà réservée pour ce créneau");
-                    conn.rollback();
-                    return false;
+            try (PreparedStatement pstmt = INSERER_RESERVATION_LOT.preparer(conn)) {
+                while (!restantes.isEmpty()) {
+                    Savepoint avantLot = toutOuRien ? null : conn.setSavepoint();
+                    for (int i : restantes) {
+                        Reservation reservation = reservations.get(i);
+                        pstmt.setInt(1, ids[i]);
+                        pstmt.setInt(2, reservation.getTableId());
+                        pstmt.setInt(3, reservation.getCreneauId());
+                        pstmt.setDate(4, CodecDate.versSql(reservation.getJourReservation()));
+                        pstmt.setString(5, reservation.getNomClient());
+                        pstmt.setString(6, reservation.getPrenomClient());
+                        pstmt.setString(7, reservation.getTelephone());
+                        pstmt.setInt(8, reservation.getnbConvives());
+                        pstmt.addBatch();
+                    }
+
+                    try {
+                        pstmt.executeBatch();
+                        restantes.clear();
+                    } catch (BatchUpdateException e) {
+                        pstmt.clearBatch();
+                        int position = positionEchec(e, restantes.size());
+                        if (position < 0) {
+                            throw e;
+                        }
+                        int enEchec = restantes.get(position);
+                        echecs[enEchec] = estViolationUnicite(e)
+                                ? "La table n'est plus disponible pour ce créneau"
+                                : e.getMessage();
+
+                        if (toutOuRien) {
+                            conn.rollback();
+                            for (int i = 0; i < echecs.length; i++) {
+                                if (echecs[i] == null) {
+                                    echecs[i] = "Lot annulé suite à l'échec d'une autre réservation";
+                                }
+                            }
+                            LOGGER.warning("Lot de " + reservations.size() + " réservations annulé : " + echecs[enEchec]);
+                            return echecs;
+                        }
+
+                        // Le comportement des pilotes après un échec varie : on repart
+                        // du point de sauvegarde et on rejoue le lot sans la ligne fautive.
+                        conn.rollback(avantLot);
+                        restantes.remove(position);
+                    }
                 }
             }
 
-            // Insérer la réservation
-            String sqlInsert = "INSERT INTO reservation " +
-                    "(id, table_id, creneau_id, date_reservation, nom_client, prenom_client, " +
-                    "telephone, nb_convives, date_creation, statut) " +
-                    "VALUES (seq_reservation.NEXTVAL, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, 'confirmee')";
-
-            pstmtInsert = conn.prepareStatement(sqlInsert, new String[]{"ID"});
-            pstmtInsert.setInt(1, reservation.getTableId());
-            pstmtInsert.setInt(2, reservation.getCreneauId());
-            pstmtInsert.setDate(3, new java.sql.Date(reservation.getDateReservation().getTime()));
-            pstmtInsert.setString(4, reservation.getNomClient());
-            pstmtInsert.setString(5, reservation.getPrenomClient());
-            pstmtInsert.setString(6, reservation.getTelephone());
-            pstmtInsert.setInt(7, reservation.getnbConvives());
-
-            int rowsInserted = pstmtInsert.executeUpdate();
-
-            if (rowsInserted != 1) {
-                LOGGER.warning("Impossible d'insérer la réservation");
-                conn.rollback();
-                return false;
-            }
+            conn.commit();
 
-            // Récupérer l'ID généré
-            try (ResultSet generatedKeys = pstmtInsert.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    reservation.setId(generatedKeys.getInt(1));
+            int reussies = 0;
+            for (int i = 0; i < reservations.size(); i++) {
+                if (echecs[i] == null) {
+                    reservations.get(i).setId(ids[i]);
+                    reussies++;
                 }
             }
-
-            conn.commit();
-            LOGGER.info("Réservation effectuée avec succès, ID: " + reservation.getId());
-            return true;
+            LOGGER.info("Lot de réservations enregistré : " + reussies + "/" + reservations.size());
+            return echecs;
 
         } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la réservation", e);
+            LOGGER.log(Level.SEVERE, "Erreur lors du lot de réservations", e);
             if (conn != null) {
                 try {
                     conn.rollback();
@@ -406,11 +812,8 @@ public class RestaurantDAO {
             }
             throw e;
         } finally {
-            closeQuietly(pstmtCheck);
-            closeQuietly(pstmtInsert);
             if (conn != null) {
                 try {
-                    conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
                     LOGGER.log(Level.WARNING, "Erreur fermeture connexion", e);
@@ -427,58 +830,17 @@ public class RestaurantDAO {
      * @return liste des réservations
      * @throws SQLException en cas d'erreur SQL
      */
-    public List<Reservation> findReservationsPourDate(int restaurantId, String dateReservation) throws SQLException {
-        List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT r.id, r.table_id, r.creneau_id, r.date_reservation, " +
-                "r.nom_client, r.prenom_client, r.telephone, r.nb_convives, " +
-                "r.date_creation, r.statut, " +
-                "t.numero_table, t.nb_places, " +
-                "c.libelle, c.heure_debut, c.heure_fin " +
-                "FROM reservation r " +
-                "JOIN tables_resto t ON r.table_id = t.id " +
-                "JOIN creneau c ON r.creneau_id = c.id " +
-                "WHERE t.restaurant_id = ? " +
-                "AND r.date_reservation = TO_DATE(?, 'YYYY-MM-DD') " +
-                "AND r.statut = 'confirmee' " +
-                "ORDER BY c.ordre_affichage, t.numero_table";
+    @Override
+    public List<Reservation> findReservationsPourDate(int restaurantId, java.sql.Date dateReservation) throws SQLException {
+        List<Reservation> reservations;
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = FIND_RESERVATIONS_DATE.preparer(conn)) {
 
             pstmt.setInt(1, restaurantId);
-            pstmt.setString(2, dateReservation);
+            pstmt.setDate(2, dateReservation);
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Reservation reservation = new Reservation();
-                    reservation.setId(rs.getInt("id"));
-                    reservation.setTableId(rs.getInt("table_id"));
-                    reservation.setCreneauId(rs.getInt("creneau_id"));
-                    reservation.setDateReservation(rs.getDate("date_reservation"));
-                    reservation.setNomClient(rs.getString("nom_client"));
-                    reservation.setPrenomClient(rs.getString("prenom_client"));
-                    reservation.setTelephone(rs.getString("telephone"));
-                    reservation.setnbConvives(rs.getInt("nb_convives"));
-                    reservation.setDateCreation(rs.getTimestamp("date_creation"));
-                    reservation.setStatut(rs.getString("statut"));
-
-                    // Ajout des objets liés
-                    TableResto table = new TableResto();
-                    table.setId(rs.getInt("table_id"));
-                    table.setNumeroTable(rs.getInt("numero_table"));
-                    table.setNbPlaces(rs.getInt("nb_places"));
-                    reservation.setTable(table);
-
-                    Creneau creneau = new Creneau();
-                    creneau.setId(rs.getInt("creneau_id"));
-                    creneau.setLibelle(rs.getString("libelle"));
-                    creneau.setHeureDebut(rs.getString("heure_debut"));
-                    creneau.setHeureFin(rs.getString("heure_fin"));
-                    reservation.setCreneau(creneau);
-
-                    reservations.add(reservation);
-                }
-            }
+            reservations = FIND_RESERVATIONS_DATE.lister(pstmt);
 
             LOGGER.info("Trouvé " + reservations.size() + " réservations pour restaurant " +
                     restaurantId + " le " + dateReservation);
@@ -491,59 +853,596 @@ public class RestaurantDAO {
         return reservations;
     }
 
+    /**
+     * Récupère une page de l'historique des réservations d'un restaurant, tous statuts confondus.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @param avantDate date de la dernière réservation de la page précédente
+     * @param avantId identifiant de la dernière réservation de la page précédente
+     * @param nombre nombre maximal de réservations
+     * @return les réservations, par date puis identifiant décroissants
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<Reservation> findHistoriqueRestaurant(int restaurantId, java.sql.Date debut, java.sql.Date fin,
+                                                      java.sql.Date avantDate, int avantId, int nombre)
+            throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_HISTORIQUE_RESTAURANT.preparer(conn)) {
+
+            pstmt.setInt(1, restaurantId);
+            pstmt.setDate(2, debut);
+            pstmt.setDate(3, fin);
+            pstmt.setDate(4, avantDate);
+            pstmt.setDate(5, avantDate);
+            pstmt.setInt(6, avantId);
+            pstmt.setInt(7, nombre);
+            return FIND_HISTORIQUE_RESTAURANT.lister(pstmt, nombre);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findHistoriqueRestaurant", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Récupère une page de l'historique archivé d'un restaurant, tous statuts confondus.
+     * La table et le créneau ne sont renseignés que s'ils existent encore.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @param avantDate date de la dernière réservation de la page précédente
+     * @param avantId identifiant de la dernière réservation de la page précédente
+     * @param nombre nombre maximal de réservations
+     * @return les réservations archivées
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<Reservation> findArchivesRestaurant(int restaurantId, java.sql.Date debut, java.sql.Date fin,
+                                                    java.sql.Date avantDate, int avantId, int nombre)
+            throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_ARCHIVES_RESTAURANT.preparer(conn)) {
+
+            pstmt.setInt(1, restaurantId);
+            pstmt.setDate(2, debut);
+            pstmt.setDate(3, fin);
+            pstmt.setDate(4, avantDate);
+            pstmt.setDate(5, avantDate);
+            pstmt.setInt(6, avantId);
+            pstmt.setInt(7, nombre);
+            return FIND_ARCHIVES_RESTAURANT.lister(pstmt, nombre);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findArchivesRestaurant", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Récupère une page des réservations d'un client, tous statuts confondus.
+     *
+     * @param telephone téléphone donné à la réservation
+     * @param avantDate date de la dernière réservation de la page précédente
+     * @param avantId identifiant de la dernière réservation de la page précédente
+     * @param nombre nombre maximal de réservations
+     * @return les réservations, par date puis identifiant décroissants
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<Reservation> findReservationsClient(String telephone, java.sql.Date avantDate, int avantId,
+                                                    int nombre) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_RESERVATIONS_CLIENT.preparer(conn)) {
+
+            pstmt.setString(1, telephone);
+            pstmt.setDate(2, avantDate);
+            pstmt.setDate(3, avantDate);
+            pstmt.setInt(4, avantId);
+            pstmt.setInt(5, nombre);
+            return FIND_RESERVATIONS_CLIENT.lister(pstmt, nombre);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findReservationsClient", e);
+            throw e;
+        }
+    }
+
     /**
      * Annule une réservation.
      *
+     * La mise à jour retourne dans le même aller-retour la table, le créneau
+     * et la date libérés, afin que l'appelant puisse tenir ses index à jour.
+     *
      * @param reservationId identifiant de la réservation
-     * @return true si succès
+     * @return la réservation annulée (table, créneau, date, convives), ou null si non trouvée ou déjà annulée
      * @throws SQLException en cas d'erreur SQL
      */
-    public boolean annulerReservation(int reservationId) throws SQLException {
-        String sql = "UPDATE reservation SET statut = 'annulee' WHERE id = ? AND statut = 'confirmee'";
+    @Override
+    public Reservation annulerReservation(int reservationId) throws SQLException {
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             CallableStatement cstmt = ANNULER_RESERVATION.preparerAppel(conn)) {
 
-            pstmt.setInt(1, reservationId);
-            int rowsUpdated = pstmt.executeUpdate();
+            cstmt.setInt(1, reservationId);
+            cstmt.registerOutParameter(2, Types.INTEGER);
+            cstmt.registerOutParameter(3, Types.INTEGER);
+            cstmt.registerOutParameter(4, Types.DATE);
+            cstmt.registerOutParameter(5, Types.INTEGER);
+            cstmt.registerOutParameter(6, Types.INTEGER);
+            cstmt.execute();
 
-            if (rowsUpdated > 0) {
-                LOGGER.info("Réservation " + reservationId + " annulée avec succès");
-                return true;
-            } else {
+            if (cstmt.getInt(6) == 0) {
                 LOGGER.warning("Réservation " + reservationId + " non trouvée ou déjà annulée");
-                return false;
+                return null;
             }
 
+            Reservation reservation = new Reservation();
+            reservation.setId(reservationId);
+            reservation.setTableId(cstmt.getInt(2));
+            reservation.setCreneauId(cstmt.getInt(3));
+            reservation.setDateReservation(cstmt.getDate(4));
+            reservation.setnbConvives(cstmt.getInt(5));
+            reservation.setStatut("annulee");
+
+            LOGGER.info("Réservation " + reservationId + " annulée avec succès");
+            return reservation;
+
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Erreur annulerReservation " + reservationId, e);
             throw e;
         }
     }
 
+    /**
+     * Inscrit une demande en liste d'attente.
+     *
+     * @param demande la demande à inscrire, qui reçoit son identifiant
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public void inscrireAttente(DemandeAttente demande) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = INSERER_ATTENTE.preparer(conn, "id")) {
+
+            pstmt.setInt(1, demande.getRestaurantId());
+            pstmt.setInt(2, demande.getCreneauId());
+            pstmt.setDate(3, CodecDate.versSql(demande.getJour()));
+            pstmt.setString(4, demande.getNomClient());
+            pstmt.setString(5, demande.getPrenomClient());
+            pstmt.setString(6, demande.getTelephone());
+            pstmt.setInt(7, demande.getNbConvives());
+            pstmt.executeUpdate();
+
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new SQLException("Identifiant de la demande d'attente non retourné");
+                }
+                demande.setId(rs.getInt(1));
+            }
+            LOGGER.info("Demande d'attente inscrite, ID: " + demande.getId());
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur inscrireAttente", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Récupère les demandes encore en attente à partir d'une date.
+     *
+     * @param debut première date de réservation (incluse)
+     * @return les demandes en attente, par ordre d'inscription
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public List<DemandeAttente> findAttentes(java.sql.Date debut) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_ATTENTES.preparer(conn)) {
+
+            pstmt.setDate(1, debut);
+            return FIND_ATTENTES.lister(pstmt);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findAttentes", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Récupère une demande de la liste d'attente.
+     *
+     * @param attenteId identifiant de la demande
+     * @return la demande, ou null si elle n'existe pas
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public DemandeAttente findAttente(int attenteId) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = FIND_ATTENTE.preparer(conn)) {
+
+            pstmt.setInt(1, attenteId);
+            return FIND_ATTENTE.lireUne(pstmt);
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur findAttente " + attenteId, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Retire une demande encore en attente.
+     *
+     * @param attenteId identifiant de la demande
+     * @return true si la demande était en attente
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public boolean retirerAttente(int attenteId) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = RETIRER_ATTENTE.preparer(conn)) {
+
+            pstmt.setInt(1, attenteId);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur retirerAttente " + attenteId, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Promeut une demande en attente en réservation, dans une seule transaction :
+     * la réservation n'est enregistrée que si la demande est encore en attente,
+     * et la demande n'est marquée promue que si la table est encore libre.
+     *
+     * @param attenteId identifiant de la demande
+     * @param reservation la réservation de la demande, qui reçoit son identifiant
+     * @return true si succès, false si la table est déjà reprise ou la demande n'est plus en attente
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public boolean promouvoirAttente(int attenteId, Reservation reservation) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int id = allouerIdsReservation(conn, 1)[0];
+                try (PreparedStatement pstmt = INSERER_RESERVATION_LOT.preparer(conn)) {
+                    pstmt.setInt(1, id);
+                    pstmt.setInt(2, reservation.getTableId());
+                    pstmt.setInt(3, reservation.getCreneauId());
+                    pstmt.setDate(4, CodecDate.versSql(reservation.getJourReservation()));
+                    pstmt.setString(5, reservation.getNomClient());
+                    pstmt.setString(6, reservation.getPrenomClient());
+                    pstmt.setString(7, reservation.getTelephone());
+                    pstmt.setInt(8, reservation.getnbConvives());
+                    pstmt.executeUpdate();
+                } catch (SQLException e) {
+                    if (estViolationUnicite(e)) {
+                        conn.rollback();
+                        LOGGER.fine("Table " + reservation.getTableId() + " déjà reprise, demande "
+                                + attenteId + " non promue");
+                        return false;
+                    }
+                    throw e;
+                }
+
+                try (PreparedStatement pstmt = PROMOUVOIR_ATTENTE.preparer(conn)) {
+                    pstmt.setInt(1, id);
+                    pstmt.setInt(2, attenteId);
+                    if (pstmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                conn.commit();
+                reservation.setId(id);
+                LOGGER.info("Demande d'attente " + attenteId + " promue, réservation " + id);
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur promouvoirAttente " + attenteId, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Déplace un lot de réservations passées vers reservation_archive, dans une seule
+     * transaction : les identifiants du lot sont sélectionnés par date croissante, puis
+     * chaque réservation est copiée (avec le restaurant de sa table) et supprimée, par
+     * lots JDBC. Si une autre instance archive le même lot en même temps, la copie
+     * viole la clé primaire de l'archive : la transaction est annulée et rien n'est compté.
+     *
+     * @param avant date avant laquelle toute réservation est archivée (exclue)
+     * @param annuleesAvant date avant laquelle une réservation annulée est archivée (exclue)
+     * @param nombre nombre maximal de réservations déplacées
+     * @return le nombre de réservations archivées, 0 si aucune ou si le lot est pris par une autre instance
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public int archiverReservations(java.sql.Date avant, java.sql.Date annuleesAvant, int nombre)
+            throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>(nombre);
+                try (PreparedStatement pstmt = SELECTIONNER_ARCHIVES.preparer(conn)) {
+                    pstmt.setDate(1, annuleesAvant);
+                    pstmt.setDate(2, avant);
+                    pstmt.setInt(3, nombre);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+
+                try (PreparedStatement copie = COPIER_ARCHIVE.preparer(conn);
+                     PreparedStatement suppression = SUPPRIMER_ARCHIVEE.preparer(conn)) {
+                    for (int id : ids) {
+                        copie.setInt(1, id);
+                        copie.addBatch();
+                        suppression.setInt(1, id);
+                        suppression.addBatch();
+                    }
+                    copie.executeBatch();
+                    suppression.executeBatch();
+                } catch (SQLException e) {
+                    if (estViolationUnicite(e)) {
+                        conn.rollback();
+                        LOGGER.fine("Lot déjà archivé par une autre instance");
+                        return 0;
+                    }
+                    throw e;
+                }
+
+                conn.commit();
+                return ids.size();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur archiverReservations", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Importe un lot de restaurants et leurs tables dans une seule transaction.
+     * Les identifiants sont tirés des séquences en une requête pour les restaurants
+     * et une pour les tables ; les insertions se font ensuite par lots JDBC, les tables
+     * de chaque restaurant étant numérotées à partir de 1. Les identifiants ne sont
+     * reportés sur les restaurants qu'après la validation : en cas d'erreur, rien n'est
+     * inséré et les objets restent inchangés.
+     *
+     * @param restaurants restaurants à créer, dans l'ordre de places
+     * @param places nombre de places de chaque table, un tableau par restaurant
+     * @throws SQLException en cas d'erreur SQL
+     */
+    @Override
+    public void importerRestaurants(List<Restaurant> restaurants, List<int[]> places) throws SQLException {
+        if (restaurants.isEmpty()) {
+            return;
+        }
+        int nbTables = 0;
+        for (int[] placesRestaurant : places) {
+            nbTables += placesRestaurant.length;
+        }
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int[] idsRestaurants = allouerIdsRestaurant(conn, restaurants.size());
+                int[] idsTables = allouerIdsTable(conn, nbTables);
+
+                try (PreparedStatement pstmt = INSERER_RESTAURANT.preparer(conn)) {
+                    for (int i = 0; i < restaurants.size(); i++) {
+                        Restaurant restaurant = restaurants.get(i);
+                        pstmt.setInt(1, idsRestaurants[i]);
+                        pstmt.setString(2, restaurant.getNom());
+                        pstmt.setString(3, restaurant.getAdresse());
+                        pstmt.setString(4, restaurant.getTelephone());
+                        pstmt.setDouble(5, restaurant.getLatitude());
+                        pstmt.setDouble(6, restaurant.getLongitude());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+
+                try (PreparedStatement pstmt = INSERER_TABLE.preparer(conn)) {
+                    int table = 0;
+                    for (int i = 0; i < restaurants.size(); i++) {
+                        int[] placesRestaurant = places.get(i);
+                        for (int numero = 1; numero <= placesRestaurant.length; numero++) {
+                            pstmt.setInt(1, idsTables[table++]);
+                            pstmt.setInt(2, idsRestaurants[i]);
+                            pstmt.setInt(3, numero);
+                            pstmt.setInt(4, placesRestaurant[numero - 1]);
+                            pstmt.addBatch();
+                        }
+                    }
+                    pstmt.executeBatch();
+                }
+
+                conn.commit();
+                for (int i = 0; i < restaurants.size(); i++) {
+                    restaurants.get(i).setId(idsRestaurants[i]);
+                }
+                LOGGER.fine("Lot importé : " + restaurants.size() + " restaurants, " + nbTables + " tables");
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur importerRestaurants (" + restaurants.size() + " restaurants)", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        stats.put("type", "oracle");
+        stats.put("pool", pool.getStatistiques());
+        return stats;
+    }
 
     /**
-     * Obtient une connexion à la base de données.
+     * Emprunte une connexion au pool.
+     * La fermeture de la connexion la rend au pool.
      *
      * @return connexion JDBC
      * @throws SQLException en cas d'erreur de connexion
      */
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+    protected Connection getConnection() throws SQLException {
+        return pool.getConnection();
     }
 
     /**
-     * Ferme une ressource de manière silencieuse.
+     * Détermine la position de la première ligne en échec d'un batch.
+     * Selon le pilote, les comptes s'arrêtent avant la ligne fautive
+     * ou la signalent par EXECUTE_FAILED.
      *
-     * @param resource la ressource à fermer
+     * @param e l'exception levée par executeBatch
+     * @param taille le nombre de lignes du batch
+     * @return la position de la ligne en échec, ou -1 si elle ne peut être déterminée
      */
-    private void closeQuietly(AutoCloseable resource) {
-        if (resource != null) {
-            try {
-                resource.close();
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, "Erreur fermeture ressource", e);
+    private int positionEchec(BatchUpdateException e, int taille) {
+        int[] comptes = e.getUpdateCounts();
+        if (comptes == null) {
+            return taille == 1 ? 0 : -1;
+        }
+        for (int i = 0; i < comptes.length; i++) {
+            if (comptes[i] == Statement.EXECUTE_FAILED) {
+                return i;
+            }
+        }
+        return comptes.length < taille ? comptes.length : -1;
+    }
+
+    /**
+     * Alloue des identifiants de réservation en un seul aller-retour.
+     *
+     * @param conn la connexion de la transaction en cours
+     * @param nombre le nombre d'identifiants à allouer
+     * @return les identifiants alloués
+     * @throws SQLException en cas d'erreur SQL
+     */
+    protected int[] allouerIdsReservation(Connection conn, int nombre) throws SQLException {
+        int[] ids = new int[nombre];
+        try (PreparedStatement pstmt = ALLOUER_IDS_RESERVATION.preparer(conn)) {
+            lierSuiteIdentifiants(pstmt, 1);
+            pstmt.setInt(3, nombre);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int i = 0;
+                while (rs.next() && i < nombre) {
+                    ids[i++] = rs.getInt(1);
+                }
+                if (i < nombre) {
+                    throw new SQLException("Allocation d'identifiants incomplète : " + i + "/" + nombre);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Tire des identifiants de restaurant de la séquence, en une seule requête.
+     *
+     * @param conn la connexion de la transaction en cours
+     * @param nombre le nombre d'identifiants à tirer
+     * @return les identifiants
+     * @throws SQLException en cas d'erreur SQL
+     */
+    protected int[] allouerIdsRestaurant(Connection conn, int nombre) throws SQLException {
+        return lireIdentifiants(conn, ALLOUER_IDS_RESTAURANT, nombre);
+    }
+
+    /**
+     * Tire des identifiants de table de la séquence, en une seule requête.
+     *
+     * @param conn la connexion de la transaction en cours
+     * @param nombre le nombre d'identifiants à tirer
+     * @return les identifiants
+     * @throws SQLException en cas d'erreur SQL
+     */
+    protected int[] allouerIdsTable(Connection conn, int nombre) throws SQLException {
+        return lireIdentifiants(conn, ALLOUER_IDS_TABLE, nombre);
+    }
+
+    /**
+     * Exécute une requête qui tire des identifiants d'une séquence, le nombre
+     * d'identifiants étant son unique paramètre.
+     *
+     * @param conn la connexion de la transaction en cours
+     * @param requete la requête d'allocation
+     * @param nombre le nombre d'identifiants à tirer
+     * @return les identifiants
+     * @throws SQLException en cas d'erreur SQL ou d'allocation incomplète
+     */
+    protected int[] lireIdentifiants(Connection conn, RequeteSQL requete, int nombre) throws SQLException {
+        int[] ids = new int[nombre];
+        if (nombre == 0) {
+            return ids;
+        }
+        try (PreparedStatement pstmt = requete.preparer(conn)) {
+            pstmt.setInt(1, nombre);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int i = 0;
+                while (rs.next() && i < nombre) {
+                    ids[i++] = rs.getInt(1);
+                }
+                if (i < nombre) {
+                    throw new SQLException("Allocation d'identifiants incomplète : " + i + "/" + nombre);
+                }
             }
         }
+        return ids;
+    }
+
+    /**
+     * Renseigne le pas et le décalage de la suite d'identifiants de réservation
+     * de la partition, dans l'expression (valeur - 1) * ? + ?.
+     *
+     * @param pstmt la requête qui tire les identifiants de la séquence
+     * @param position position du paramètre du pas
+     * @throws SQLException en cas d'erreur SQL
+     */
+    protected void lierSuiteIdentifiants(PreparedStatement pstmt, int position) throws SQLException {
+        pstmt.setInt(position, nombrePartitions);
+        pstmt.setInt(position + 1, numeroPartition + 1);
+    }
+
+    /**
+     * Indique si une erreur SQL est une violation de contrainte d'unicité.
+     *
+     * @param e l'erreur SQL
+     * @return true si la ligne existe déjà
+     */
+    protected boolean estViolationUnicite(SQLException e) {
+        return e.getErrorCode() == ERREUR_UNICITE;
     }
 }
\ No newline at end of file
@@ -0,0 +1,268 @@
+package dao;
+
+import model.Creneau;
+import model.DemandeAttente;
+import model.OccupationCreneau;
+import model.Reservation;
+import model.Restaurant;
+import model.TableResto;
+import org.json.JSONObject;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Interface de stockage du service BD : tout ce dont BaseDonnee et ses caches
+ * ont besoin pour lire les données de référence et enregistrer les réservations.
+ *
+ * Implémentations :
+ * - {@link RestaurantDAO} : base Oracle (configuration "oracle", par défaut)
+ * - {@link StockageEmbarque} : base SQL embarquée dans le processus, initialisée
+ *   depuis create_tables.sql (configuration "embarque"), pour les tests de charge locaux
+ *
+ * Contrat commun :
+ * - une table ne peut avoir qu'une réservation confirmée par créneau et par date,
+ *   une tentative en double n'est pas une erreur mais un échec de réservation ;
+ * - les dates sont des jours, sans heure.
+ */
+public interface Stockage {
+
+    /**
+     * Récupère tous les restaurants.
+     *
+     * @return liste des restaurants triés par nom
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<Restaurant> findAll() throws SQLException;
+
+    /**
+     * Récupère tous les créneaux, actifs ou non.
+     *
+     * @return liste des créneaux triés par ordre d'affichage
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<Creneau> findAllCreneaux() throws SQLException;
+
+    /**
+     * Récupère toutes les tables de tous les restaurants.
+     *
+     * @return liste des tables, triées par restaurant puis par numéro
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<TableResto> findAllTables() throws SQLException;
+
+    /**
+     * Récupère les identifiants des tables réservées d'un restaurant pour une date et un créneau.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param dateReservation date de réservation
+     * @param creneauId identifiant du créneau
+     * @return identifiants des tables ayant une réservation confirmée
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<Integer> findTablesReservees(int restaurantId, java.sql.Date dateReservation, int creneauId) throws SQLException;
+
+    /**
+     * Récupère les occupations d'un restaurant sur une période.
+     * Seuls la table, le créneau et la date des réservations confirmées sont renseignés.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @return les réservations confirmées de la période
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<Reservation> findOccupationsPeriode(int restaurantId, java.sql.Date debut, java.sql.Date fin) throws SQLException;
+
+    /**
+     * Compte les réservations confirmées de tous les restaurants sur une période,
+     * par restaurant, date et créneau, archivées comprises. La capacité des
+     * restaurants n'est pas renseignée.
+     *
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @return le nombre de tables et de couverts réservés de chaque créneau occupé
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<OccupationCreneau> compterOccupations(java.sql.Date debut, java.sql.Date fin) throws SQLException;
+
+    /**
+     * Compte les réservations confirmées d'un restaurant sur une période, par date et créneau,
+     * archivées comprises. La capacité du restaurant n'est pas renseignée.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @return le nombre de tables et de couverts réservés de chaque créneau occupé
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<OccupationCreneau> compterOccupationsRestaurant(int restaurantId, java.sql.Date debut, java.sql.Date fin)
+            throws SQLException;
+
+    /**
+     * Récupère les réservations confirmées d'un restaurant pour une date, avec leur table et leur créneau.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param dateReservation date de réservation
+     * @return liste des réservations
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<Reservation> findReservationsPourDate(int restaurantId, java.sql.Date dateReservation) throws SQLException;
+
+    /**
+     * Récupère une page de l'historique des réservations d'un restaurant, tous statuts confondus.
+     *
+     * Les réservations sont triées par date puis identifiant décroissants. La page
+     * commence juste après la clé (avantDate, avantId) : pour la première page, la clé
+     * est le lendemain de la période.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @param avantDate date de la dernière réservation de la page précédente
+     * @param avantId identifiant de la dernière réservation de la page précédente
+     * @param nombre nombre maximal de réservations
+     * @return les réservations, avec leur table et leur créneau
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<Reservation> findHistoriqueRestaurant(int restaurantId, java.sql.Date debut, java.sql.Date fin,
+                                               java.sql.Date avantDate, int avantId, int nombre) throws SQLException;
+
+    /**
+     * Récupère une page de l'historique archivé d'un restaurant, tous statuts confondus.
+     * Même ordre et même clé de page que {@link #findHistoriqueRestaurant}.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut première date de la période (incluse)
+     * @param fin dernière date de la période (incluse)
+     * @param avantDate date de la dernière réservation de la page précédente
+     * @param avantId identifiant de la dernière réservation de la page précédente
+     * @param nombre nombre maximal de réservations
+     * @return les réservations archivées, avec leur table et leur créneau s'ils existent encore
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<Reservation> findArchivesRestaurant(int restaurantId, java.sql.Date debut, java.sql.Date fin,
+                                             java.sql.Date avantDate, int avantId, int nombre) throws SQLException;
+
+    /**
+     * Récupère une page des réservations d'un client, tous statuts confondus.
+     * Même ordre et même clé de page que {@link #findHistoriqueRestaurant}.
+     *
+     * @param telephone téléphone donné à la réservation
+     * @param avantDate date de la dernière réservation de la page précédente
+     * @param avantId identifiant de la dernière réservation de la page précédente
+     * @param nombre nombre maximal de réservations
+     * @return les réservations, avec leur table et leur créneau
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<Reservation> findReservationsClient(String telephone, java.sql.Date avantDate, int avantId,
+                                             int nombre) throws SQLException;
+
+    /**
+     * Effectue une réservation. En cas de succès, la réservation reçoit son identifiant.
+     *
+     * @param reservation la réservation à effectuer
+     * @return true si succès, false si la table est déjà réservée pour ce créneau
+     * @throws SQLException en cas d'erreur SQL
+     */
+    boolean reserverTable(Reservation reservation) throws SQLException;
+
+    /**
+     * Effectue un lot de réservations dans une seule transaction.
+     * Les réservations enregistrées reçoivent leur identifiant.
+     *
+     * @param reservations les réservations à effectuer
+     * @param toutOuRien true pour annuler tout le lot au premier échec
+     * @return motif d'échec de chaque réservation, null si elle a été enregistrée
+     * @throws SQLException en cas d'erreur SQL autre qu'un échec d'insertion
+     */
+    String[] reserverTables(List<Reservation> reservations, boolean toutOuRien) throws SQLException;
+
+    /**
+     * Annule une réservation confirmée.
+     *
+     * @param reservationId identifiant de la réservation
+     * @return la réservation annulée (table, créneau, date, convives), ou null si non trouvée ou déjà annulée
+     * @throws SQLException en cas d'erreur SQL
+     */
+    Reservation annulerReservation(int reservationId) throws SQLException;
+
+    /**
+     * Déplace un lot de réservations passées vers l'archive, dans une seule transaction
+     * courte : les réservations antérieures à {@code avant}, et les réservations annulées
+     * antérieures à {@code annuleesAvant}, les plus anciennes d'abord.
+     *
+     * @param avant date avant laquelle toute réservation est archivée (exclue)
+     * @param annuleesAvant date avant laquelle une réservation annulée est archivée (exclue),
+     *                      postérieure ou égale à {@code avant}
+     * @param nombre nombre maximal de réservations déplacées
+     * @return le nombre de réservations archivées, 0 si une autre instance archive le même lot
+     * @throws SQLException en cas d'erreur SQL
+     */
+    int archiverReservations(java.sql.Date avant, java.sql.Date annuleesAvant, int nombre) throws SQLException;
+
+    /**
+     * Insère un lot de restaurants et leurs tables, dans une seule transaction :
+     * en cas d'erreur, aucune ligne du lot n'est insérée. Les identifiants sont
+     * tirés des séquences en une requête pour tout le lot, puis les lignes sont
+     * insérées par lots JDBC. En cas de succès, chaque restaurant reçoit son identifiant.
+     *
+     * @param restaurants les restaurants à insérer
+     * @param places pour chaque restaurant, le nombre de places de ses tables, numérotées à partir de 1
+     * @throws SQLException en cas d'erreur SQL
+     */
+    void importerRestaurants(List<Restaurant> restaurants, List<int[]> places) throws SQLException;
+
+    /**
+     * Inscrit une demande en liste d'attente. En cas de succès, la demande reçoit son identifiant.
+     *
+     * @param demande la demande à inscrire
+     * @throws SQLException en cas d'erreur SQL
+     */
+    void inscrireAttente(DemandeAttente demande) throws SQLException;
+
+    /**
+     * Récupère les demandes encore en attente à partir d'une date, par ordre d'inscription.
+     *
+     * @param debut première date de réservation (incluse)
+     * @return les demandes en attente
+     * @throws SQLException en cas d'erreur SQL
+     */
+    List<DemandeAttente> findAttentes(java.sql.Date debut) throws SQLException;
+
+    /**
+     * Récupère une demande de la liste d'attente, quel que soit son statut.
+     *
+     * @param attenteId identifiant de la demande
+     * @return la demande, ou null si elle n'existe pas
+     * @throws SQLException en cas d'erreur SQL
+     */
+    DemandeAttente findAttente(int attenteId) throws SQLException;
+
+    /**
+     * Retire une demande encore en attente.
+     *
+     * @param attenteId identifiant de la demande
+     * @return true si la demande était en attente
+     * @throws SQLException en cas d'erreur SQL
+     */
+    boolean retirerAttente(int attenteId) throws SQLException;
+
+    /**
+     * Promeut une demande en attente : enregistre sa réservation et la marque promue,
+     * dans une seule transaction. En cas de succès, la réservation reçoit son identifiant.
+     *
+     * @param attenteId identifiant de la demande
+     * @param reservation la réservation de la demande, sur la table libérée
+     * @return true si succès, false si la table est déjà reprise ou la demande n'est plus en attente
+     * @throws SQLException en cas d'erreur SQL
+     */
+    boolean promouvoirAttente(int attenteId, Reservation reservation) throws SQLException;
+
+    /**
+     * Retourne les statistiques du stockage (type, pool de connexions).
+     *
+     * @return statistiques au format JSON
+     */
+    JSONObject getStatistiques();
+}
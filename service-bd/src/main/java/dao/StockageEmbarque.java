@@ -0,0 +1,375 @@
+package dao;
+
+import model.Reservation;
+import org.json.JSONObject;
+import utils.CodecDate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage dans une base H2 embarquée dans le processus, en mode de compatibilité Oracle.
+ *
+ * Permet de faire tourner le service BD (tests de charge, mesures de débit) sans
+ * la base Oracle de l'université. Le schéma et les données sont chargés depuis
+ * le même script create_tables.sql que la base Oracle, avec deux adaptations :
+ * - les blocs PL/SQL de suppression sont ignorés (la base part vide) ;
+ * - un index unique sur expressions (CASE WHEN ...) devient un index unique sur
+ *   des colonnes calculées, ce qui conserve la même règle d'unicité.
+ *
+ * Les lectures sont celles de {@link RestaurantDAO}. Seules les écritures qui
+ * passent par PL/SQL ou CONNECT BY sont réécrites.
+ */
+public class StockageEmbarque extends RestaurantDAO {
+
+    private static final Logger LOGGER = Logger.getLogger(StockageEmbarque.class.getName());
+
+    /** SQLSTATE standard d'une violation de contrainte d'unicité. */
+    private static final String ETAT_UNICITE = "23505";
+
+    private static final Pattern INDEX_UNIQUE = Pattern.compile(
+            "CREATE\\s+UNIQUE\\s+INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\((.*)\\)\\s*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern IDENTIFIANT = Pattern.compile("\\w+");
+
+    private static final RequeteSQL ALLOUER_IDS = new RequeteSQL("embarque.allouerIds",
+            "SELECT (NEXT VALUE FOR seq_reservation - 1) * ? + ? FROM SYSTEM_RANGE(1, ?)");
+
+    private static final RequeteSQL ALLOUER_IDS_RESTAURANT = new RequeteSQL("embarque.allouerIdsRestaurant",
+            "SELECT NEXT VALUE FOR seq_restaurant FROM SYSTEM_RANGE(1, ?)");
+
+    private static final RequeteSQL ALLOUER_IDS_TABLE = new RequeteSQL("embarque.allouerIdsTable",
+            "SELECT NEXT VALUE FOR seq_tables_resto FROM SYSTEM_RANGE(1, ?)");
+
+    private static final RequeteSQL INSERER_RESERVATION = new RequeteSQL("embarque.reserverTable",
+            "INSERT INTO reservation " +
+            "(id, table_id, creneau_id, date_reservation, nom_client, prenom_client, " +
+            "telephone, nb_convives, date_creation, statut) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, 'confirmee')");
+
+    private static final RequeteSQL VERROUILLER_RESERVATION = new RequeteSQL("embarque.annulerReservation.lecture",
+            "SELECT table_id, creneau_id, date_reservation, nb_convives FROM reservation " +
+            "WHERE id = ? AND statut = 'confirmee' FOR UPDATE");
+
+    private static final RequeteSQL ANNULER_RESERVATION = new RequeteSQL("embarque.annulerReservation",
+            "UPDATE reservation SET statut = 'annulee' WHERE id = ?");
+
+    private static final RequeteSQL RESTAURER_RESERVATION = new RequeteSQL("embarque.restaurerReservation",
+            "INSERT INTO reservation " +
+            "(id, table_id, creneau_id, date_reservation, nom_client, prenom_client, " +
+            "telephone, nb_convives, date_creation, statut) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'confirmee')");
+
+    private static final RequeteSQL ID_MAX_RESERVATION = new RequeteSQL("embarque.idMaxReservation",
+            "SELECT COALESCE(MAX(id), 0) FROM reservation");
+
+    /**
+     * Constructeur : initialise la base embarquée à partir du script de création.
+     *
+     * @param pool pool de connexions vers la base embarquée (URL jdbc:h2:...;MODE=Oracle)
+     * @param script chemin du script create_tables.sql
+     * @throws SQLException si une instruction du script échoue
+     * @throws IOException si le script ne peut être lu
+     */
+    public StockageEmbarque(PoolConnexions pool, String script) throws SQLException, IOException {
+        this(pool, script, 0, 1);
+    }
+
+    /**
+     * Constructeur de la base embarquée d'une partition du service BD.
+     *
+     * @param pool pool de connexions vers la base embarquée (URL jdbc:h2:...;MODE=Oracle)
+     * @param script chemin du script create_tables.sql
+     * @param numeroPartition numéro de la partition, de 0 à nombrePartitions - 1
+     * @param nombrePartitions nombre total de partitions
+     * @throws SQLException si une instruction du script échoue
+     * @throws IOException si le script ne peut être lu
+     */
+    public StockageEmbarque(PoolConnexions pool, String script, int numeroPartition, int nombrePartitions)
+            throws SQLException, IOException {
+        super(pool, numeroPartition, nombrePartitions);
+        initialiser(Path.of(script));
+    }
+
+    @Override
+    public boolean reserverTable(Reservation reservation) throws SQLException {
+        try (Connection conn = getConnection()) {
+            int id = allouerIdsReservation(conn, 1)[0];
+            try (PreparedStatement pstmt = INSERER_RESERVATION.preparer(conn)) {
+                pstmt.setInt(1, id);
+                pstmt.setInt(2, reservation.getTableId());
+                pstmt.setInt(3, reservation.getCreneauId());
+                pstmt.setDate(4, CodecDate.versSql(reservation.getJourReservation()));
+                pstmt.setString(5, reservation.getNomClient());
+                pstmt.setString(6, reservation.getPrenomClient());
+                pstmt.setString(7, reservation.getTelephone());
+                pstmt.setInt(8, reservation.getnbConvives());
+                pstmt.executeUpdate();
+            }
+            reservation.setId(id);
+            return true;
+
+        } catch (SQLException e) {
+            if (estViolationUnicite(e)) {
+                LOGGER.fine("Table " + reservation.getTableId() + " déjà réservée pour ce créneau");
+                return false;
+            }
+            LOGGER.log(Level.SEVERE, "Erreur lors de la réservation", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Reservation annulerReservation(int reservationId) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Reservation reservation = null;
+                try (PreparedStatement pstmt = VERROUILLER_RESERVATION.preparer(conn)) {
+                    pstmt.setInt(1, reservationId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            reservation = new Reservation();
+                            reservation.setId(reservationId);
+                            reservation.setTableId(rs.getInt("table_id"));
+                            reservation.setCreneauId(rs.getInt("creneau_id"));
+                            reservation.setDateReservation(rs.getDate("date_reservation"));
+                            reservation.setnbConvives(rs.getInt("nb_convives"));
+                            reservation.setStatut("annulee");
+                        }
+                    }
+                }
+
+                if (reservation != null) {
+                    try (PreparedStatement pstmt = ANNULER_RESERVATION.preparer(conn)) {
+                        pstmt.setInt(1, reservationId);
+                        pstmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return reservation;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur annulerReservation " + reservationId, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public JSONObject getStatistiques() {
+        JSONObject stats = super.getStatistiques();
+        stats.put("type", "embarque");
+        return stats;
+    }
+
+    /**
+     * Rejoue une réservation ou une annulation relue dans le journal, en conservant
+     * son identifiant. Une réservation déjà présente, ou dont la table est déjà prise,
+     * est ignorée.
+     *
+     * Après la restauration, {@link #terminerRestauration()} doit être appelée pour
+     * que les nouvelles réservations reçoivent des identifiants libres.
+     *
+     * @param reservation la réservation (statut "confirmee" ou "annulee")
+     * @return true si la base a été modifiée
+     * @throws SQLException en cas d'erreur SQL
+     */
+    public boolean restaurer(Reservation reservation) throws SQLException {
+        try (Connection conn = getConnection()) {
+            if (reservation.isAnnulee()) {
+                try (PreparedStatement pstmt = ANNULER_RESERVATION.preparer(conn)) {
+                    pstmt.setInt(1, reservation.getId());
+                    return pstmt.executeUpdate() > 0;
+                }
+            }
+            try (PreparedStatement pstmt = RESTAURER_RESERVATION.preparer(conn)) {
+                pstmt.setInt(1, reservation.getId());
+                pstmt.setInt(2, reservation.getTableId());
+                pstmt.setInt(3, reservation.getCreneauId());
+                pstmt.setDate(4, CodecDate.versSql(reservation.getJourReservation()));
+                pstmt.setString(5, reservation.getNomClient());
+                pstmt.setString(6, reservation.getPrenomClient());
+                pstmt.setString(7, reservation.getTelephone());
+                pstmt.setInt(8, reservation.getnbConvives());
+                pstmt.setTimestamp(9, new java.sql.Timestamp(reservation.getDateCreation().getTime()));
+                pstmt.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                if (estViolationUnicite(e)) {
+                    LOGGER.fine("Réservation " + reservation.getId() + " déjà présente, ignorée");
+                    return false;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Recale la séquence des réservations après les identifiants restaurés.
+     *
+     * @throws SQLException en cas d'erreur SQL
+     */
+    public void terminerRestauration() throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = ID_MAX_RESERVATION.preparer(conn);
+             ResultSet rs = pstmt.executeQuery();
+             Statement stmt = conn.createStatement()) {
+            rs.next();
+            stmt.execute("ALTER SEQUENCE seq_reservation RESTART WITH " + (rs.getInt(1) + 1));
+        }
+    }
+
+    @Override
+    protected int[] allouerIdsReservation(Connection conn, int nombre) throws SQLException {
+        int[] ids = new int[nombre];
+        try (PreparedStatement pstmt = ALLOUER_IDS.preparer(conn)) {
+            lierSuiteIdentifiants(pstmt, 1);
+            pstmt.setInt(3, nombre);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                for (int i = 0; i < nombre && rs.next(); i++) {
+                    ids[i] = rs.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    protected int[] allouerIdsRestaurant(Connection conn, int nombre) throws SQLException {
+        return lireIdentifiants(conn, ALLOUER_IDS_RESTAURANT, nombre);
+    }
+
+    @Override
+    protected int[] allouerIdsTable(Connection conn, int nombre) throws SQLException {
+        return lireIdentifiants(conn, ALLOUER_IDS_TABLE, nombre);
+    }
+
+    @Override
+    protected boolean estViolationUnicite(SQLException e) {
+        return ETAT_UNICITE.equals(e.getSQLState());
+    }
+
+    /**
+     * Exécute le script de création instruction par instruction.
+     * Les instructions SQL se terminent par ';', les blocs PL/SQL par une ligne '/'.
+     */
+    private void initialiser(Path script) throws SQLException, IOException {
+        List<String> lignes = Files.readAllLines(script, StandardCharsets.UTF_8);
+        int nbInstructions = 0;
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            StringBuilder instruction = new StringBuilder();
+            boolean blocPlSql = false;
+            for (String ligne : lignes) {
+                String texte = ligne.trim();
+                if (instruction.length() == 0) {
+                    if (texte.isEmpty() || texte.startsWith("--")) {
+                        continue;
+                    }
+                    String debut = texte.toUpperCase(Locale.ROOT);
+                    blocPlSql = debut.startsWith("BEGIN") || debut.startsWith("DECLARE");
+                }
+
+                if (blocPlSql) {
+                    if (texte.equals("/")) {
+                        executerBlocPlSql(instruction.toString());
+                        instruction.setLength(0);
+                    } else {
+                        instruction.append(ligne).append('\n');
+                    }
+                } else if (texte.endsWith(";")) {
+                    instruction.append(ligne, 0, ligne.lastIndexOf(';'));
+                    executer(stmt, instruction.toString());
+                    instruction.setLength(0);
+                    nbInstructions++;
+                } else {
+                    instruction.append(ligne).append('\n');
+                }
+            }
+        }
+
+        LOGGER.info("Base embarquée initialisée depuis " + script + " (" + nbInstructions + " instructions)");
+    }
+
+    private void executer(Statement stmt, String instruction) throws SQLException {
+        Matcher index = INDEX_UNIQUE.matcher(instruction.trim());
+        if (index.matches()) {
+            List<String> expressions = decouperColonnes(index.group(3));
+            if (!expressions.stream().allMatch(e -> IDENTIFIANT.matcher(e).matches())) {
+                creerIndexSurExpressions(stmt, index.group(1), index.group(2), expressions);
+                return;
+            }
+        }
+        stmt.execute(instruction);
+    }
+
+    /**
+     * Remplace un index unique sur expressions par des colonnes calculées indexées.
+     * Comme pour Oracle, les lignes dont toutes les expressions valent NULL ne sont pas
+     * contraintes.
+     */
+    private void creerIndexSurExpressions(Statement stmt, String nom, String table,
+                                          List<String> expressions) throws SQLException {
+        List<String> colonnes = new ArrayList<>(expressions.size());
+        for (int i = 0; i < expressions.size(); i++) {
+            String colonne = nom + "_" + (i + 1);
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + colonne
+                    + " VARCHAR GENERATED ALWAYS AS (CAST((" + expressions.get(i) + ") AS VARCHAR))");
+            colonnes.add(colonne);
+        }
+        stmt.execute("CREATE UNIQUE INDEX " + nom + " ON " + table + " (" + String.join(", ", colonnes) + ")");
+    }
+
+    private void executerBlocPlSql(String bloc) {
+        // Le jeu d'essai est en INSERT simples : seuls les blocs de suppression sont attendus
+        if (!bloc.toUpperCase(Locale.ROOT).contains("EXECUTE IMMEDIATE 'DROP")) {
+            LOGGER.warning("Bloc PL/SQL ignoré par la base embarquée : "
+                    + bloc.substring(0, Math.min(bloc.length(), 60)).replace('\n', ' '));
+        }
+    }
+
+    /**
+     * Découpe une liste de colonnes ou d'expressions sur les virgules de premier niveau.
+     */
+    private static List<String> decouperColonnes(String liste) {
+        List<String> colonnes = new ArrayList<>();
+        int profondeur = 0;
+        int debut = 0;
+        for (int i = 0; i < liste.length(); i++) {
+            char c = liste.charAt(i);
+            if (c == '(') {
+                profondeur++;
+            } else if (c == ')') {
+                profondeur--;
+            } else if (c == ',' && profondeur == 0) {
+                colonnes.add(liste.substring(debut, i).trim());
+                debut = i + 1;
+            }
+        }
+        colonnes.add(liste.substring(debut).trim());
+        return colonnes;
+    }
+}
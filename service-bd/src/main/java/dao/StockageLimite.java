@@ -0,0 +1,279 @@
+package dao;
+
+import model.Creneau;
+import model.DemandeAttente;
+import model.OccupationCreneau;
+import model.Reservation;
+import model.Restaurant;
+import model.TableResto;
+import org.json.JSONObject;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stockage qui borne le nombre d'opérations exécutées en même temps sur la base.
+ *
+ * Chaque opération prend un permis d'un sémaphore équitable avant d'être confiée
+ * au stockage sous-jacent : au-delà de la limite, les appels attendent leur tour
+ * dans la JVM au lieu d'ouvrir autant de sessions Oracle. L'attente est bornée
+ * en durée, et en longueur pour les lectures : quand la file des appels qui
+ * attendent un permis est pleine, une lecture est refusée aussitôt, tandis qu'une réservation ou une annulation
+ * attend toujours son tour.
+ *
+ * Les temps d'attente sont mesurés et exposés dans les statistiques.
+ */
+public class StockageLimite implements Stockage {
+
+    /**
+     * Opération confiée au stockage sous-jacent.
+     */
+    @FunctionalInterface
+    private interface Operation<T> {
+        T executer() throws SQLException;
+    }
+
+    private final Stockage stockage;
+    private final int concurrenceMax;
+    private final int fileMax;
+    private final long attenteMaxMs;
+    private final Semaphore permis;
+
+    private final AtomicInteger enAttente = new AtomicInteger();
+    private final AtomicInteger enAttenteMax = new AtomicInteger();
+    private final LongAdder nbOperations = new LongAdder();
+    private final LongAdder attenteTotaleNanos = new LongAdder();
+    private final AtomicLong attenteMaxNanos = new AtomicLong();
+    private final LongAdder nbDelaisDepasses = new LongAdder();
+    private final LongAdder nbRefus = new LongAdder();
+
+    /**
+     * Constructeur.
+     *
+     * @param stockage stockage sous-jacent
+     * @param concurrenceMax nombre maximal d'opérations exécutées en même temps
+     * @param fileMax nombre maximal d'opérations en attente au-delà duquel les lectures sont refusées
+     *                (0 : une lecture est refusée dès que toutes les opérations permises sont en cours)
+     * @param attenteMaxMs délai maximal d'attente d'un permis
+     */
+    public StockageLimite(Stockage stockage, int concurrenceMax, int fileMax, long attenteMaxMs) {
+        if (concurrenceMax < 1 || fileMax < 0) {
+            throw new IllegalArgumentException("Limites de concurrence invalides : "
+                    + concurrenceMax + " opérations, file de " + fileMax);
+        }
+        this.stockage = stockage;
+        this.concurrenceMax = concurrenceMax;
+        this.fileMax = fileMax;
+        this.attenteMaxMs = attenteMaxMs;
+        this.permis = new Semaphore(concurrenceMax, true);
+    }
+
+    @Override
+    public List<Restaurant> findAll() throws SQLException {
+        return lire(stockage::findAll);
+    }
+
+    @Override
+    public List<Creneau> findAllCreneaux() throws SQLException {
+        return lire(stockage::findAllCreneaux);
+    }
+
+    @Override
+    public List<TableResto> findAllTables() throws SQLException {
+        return lire(stockage::findAllTables);
+    }
+
+    @Override
+    public List<Integer> findTablesReservees(int restaurantId, java.sql.Date dateReservation, int creneauId)
+            throws SQLException {
+        return lire(() -> stockage.findTablesReservees(restaurantId, dateReservation, creneauId));
+    }
+
+    @Override
+    public List<Reservation> findOccupationsPeriode(int restaurantId, java.sql.Date debut, java.sql.Date fin)
+            throws SQLException {
+        return lire(() -> stockage.findOccupationsPeriode(restaurantId, debut, fin));
+    }
+
+    @Override
+    public List<OccupationCreneau> compterOccupations(java.sql.Date debut, java.sql.Date fin) throws SQLException {
+        return lire(() -> stockage.compterOccupations(debut, fin));
+    }
+
+    @Override
+    public List<Reservation> findReservationsPourDate(int restaurantId, java.sql.Date dateReservation)
+            throws SQLException {
+        return lire(() -> stockage.findReservationsPourDate(restaurantId, dateReservation));
+    }
+
+    @Override
+    public List<Reservation> findHistoriqueRestaurant(int restaurantId, java.sql.Date debut, java.sql.Date fin,
+                                                      java.sql.Date avantDate, int avantId, int nombre)
+            throws SQLException {
+        return lire(() -> stockage.findHistoriqueRestaurant(restaurantId, debut, fin, avantDate, avantId, nombre));
+    }
+
+    @Override
+    public List<Reservation> findReservationsClient(String telephone, java.sql.Date avantDate, int avantId,
+                                                    int nombre) throws SQLException {
+        return lire(() -> stockage.findReservationsClient(telephone, avantDate, avantId, nombre));
+    }
+
+    @Override
+    public boolean reserverTable(Reservation reservation) throws SQLException {
+        return ecrire(() -> stockage.reserverTable(reservation));
+    }
+
+    @Override
+    public String[] reserverTables(List<Reservation> reservations, boolean toutOuRien) throws SQLException {
+        return ecrire(() -> stockage.reserverTables(reservations, toutOuRien));
+    }
+
+    @Override
+    public Reservation annulerReservation(int reservationId) throws SQLException {
+        return ecrire(() -> stockage.annulerReservation(reservationId));
+    }
+
+    @Override
+    public List<OccupationCreneau> compterOccupationsRestaurant(int restaurantId, java.sql.Date debut,
+                                                                java.sql.Date fin) throws SQLException {
+        return lire(() -> stockage.compterOccupationsRestaurant(restaurantId, debut, fin));
+    }
+
+    @Override
+    public List<Reservation> findArchivesRestaurant(int restaurantId, java.sql.Date debut, java.sql.Date fin,
+                                                    java.sql.Date avantDate, int avantId, int nombre)
+            throws SQLException {
+        return lire(() -> stockage.findArchivesRestaurant(restaurantId, debut, fin, avantDate, avantId, nombre));
+    }
+
+    @Override
+    public int archiverReservations(java.sql.Date avant, java.sql.Date annuleesAvant, int nombre)
+            throws SQLException {
+        return ecrire(() -> stockage.archiverReservations(avant, annuleesAvant, nombre));
+    }
+
+    @Override
+    public void importerRestaurants(List<Restaurant> restaurants, List<int[]> places) throws SQLException {
+        ecrire(() -> {
+            stockage.importerRestaurants(restaurants, places);
+            return null;
+        });
+    }
+
+    @Override
+    public void inscrireAttente(DemandeAttente demande) throws SQLException {
+        ecrire(() -> {
+            stockage.inscrireAttente(demande);
+            return null;
+        });
+    }
+
+    @Override
+    public List<DemandeAttente> findAttentes(java.sql.Date debut) throws SQLException {
+        return lire(() -> stockage.findAttentes(debut));
+    }
+
+    @Override
+    public DemandeAttente findAttente(int attenteId) throws SQLException {
+        return lire(() -> stockage.findAttente(attenteId));
+    }
+
+    @Override
+    public boolean retirerAttente(int attenteId) throws SQLException {
+        return ecrire(() -> stockage.retirerAttente(attenteId));
+    }
+
+    @Override
+    public boolean promouvoirAttente(int attenteId, Reservation reservation) throws SQLException {
+        return ecrire(() -> stockage.promouvoirAttente(attenteId, reservation));
+    }
+
+    @Override
+    public JSONObject getStatistiques() {
+        long total = nbOperations.sum();
+
+        JSONObject concurrence = new JSONObject();
+        concurrence.put("concurrenceMax", concurrenceMax);
+        concurrence.put("fileMax", fileMax);
+        concurrence.put("enCours", concurrenceMax - permis.availablePermits());
+        concurrence.put("enAttente", enAttente.get());
+        concurrence.put("enAttenteMax", enAttenteMax.get());
+        concurrence.put("operations", total);
+        concurrence.put("attenteMoyenneMs", total == 0 ? 0.0 : attenteTotaleNanos.sum() / (total * 1_000_000.0));
+        concurrence.put("attenteMaxMs", attenteMaxNanos.get() / 1_000_000.0);
+        concurrence.put("delaisDepasses", nbDelaisDepasses.sum());
+        concurrence.put("lecturesRefusees", nbRefus.sum());
+
+        JSONObject stats = stockage.getStatistiques();
+        stats.put("concurrence", concurrence);
+        return stats;
+    }
+
+    private <T> T lire(Operation<T> operation) throws SQLException {
+        return executer(operation, true);
+    }
+
+    private <T> T ecrire(Operation<T> operation) throws SQLException {
+        return executer(operation, false);
+    }
+
+    /**
+     * Exécute une opération après avoir obtenu un permis.
+     *
+     * @param refusable true si l'opération peut être refusée quand la file est pleine
+     */
+    private <T> T executer(Operation<T> operation, boolean refusable) throws SQLException {
+        long debut = System.nanoTime();
+        try {
+            // Délai nul plutôt que tryAcquire() : respecte l'ordre des appels déjà en file
+            if (!permis.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                attendrePermis(refusable, debut);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente d'accès à la base interrompue", e);
+        }
+        enregistrerAttente(System.nanoTime() - debut);
+
+        try {
+            return operation.executer();
+        } finally {
+            permis.release();
+        }
+    }
+
+    /**
+     * Attend un permis en file, après un premier essai sans attente : seuls les
+     * appels qui attendent vraiment comptent dans la longueur de la file.
+     */
+    private void attendrePermis(boolean refusable, long debut) throws SQLException, InterruptedException {
+        int file = enAttente.incrementAndGet();
+        try {
+            if (refusable && file > fileMax) {
+                nbRefus.increment();
+                throw new SQLException("Service BD saturé : " + (file - 1) + " opérations en attente");
+            }
+            enAttenteMax.accumulateAndGet(file, Math::max);
+            if (!permis.tryAcquire(attenteMaxMs, TimeUnit.MILLISECONDS)) {
+                enregistrerAttente(System.nanoTime() - debut);
+                nbDelaisDepasses.increment();
+                throw new SQLException("Accès à la base impossible après " + attenteMaxMs + " ms ("
+                        + concurrenceMax + " opérations en cours)");
+            }
+        } finally {
+            enAttente.decrementAndGet();
+        }
+    }
+
+    private void enregistrerAttente(long attenteNanos) {
+        nbOperations.increment();
+        attenteTotaleNanos.add(attenteNanos);
+        attenteMaxNanos.accumulateAndGet(attenteNanos, Math::max);
+    }
+}
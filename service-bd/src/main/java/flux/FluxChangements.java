@@ -0,0 +1,238 @@
+package flux;
+
+import interfaces.EcouteurChangements;
+import model.Changement;
+import org.json.JSONObject;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Flux des changements d'une instance du service BD vers ses abonnés.
+ *
+ * Chaque réservation, annulation ou invalidation du référentiel est publiée avec
+ * un numéro de séquence croissant et retenue dans un tampon circulaire. Un fil
+ * de diffusion envoie périodiquement à chaque abonné les changements qui suivent
+ * son curseur, en un seul lot où les changements de même type sur le même
+ * créneau sont regroupés. La publication ne fait donc qu'écrire dans le tampon :
+ * une réservation n'attend jamais un abonné.
+ *
+ * Un abonné qui revient (ou qui n'a pas pu être joint) reprend à son curseur.
+ * Si les changements qu'il a manqués ne sont plus retenus, il reçoit un
+ * changement de resynchronisation à la place. Un abonné injoignable plusieurs
+ * fois de suite est retiré.
+ */
+public class FluxChangements implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(FluxChangements.class.getName());
+
+    /** Nombre d'échecs d'envoi consécutifs au-delà duquel un abonné est retiré. */
+    private static final int ECHECS_MAX = 5;
+
+    private final String partition;
+    private final Changement[] retenus;
+    private final long intervalleMs;
+    private final Map<EcouteurChangements, Abonne> abonnes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService diffusion;
+
+    // Protégé par this, comme le tampon
+    private long derniereSequence;
+
+    private final LongAdder nbPublies = new LongAdder();
+    private final LongAdder nbLots = new LongAdder();
+    private final LongAdder nbEnvoyes = new LongAdder();
+    private final LongAdder nbRegroupes = new LongAdder();
+    private final LongAdder nbResynchronisations = new LongAdder();
+    private final LongAdder nbEchecs = new LongAdder();
+    private final LongAdder nbRetraits = new LongAdder();
+
+    /**
+     * Constructeur du flux, qui démarre le fil de diffusion.
+     *
+     * @param partition nom de la partition émettrice, transmis aux abonnés
+     * @param retention nombre de changements retenus pour les abonnés en retard
+     * @param intervalleMs intervalle entre deux diffusions
+     */
+    public FluxChangements(String partition, int retention, long intervalleMs) {
+        if (retention < 1 || intervalleMs < 1) {
+            throw new IllegalArgumentException("Flux de changements invalide : rétention " + retention
+                    + ", intervalle " + intervalleMs + " ms");
+        }
+        this.partition = partition;
+        this.retenus = new Changement[retention];
+        this.intervalleMs = intervalleMs;
+        this.diffusion = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flux-changements");
+            thread.setDaemon(true);
+            return thread;
+        });
+        diffusion.scheduleWithFixedDelay(this::diffuser, intervalleMs, intervalleMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publie un changement sur un créneau, ou global si les identifiants valent 0.
+     *
+     * @param type type de changement
+     * @param restaurantId identifiant du restaurant
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @return le numéro de séquence attribué
+     */
+    public synchronized long publier(Changement.Type type, int restaurantId, int jour, int creneauId) {
+        long sequence = ++derniereSequence;
+        retenus[(int) (sequence % retenus.length)] = new Changement(sequence, type, restaurantId, jour, creneauId, 1);
+        nbPublies.increment();
+        return sequence;
+    }
+
+    /**
+     * Abonne un écouteur, ou repositionne son curseur s'il est déjà abonné.
+     *
+     * @param ecouteur l'écouteur à rappeler
+     * @param depuis la dernière séquence déjà reçue, -1 pour ne recevoir que les suivantes
+     * @return la séquence du dernier changement publié
+     */
+    public synchronized long abonner(EcouteurChangements ecouteur, long depuis) {
+        // Une séquence inconnue vient d'une instance précédente : l'abonné doit tout invalider
+        long curseur = depuis < 0 ? derniereSequence : depuis > derniereSequence ? Long.MIN_VALUE : depuis;
+        abonnes.put(ecouteur, new Abonne(ecouteur, curseur));
+        LOGGER.info("Abonné au flux de changements de " + partition + " (" + abonnes.size() + " abonné(s))");
+        return derniereSequence;
+    }
+
+    /**
+     * Désabonne un écouteur.
+     *
+     * @param ecouteur l'écouteur à retirer
+     * @return true si l'écouteur était abonné
+     */
+    public boolean desabonner(EcouteurChangements ecouteur) {
+        return abonnes.remove(ecouteur) != null;
+    }
+
+    /**
+     * Retourne les statistiques du flux.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        synchronized (this) {
+            stats.put("derniereSequence", derniereSequence);
+        }
+        stats.put("retention", retenus.length);
+        stats.put("intervalleMs", intervalleMs);
+        stats.put("abonnes", abonnes.size());
+        stats.put("publies", nbPublies.sum());
+        stats.put("lots", nbLots.sum());
+        stats.put("envoyes", nbEnvoyes.sum());
+        stats.put("regroupes", nbRegroupes.sum());
+        stats.put("resynchronisations", nbResynchronisations.sum());
+        stats.put("echecs", nbEchecs.sum());
+        stats.put("retraits", nbRetraits.sum());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        diffusion.shutdownNow();
+        abonnes.clear();
+    }
+
+    private void diffuser() {
+        for (Abonne abonne : abonnes.values()) {
+            try {
+                envoyer(abonne);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Erreur de diffusion du flux de changements", e);
+            }
+        }
+    }
+
+    /**
+     * Envoie à un abonné les changements qui suivent son curseur.
+     */
+    private void envoyer(Abonne abonne) {
+        List<Changement> lot;
+        long jusqua;
+        synchronized (this) {
+            jusqua = derniereSequence;
+            if (abonne.curseur == jusqua) {
+                return;
+            }
+            long premiereRetenue = Math.max(1, jusqua - retenus.length + 1);
+            if (abonne.curseur < premiereRetenue - 1) {
+                lot = Collections.singletonList(new Changement(jusqua, Changement.Type.RESYNCHRONISATION,
+                        0, 0, 0, 0));
+                nbResynchronisations.increment();
+            } else {
+                lot = regrouper(abonne.curseur + 1, jusqua);
+            }
+        }
+
+        try {
+            abonne.ecouteur.recevoir(partition, lot);
+            abonne.curseur = jusqua;
+            abonne.echecs = 0;
+            nbLots.increment();
+            nbEnvoyes.add(lot.size());
+        } catch (RemoteException e) {
+            nbEchecs.increment();
+            if (++abonne.echecs >= ECHECS_MAX && abonnes.remove(abonne.ecouteur, abonne)) {
+                nbRetraits.increment();
+                LOGGER.warning("Abonné au flux de changements retiré après " + ECHECS_MAX
+                        + " échecs : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Regroupe les changements retenus d'un intervalle de séquences : un seul
+     * changement par type et par créneau, qui porte la plus grande séquence.
+     */
+    private List<Changement> regrouper(long debut, long fin) {
+        Map<String, Changement> parCle = new LinkedHashMap<>();
+        for (long sequence = debut; sequence <= fin; sequence++) {
+            Changement changement = retenus[(int) (sequence % retenus.length)];
+            String cle = changement.getType() + ":" + changement.getRestaurantId() + ":"
+                    + changement.getJour() + ":" + changement.getCreneauId();
+            Changement precedent = parCle.get(cle);
+            if (precedent != null) {
+                changement = new Changement(sequence, changement.getType(), changement.getRestaurantId(),
+                        changement.getJour(), changement.getCreneauId(), precedent.getNombre() + 1);
+                nbRegroupes.increment();
+            }
+            parCle.put(cle, changement);
+        }
+        List<Changement> lot = new ArrayList<>(parCle.values());
+        lot.sort(Comparator.comparingLong(Changement::getSequence));
+        return lot;
+    }
+
+    /**
+     * Écouteur abonné et position de son dernier changement reçu.
+     * Curseur et échecs ne sont modifiés que par le fil de diffusion.
+     */
+    private static final class Abonne {
+        private final EcouteurChangements ecouteur;
+        private volatile long curseur;
+        private int echecs;
+
+        private Abonne(EcouteurChangements ecouteur, long curseur) {
+            this.ecouteur = ecouteur;
+            this.curseur = curseur;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package importation;
+
+import dao.Stockage;
+import model.Restaurant;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Import en masse de restaurants et de leurs tables depuis un fichier CSV ou JSON.
+ *
+ * Le fichier est lu au fil de l'eau, un restaurant à la fois : seul le lot en
+ * cours est gardé en mémoire, quelle que soit la taille du fichier. Chaque
+ * restaurant est validé contre les contraintes du schéma (longueurs, latitude
+ * entre -90 et 90, longitude entre -180 et 180, 1 à 20 places par table) avant
+ * d'entrer dans un lot ; un restaurant invalide est écarté avec sa ligne et son
+ * motif, sans arrêter l'import. Un restaurant déjà en base (même nom et même
+ * adresse) ou déjà lu dans le fichier est aussi écarté, ce qui permet de
+ * relancer un import interrompu.
+ *
+ * Chaque lot est écrit en une transaction par {@link Stockage#importerRestaurants},
+ * avec des identifiants tirés des séquences pour tout le lot et des insertions par
+ * lots JDBC. Une erreur de base arrête l'import : les lots déjà écrits sont gardés.
+ *
+ * Formats acceptés :
+ * - CSV (.csv), séparateur ';', première ligne d'en-tête
+ *   {@code nom;adresse;telephone;latitude;longitude;tables}, la colonne tables
+ *   donnant les places de chaque table séparées par des virgules (ex. {@code 2,2,4,6}) ;
+ *   un champ peut être entre guillemets, un guillemet y étant doublé ;
+ * - JSON (.json), tableau d'objets
+ *   {@code {"nom", "adresse", "telephone", "latitude", "longitude", "tables": [2, 2, 4, 6]}}.
+ */
+public class ImportateurMasse {
+
+    private static final Logger LOGGER = Logger.getLogger(ImportateurMasse.class.getName());
+
+    private static final String[] EN_TETE_CSV = {"nom", "adresse", "telephone", "latitude", "longitude", "tables"};
+    private static final char SEPARATEUR_CSV = ';';
+
+    private static final int LONGUEUR_MAX_NOM = 100;
+    private static final int LONGUEUR_MAX_ADRESSE = 200;
+    private static final int LONGUEUR_MAX_TELEPHONE = 20;
+    private static final int NB_PLACES_MIN = 1;
+    private static final int NB_PLACES_MAX = 20;
+    private static final int NB_TABLES_MAX = 200;
+    private static final int NB_REJETS_DETAILLES = 100;
+
+    private final Stockage stockage;
+    private final int tailleLot;
+
+    private final Set<String> connus = new HashSet<>();
+    private final List<Restaurant> lot = new ArrayList<>();
+    private final List<int[]> placesLot = new ArrayList<>();
+    private final JSONArray rejets = new JSONArray();
+    private int nbLus;
+    private int nbImportes;
+    private int nbTables;
+    private int nbRejetes;
+    private int nbDoublons;
+    private int nbLots;
+    private int nbEcrits;
+
+    /**
+     * Constructeur de l'importateur.
+     *
+     * @param stockage stockage où écrire les restaurants
+     * @param tailleLot nombre de restaurants écrits par transaction
+     */
+    public ImportateurMasse(Stockage stockage, int tailleLot) {
+        if (tailleLot < 1) {
+            throw new IllegalArgumentException("Taille de lot invalide : " + tailleLot);
+        }
+        this.stockage = stockage;
+        this.tailleLot = tailleLot;
+    }
+
+    /**
+     * Importe un fichier CSV ou JSON, selon son extension.
+     * Peut être appelé pour plusieurs fichiers : les doublons sont détectés d'un fichier à l'autre.
+     *
+     * @param fichier le fichier à importer
+     * @return le bilan de l'import du fichier
+     * @throws IOException en cas d'erreur de lecture du fichier
+     * @throws SQLException en cas d'erreur d'écriture en base, l'import étant alors arrêté
+     * @throws IllegalArgumentException si le format du fichier n'est pas reconnu
+     */
+    public JSONObject importer(Path fichier) throws IOException, SQLException {
+        String nom = fichier.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean csv = nom.endsWith(".csv");
+        if (!csv && !nom.endsWith(".json")) {
+            throw new IllegalArgumentException("Format non reconnu (.csv ou .json attendu) : " + fichier);
+        }
+        if (connus.isEmpty()) {
+            for (Restaurant restaurant : stockage.findAll()) {
+                connus.add(cle(restaurant.getNom(), restaurant.getAdresse()));
+            }
+        }
+        reinitialiser();
+
+        long debut = System.currentTimeMillis();
+        try (BufferedReader lecteur = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            if (csv) {
+                lireCsv(lecteur);
+            } else {
+                lireJson(lecteur);
+            }
+            ecrireLot();
+        } catch (SQLException e) {
+            LOGGER.severe("Import de " + fichier + " arrêté : " + nbImportes + " restaurants déjà importés");
+            throw e;
+        }
+
+        JSONObject bilan = new JSONObject();
+        bilan.put("fichier", fichier.toString());
+        bilan.put("lus", nbLus);
+        bilan.put("importes", nbImportes);
+        bilan.put("tables", nbTables);
+        bilan.put("doublons", nbDoublons);
+        bilan.put("rejetes", nbRejetes);
+        bilan.put("lots", nbLots);
+        bilan.put("dureeMs", System.currentTimeMillis() - debut);
+        bilan.put("rejets", rejets);
+        LOGGER.info("Import de " + fichier + " : " + nbImportes + " restaurants et " + nbTables
+                + " tables importés, " + nbDoublons + " doublons, " + nbRejetes + " rejetés");
+        return bilan;
+    }
+
+    /**
+     * Retourne le nombre de restaurants écrits en base par cet importateur, tous
+     * fichiers confondus, y compris les lots validés d'un import interrompu :
+     * dès qu'il est positif, le référentiel des instances du service BD est périmé.
+     *
+     * @return le nombre de restaurants écrits en base
+     */
+    public int getNbEcrits() {
+        return nbEcrits;
+    }
+
+    private void lireCsv(BufferedReader lecteur) throws IOException, SQLException {
+        String ligne = lecteur.readLine();
+        if (ligne != null && ligne.startsWith("\uFEFF")) {
+            ligne = ligne.substring(1);
+        }
+        if (ligne == null || !List.of(EN_TETE_CSV).equals(champsCsv(ligne.toLowerCase(Locale.ROOT)))) {
+            throw new IllegalArgumentException("En-tête CSV attendu : " + String.join(";", EN_TETE_CSV));
+        }
+
+        int numero = 1;
+        while ((ligne = lecteur.readLine()) != null) {
+            numero++;
+            if (ligne.isBlank()) {
+                continue;
+            }
+            nbLus++;
+            try {
+                List<String> champs = champsCsv(ligne);
+                if (champs.size() != EN_TETE_CSV.length) {
+                    throw new IllegalArgumentException(EN_TETE_CSV.length + " champs attendus, "
+                            + champs.size() + " lus");
+                }
+                ajouter(champs.get(0), champs.get(1), champs.get(2), nombre(champs.get(3), "latitude"),
+                        nombre(champs.get(4), "longitude"), placesCsv(champs.get(5)));
+            } catch (IllegalArgumentException e) {
+                rejeter("ligne " + numero, e.getMessage());
+            }
+        }
+    }
+
+    private void lireJson(Reader lecteur) throws SQLException {
+        JSONTokener tokener = new JSONTokener(lecteur);
+        if (tokener.nextClean() != '[') {
+            throw new IllegalArgumentException("Tableau JSON attendu");
+        }
+        if (tokener.nextClean() == ']') {
+            return;
+        }
+        tokener.back();
+
+        int element = 0;
+        while (true) {
+            element++;
+            nbLus++;
+            JSONObject json;
+            try {
+                json = new JSONObject(tokener);
+            } catch (JSONException e) {
+                throw new IllegalArgumentException("JSON invalide à l'élément " + element + " : " + e.getMessage());
+            }
+            try {
+                JSONArray tables = json.getJSONArray("tables");
+                int[] places = new int[tables.length()];
+                for (int i = 0; i < places.length; i++) {
+                    places[i] = tables.getInt(i);
+                }
+                ajouter(json.getString("nom"), json.getString("adresse"), json.optString("telephone", ""),
+                        json.getDouble("latitude"), json.getDouble("longitude"), places);
+            } catch (JSONException | IllegalArgumentException e) {
+                rejeter("élément " + element, e.getMessage());
+            }
+
+            char suivant = tokener.nextClean();
+            if (suivant == ']') {
+                return;
+            }
+            if (suivant != ',') {
+                throw new IllegalArgumentException("',' ou ']' attendu après l'élément " + element);
+            }
+        }
+    }
+
+    /**
+     * Valide un restaurant et l'ajoute au lot en cours, écrit dès qu'il est plein.
+     */
+    private void ajouter(String nom, String adresse, String telephone, double latitude, double longitude,
+                         int[] places) throws SQLException {
+        nom = texte(nom, "nom", LONGUEUR_MAX_NOM, true);
+        adresse = texte(adresse, "adresse", LONGUEUR_MAX_ADRESSE, true);
+        telephone = texte(telephone, "telephone", LONGUEUR_MAX_TELEPHONE, false);
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude hors de [-90, 90] : " + latitude);
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude hors de [-180, 180] : " + longitude);
+        }
+        if (places.length == 0 || places.length > NB_TABLES_MAX) {
+            throw new IllegalArgumentException("Nombre de tables invalide (1 à " + NB_TABLES_MAX + ") : "
+                    + places.length);
+        }
+        for (int i = 0; i < places.length; i++) {
+            if (places[i] < NB_PLACES_MIN || places[i] > NB_PLACES_MAX) {
+                throw new IllegalArgumentException("Table " + (i + 1) + " : nombre de places hors de ["
+                        + NB_PLACES_MIN + ", " + NB_PLACES_MAX + "] : " + places[i]);
+            }
+        }
+        if (!connus.add(cle(nom, adresse))) {
+            nbDoublons++;
+            return;
+        }
+
+        lot.add(new Restaurant(0, nom, adresse, telephone.isEmpty() ? null : telephone, latitude, longitude));
+        placesLot.add(places);
+        if (lot.size() >= tailleLot) {
+            ecrireLot();
+        }
+    }
+
+    private void ecrireLot() throws SQLException {
+        if (lot.isEmpty()) {
+            return;
+        }
+        stockage.importerRestaurants(lot, placesLot);
+        nbLots++;
+        nbImportes += lot.size();
+        nbEcrits += lot.size();
+        for (int[] places : placesLot) {
+            nbTables += places.length;
+        }
+        lot.clear();
+        placesLot.clear();
+    }
+
+    private void rejeter(String position, String motif) {
+        nbRejetes++;
+        if (rejets.length() < NB_REJETS_DETAILLES) {
+            rejets.put(position + " : " + motif);
+        }
+        LOGGER.fine("Rejet " + position + " : " + motif);
+    }
+
+    private void reinitialiser() {
+        lot.clear();
+        placesLot.clear();
+        rejets.clear();
+        nbLus = 0;
+        nbImportes = 0;
+        nbTables = 0;
+        nbRejetes = 0;
+        nbDoublons = 0;
+        nbLots = 0;
+    }
+
+    private static String texte(String valeur, String champ, int longueurMax, boolean obligatoire) {
+        String texte = valeur != null ? valeur.trim() : "";
+        if (obligatoire && texte.isEmpty()) {
+            throw new IllegalArgumentException("Champ obligatoire vide : " + champ);
+        }
+        if (texte.length() > longueurMax) {
+            throw new IllegalArgumentException("Champ " + champ + " trop long (" + longueurMax
+                    + " caractères au plus)");
+        }
+        return texte;
+    }
+
+    private static double nombre(String valeur, String champ) {
+        try {
+            return Double.parseDouble(valeur.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Champ " + champ + " non numérique : " + valeur);
+        }
+    }
+
+    private static int[] placesCsv(String valeur) {
+        String[] parties = valeur.split(",");
+        int[] places = new int[parties.length];
+        try {
+            for (int i = 0; i < parties.length; i++) {
+                places[i] = Integer.parseInt(parties[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Champ tables invalide (places séparées par des virgules) : " + valeur);
+        }
+        return places;
+    }
+
+    /**
+     * Découpe une ligne CSV ; un champ entre guillemets peut contenir le séparateur.
+     */
+    private static List<String> champsCsv(String ligne) {
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean entreGuillemets = false;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (entreGuillemets) {
+                if (c == '"' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    champ.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreGuillemets = false;
+                } else {
+                    champ.append(c);
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == SEPARATEUR_CSV) {
+                champs.add(champ.toString());
+                champ.setLength(0);
+            } else {
+                champ.append(c);
+            }
+        }
+        if (entreGuillemets) {
+            throw new IllegalArgumentException("Guillemet non fermé");
+        }
+        champs.add(champ.toString());
+        return champs;
+    }
+
+    private static String cle(String nom, String adresse) {
+        return nom.trim().toLowerCase(Locale.ROOT) + "\n" + adresse.trim().toLowerCase(Locale.ROOT);
+    }
+}
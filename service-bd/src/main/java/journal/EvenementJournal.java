@@ -0,0 +1,77 @@
+package journal;
+
+import model.Reservation;
+
+/**
+ * Entrée du journal des réservations : une réservation enregistrée ou une annulation.
+ *
+ * Pour une annulation, seuls l'identifiant, la table, le créneau, la date et le
+ * nombre de convives de la réservation sont renseignés.
+ */
+public class EvenementJournal {
+
+    /**
+     * Type d'évènement journalisé.
+     */
+    public enum Type {
+        RESERVATION,
+        ANNULATION
+    }
+
+    private final long sequence;
+    private final long horodatage;
+    private final Type type;
+    private final Reservation reservation;
+
+    /**
+     * Constructeur d'un évènement lu dans le journal.
+     *
+     * @param sequence numéro de séquence de l'évènement, croissant et sans trou
+     * @param horodatage date d'écriture dans le journal (ms depuis epoch)
+     * @param type type d'évènement
+     * @param reservation la réservation concernée
+     */
+    public EvenementJournal(long sequence, long horodatage, Type type, Reservation reservation) {
+        this.sequence = sequence;
+        this.horodatage = horodatage;
+        this.type = type;
+        this.reservation = reservation;
+    }
+
+    /**
+     * @return le numéro de séquence de l'évènement
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return la date d'écriture dans le journal (ms depuis epoch)
+     */
+    public long getHorodatage() {
+        return horodatage;
+    }
+
+    /**
+     * @return le type d'évènement
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return la réservation concernée
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    @Override
+    public String toString() {
+        return "EvenementJournal{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", reservationId=" + reservation.getId() +
+                '}';
+    }
+}
@@ -0,0 +1,141 @@
+package journal;
+
+import model.Reservation;
+import utils.CodecDate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.zip.CRC32C;
+
+/**
+ * Format binaire des entrées du journal.
+ *
+ * Une entrée est composée d'un en-tête de 8 octets (longueur du contenu, CRC32C
+ * du contenu) suivi du contenu :
+ * - séquence (long), horodatage (long), type (octet) ;
+ * - identifiant, table, créneau, jour (epoch day) et nombre de convives (int) ;
+ * - date de création (long) ;
+ * - nom, prénom et téléphone (longueur sur 2 octets puis UTF-8).
+ *
+ * La longueur est écrite en dernier : une entrée dont la longueur est visible est
+ * complète. Une longueur nulle marque la fin des données écrites, une longueur
+ * de {@link #FIN_SEGMENT} la fin d'un segment plein.
+ */
+final class FormatJournal {
+
+    static final int TAILLE_ENTETE = 8;
+    static final int FIN_SEGMENT = -1;
+
+    private static final int TAILLE_FIXE = 45;
+    private static final int POSITION_SEQUENCE = 0;
+
+    private FormatJournal() {
+    }
+
+    /**
+     * Encode le contenu d'une entrée. La séquence est renseignée à l'écriture,
+     * avec {@link #numeroter(byte[], long)}.
+     */
+    static byte[] encoder(long horodatage, EvenementJournal.Type type, Reservation reservation) {
+        byte[] nom = texte(reservation.getNomClient());
+        byte[] prenom = texte(reservation.getPrenomClient());
+        byte[] telephone = texte(reservation.getTelephone());
+
+        ByteBuffer contenu = ByteBuffer.allocate(TAILLE_FIXE + 6 + nom.length + prenom.length + telephone.length);
+        contenu.putLong(0L);
+        contenu.putLong(horodatage);
+        contenu.put((byte) type.ordinal());
+        contenu.putInt(reservation.getId());
+        contenu.putInt(reservation.getTableId());
+        contenu.putInt(reservation.getCreneauId());
+        contenu.putInt(reservation.getJourReservation());
+        contenu.putInt(reservation.getnbConvives());
+        contenu.putLong(reservation.getDateCreation() != null ? reservation.getDateCreation().getTime() : 0L);
+        contenu.putShort((short) nom.length).put(nom);
+        contenu.putShort((short) prenom.length).put(prenom);
+        contenu.putShort((short) telephone.length).put(telephone);
+        return contenu.array();
+    }
+
+    /**
+     * Renseigne la séquence d'un contenu encodé.
+     */
+    static void numeroter(byte[] contenu, long sequence) {
+        ByteBuffer.wrap(contenu).putLong(POSITION_SEQUENCE, sequence);
+    }
+
+    /**
+     * Lit la longueur de l'entrée qui commence à une position et vérifie son CRC.
+     *
+     * @return la longueur du contenu, 0 s'il n'y a pas (encore) d'entrée complète
+     *         à cette position, ou {@link #FIN_SEGMENT}
+     */
+    static int longueur(ByteBuffer tampon, int position, CRC32C crc) {
+        if (position + TAILLE_ENTETE > tampon.capacity()) {
+            return position + 4 <= tampon.capacity() && tampon.getInt(position) == FIN_SEGMENT ? FIN_SEGMENT : 0;
+        }
+        int longueur = tampon.getInt(position);
+        if (longueur == FIN_SEGMENT) {
+            return FIN_SEGMENT;
+        }
+        if (longueur < TAILLE_FIXE || position + TAILLE_ENTETE + longueur > tampon.capacity()) {
+            return 0;
+        }
+        ByteBuffer vue = tampon.duplicate();
+        vue.limit(position + TAILLE_ENTETE + longueur).position(position + TAILLE_ENTETE);
+        crc.reset();
+        crc.update(vue);
+        return (int) crc.getValue() == tampon.getInt(position + 4) ? longueur : 0;
+    }
+
+    /**
+     * Décode le contenu d'une entrée complète, dont le CRC a été vérifié.
+     *
+     * @param tampon tampon contenant l'entrée
+     * @param position position de l'en-tête de l'entrée
+     */
+    static EvenementJournal decoder(ByteBuffer tampon, int position) {
+        ByteBuffer contenu = tampon.duplicate();
+        contenu.position(position + TAILLE_ENTETE);
+
+        long sequence = contenu.getLong();
+        long horodatage = contenu.getLong();
+        EvenementJournal.Type type = EvenementJournal.Type.values()[contenu.get()];
+
+        Reservation reservation = new Reservation();
+        reservation.setId(contenu.getInt());
+        reservation.setTableId(contenu.getInt());
+        reservation.setCreneauId(contenu.getInt());
+        reservation.setDateReservation(CodecDate.versSql(contenu.getInt()));
+        reservation.setnbConvives(contenu.getInt());
+        reservation.setDateCreation(new Date(contenu.getLong()));
+        reservation.setNomClient(lireTexte(contenu));
+        reservation.setPrenomClient(lireTexte(contenu));
+        reservation.setTelephone(lireTexte(contenu));
+        reservation.setStatut(type == EvenementJournal.Type.ANNULATION ? "annulee" : "confirmee");
+
+        return new EvenementJournal(sequence, horodatage, type, reservation);
+    }
+
+    private static byte[] texte(String valeur) {
+        if (valeur == null) {
+            return new byte[0];
+        }
+        byte[] octets = valeur.getBytes(StandardCharsets.UTF_8);
+        if (octets.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Champ trop long pour le journal (" + octets.length + " octets)");
+        }
+        return octets;
+    }
+
+    private static String lireTexte(ByteBuffer contenu) {
+        int longueur = contenu.getShort();
+        if (longueur == 0) {
+            return null;
+        }
+        byte[] octets = new byte[longueur];
+        contenu.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,431 @@
+package journal;
+
+import model.Reservation;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal local des réservations et des annulations, en ajout seul.
+ *
+ * Le journal est découpé en segments de taille fixe projetés en mémoire
+ * (journal-&lt;première séquence&gt;.log). Une écriture est une copie dans la
+ * projection, sous verrou : elle ne fait aucun appel système. Les pages écrites
+ * sont forcées sur disque par un thread dédié, toutes les quelques millisecondes,
+ * en une seule synchronisation pour toutes les écritures de l'intervalle.
+ *
+ * En mode synchrone, l'écriture attend que son entrée soit sur disque ; les
+ * écritures concurrentes partagent alors la même synchronisation.
+ *
+ * À l'ouverture, le dernier segment est relu pour retrouver la position
+ * d'écriture : une entrée incomplète (arrêt brutal pendant l'écriture) est
+ * effacée. Le journal peut ensuite être relu ({@link #rejouer}) ou suivi par
+ * un {@link LecteurJournal}.
+ */
+public class JournalReservations implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(JournalReservations.class.getName());
+
+    private static final String PREFIXE = "journal-";
+    private static final String SUFFIXE = ".log";
+    private static final int TAILLE_LOT_REJEU = 1000;
+
+    private final Path repertoire;
+    private final int tailleSegment;
+    private final long intervalleSynchronisationMs;
+    private final boolean synchrone;
+
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Condition travail = verrou.newCondition();
+    private final Condition durable = verrou.newCondition();
+    private final CRC32C crc = new CRC32C();
+    private final Thread synchroniseur;
+
+    // Protégés par le verrou
+    private FileChannel canal;
+    private MappedByteBuffer tampon;
+    private long premiereSequenceSegment;
+    private int position;
+    private int positionForcee;
+    private long prochaineSequence;
+    private long sequenceDurable;
+    private int attentesSynchrones;
+    private int nbSegments;
+    private boolean ouvert = true;
+
+    private final LongAdder nbEcritures = new LongAdder();
+    private final LongAdder nbOctets = new LongAdder();
+    private final LongAdder nbSynchronisations = new LongAdder();
+    private final LongAdder tempsSynchronisationNs = new LongAdder();
+
+    /**
+     * Ouvre le journal, en reprenant après la dernière entrée complète.
+     *
+     * @param repertoire répertoire des segments (créé s'il n'existe pas)
+     * @param tailleSegmentOctets taille d'un segment
+     * @param intervalleSynchronisationMs intervalle maximal entre deux synchronisations sur disque
+     * @param synchrone true pour que chaque écriture attende d'être sur disque
+     * @throws IOException si le répertoire ou un segment ne peut être ouvert
+     */
+    public JournalReservations(Path repertoire, int tailleSegmentOctets, long intervalleSynchronisationMs,
+                               boolean synchrone) throws IOException {
+        this.repertoire = repertoire;
+        this.tailleSegment = tailleSegmentOctets;
+        this.intervalleSynchronisationMs = intervalleSynchronisationMs;
+        this.synchrone = synchrone;
+
+        Files.createDirectories(repertoire);
+        List<Long> segments = listerSegments(repertoire);
+        nbSegments = segments.size();
+        if (segments.isEmpty()) {
+            creerSegment(1);
+        } else {
+            reprendre(segments.get(segments.size() - 1));
+        }
+
+        this.synchroniseur = new Thread(this::synchroniser, "journal-synchronisation");
+        synchroniseur.setDaemon(true);
+        synchroniseur.start();
+
+        LOGGER.info("Journal ouvert dans " + repertoire + " (" + nbSegments + " segment(s), prochaine séquence "
+                + prochaineSequence + ")");
+    }
+
+    /**
+     * Journalise des réservations enregistrées ou annulées, à la suite.
+     *
+     * @param type type d'évènement
+     * @param reservations les réservations, avec leur identifiant (table, créneau
+     *                     et date suffisent pour une annulation)
+     * @return la séquence de la dernière entrée
+     * @throws IOException si un nouveau segment ne peut être créé
+     */
+    public long journaliser(EvenementJournal.Type type, List<Reservation> reservations) throws IOException {
+        long horodatage = System.currentTimeMillis();
+        List<byte[]> contenus = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            byte[] contenu = FormatJournal.encoder(horodatage, type, reservation);
+            if (FormatJournal.TAILLE_ENTETE + contenu.length + 4 > tailleSegment) {
+                throw new IllegalArgumentException("Entrée plus grande qu'un segment du journal");
+            }
+            contenus.add(contenu);
+        }
+
+        long sequence;
+        verrou.lock();
+        try {
+            if (!ouvert) {
+                throw new IllegalStateException("Journal fermé");
+            }
+            for (byte[] contenu : contenus) {
+                // 4 octets restent toujours disponibles pour la marque de fin de segment
+                if (position + FormatJournal.TAILLE_ENTETE + contenu.length + 4 > tampon.capacity()) {
+                    basculer();
+                }
+                FormatJournal.numeroter(contenu, prochaineSequence++);
+                crc.reset();
+                crc.update(contenu);
+                tampon.put(position + FormatJournal.TAILLE_ENTETE, contenu);
+                tampon.putInt(position + 4, (int) crc.getValue());
+                // La longueur publie l'entrée : elle est écrite après le contenu
+                VarHandle.releaseFence();
+                tampon.putInt(position, contenu.length);
+                position += FormatJournal.TAILLE_ENTETE + contenu.length;
+                nbOctets.add(FormatJournal.TAILLE_ENTETE + contenu.length);
+            }
+            nbEcritures.add(contenus.size());
+            sequence = prochaineSequence - 1;
+
+            if (synchrone) {
+                attentesSynchrones++;
+                try {
+                    travail.signal();
+                    while (sequenceDurable < sequence && ouvert) {
+                        durable.awaitUninterruptibly();
+                    }
+                } finally {
+                    attentesSynchrones--;
+                }
+            }
+        } finally {
+            verrou.unlock();
+        }
+        return sequence;
+    }
+
+    /**
+     * Relit le journal à partir d'une séquence, jusqu'à la dernière entrée écrite.
+     *
+     * @param depuisSequence première séquence à relire (1 pour tout le journal)
+     * @param consommateur traitement appliqué à chaque évènement, dans l'ordre
+     * @return le nombre d'évènements relus
+     * @throws IOException si un segment ne peut être lu
+     */
+    public int rejouer(long depuisSequence, Consumer<EvenementJournal> consommateur) throws IOException {
+        LecteurJournal lecteur = suivre(depuisSequence);
+        int nombre = 0;
+        List<EvenementJournal> evenements;
+        while (!(evenements = lecteur.lire(TAILLE_LOT_REJEU)).isEmpty()) {
+            evenements.forEach(consommateur);
+            nombre += evenements.size();
+        }
+        return nombre;
+    }
+
+    /**
+     * Crée un lecteur qui suit le journal à partir d'une séquence.
+     *
+     * @param depuisSequence première séquence à lire
+     * @return le lecteur
+     * @throws IOException si le répertoire ne peut être lu
+     */
+    public LecteurJournal suivre(long depuisSequence) throws IOException {
+        return new LecteurJournal(repertoire, depuisSequence);
+    }
+
+    /**
+     * Retourne les statistiques du journal.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        verrou.lock();
+        try {
+            stats.put("derniereSequence", prochaineSequence - 1);
+            stats.put("sequenceDurable", sequenceDurable);
+            stats.put("segments", nbSegments);
+        } finally {
+            verrou.unlock();
+        }
+        long synchronisations = nbSynchronisations.sum();
+        stats.put("repertoire", repertoire.toString());
+        stats.put("synchrone", synchrone);
+        stats.put("ecritures", nbEcritures.sum());
+        stats.put("octetsEcrits", nbOctets.sum());
+        stats.put("synchronisations", synchronisations);
+        stats.put("synchronisationMoyenneMs", synchronisations == 0 ? 0.0
+                : tempsSynchronisationNs.sum() / 1_000_000.0 / synchronisations);
+        return stats;
+    }
+
+    /**
+     * Force les dernières écritures sur disque et arrête le thread de synchronisation.
+     */
+    @Override
+    public void close() {
+        verrou.lock();
+        try {
+            ouvert = false;
+            travail.signal();
+        } finally {
+            verrou.unlock();
+        }
+        try {
+            synchroniseur.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        verrou.lock();
+        try {
+            tampon.force();
+            canal.close();
+            sequenceDurable = prochaineSequence - 1;
+            durable.signalAll();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Erreur lors de la fermeture du journal", e);
+        } finally {
+            verrou.unlock();
+        }
+        LOGGER.info("Journal fermé (dernière séquence " + sequenceDurable + ")");
+    }
+
+    /**
+     * Liste les segments d'un répertoire de journal.
+     *
+     * @return la première séquence de chaque segment, dans l'ordre croissant
+     */
+    static List<Long> listerSegments(Path repertoire) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(repertoire)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire, PREFIXE + "*" + SUFFIXE)) {
+            for (Path fichier : fichiers) {
+                String nom = fichier.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(nom.substring(PREFIXE.length(), nom.length() - SUFFIXE.length())));
+                } catch (NumberFormatException e) {
+                    LOGGER.warning("Fichier ignoré dans le journal : " + nom);
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    static Path fichierSegment(Path repertoire, long premiereSequence) {
+        return repertoire.resolve(String.format("%s%020d%s", PREFIXE, premiereSequence, SUFFIXE));
+    }
+
+    /**
+     * Boucle du thread de synchronisation : force sur disque les pages écrites
+     * depuis la dernière synchronisation, à intervalle régulier ou dès qu'une
+     * écriture synchrone attend.
+     */
+    private void synchroniser() {
+        while (true) {
+            MappedByteBuffer cible;
+            int debut;
+            int fin;
+            long sequence;
+
+            verrou.lock();
+            try {
+                long attente = TimeUnit.MILLISECONDS.toNanos(intervalleSynchronisationMs);
+                while (ouvert && attente > 0 && !(attentesSynchrones > 0 && position > positionForcee)) {
+                    try {
+                        attente = travail.awaitNanos(attente);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (position == positionForcee) {
+                    if (!ouvert) {
+                        return;
+                    }
+                    continue;
+                }
+                cible = tampon;
+                debut = positionForcee;
+                fin = position;
+                sequence = prochaineSequence - 1;
+            } finally {
+                verrou.unlock();
+            }
+
+            long depart = System.nanoTime();
+            cible.force(debut, fin - debut);
+            tempsSynchronisationNs.add(System.nanoTime() - depart);
+            nbSynchronisations.increment();
+
+            verrou.lock();
+            try {
+                if (cible == tampon) {
+                    positionForcee = Math.max(positionForcee, fin);
+                }
+                sequenceDurable = Math.max(sequenceDurable, sequence);
+                durable.signalAll();
+            } finally {
+                verrou.unlock();
+            }
+        }
+    }
+
+    /**
+     * Ferme le segment courant, plein, et ouvre le suivant. Appelé sous verrou.
+     */
+    private void basculer() throws IOException {
+        tampon.putInt(position, FormatJournal.FIN_SEGMENT);
+        tampon.force();
+        canal.close();
+        sequenceDurable = prochaineSequence - 1;
+        durable.signalAll();
+
+        creerSegment(prochaineSequence);
+    }
+
+    /**
+     * Crée un segment vide à sa taille définitive, puis le renomme : un lecteur
+     * ne voit jamais un segment partiellement créé.
+     */
+    private void creerSegment(long premiereSequence) throws IOException {
+        Path fichier = fichierSegment(repertoire, premiereSequence);
+        Path temporaire = repertoire.resolve(fichier.getFileName() + ".tmp");
+        try (FileChannel creation = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            creation.truncate(0);
+            creation.write(ByteBuffer.allocate(1), tailleSegment - 1);
+            creation.force(true);
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE);
+        ouvrirSegment(fichier, premiereSequence);
+        prochaineSequence = premiereSequence;
+        sequenceDurable = premiereSequence - 1;
+        nbSegments++;
+    }
+
+    private void ouvrirSegment(Path fichier, long premiereSequence) throws IOException {
+        canal = FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        tampon = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+        premiereSequenceSegment = premiereSequence;
+        position = 0;
+        positionForcee = 0;
+    }
+
+    /**
+     * Reprend l'écriture dans le dernier segment existant, après sa dernière entrée complète.
+     */
+    private void reprendre(long premiereSequence) throws IOException {
+        ouvrirSegment(fichierSegment(repertoire, premiereSequence), premiereSequence);
+        prochaineSequence = premiereSequence;
+
+        int longueur;
+        while ((longueur = FormatJournal.longueur(tampon, position, crc)) > 0) {
+            prochaineSequence = FormatJournal.decoder(tampon, position).getSequence() + 1;
+            position += FormatJournal.TAILLE_ENTETE + longueur;
+        }
+
+        if (longueur == FormatJournal.FIN_SEGMENT) {
+            // Arrêt entre la fermeture d'un segment plein et la création du suivant
+            canal.close();
+            creerSegment(prochaineSequence);
+        } else if (effacerFin()) {
+            LOGGER.warning("Entrée incomplète effacée à la fin du journal (segment " + premiereSequenceSegment
+                    + ", position " + position + ")");
+        }
+        positionForcee = position;
+        sequenceDurable = prochaineSequence - 1;
+    }
+
+    /**
+     * Efface ce qui suit la dernière entrée complète du segment courant.
+     *
+     * @return true s'il restait des octets d'une entrée incomplète
+     */
+    private boolean effacerFin() {
+        int i = position;
+        while (i < tampon.capacity() && tampon.get(i) == 0) {
+            i++;
+        }
+        if (i == tampon.capacity()) {
+            return false;
+        }
+        for (int j = position; j < tampon.capacity(); j++) {
+            tampon.put(j, (byte) 0);
+        }
+        tampon.force();
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Lecteur du journal des réservations, à partir d'un numéro de séquence.
+ *
+ * Le lecteur projette les segments en lecture seule et suit le journal pendant
+ * qu'il est écrit : il peut être utilisé dans le service BD comme dans un autre
+ * processus qui a accès au répertoire du journal, sans passer par la base.
+ * Un lecteur n'est pas partagé entre plusieurs threads.
+ */
+public class LecteurJournal {
+
+    private static final long PAUSE_MS = 10;
+
+    private final Path repertoire;
+    private final CRC32C crc = new CRC32C();
+
+    private long prochaineSequence;
+    private long premiereSequenceSegment;
+    private MappedByteBuffer tampon;
+    private int position;
+
+    /**
+     * Constructeur du lecteur.
+     *
+     * @param repertoire répertoire du journal
+     * @param depuisSequence première séquence à lire (1 pour tout le journal)
+     * @throws IOException si le répertoire ne peut être lu
+     */
+    public LecteurJournal(Path repertoire, long depuisSequence) throws IOException {
+        this.repertoire = repertoire;
+        this.prochaineSequence = Math.max(1, depuisSequence);
+
+        // Dernier segment qui commence avant la séquence demandée
+        long premiere = -1;
+        for (long debut : JournalReservations.listerSegments(repertoire)) {
+            if (premiere < 0 || debut <= prochaineSequence) {
+                premiere = debut;
+            }
+        }
+        if (premiere >= 0) {
+            ouvrirSegment(premiere);
+        }
+    }
+
+    /**
+     * Lit les évènements disponibles, sans attendre.
+     *
+     * @param max nombre maximal d'évènements à lire
+     * @return les évènements lus, dans l'ordre des séquences (vide si le lecteur est à jour)
+     * @throws IOException si un segment ne peut être lu
+     */
+    public List<EvenementJournal> lire(int max) throws IOException {
+        List<EvenementJournal> evenements = new ArrayList<>();
+        while (evenements.size() < max) {
+            if (tampon == null && !segmentSuivant()) {
+                break;
+            }
+            int longueur = FormatJournal.longueur(tampon, position, crc);
+            if (longueur == FormatJournal.FIN_SEGMENT) {
+                if (!segmentSuivant()) {
+                    break;
+                }
+                continue;
+            }
+            if (longueur == 0) {
+                break;
+            }
+
+            EvenementJournal evenement = FormatJournal.decoder(tampon, position);
+            position += FormatJournal.TAILLE_ENTETE + longueur;
+            if (evenement.getSequence() >= prochaineSequence) {
+                evenements.add(evenement);
+                prochaineSequence = evenement.getSequence() + 1;
+            }
+        }
+        return evenements;
+    }
+
+    /**
+     * Lit les évènements disponibles, en attendant qu'il y en ait si le lecteur est à jour.
+     *
+     * @param max nombre maximal d'évènements à lire
+     * @param delaiMs attente maximale en millisecondes
+     * @return les évènements lus (vide si aucun n'est arrivé pendant le délai)
+     * @throws IOException si un segment ne peut être lu
+     * @throws InterruptedException si le thread est interrompu pendant l'attente
+     */
+    public List<EvenementJournal> attendre(int max, long delaiMs) throws IOException, InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delaiMs);
+        List<EvenementJournal> evenements = lire(max);
+        while (evenements.isEmpty() && System.nanoTime() < limite) {
+            Thread.sleep(PAUSE_MS);
+            evenements = lire(max);
+        }
+        return evenements;
+    }
+
+    /**
+     * @return la séquence du prochain évènement à lire
+     */
+    public long getProchaineSequence() {
+        return prochaineSequence;
+    }
+
+    /**
+     * Passe au segment qui suit le segment courant, s'il a déjà été créé.
+     */
+    private boolean segmentSuivant() throws IOException {
+        long suivant = -1;
+        for (long debut : JournalReservations.listerSegments(repertoire)) {
+            if ((tampon == null || debut > premiereSequenceSegment) && (suivant < 0 || debut < suivant)) {
+                suivant = debut;
+            }
+        }
+        if (suivant < 0) {
+            return false;
+        }
+        ouvrirSegment(suivant);
+        return true;
+    }
+
+    private void ouvrirSegment(long premiereSequence) throws IOException {
+        Path fichier = JournalReservations.fichierSegment(repertoire, premiereSequence);
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        premiereSequenceSegment = premiereSequence;
+        position = 0;
+    }
+}
@@ -0,0 +1,292 @@
+package options;
+
+import model.OptionTable;
+import org.json.JSONObject;
+import utils.CleCreneau;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Options de courte durée posées sur les tables, tenues en mémoire.
+ *
+ * Une option retient une table pour une date et un créneau le temps qu'un client
+ * confirme sa réservation. Il y a au plus une option par (table, date, créneau) :
+ * la pose passe par un putIfAbsent sur la clé du créneau, deux clients ne peuvent
+ * donc pas retenir la même table en même temps.
+ *
+ * Chaque option est planifiée dans une {@link RoueTemporelle} qui la retire à son
+ * expiration, sans parcourir les options ni interroger la base. Comme la roue a la
+ * précision d'un pas, une option échue mais pas encore retirée est ignorée par
+ * les lectures. Le retrait d'une option (confirmation, levée ou expiration) passe
+ * par un changement d'état atomique : une seule de ces issues l'emporte.
+ *
+ * La confirmation se fait en deux temps autour de l'écriture en base : l'option
+ * passe d'abord en confirmation, où elle n'expire plus et garde la table prise ;
+ * elle est ensuite retirée si l'écriture a eu lieu, ou rendue au client, avec son
+ * échéance d'origine, si l'écriture a échoué.
+ *
+ * Les options ne sont pas écrites en base et sont perdues au redémarrage du
+ * service. Elles ne remplacent pas la contrainte d'unicité de la base, qui reste
+ * l'arbitre final entre deux réservations de la même table.
+ */
+public class OptionsTables implements AutoCloseable {
+
+    private static final int ACTIVE = 0;
+    private static final int EN_CONFIRMATION = 1;
+    private static final int RETIREE = 2;
+
+    private static final long PAS_ROUE_MS = 1000;
+    private static final int GODETS_ROUE = 512;
+
+    private final ConcurrentHashMap<Long, Entree> parCreneau = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entree> parId = new ConcurrentHashMap<>();
+    private final RoueTemporelle roue;
+    private final Consumer<OptionTable> aLExpiration;
+
+    private final LongAdder nbPosees = new LongAdder();
+    private final LongAdder nbRefusees = new LongAdder();
+    private final LongAdder nbConfirmees = new LongAdder();
+    private final LongAdder nbRendues = new LongAdder();
+    private final LongAdder nbLevees = new LongAdder();
+    private final LongAdder nbExpirees = new LongAdder();
+
+    /**
+     * Constructeur du registre, qui démarre sa roue temporelle.
+     *
+     * @param aLExpiration action appelée pour chaque option expirée, sur le fil de la roue
+     */
+    public OptionsTables(Consumer<OptionTable> aLExpiration) {
+        this.aLExpiration = aLExpiration;
+        this.roue = new RoueTemporelle("options-expiration", PAS_ROUE_MS, GODETS_ROUE);
+    }
+
+    /**
+     * Pose une option sur une table, si aucune autre option ne court sur ce créneau.
+     *
+     * @param tableId identifiant de la table
+     * @param restaurantId identifiant du restaurant de la table
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @param dureeMs durée de l'option en millisecondes
+     * @return l'option posée, ou null si la table est déjà en option
+     */
+    public OptionTable poser(int tableId, int restaurantId, int jour, int creneauId, long dureeMs) {
+        long maintenant = System.currentTimeMillis();
+        Entree entree = new Entree(new OptionTable(UUID.randomUUID().toString(), tableId, restaurantId,
+                jour, creneauId, maintenant + dureeMs));
+        long cle = CleCreneau.cle(tableId, jour, creneauId);
+
+        Entree existante = parCreneau.putIfAbsent(cle, entree);
+        // Une option échue que la roue n'a pas encore retirée ne bloque pas la table
+        while (existante != null && existante.etat.get() != EN_CONFIRMATION
+                && (existante.etat.get() == RETIREE || existante.option.estExpiree(maintenant))) {
+            expirer(existante);
+            parCreneau.remove(cle, existante);
+            existante = parCreneau.putIfAbsent(cle, entree);
+        }
+        if (existante != null) {
+            nbRefusees.increment();
+            return null;
+        }
+
+        parId.put(entree.option.getId(), entree);
+        entree.echeance = roue.planifier(dureeMs, () -> expirer(entree));
+        nbPosees.increment();
+        return entree.option;
+    }
+
+    /**
+     * Indique si une option court sur une table pour une date et un créneau.
+     *
+     * @param tableId identifiant de la table
+     * @param jour jour de réservation (voir CodecDate)
+     * @param creneauId identifiant du créneau
+     * @return true si la table est en option, ou si son option est en cours de confirmation
+     */
+    public boolean estPrise(int tableId, int jour, int creneauId) {
+        Entree entree = parCreneau.get(CleCreneau.cle(tableId, jour, creneauId));
+        return entree != null && entree.retient(System.currentTimeMillis());
+    }
+
+    /**
+     * Retourne une option qui court encore, sans la retirer.
+     *
+     * @param optionId identifiant de l'option
+     * @return l'option, ou null si elle est inconnue, en confirmation, confirmée, levée ou expirée
+     */
+    public OptionTable consulter(String optionId) {
+        Entree entree = optionId != null ? parId.get(optionId) : null;
+        return entree != null && entree.etat.get() == ACTIVE
+                && !entree.option.estExpiree(System.currentTimeMillis()) ? entree.option : null;
+    }
+
+    /**
+     * Passe en confirmation une option qui court encore, avant d'enregistrer sa
+     * réservation : elle n'expire plus et la table reste prise jusqu'à
+     * {@link #terminerConfirmation} ou {@link #annulerConfirmation}.
+     *
+     * @param optionId identifiant de l'option
+     * @return l'option, ou null si elle ne courait plus ou est déjà en confirmation
+     */
+    public OptionTable confirmer(String optionId) {
+        Entree entree = optionId != null ? parId.get(optionId) : null;
+        if (entree == null || entree.option.estExpiree(System.currentTimeMillis())
+                || !entree.etat.compareAndSet(ACTIVE, EN_CONFIRMATION)) {
+            return null;
+        }
+        RoueTemporelle.Echeance echeance = entree.echeance;
+        if (echeance != null) {
+            echeance.annuler();
+        }
+        return entree.option;
+    }
+
+    /**
+     * Retire une option en confirmation, une fois l'écriture en base faite.
+     *
+     * @param optionId identifiant de l'option
+     */
+    public void terminerConfirmation(String optionId) {
+        Entree entree = parId.get(optionId);
+        if (entree != null && entree.etat.compareAndSet(EN_CONFIRMATION, RETIREE)) {
+            parCreneau.remove(cle(entree.option), entree);
+            parId.remove(optionId, entree);
+            nbConfirmees.increment();
+        }
+    }
+
+    /**
+     * Rend au client une option en confirmation dont l'écriture en base a échoué.
+     * L'option retrouve son échéance d'origine ; si elle est passée, l'option expire.
+     *
+     * @param optionId identifiant de l'option
+     */
+    public void annulerConfirmation(String optionId) {
+        Entree entree = parId.get(optionId);
+        if (entree == null || !entree.etat.compareAndSet(EN_CONFIRMATION, ACTIVE)) {
+            return;
+        }
+        nbRendues.increment();
+        long restantMs = entree.option.getExpireLe() - System.currentTimeMillis();
+        if (restantMs <= 0) {
+            expirer(entree);
+        } else {
+            entree.echeance = roue.planifier(restantMs, () -> expirer(entree));
+        }
+    }
+
+    /**
+     * Lève une option qui court encore.
+     *
+     * @param optionId identifiant de l'option
+     * @return l'option levée, ou null si elle ne courait plus
+     */
+    public OptionTable lever(String optionId) {
+        Entree entree = retirer(optionId);
+        if (entree != null) {
+            nbLevees.increment();
+        }
+        return entree != null ? entree.option : null;
+    }
+
+    /**
+     * Liste les options qui courent sur les tables d'un restaurant entre deux dates.
+     *
+     * @param restaurantId identifiant du restaurant
+     * @param debut premier jour (voir CodecDate)
+     * @param fin dernier jour, inclus
+     * @return les options, dans un ordre quelconque
+     */
+    public List<OptionTable> lister(int restaurantId, int debut, int fin) {
+        long maintenant = System.currentTimeMillis();
+        List<OptionTable> resultat = new ArrayList<>();
+        for (Entree entree : parCreneau.values()) {
+            OptionTable option = entree.option;
+            if (option.getRestaurantId() == restaurantId && option.getJour() >= debut
+                    && option.getJour() <= fin && entree.retient(maintenant)) {
+                resultat.add(option);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne les statistiques des options.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        stats.put("actives", parCreneau.size());
+        stats.put("posees", nbPosees.sum());
+        stats.put("refusees", nbRefusees.sum());
+        stats.put("confirmees", nbConfirmees.sum());
+        stats.put("rendues", nbRendues.sum());
+        stats.put("levees", nbLevees.sum());
+        stats.put("expirees", nbExpirees.sum());
+        stats.put("echeancesEnAttente", roue.getEnAttente());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        roue.close();
+        parCreneau.clear();
+        parId.clear();
+    }
+
+    private Entree retirer(String optionId) {
+        Entree entree = optionId != null ? parId.get(optionId) : null;
+        if (entree == null || entree.option.estExpiree(System.currentTimeMillis())
+                || !entree.etat.compareAndSet(ACTIVE, RETIREE)) {
+            return null;
+        }
+        parCreneau.remove(cle(entree.option), entree);
+        parId.remove(optionId, entree);
+        RoueTemporelle.Echeance echeance = entree.echeance;
+        if (echeance != null) {
+            echeance.annuler();
+        }
+        return entree;
+    }
+
+    private void expirer(Entree entree) {
+        if (entree.etat.compareAndSet(ACTIVE, RETIREE)) {
+            parCreneau.remove(cle(entree.option), entree);
+            parId.remove(entree.option.getId(), entree);
+            nbExpirees.increment();
+            aLExpiration.accept(entree.option);
+        }
+    }
+
+    private static long cle(OptionTable option) {
+        return CleCreneau.cle(option.getTableId(), option.getJour(), option.getCreneauId());
+    }
+
+    /**
+     * Option enregistrée, avec son état et son échéance dans la roue.
+     */
+    private static final class Entree {
+        private final OptionTable option;
+        private final AtomicInteger etat = new AtomicInteger(ACTIVE);
+        private volatile RoueTemporelle.Echeance echeance;
+
+        private Entree(OptionTable option) {
+            this.option = option;
+        }
+
+        /**
+         * @return true si l'option retient encore sa table
+         */
+        private boolean retient(long maintenant) {
+            int courant = etat.get();
+            return courant == EN_CONFIRMATION || courant == ACTIVE && !option.estExpiree(maintenant);
+        }
+    }
+}
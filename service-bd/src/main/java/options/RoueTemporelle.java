@@ -0,0 +1,172 @@
+package options;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Roue temporelle hachée : exécute des actions à échéance, avec la précision d'un pas.
+ *
+ * La roue a un nombre fixe de godets, parcourus un par pas. Une échéance est rangée
+ * dans le godet de son pas d'arrivée, avec le nombre de tours complets qu'il reste
+ * à faire : planifier et annuler coûtent O(1) quel que soit le nombre d'échéances,
+ * et chaque pas ne parcourt qu'un godet.
+ *
+ * Les nouvelles échéances passent par une file que le fil de la roue vide au début
+ * de chaque pas : seul ce fil touche aux godets. Une échéance annulée est marquée,
+ * puis retirée quand son godet est parcouru. Les actions s'exécutent sur le fil de
+ * la roue et doivent rester courtes.
+ *
+ * Deux pas sont séparés d'au moins un pas : une action ne part jamais plus d'un
+ * pas avant son délai, mais peut partir en retard si le fil de la roue est retardé.
+ */
+public class RoueTemporelle implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(RoueTemporelle.class.getName());
+
+    private final long pasMs;
+    private final int masque;
+    private final List<List<Echeance>> godets;
+    private final Queue<Echeance> nouvelles = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService fil;
+    private final AtomicInteger enAttente = new AtomicInteger();
+    private final LongAdder nbExecutees = new LongAdder();
+
+    // Modifié par le fil de la roue seulement
+    private long pasCourant;
+
+    /**
+     * Constructeur de la roue, qui démarre son fil.
+     *
+     * @param nom nom du fil de la roue
+     * @param pasMs durée d'un pas en millisecondes, précision des échéances
+     * @param nbGodets nombre de godets, arrondi à la puissance de deux supérieure
+     */
+    public RoueTemporelle(String nom, long pasMs, int nbGodets) {
+        if (pasMs < 1 || nbGodets < 1) {
+            throw new IllegalArgumentException("Roue temporelle invalide : pas de " + pasMs + " ms, "
+                    + nbGodets + " godets");
+        }
+        int taille = Integer.highestOneBit(Math.max(1, nbGodets - 1)) << 1;
+        this.pasMs = pasMs;
+        this.masque = taille - 1;
+        this.godets = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            godets.add(new ArrayList<>());
+        }
+        this.fil = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, nom);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Délai fixe et non cadence fixe : après un retard du fil, les pas manqués ne
+        // sont pas rattrapés d'un coup, ce qui ferait partir les échéances en avance
+        fil.scheduleWithFixedDelay(this::avancer, pasMs, pasMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Planifie une action après un délai.
+     *
+     * @param delaiMs délai avant l'action, arrondi au pas supérieur
+     * @param action action à exécuter sur le fil de la roue
+     * @return l'échéance, qui peut être annulée
+     */
+    public Echeance planifier(long delaiMs, Runnable action) {
+        Echeance echeance = new Echeance(Math.max(1, (delaiMs + pasMs - 1) / pasMs), action);
+        enAttente.incrementAndGet();
+        nouvelles.add(echeance);
+        return echeance;
+    }
+
+    /**
+     * @return le nombre d'échéances planifiées ni exécutées ni retirées
+     */
+    public int getEnAttente() {
+        return enAttente.get();
+    }
+
+    /**
+     * @return le nombre d'actions exécutées
+     */
+    public long getNbExecutees() {
+        return nbExecutees.sum();
+    }
+
+    @Override
+    public void close() {
+        fil.shutdownNow();
+    }
+
+    /**
+     * Avance d'un pas : range les nouvelles échéances, puis parcourt le godet du pas.
+     */
+    private void avancer() {
+        try {
+            Echeance nouvelle;
+            while ((nouvelle = nouvelles.poll()) != null) {
+                long arrivee = pasCourant + nouvelle.nbPas;
+                nouvelle.tours = (nouvelle.nbPas - 1) / godets.size();
+                godets.get((int) (arrivee & masque)).add(nouvelle);
+            }
+
+            pasCourant++;
+            Iterator<Echeance> iterateur = godets.get((int) (pasCourant & masque)).iterator();
+            while (iterateur.hasNext()) {
+                Echeance echeance = iterateur.next();
+                if (echeance.annulee) {
+                    iterateur.remove();
+                    enAttente.decrementAndGet();
+                } else if (echeance.tours > 0) {
+                    echeance.tours--;
+                } else {
+                    iterateur.remove();
+                    enAttente.decrementAndGet();
+                    executer(echeance);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Erreur de la roue temporelle", e);
+        }
+    }
+
+    private void executer(Echeance echeance) {
+        try {
+            echeance.action.run();
+            nbExecutees.increment();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Erreur d'une action à échéance", e);
+        }
+    }
+
+    /**
+     * Action planifiée dans la roue.
+     */
+    public static final class Echeance {
+        private final long nbPas;
+        private final Runnable action;
+        private volatile boolean annulee;
+        // Modifié par le fil de la roue seulement
+        private long tours;
+
+        private Echeance(long nbPas, Runnable action) {
+            this.nbPas = nbPas;
+            this.action = action;
+        }
+
+        /**
+         * Annule l'action si elle n'a pas encore été exécutée.
+         */
+        public void annuler() {
+            annulee = true;
+        }
+    }
+}
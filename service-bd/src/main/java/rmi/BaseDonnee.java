@@ -1,357 +1,998 @@
 package rmi;
 
-import interfaces.ServiceBD;
+import interfaces.EcouteurChangements;
+import interfaces.ServiceBDTypee;
+import model.AnalyseOccupation;
+import model.Changement;
+import model.DemandeAttente;
+import model.MatriceDisponibilites;
+import model.OccupationCreneau;
+import model.OptionTable;
+import model.PageReservations;
+import model.PartitionBD;
 import model.Restaurant;
+import model.ResultatLot;
+import model.ResultatReservation;
 import model.TableResto;
 import model.Reservation;
 import model.Creneau;
-import dao.RestaurantDAO;
+import analyse.AnalyseurOccupation;
+import archivage.ArchivageReservations;
+import attente.ListesAttente;
+import cache.CompteursOccupation;
+import cache.DisponibiliteIndex;
+import cache.ReferentielCache;
+import dao.Stockage;
+import flux.FluxChangements;
+import journal.EvenementJournal;
+import journal.JournalReservations;
+import options.OptionsTables;
 import org.json.JSONObject;
 import org.json.JSONArray;
+import org.json.JSONException;
+import utils.CodecDate;
+import utils.JsonModele;
 
+import java.io.IOException;
 import java.rmi.RemoteException;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
-import java.util.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
 /**
  * Implémentation du service BD avec support des créneaux horaires.
  * Service RMI responsable de toutes les opérations de base de données.
+ *
+ * Les opérations sont implémentées une seule fois, dans l'interface typée
+ * {@link ServiceBDTypee}. Les méthodes JSON de {@link interfaces.ServiceBD}
+ * les appellent puis rendent le résultat avec {@link JsonModele}.
+ *
+ * Les réservations et les annulations validées en base sont ensuite écrites
+ * dans le journal local, s'il est actif, et comptées dans les compteurs
+ * d'occupation par restaurant, date et créneau. Elles sont aussi publiées,
+ * avec les invalidations du référentiel, dans le flux de changements auquel
+ * le service central s'abonne pour invalider ses caches.
+ *
+ * Un client peut aussi mettre une table en option le temps de finir sa
+ * réservation. Les options sont tenues en mémoire et expirées par une roue
+ * temporelle ; tant qu'une option court, la table est présentée comme occupée
+ * et réservée au seul porteur de l'option.
+ *
+ * Quand un créneau est complet, un groupe peut s'inscrire en liste d'attente.
+ * Chaque annulation propose aussitôt la table libérée à la liste d'attente du
+ * créneau : la demande retenue est réservée dans la même transaction que son
+ * changement de statut, et le client n'a plus qu'à consulter sa demande.
+ *
+ * Une instance sert une partition : elle refuse les réservations des
+ * restaurants dont les données sont dans une autre partition.
+ *
+ * Une instance en lecture seule (réplica sur une base de secours) refuse toutes
+ * les écritures, et lit la disponibilité des tables directement en base.
  */
-public class BaseDonnee implements ServiceBD {
+public class BaseDonnee implements ServiceBDTypee, AutoCloseable {
 
     private static final Logger LOGGER = Logger.getLogger(BaseDonnee.class.getName());
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
-    private static final SimpleDateFormat DATETIME_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm");
 
-    private final RestaurantDAO restaurantDAO;
+    private static final int TAILLE_MAX_LOT = 100;
+    private static final int NB_JOURS_MAX_DISPONIBILITES = 62;
+    private static final String MODE_TOUT_OU_RIEN = "tout-ou-rien";
+    private static final String MODE_AU_MIEUX = "au-mieux";
+    private static final int TAILLE_MAX_PAGE = 100;
+    private static final int LONGUEUR_MAX_TELEPHONE = 20;
+    /** Jour qui suit toute date de réservation, point de départ de la première page. */
+    private static final int JOUR_MAX = CodecDate.parser("9999-12-31");
+    private static final int RETENTION_FLUX_DEFAUT = 10_000;
+    private static final long INTERVALLE_FLUX_DEFAUT_MS = 50;
+    private static final String TABLE_EN_OPTION = "Table en option pour un autre client";
+    private static final String OPTION_INCONNUE = "Option inconnue ou expirée";
+
+    private final Stockage stockage;
+    private final ReferentielCache referentiel;
+    private final DisponibiliteIndex disponibilites;
+    private final CompteursOccupation occupations;
+    private final FluxChangements changements;
+    private final OptionsTables options;
+    private final int dureeOptionSecondes;
+    private final int dureeOptionMaxSecondes;
+    private final ListesAttente attentes;
+    private final ArchivageReservations archivage;
+    private final AnalyseurOccupation analyses;
+    private final JournalReservations journal;
+    private final PartitionBD partition;
 
     /**
      * Constructeur du service BD.
      *
-     * @param dbUrl URL de la base de données
-     * @param dbUser utilisateur de la base
-     * @param dbPassword mot de passe de la base
+     * @param stockage stockage des données (Oracle ou base embarquée)
+     * @param parametres composants optionnels (journal, partition, flux, archivage) et réglages
      */
-    public BaseDonnee(String dbUrl, String dbUser, String dbPassword) {
-        this.restaurantDAO = new RestaurantDAO(dbUrl, dbUser, dbPassword);
-        LOGGER.info("ServiceBD créé avec support des créneaux");
+    public BaseDonnee(Stockage stockage, ParametresBaseDonnee parametres) {
+        PartitionBD partition = parametres.partition;
+        FluxChangements changements = parametres.changements != null ? parametres.changements
+                : new FluxChangements(partition.getNom(), RETENTION_FLUX_DEFAUT, INTERVALLE_FLUX_DEFAUT_MS);
+        int dureeOptionSecondes = parametres.dureeOptionSecondes;
+        int dureeOptionMaxSecondes = parametres.dureeOptionMaxSecondes;
+        if (dureeOptionSecondes < 1 || dureeOptionMaxSecondes < dureeOptionSecondes) {
+            throw new IllegalArgumentException("Durées d'option invalides : " + dureeOptionSecondes
+                    + " s par défaut, " + dureeOptionMaxSecondes + " s au plus");
+        }
+        this.stockage = stockage;
+        this.changements = changements;
+        this.dureeOptionSecondes = dureeOptionSecondes;
+        this.dureeOptionMaxSecondes = dureeOptionMaxSecondes;
+        this.options = new OptionsTables(option -> changements.publier(Changement.Type.OPTION,
+                option.getRestaurantId(), option.getJour(), option.getCreneauId()));
+        this.journal = parametres.journal;
+        this.partition = partition;
+        this.referentiel = new ReferentielCache(stockage, parametres.ttlReferentielSecondes * 1000,
+                () -> changements.publier(Changement.Type.REFERENTIEL, 0, 0, 0));
+        this.disponibilites = new DisponibiliteIndex(stockage, referentiel, !partition.isLectureSeule());
+        this.occupations = new CompteursOccupation(stockage);
+        this.attentes = new ListesAttente(stockage, parametres.attenteMaxParCreneau);
+        this.archivage = parametres.archivage;
+        this.analyses = new AnalyseurOccupation(stockage, referentiel, partition, parametres.analysesMax,
+                parametres.ttlAnalysesSecondes * 1000);
+        if (!partition.isLectureSeule()) {
+            try {
+                occupations.reconstruire();
+                attentes.charger();
+            } catch (SQLException e) {
+                close();
+                throw erreurBase("Erreur lors du chargement des occupations et des listes d'attente", e);
+            }
+        }
+        LOGGER.info("ServiceBD créé avec support des créneaux"
+                + (partition.isLectureSeule() ? " (lecture seule)" : ""));
     }
 
+    /**
+     * Arrête les fils du service : diffusion du flux de changements, expiration
+     * des options et purges des listes d'attente, de l'index et des compteurs.
+     * Le stockage, le journal et l'archivage restent à fermer par l'appelant.
+     */
     @Override
-    public String getAllRestaurants() throws RemoteException {
-        LOGGER.info("Appel getAllRestaurants()");
+    public void close() {
+        options.close();
+        attentes.close();
+        disponibilites.close();
+        occupations.close();
+        changements.close();
+    }
+
+    // ==================== Interface typée ====================
+
+    @Override
+    public List<Restaurant> listerRestaurants() throws RemoteException {
+        LOGGER.info("Appel listerRestaurants()");
+        try {
+            return new ArrayList<>(referentiel.get().getRestaurants());
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération des restaurants", e);
+        }
+    }
 
+    @Override
+    public List<Creneau> listerCreneaux() throws RemoteException {
+        LOGGER.info("Appel listerCreneaux()");
         try {
-            List<Restaurant> restaurants = restaurantDAO.findAll();
+            return new ArrayList<>(referentiel.get().getCreneauxActifs());
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération des créneaux", e);
+        }
+    }
 
-            JSONArray jsonArray = new JSONArray();
-            for (Restaurant resto : restaurants) {
-                JSONObject jsonResto = new JSONObject();
-                jsonResto.put("id", resto.getId());
-                jsonResto.put("nom", resto.getNom());
-                jsonResto.put("adresse", resto.getAdresse());
-                jsonResto.put("telephone", resto.getTelephone());
-                jsonResto.put("latitude", resto.getLatitude());
-                jsonResto.put("longitude", resto.getLongitude());
-                jsonArray.put(jsonResto);
-            }
+    @Override
+    public Creneau trouverCreneau(int creneauId) throws RemoteException {
+        LOGGER.info("Appel trouverCreneau(" + creneauId + ")");
+        try {
+            return referentiel.get().getCreneau(creneauId);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération du créneau", e);
+        }
+    }
 
-            JSONObject response = new JSONObject();
-            response.put("restaurants", jsonArray);
-            response.put("count", restaurants.size());
-            response.put("timestamp", System.currentTimeMillis());
+    @Override
+    public TableResto trouverTable(int tableId) throws RemoteException {
+        LOGGER.info("Appel trouverTable(" + tableId + ")");
+        try {
+            return referentiel.get().getTable(tableId);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération de la table", e);
+        }
+    }
 
-            return response.toString();
+    @Override
+    public List<TableResto> listerTablesLibres(int restaurantId, String dateReservation, int creneauId) throws RemoteException {
+        LOGGER.info("Appel listerTablesLibres(" + restaurantId + ", " + dateReservation + ", " + creneauId + ")");
+        int jour = CodecDate.parser(dateReservation);
+        try {
+            return disponibilites.getTablesLibres(restaurantId, jour, creneauId).stream()
+                    .filter(table -> !options.estPrise(table.getId(), jour, creneauId))
+                    .collect(Collectors.toList());
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération des tables libres", e);
+        }
+    }
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur getAllRestaurants", e);
-            return createErrorResponse("Erreur lors de la récupération des restaurants", e);
+    @Override
+    public List<TableResto> listerTablesAvecStatut(int restaurantId, String dateReservation, int creneauId) throws RemoteException {
+        LOGGER.info("Appel listerTablesAvecStatut(" + restaurantId + ", " + dateReservation + ", " + creneauId + ")");
+        int jour = CodecDate.parser(dateReservation);
+        try {
+            List<TableResto> tables = disponibilites.getTablesAvecStatut(restaurantId, jour, creneauId);
+            for (TableResto table : tables) {
+                if (options.estPrise(table.getId(), jour, creneauId)) {
+                    table.setStatut("occupee");
+                }
+            }
+            return tables;
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération du statut des tables", e);
         }
     }
 
     @Override
-    public String getCreneauxDisponibles() throws RemoteException {
-        LOGGER.info("Appel getCreneauxDisponibles()");
+    public MatriceDisponibilites calculerDisponibilites(int restaurantId, String dateDebut, String dateFin) throws RemoteException {
+        LOGGER.info("Appel calculerDisponibilites(" + restaurantId + ", " + dateDebut + ", " + dateFin + ")");
+        int debut = CodecDate.parser(dateDebut);
+        int fin = CodecDate.parser(dateFin);
+        if (fin < debut) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure à la date de début");
+        }
+        int nbJours = fin - debut + 1;
+        if (nbJours > NB_JOURS_MAX_DISPONIBILITES) {
+            throw new IllegalArgumentException("Période trop longue (maximum " + NB_JOURS_MAX_DISPONIBILITES + " jours)");
+        }
 
         try {
-            List<Creneau> creneaux = restaurantDAO.findCreneauxActifs();
+            ReferentielCache.Referentiel ref = referentiel.get();
+            List<Creneau> creneaux = new ArrayList<>(ref.getCreneauxActifs());
+            List<TableResto> tables = new ArrayList<>();
+            Map<Integer, Integer> positionTable = new HashMap<>();
+            for (TableResto table : ref.getTables()) {
+                if (table.getRestaurantId() == restaurantId) {
+                    positionTable.put(table.getId(), tables.size());
+                    tables.add(table);
+                }
+            }
+            Map<Integer, Integer> positionCreneau = new HashMap<>();
+            for (int c = 0; c < creneaux.size(); c++) {
+                positionCreneau.put(creneaux.get(c).getId(), c);
+            }
 
-            JSONArray jsonArray = new JSONArray();
-            for (Creneau creneau : creneaux) {
-                JSONObject jsonCreneau = new JSONObject();
-                jsonCreneau.put("id", creneau.getId());
-                jsonCreneau.put("libelle", creneau.getLibelle());
-                jsonCreneau.put("heureDebut", creneau.getHeureDebut());
-                jsonCreneau.put("heureFin", creneau.getHeureFin());
-                jsonCreneau.put("description", creneau.getDescription());
-                jsonCreneau.put("plageHoraire", creneau.getPlageHoraire());
-                jsonCreneau.put("ordreAffichage", creneau.getOrdreAffichage());
-                jsonArray.put(jsonCreneau);
+            // Une cellule par (date, créneau), un caractère par table
+            char[][][] cellules = new char[nbJours][creneaux.size()][tables.size()];
+            for (char[][] jour : cellules) {
+                for (char[] cellule : jour) {
+                    Arrays.fill(cellule, '0');
+                }
             }
 
-            JSONObject response = new JSONObject();
-            response.put("creneaux", jsonArray);
-            response.put("count", creneaux.size());
-            response.put("timestamp", System.currentTimeMillis());
+            if (!tables.isEmpty()) {
+                for (Reservation occupation : stockage.findOccupationsPeriode(restaurantId,
+                        CodecDate.versSql(debut), CodecDate.versSql(fin))) {
+                    Integer table = positionTable.get(occupation.getTableId());
+                    Integer creneau = positionCreneau.get(occupation.getCreneauId());
+                    int jour = occupation.getJourReservation() - debut;
+                    if (table != null && creneau != null && jour >= 0 && jour < nbJours) {
+                        cellules[jour][creneau][table] = '1';
+                    }
+                }
+                for (OptionTable option : options.lister(restaurantId, debut, fin)) {
+                    Integer table = positionTable.get(option.getTableId());
+                    Integer creneau = positionCreneau.get(option.getCreneauId());
+                    if (table != null && creneau != null) {
+                        cellules[option.getJour() - debut][creneau][table] = '1';
+                    }
+                }
+            }
 
-            return response.toString();
+            List<String> dates = new ArrayList<>(nbJours);
+            String[][] lignes = new String[nbJours][creneaux.size()];
+            for (int j = 0; j < nbJours; j++) {
+                dates.add(CodecDate.formater(debut + j));
+                for (int c = 0; c < creneaux.size(); c++) {
+                    lignes[j][c] = new String(cellules[j][c]);
+                }
+            }
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur getCreneauxDisponibles", e);
-            return createErrorResponse("Erreur lors de la récupération des créneaux", e);
+            return new MatriceDisponibilites(restaurantId, tables, creneaux, dates, lignes);
+
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération des disponibilités", e);
         }
     }
 
     @Override
-    public String getCreneauById(int creneauId) throws RemoteException {
-        LOGGER.info("Appel getCreneauById(" + creneauId + ")");
-
+    public boolean estDisponible(int tableId, String dateReservation, int creneauId) throws RemoteException {
+        LOGGER.info("Appel estDisponible(" + tableId + ", " + dateReservation + ", " + creneauId + ")");
+        int jour = CodecDate.parser(dateReservation);
         try {
-            Creneau creneau = restaurantDAO.findCreneauById(creneauId);
+            return disponibilites.estDisponible(tableId, jour, creneauId)
+                    && !options.estPrise(tableId, jour, creneauId);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la vérification de disponibilité", e);
+        }
+    }
 
-            if (creneau == null) {
-                JSONObject errorResponse = new JSONObject();
-                errorResponse.put("error", true);
-                errorResponse.put("message", "Créneau non trouvé");
-                errorResponse.put("creneauId", creneauId);
-                return errorResponse.toString();
-            }
+    @Override
+    public ResultatReservation reserver(Reservation reservation) throws RemoteException {
+        LOGGER.info("Appel reserver(" + reservation + ")");
+        verifierEcriture();
+        if (reservation == null || !reservation.isValide()) {
+            throw new IllegalArgumentException("Données de réservation invalides");
+        }
 
-            JSONObject jsonCreneau = new JSONObject();
-            jsonCreneau.put("id", creneau.getId());
-            jsonCreneau.put("libelle", creneau.getLibelle());
-            jsonCreneau.put("heureDebut", creneau.getHeureDebut());
-            jsonCreneau.put("heureFin", creneau.getHeureFin());
-            jsonCreneau.put("description", creneau.getDescription());
-            jsonCreneau.put("plageHoraire", creneau.getPlageHoraire());
-            jsonCreneau.put("actif", creneau.isActif());
-            jsonCreneau.put("ordreAffichage", creneau.getOrdreAffichage());
+        try {
+            // Restaurant de la table lu avant l'écriture : après, plus rien ne doit échouer
+            TableResto table = referentiel.get().getTable(reservation.getTableId());
+            if (table != null && !partition.possede(table.getRestaurantId())) {
+                throw new IllegalArgumentException("La table " + reservation.getTableId()
+                        + " n'appartient pas à la partition " + partition.getNom());
+            }
+            if (options.estPrise(reservation.getTableId(), reservation.getJourReservation(),
+                    reservation.getCreneauId())) {
+                return ResultatReservation.echec(0, TABLE_EN_OPTION);
+            }
+            boolean success = stockage.reserverTable(reservation);
 
-            JSONObject response = new JSONObject();
-            response.put("creneau", jsonCreneau);
-            response.put("timestamp", System.currentTimeMillis());
+            // Réservée par cette requête ou déjà prise : la table est occupée dans les deux cas
+            disponibilites.marquerReservee(reservation.getTableId(),
+                    reservation.getJourReservation(), reservation.getCreneauId());
+            if (success) {
+                journaliser(EvenementJournal.Type.RESERVATION, Collections.singletonList(reservation));
+                if (table != null) {
+                    compter(table.getRestaurantId(), reservation.getJourReservation(),
+                            reservation.getCreneauId(), reservation.getnbConvives(), true);
+                }
+            }
 
-            return response.toString();
+            return success
+                    ? ResultatReservation.succes(reservation, "Réservation effectuée avec succès")
+                    : ResultatReservation.echec(0, "La table n'est plus disponible pour ce créneau");
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur getCreneauById " + creneauId, e);
-            return createErrorResponse("Erreur lors de la récupération du créneau", e);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la réservation", e);
         }
     }
 
+    @Override
+    public ResultatLot reserverLot(List<Reservation> reservations, boolean toutOuRien) throws RemoteException {
+        LOGGER.info("Appel reserverLot(" + (reservations != null ? reservations.size() : 0) + ", "
+                + (toutOuRien ? MODE_TOUT_OU_RIEN : MODE_AU_MIEUX) + ")");
+        verifierEcriture();
+        verifierTailleLot(reservations != null ? reservations.size() : 0);
+
+        int total = reservations.size();
+        Reservation[] lot = new Reservation[total];
+        String[] echecs = new String[total];
+        for (int i = 0; i < total; i++) {
+            Reservation reservation = reservations.get(i);
+            if (reservation == null || !reservation.isValide()) {
+                echecs[i] = "Données de réservation invalides";
+            } else {
+                lot[i] = reservation;
+            }
+        }
 
+        if (validerLot(lot, echecs) && toutOuRien) {
+            return refuserLot(echecs);
+        }
+        return enregistrerLot(lot, echecs, toutOuRien);
+    }
 
     @Override
-    public String getTablesLibresPourCreneau(int restaurantId, String dateReservation, int creneauId) throws RemoteException {
-        LOGGER.info("Appel getTablesLibresPourCreneau(" + restaurantId + ", " + dateReservation + ", " + creneauId + ")");
+    public ResultatReservation reserverMeilleureTable(int restaurantId, String dateReservation, int creneauId,
+                                                      int nbConvives, String nomClient, String prenomClient,
+                                                      String telephone) throws RemoteException {
+        LOGGER.info("Appel reserverMeilleureTable(" + restaurantId + ", " + dateReservation + ", "
+                + creneauId + ", " + nbConvives + ")");
+        verifierEcriture();
+        if (!partition.possede(restaurantId)) {
+            throw new IllegalArgumentException("Le restaurant " + restaurantId
+                    + " n'appartient pas à la partition " + partition.getNom());
+        }
+        int jour = CodecDate.parser(dateReservation);
+        verifierDemandeReservation(creneauId, nbConvives, nomClient, prenomClient, telephone);
+        Reservation reservation = new Reservation(0, creneauId, CodecDate.versSql(jour),
+                nomClient, prenomClient, telephone, nbConvives);
 
         try {
-            if (!isValidDate(dateReservation)) {
-                return createValidationError("Date invalide. Format attendu: yyyy-MM-dd");
+            TableResto table;
+            while ((table = disponibilites.prendreMeilleureTable(restaurantId, jour, creneauId, nbConvives,
+                    tableId -> options.estPrise(tableId, jour, creneauId))) != null) {
+                reservation.setTableId(table.getId());
+
+                boolean success;
+                try {
+                    success = stockage.reserverTable(reservation);
+                } catch (SQLException e) {
+                    disponibilites.marquerLiberee(table.getId(), jour, creneauId);
+                    throw e;
+                }
+                if (success) {
+                    reservation.setTable(table);
+                    journaliser(EvenementJournal.Type.RESERVATION, Collections.singletonList(reservation));
+                    compter(restaurantId, jour, creneauId, nbConvives, true);
+                    return ResultatReservation.succes(reservation, "Table " + table.getNumeroTable()
+                            + " (" + table.getNbPlaces() + " places) réservée avec succès");
+                }
+                // Réservée hors de l'index : la table reste marquée occupée, on essaie la suivante
+                LOGGER.fine("Table " + table.getId() + " déjà réservée en base, table suivante");
             }
+            return ResultatReservation.echec(0, "Aucune table libre pour " + nbConvives + " convives sur ce créneau");
 
-            List<TableResto> tables = restaurantDAO.findTablesLibresPourCreneau(restaurantId, dateReservation, creneauId);
-            return formatTablesResponse(tables, restaurantId, dateReservation, creneauId);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la réservation", e);
+        }
+    }
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur getTablesLibresPourCreneau", e);
-            return createErrorResponse("Erreur lors de la récupération des tables libres", e);
+    @Override
+    public List<Reservation> listerReservations(int restaurantId, String dateReservation) throws RemoteException {
+        LOGGER.info("Appel listerReservations(" + restaurantId + ", " + dateReservation + ")");
+        int jour = CodecDate.parser(dateReservation);
+        try {
+            return stockage.findReservationsPourDate(restaurantId, CodecDate.versSql(jour));
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération des réservations", e);
         }
     }
 
     @Override
-    public String getTablesAvecStatut(int restaurantId, String dateReservation, int creneauId) throws RemoteException {
-        LOGGER.info("Appel getTablesAvecStatut(" + restaurantId + ", " + dateReservation + ", " + creneauId + ")");
+    public PageReservations listerHistorique(int restaurantId, String dateDebut, String dateFin,
+                                             String curseur, int taille) throws RemoteException {
+        LOGGER.info("Appel listerHistorique(" + restaurantId + ", " + dateDebut + ", " + dateFin + ")");
+        int debut = CodecDate.parser(dateDebut);
+        int fin = CodecDate.parser(dateFin);
+        if (fin < debut) {
+            throw new IllegalArgumentException("La date de fin doit suivre la date de début");
+        }
+        verifierTaillePage(taille);
+        // Première page : juste après la période, dans l'ordre décroissant
+        int[] cle = curseur != null ? PageReservations.lireCurseur(curseur) : new int[] {fin + 1, 0};
 
         try {
-            if (!isValidDate(dateReservation)) {
-                return createValidationError("Date invalide. Format attendu: yyyy-MM-dd");
-            }
-
-            List<TableResto> tables = restaurantDAO.findTablesAvecStatut(restaurantId, dateReservation, creneauId);
+            List<Reservation> reservations = stockage.findHistoriqueRestaurant(restaurantId,
+                    CodecDate.versSql(debut), CodecDate.versSql(fin),
+                    CodecDate.versSql(cle[0]), cle[1], taille + 1);
+            return page(reservations, taille);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération de l'historique", e);
+        }
+    }
 
-            JSONArray jsonArray = new JSONArray();
-            for (TableResto table : tables) {
-                JSONObject jsonTable = new JSONObject();
-                jsonTable.put("id", table.getId());
-                jsonTable.put("restaurantId", table.getRestaurantId());
-                jsonTable.put("numeroTable", table.getNumeroTable());
-                jsonTable.put("nbPlaces", table.getNbPlaces());
-                jsonTable.put("statut", table.getStatut());
-                jsonTable.put("disponible", "libre".equals(table.getStatut()));
-                jsonArray.put(jsonTable);
-            }
-
-            JSONObject response = new JSONObject();
-            response.put("tables", jsonArray);
-            response.put("count", tables.size());
-            response.put("restaurantId", restaurantId);
-            response.put("dateReservation", dateReservation);
-            response.put("creneauId", creneauId);
-            response.put("timestamp", System.currentTimeMillis());
-
-            return response.toString();
+    @Override
+    public PageReservations listerArchives(int restaurantId, String dateDebut, String dateFin,
+                                           String curseur, int taille) throws RemoteException {
+        LOGGER.info("Appel listerArchives(" + restaurantId + ", " + dateDebut + ", " + dateFin + ")");
+        int debut = CodecDate.parser(dateDebut);
+        int fin = CodecDate.parser(dateFin);
+        if (fin < debut) {
+            throw new IllegalArgumentException("La date de fin doit suivre la date de début");
+        }
+        verifierTaillePage(taille);
+        int[] cle = curseur != null ? PageReservations.lireCurseur(curseur) : new int[] {fin + 1, 0};
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur getTablesAvecStatut", e);
-            return createErrorResponse("Erreur lors de la récupération du statut des tables", e);
+        try {
+            List<Reservation> reservations = stockage.findArchivesRestaurant(restaurantId,
+                    CodecDate.versSql(debut), CodecDate.versSql(fin),
+                    CodecDate.versSql(cle[0]), cle[1], taille + 1);
+            return page(reservations, taille);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération des archives", e);
         }
     }
 
+    @Override
+    public AnalyseOccupation analyserOccupation(int restaurantId, String dateDebut, String dateFin)
+            throws RemoteException {
+        LOGGER.info("Appel analyserOccupation(" + restaurantId + ", " + dateDebut + ", " + dateFin + ")");
+        int debut = CodecDate.parser(dateDebut);
+        int fin = CodecDate.parser(dateFin);
+        try {
+            return analyses.analyser(restaurantId, debut, fin);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de l'analyse de l'occupation", e);
+        }
+    }
 
     @Override
-    public String reserverTable(String jsonReservation) throws RemoteException {
-        LOGGER.info("Appel reserverTable() avec: " + jsonReservation);
+    public PageReservations listerReservationsClient(String telephone, String curseur, int taille)
+            throws RemoteException {
+        LOGGER.info("Appel listerReservationsClient(" + telephone + ")");
+        if (telephone == null || telephone.isBlank() || telephone.trim().length() > LONGUEUR_MAX_TELEPHONE) {
+            throw new IllegalArgumentException("Numéro de téléphone invalide");
+        }
+        verifierTaillePage(taille);
+        int[] cle = curseur != null ? PageReservations.lireCurseur(curseur) : new int[] {JOUR_MAX, 0};
 
         try {
-            JSONObject jsonObj = new JSONObject(jsonReservation);
+            List<Reservation> reservations = stockage.findReservationsClient(telephone.trim(),
+                    CodecDate.versSql(cle[0]), cle[1], taille + 1);
+            return page(reservations, taille);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la recherche des réservations du client", e);
+        }
+    }
 
-            // Validation des champs obligatoires
-            String[] requiredFields = {"tableId", "creneauId", "dateReservation", "nomClient", "prenomClient", "telephone", "nbConvives"};
-            for (String field : requiredFields) {
-                if (!jsonObj.has(field)) {
-                    return createValidationError("Champ obligatoire manquant: " + field);
-                }
+    @Override
+    public List<OccupationCreneau> getOccupation(int restaurantId, String dateReservation) throws RemoteException {
+        LOGGER.fine("Appel getOccupation(" + restaurantId + ", " + dateReservation + ")");
+        int jour = CodecDate.parser(dateReservation);
+        try {
+            ReferentielCache.Referentiel ref = referentiel.get();
+            if (ref.getRestaurants().stream().noneMatch(r -> r.getId() == restaurantId)) {
+                throw new IllegalArgumentException("Restaurant inconnu : " + restaurantId);
+            }
+            int nbTables = 0;
+            int nbPlaces = 0;
+            for (TableResto table : ref.getTablesRestaurant(restaurantId)) {
+                nbTables++;
+                nbPlaces += table.getNbPlaces();
             }
 
-            // Création de l'objet réservation
-            Reservation reservation = new Reservation();
-            reservation.setTableId(jsonObj.getInt("tableId"));
-            reservation.setCreneauId(jsonObj.getInt("creneauId"));
-            reservation.setNomClient(jsonObj.getString("nomClient"));
-            reservation.setPrenomClient(jsonObj.getString("prenomClient"));
-            reservation.setTelephone(jsonObj.getString("telephone"));
-            reservation.setnbConvives(jsonObj.getInt("nbConvives"));
-
-            // Parsing de la date
-            String dateStr = jsonObj.getString("dateReservation");
-            Date dateReservation;
+            // Un réplica n'écrit pas : ses compteurs seraient périmés, il compte en base
+            Map<Integer, OccupationCreneau> enBase = new HashMap<>();
+            if (partition.isLectureSeule()) {
+                for (OccupationCreneau occupation : stockage.compterOccupationsRestaurant(restaurantId,
+                        CodecDate.versSql(jour), CodecDate.versSql(jour))) {
+                    enBase.put(occupation.getCreneauId(), occupation);
+                }
+            }
 
-            try {
-                if (dateStr.contains(" ")) {
-                    dateReservation = DATETIME_FORMAT.parse(dateStr);
+            List<OccupationCreneau> resultat = new ArrayList<>();
+            for (Creneau creneau : ref.getCreneauxActifs()) {
+                int tables;
+                int couverts;
+                if (partition.isLectureSeule()) {
+                    OccupationCreneau occupation = enBase.get(creneau.getId());
+                    tables = occupation != null ? occupation.getTablesReservees() : 0;
+                    couverts = occupation != null ? occupation.getCouvertsReserves() : 0;
                 } else {
-                    dateReservation = DATE_FORMAT.parse(dateStr);
+                    long valeur = occupations.lire(restaurantId, jour, creneau.getId());
+                    tables = CompteursOccupation.tables(valeur);
+                    couverts = CompteursOccupation.couverts(valeur);
                 }
-                reservation.setDateReservation(dateReservation);
-            } catch (ParseException e) {
-                return createValidationError("Format de date invalide. Utilisez yyyy-MM-dd ou yyyy-MM-dd HH:mm");
+                resultat.add(new OccupationCreneau(restaurantId, jour, creneau.getId(), tables, couverts,
+                        nbTables, nbPlaces));
             }
+            return resultat;
 
-            if (!reservation.isValide()) {
-                return createValidationError("Données de réservation invalides");
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération de l'occupation", e);
+        }
+    }
+
+    @Override
+    public ResultatReservation annuler(int reservationId) throws RemoteException {
+        LOGGER.info("Appel annuler(" + reservationId + ")");
+        verifierEcriture();
+        try {
+            Reservation annulee = stockage.annulerReservation(reservationId);
+            if (annulee == null) {
+                return ResultatReservation.echec(reservationId, "Réservation non trouvée ou déjà annulée");
             }
 
-            boolean success = restaurantDAO.reserverTable(reservation);
+            disponibilites.marquerLiberee(annulee.getTableId(),
+                    annulee.getJourReservation(), annulee.getCreneauId());
+            journaliser(EvenementJournal.Type.ANNULATION, Collections.singletonList(annulee));
+            compter(annulee, false);
+            promouvoirAttente(annulee);
+            return ResultatReservation.succes(annulee, "Réservation annulée avec succès");
 
-            JSONObject response = new JSONObject();
-            if (success) {
-                response.put("success", true);
-                response.put("message", "Réservation effectuée avec succès");
-                response.put("reservationId", reservation.getId());
-                response.put("reservation", formatReservationJson(reservation));
-            } else {
-                response.put("success", false);
-                response.put("message", "La table n'est plus disponible pour ce créneau");
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de l'annulation de la réservation", e);
+        }
+    }
+
+    @Override
+    public OptionTable poserOption(int tableId, String dateReservation, int creneauId, int dureeSecondes)
+            throws RemoteException {
+        LOGGER.info("Appel poserOption(" + tableId + ", " + dateReservation + ", " + creneauId + ", "
+                + dureeSecondes + ")");
+        verifierEcriture();
+        int jour = CodecDate.parser(dateReservation);
+        if (dureeSecondes < 0 || dureeSecondes > dureeOptionMaxSecondes) {
+            throw new IllegalArgumentException("Durée d'option invalide (0 pour la durée par défaut, ou 1 à "
+                    + dureeOptionMaxSecondes + " secondes)");
+        }
+        long dureeMs = (dureeSecondes == 0 ? dureeOptionSecondes : dureeSecondes) * 1000L;
+
+        try {
+            ReferentielCache.Referentiel ref = referentiel.get();
+            TableResto table = ref.getTable(tableId);
+            if (table == null) {
+                throw new IllegalArgumentException("Table inconnue : " + tableId);
+            }
+            if (!partition.possede(table.getRestaurantId())) {
+                throw new IllegalArgumentException("La table " + tableId
+                        + " n'appartient pas à la partition " + partition.getNom());
+            }
+            if (ref.getCreneau(creneauId) == null) {
+                throw new IllegalArgumentException("Créneau inconnu : " + creneauId);
+            }
+            if (!disponibilites.estDisponible(tableId, jour, creneauId)) {
+                return null;
             }
-            response.put("timestamp", System.currentTimeMillis());
 
-            return response.toString();
+            OptionTable option = options.poser(tableId, table.getRestaurantId(), jour, creneauId, dureeMs);
+            if (option == null) {
+                return null;
+            }
+            // Réservée entre la vérification et la pose : l'option est aussitôt levée
+            if (!disponibilites.estDisponible(tableId, jour, creneauId)) {
+                options.lever(option.getId());
+                return null;
+            }
+            changements.publier(Changement.Type.OPTION, table.getRestaurantId(), jour, creneauId);
+            return option;
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur reserverTable", e);
-            JSONObject errorResponse = new JSONObject();
-            errorResponse.put("success", false);
-            errorResponse.put("error", true);
-            errorResponse.put("message", "Erreur lors de la réservation: " + e.getMessage());
-            return errorResponse.toString();
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la pose de l'option", e);
         }
     }
 
     @Override
-    public String verifierDisponibilite(int tableId, String dateReservation, int creneauId) throws RemoteException {
-        LOGGER.info("Appel verifierDisponibilite(" + tableId + ", " + dateReservation + ", " + creneauId + ")");
+    public ResultatReservation confirmerOption(String optionId, Reservation reservation) throws RemoteException {
+        LOGGER.info("Appel confirmerOption(" + optionId + ", " + reservation + ")");
+        verifierEcriture();
+        if (reservation == null || !reservation.isValide()) {
+            throw new IllegalArgumentException("Données de réservation invalides");
+        }
+        OptionTable option = options.consulter(optionId);
+        if (option == null) {
+            return ResultatReservation.echec(0, OPTION_INCONNUE);
+        }
+        if (option.getTableId() != reservation.getTableId() || option.getJour() != reservation.getJourReservation()
+                || option.getCreneauId() != reservation.getCreneauId()) {
+            throw new IllegalArgumentException("La réservation ne correspond pas à l'option " + optionId);
+        }
+        // En confirmation pendant l'écriture : la table reste prise et l'option n'expire plus
+        if (options.confirmer(optionId) == null) {
+            return ResultatReservation.echec(0, OPTION_INCONNUE);
+        }
 
+        boolean success;
         try {
-            if (!isValidDate(dateReservation)) {
-                return createValidationError("Date invalide. Format attendu: yyyy-MM-dd");
+            success = stockage.reserverTable(reservation);
+        } catch (SQLException e) {
+            options.annulerConfirmation(optionId);
+            throw erreurBase("Erreur lors de la réservation", e);
+        } catch (RuntimeException e) {
+            options.annulerConfirmation(optionId);
+            throw e;
+        }
+        disponibilites.marquerReservee(reservation.getTableId(),
+                reservation.getJourReservation(), reservation.getCreneauId());
+        options.terminerConfirmation(optionId);
+        if (!success) {
+            changements.publier(Changement.Type.OPTION, option.getRestaurantId(), option.getJour(),
+                    option.getCreneauId());
+            return ResultatReservation.echec(0, "La table n'est plus disponible pour ce créneau");
+        }
+        journaliser(EvenementJournal.Type.RESERVATION, Collections.singletonList(reservation));
+        compter(option.getRestaurantId(), option.getJour(), option.getCreneauId(),
+                reservation.getnbConvives(), true);
+        return ResultatReservation.succes(reservation, "Réservation effectuée avec succès");
+    }
+
+    @Override
+    public boolean leverOption(String optionId) throws RemoteException {
+        LOGGER.info("Appel leverOption(" + optionId + ")");
+        verifierEcriture();
+        OptionTable option = options.lever(optionId);
+        if (option == null) {
+            return false;
+        }
+        changements.publier(Changement.Type.OPTION, option.getRestaurantId(), option.getJour(),
+                option.getCreneauId());
+        return true;
+    }
+
+    @Override
+    public DemandeAttente inscrireAttente(DemandeAttente demande) throws RemoteException {
+        LOGGER.info("Appel inscrireAttente(" + demande + ")");
+        verifierEcriture();
+        if (demande == null || !demande.isValide()) {
+            throw new IllegalArgumentException("Données de la demande invalides");
+        }
+        int restaurantId = demande.getRestaurantId();
+        int jour = demande.getJour();
+        int creneauId = demande.getCreneauId();
+        if (!partition.possede(restaurantId)) {
+            throw new IllegalArgumentException("Le restaurant " + restaurantId
+                    + " n'appartient pas à la partition " + partition.getNom());
+        }
+
+        try {
+            ReferentielCache.Referentiel ref = referentiel.get();
+            if (ref.getCreneau(creneauId) == null) {
+                throw new IllegalArgumentException("Créneau inconnu : " + creneauId);
             }
+            boolean tableAssezGrande = false;
+            for (TableResto table : ref.getTablesRestaurant(restaurantId)) {
+                tableAssezGrande |= table.getNbPlaces() >= demande.getNbConvives();
+            }
+            if (!tableAssezGrande) {
+                throw new IllegalArgumentException("Aucune table du restaurant ne peut accueillir "
+                        + demande.getNbConvives() + " convives");
+            }
+            for (TableResto table : disponibilites.getTablesLibres(restaurantId, jour, creneauId)) {
+                if (table.getNbPlaces() >= demande.getNbConvives()
+                        && !options.estPrise(table.getId(), jour, creneauId)) {
+                    throw new IllegalArgumentException("Une table est libre pour ce groupe sur ce créneau, "
+                            + "la réservation est possible directement");
+                }
+            }
+            return attentes.inscrire(demande) ? demande : null;
 
-            boolean disponible = restaurantDAO.verifierDisponibilite(tableId, dateReservation, creneauId);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de l'inscription en liste d'attente", e);
+        }
+    }
 
-            JSONObject response = new JSONObject();
-            response.put("tableId", tableId);
-            response.put("dateReservation", dateReservation);
-            response.put("creneauId", creneauId);
-            response.put("disponible", disponible);
-            response.put("statut", disponible ? "libre" : "occupee");
-            response.put("timestamp", System.currentTimeMillis());
+    @Override
+    public DemandeAttente consulterAttente(int attenteId) throws RemoteException {
+        LOGGER.info("Appel consulterAttente(" + attenteId + ")");
+        DemandeAttente enAttente = attentes.consulter(attenteId);
+        if (enAttente != null) {
+            return enAttente;
+        }
+        try {
+            return stockage.findAttente(attenteId);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération de la demande", e);
+        }
+    }
+
+    @Override
+    public boolean quitterAttente(int attenteId) throws RemoteException {
+        LOGGER.info("Appel quitterAttente(" + attenteId + ")");
+        verifierEcriture();
+        try {
+            return attentes.retirer(attenteId);
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors du retrait de la liste d'attente", e);
+        }
+    }
+
+    // ==================== Interface JSON ====================
 
-            return response.toString();
+    @Override
+    public String getAllRestaurants() throws RemoteException {
+        try {
+            return referentiel.get().getJsonRestaurants();
 
         } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur verifierDisponibilite", e);
-            return createErrorResponse("Erreur lors de la vérification de disponibilité", e);
+            LOGGER.log(Level.SEVERE, "Erreur getAllRestaurants", e);
+            return JsonModele.erreur("Erreur lors de la récupération des restaurants: " + e.getMessage());
         }
     }
 
     @Override
-    public String getReservationsPourDate(int restaurantId, String dateReservation) throws RemoteException {
-        LOGGER.info("Appel getReservationsPourDate(" + restaurantId + ", " + dateReservation + ")");
+    public String getCreneauxDisponibles() throws RemoteException {
+        try {
+            return referentiel.get().getJsonCreneaux();
+
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Erreur getCreneauxDisponibles", e);
+            return JsonModele.erreur("Erreur lors de la récupération des créneaux: " + e.getMessage());
+        }
+    }
 
+    @Override
+    public String getCreneauById(int creneauId) throws RemoteException {
+        try {
+            String jsonCreneau = referentiel.get().getJsonCreneau(creneauId);
+            return jsonCreneau != null ? jsonCreneau : JsonModele.creneau(creneauId, null, System.currentTimeMillis());
+
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Erreur getCreneauById " + creneauId, e);
+            return JsonModele.erreur("Erreur lors de la récupération du créneau: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getTablesLibresPourCreneau(int restaurantId, String dateReservation, int creneauId) throws RemoteException {
+        try {
+            return JsonModele.tablesLibres(listerTablesLibres(restaurantId, dateReservation, creneauId),
+                    restaurantId, dateReservation, creneauId);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    @Override
+    public String getTablesAvecStatut(int restaurantId, String dateReservation, int creneauId) throws RemoteException {
         try {
-            if (!isValidDate(dateReservation)) {
-                return createValidationError("Date invalide. Format attendu: yyyy-MM-dd");
+            return JsonModele.tablesAvecStatut(listerTablesAvecStatut(restaurantId, dateReservation, creneauId),
+                    restaurantId, dateReservation, creneauId);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    @Override
+    public String getDisponibilites(int restaurantId, String dateDebut, String dateFin) throws RemoteException {
+        try {
+            return JsonModele.disponibilites(calculerDisponibilites(restaurantId, dateDebut, dateFin), dateDebut, dateFin);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    @Override
+    public String reserverTable(String jsonReservation) throws RemoteException {
+        try {
+            return JsonModele.resultatReservation(reserver(JsonModele.lireReservation(new JSONObject(jsonReservation))));
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        } catch (JSONException e) {
+            return JsonModele.echecReservation("Erreur lors de la réservation: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String reserverTables(String jsonLot) throws RemoteException {
+        LOGGER.info("Appel reserverTables()");
+
+        try {
+            verifierEcriture();
+            JSONObject jsonObj = new JSONObject(jsonLot);
+            JSONArray jsonReservations = jsonObj.optJSONArray("reservations");
+            if (jsonReservations == null || jsonReservations.isEmpty()) {
+                return JsonModele.erreurValidation("Le lot doit contenir un tableau 'reservations' non vide");
             }
+            verifierTailleLot(jsonReservations.length());
 
-            List<Reservation> reservations = restaurantDAO.findReservationsPourDate(restaurantId, dateReservation);
+            String mode = jsonObj.optString("mode", MODE_TOUT_OU_RIEN);
+            if (!MODE_TOUT_OU_RIEN.equals(mode) && !MODE_AU_MIEUX.equals(mode)) {
+                return JsonModele.erreurValidation("Mode invalide. Valeurs possibles: " + MODE_TOUT_OU_RIEN + ", " + MODE_AU_MIEUX);
+            }
+            boolean toutOuRien = MODE_TOUT_OU_RIEN.equals(mode);
+
+            // Validation de l'ensemble du lot avant tout accès à la base
+            int total = jsonReservations.length();
+            String[] echecs = new String[total];
+            Reservation[] reservations = new Reservation[total];
+            for (int i = 0; i < total; i++) {
+                try {
+                    JSONObject item = jsonReservations.optJSONObject(i);
+                    if (item == null) {
+                        throw new IllegalArgumentException("Réservation attendue sous forme d'objet JSON");
+                    }
+                    reservations[i] = JsonModele.lireReservation(item);
+                } catch (IllegalArgumentException e) {
+                    echecs[i] = e.getMessage();
+                }
+            }
 
-            JSONArray jsonArray = new JSONArray();
-            for (Reservation reservation : reservations) {
-                jsonArray.put(formatReservationJson(reservation));
+            if (validerLot(reservations, echecs) && toutOuRien) {
+                JSONObject response = JsonModele.resultatLot(refuserLot(echecs));
+                response.put("validation", true);
+                return response.toString();
             }
 
-            JSONObject response = new JSONObject();
-            response.put("reservations", jsonArray);
-            response.put("count", reservations.size());
-            response.put("restaurantId", restaurantId);
-            response.put("dateReservation", dateReservation);
-            response.put("timestamp", System.currentTimeMillis());
+            return JsonModele.resultatLot(enregistrerLot(reservations, echecs, toutOuRien)).toString();
 
-            return response.toString();
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        } catch (JSONException e) {
+            return JsonModele.echecReservation("Erreur lors du lot de réservations: " + e.getMessage());
+        }
+    }
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur getReservationsPourDate", e);
-            return createErrorResponse("Erreur lors de la récupération des réservations", e);
+    @Override
+    public String verifierDisponibilite(int tableId, String dateReservation, int creneauId) throws RemoteException {
+        try {
+            return JsonModele.disponibilite(tableId, dateReservation, creneauId,
+                    estDisponible(tableId, dateReservation, creneauId));
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
         }
     }
 
     @Override
-    public String annulerReservation(int reservationId) throws RemoteException {
-        LOGGER.info("Appel annulerReservation(" + reservationId + ")");
+    public String getReservationsPourDate(int restaurantId, String dateReservation) throws RemoteException {
+        try {
+            return JsonModele.reservations(listerReservations(restaurantId, dateReservation), restaurantId, dateReservation);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
 
+    @Override
+    public String annulerReservation(int reservationId) throws RemoteException {
         try {
-            boolean success = restaurantDAO.annulerReservation(reservationId);
+            return JsonModele.resultatAnnulation(annuler(reservationId));
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
 
-            JSONObject response = new JSONObject();
-            response.put("success", success);
-            response.put("reservationId", reservationId);
-            response.put("message", success ? "Réservation annulée avec succès" : "Réservation non trouvée ou déjà annulée");
-            response.put("timestamp", System.currentTimeMillis());
+    @Override
+    public String invaliderReferentiel() throws RemoteException {
+        LOGGER.info("Appel invaliderReferentiel()");
+        referentiel.invalider();
+        // Le rechargement publie le changement aux abonnés si le contenu a changé
+        try {
+            referentiel.get();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Rechargement du référentiel impossible après invalidation", e);
+        }
 
-            return response.toString();
+        JSONObject response = new JSONObject();
+        response.put("success", true);
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur annulerReservation", e);
-            return createErrorResponse("Erreur lors de l'annulation de la réservation", e);
+    @Override
+    public String getStatistiques() throws RemoteException {
+        JSONObject response = new JSONObject();
+        response.put("partition", new JSONObject()
+                .put("nom", partition.getNom())
+                .put("numero", partition.getNumero())
+                .put("nombre", partition.getNombrePartitions())
+                .put("slots", partition.getSlots().cardinality())
+                .put("lectureSeule", partition.isLectureSeule()));
+        response.put("stockage", stockage.getStatistiques());
+        response.put("referentiel", referentiel.getStatistiques());
+        response.put("disponibilites", disponibilites.getStatistiques());
+        response.put("occupations", occupations.getStatistiques());
+        response.put("options", options.getStatistiques());
+        response.put("attente", attentes.getStatistiques());
+        if (archivage != null) {
+            response.put("archivage", archivage.getStatistiques());
         }
+        response.put("analyses", analyses.getStatistiques());
+        response.put("changements", changements.getStatistiques());
+        if (journal != null) {
+            response.put("journal", journal.getStatistiques());
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
     }
 
+    @Override
+    public long abonner(EcouteurChangements ecouteur, long derniereSequence) throws RemoteException {
+        LOGGER.info("Appel abonner(" + derniereSequence + ")");
+        return changements.abonner(ecouteur, derniereSequence);
+    }
+
+    @Override
+    public boolean desabonner(EcouteurChangements ecouteur) throws RemoteException {
+        LOGGER.info("Appel desabonner()");
+        return changements.desabonner(ecouteur);
+    }
 
+    @Override
+    public PartitionBD getPartition() throws RemoteException {
+        return partition;
+    }
 
     @Override
     public boolean ping() throws RemoteException {
@@ -360,104 +1001,263 @@ public class BaseDonnee implements ServiceBD {
 
 
     /**
-     * Formate une liste de tables en réponse JSON.
+     * Refuse une écriture sur un réplica en lecture seule.
      */
-    private String formatTablesResponse(List<TableResto> tables, int restaurantId, String date, int creneauId) {
-        JSONArray jsonArray = new JSONArray();
-        for (TableResto table : tables) {
-            JSONObject jsonTable = new JSONObject();
-            jsonTable.put("id", table.getId());
-            jsonTable.put("restaurantId", table.getRestaurantId());
-            jsonTable.put("numeroTable", table.getNumeroTable());
-            jsonTable.put("nbPlaces", table.getNbPlaces());
-            jsonTable.put("statut", table.getStatut() != null ? table.getStatut() : "libre");
-            jsonArray.put(jsonTable);
+    private void verifierEcriture() {
+        if (partition.isLectureSeule()) {
+            throw new IllegalStateException("Instance " + partition.getNom() + " en lecture seule");
         }
+    }
 
-        JSONObject response = new JSONObject();
-        response.put("tables", jsonArray);
-        response.put("count", tables.size());
-        response.put("restaurantId", restaurantId);
-        if (!"toutes".equals(date)) {
-            response.put("dateReservation", date);
-            response.put("creneauId", creneauId);
+    /**
+     * Vérifie une demande de réservation dont la table n'est pas encore choisie :
+     * mêmes règles que {@link Reservation#isValide()}, hors table. La date est
+     * vérifiée à sa lecture par {@link CodecDate#parser}.
+     */
+    private static void verifierDemandeReservation(int creneauId, int nbConvives, String nomClient,
+                                                   String prenomClient, String telephone) {
+        if (creneauId <= 0) {
+            throw new IllegalArgumentException("Créneau invalide");
         }
-        response.put("timestamp", System.currentTimeMillis());
+        if (nbConvives <= 0) {
+            throw new IllegalArgumentException("Le nombre de convives doit être positif");
+        }
+        if (nomClient == null || nomClient.isBlank() || prenomClient == null || prenomClient.isBlank()) {
+            throw new IllegalArgumentException("Nom et prénom du client obligatoires");
+        }
+        if (telephone == null || telephone.isBlank()) {
+            throw new IllegalArgumentException("Numéro de téléphone invalide");
+        }
+    }
 
-        return response.toString();
+    /**
+     * Vérifie qu'un lot n'est ni vide ni trop volumineux.
+     */
+    private void verifierTailleLot(int taille) {
+        if (taille == 0) {
+            throw new IllegalArgumentException("Le lot doit contenir au moins une réservation");
+        }
+        if (taille > TAILLE_MAX_LOT) {
+            throw new IllegalArgumentException("Lot trop volumineux (maximum " + TAILLE_MAX_LOT + " réservations)");
+        }
+    }
+
+    /**
+     * Vérifie que la taille de page demandée est dans les bornes.
+     */
+    private void verifierTaillePage(int taille) {
+        if (taille < 1 || taille > TAILLE_MAX_PAGE) {
+            throw new IllegalArgumentException("Taille de page invalide (1 à " + TAILLE_MAX_PAGE + ")");
+        }
+    }
+
+    /**
+     * Construit une page à partir des réservations lues, une de plus que la taille
+     * demandée : la réservation en trop indique qu'une page suivante existe.
+     */
+    private PageReservations page(List<Reservation> reservations, int taille) {
+        if (reservations.size() <= taille) {
+            return new PageReservations(reservations, null);
+        }
+        List<Reservation> contenu = new ArrayList<>(reservations.subList(0, taille));
+        Reservation derniere = contenu.get(taille - 1);
+        return new PageReservations(contenu, PageReservations.curseurApres(derniere));
+    }
+
+    /**
+     * Détecte les tables demandées plusieurs fois pour le même créneau dans un lot,
+     * les tables en option et les tables d'une autre partition.
+     * Ces réservations sont retirées du lot et leur échec renseigné.
+     *
+     * @return true si au moins une réservation du lot est invalide
+     */
+    private boolean validerLot(Reservation[] reservations, String[] echecs) {
+        Set<String> creneauxDemandes = new HashSet<>();
+        boolean invalide = false;
+        for (int i = 0; i < reservations.length; i++) {
+            if (reservations[i] != null && !dansPartition(reservations[i].getTableId())) {
+                reservations[i] = null;
+                echecs[i] = "Table d'un restaurant d'une autre partition";
+            }
+            if (reservations[i] != null) {
+                String cle = reservations[i].getTableId() + "_" + reservations[i].getCreneauId() + "_"
+                        + reservations[i].getJourReservation();
+                if (!creneauxDemandes.add(cle)) {
+                    reservations[i] = null;
+                    echecs[i] = "Table demandée plusieurs fois pour ce créneau dans le lot";
+                } else if (options.estPrise(reservations[i].getTableId(), reservations[i].getJourReservation(),
+                        reservations[i].getCreneauId())) {
+                    reservations[i] = null;
+                    echecs[i] = TABLE_EN_OPTION;
+                }
+            }
+            invalide |= echecs[i] != null;
+        }
+        return invalide;
     }
 
     /**
-     * Formate une réservation en JSON.
+     * Indique si une table appartient à un restaurant de la partition.
+     * Une table inconnue est laissée à la base, qui la refusera.
      */
-    private JSONObject formatReservationJson(Reservation reservation) {
-        JSONObject jsonReservation = new JSONObject();
-        jsonReservation.put("id", reservation.getId());
-        jsonReservation.put("tableId", reservation.getTableId());
-        jsonReservation.put("creneauId", reservation.getCreneauId());
-        jsonReservation.put("dateReservation", DATE_FORMAT.format(reservation.getDateReservation()));
-        jsonReservation.put("nomClient", reservation.getNomClient());
-        jsonReservation.put("prenomClient", reservation.getPrenomClient());
-        jsonReservation.put("telephone", reservation.getTelephone());
-        jsonReservation.put("nbConvives", reservation.getnbConvives());
-        jsonReservation.put("statut", reservation.getStatut());
-        jsonReservation.put("nomComplet", reservation.getNomComplet());
+    private boolean dansPartition(int tableId) {
+        try {
+            TableResto table = referentiel.get().getTable(tableId);
+            return table == null || partition.possede(table.getRestaurantId());
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors de la récupération des tables", e);
+        }
+    }
 
-        if (reservation.getDateCreation() != null) {
-            jsonReservation.put("dateCreation", reservation.getDateCreation().getTime());
+    /**
+     * Refuse un lot entier en mode tout ou rien, sans accès à la base.
+     */
+    private ResultatLot refuserLot(String[] echecs) {
+        List<ResultatReservation> resultats = new ArrayList<>(echecs.length);
+        for (String echec : echecs) {
+            resultats.add(ResultatReservation.echec(0,
+                    echec != null ? echec : "Lot refusé suite à une réservation invalide"));
         }
+        return new ResultatLot(true, resultats);
+    }
 
-        if (reservation.getTable() != null) {
-            JSONObject tableInfo = new JSONObject();
-            tableInfo.put("numeroTable", reservation.getTable().getNumeroTable());
-            tableInfo.put("nbPlaces", reservation.getTable().getNbPlaces());
-            jsonReservation.put("table", tableInfo);
+    /**
+     * Enregistre les réservations valides d'un lot et marque les tables réservées dans l'index.
+     */
+    private ResultatLot enregistrerLot(Reservation[] reservations, String[] echecs, boolean toutOuRien) {
+        List<Reservation> valides = new ArrayList<>(reservations.length);
+        List<Integer> positions = new ArrayList<>(reservations.length);
+        for (int i = 0; i < reservations.length; i++) {
+            if (reservations[i] != null) {
+                valides.add(reservations[i]);
+                positions.add(i);
+            }
         }
 
-        if (reservation.getCreneau() != null) {
-            JSONObject creneauInfo = new JSONObject();
-            creneauInfo.put("libelle", reservation.getCreneau().getLibelle());
-            creneauInfo.put("heureDebut", reservation.getCreneau().getHeureDebut());
-            creneauInfo.put("heureFin", reservation.getCreneau().getHeureFin());
-            creneauInfo.put("description", reservation.getCreneau().getDescription());
-            jsonReservation.put("creneau", creneauInfo);
+        try {
+            String[] echecsBase = stockage.reserverTables(valides, toutOuRien);
+            List<Reservation> enregistrees = new ArrayList<>(valides.size());
+            for (int i = 0; i < valides.size(); i++) {
+                echecs[positions.get(i)] = echecsBase[i];
+                if (echecsBase[i] == null) {
+                    Reservation reservation = valides.get(i);
+                    disponibilites.marquerReservee(reservation.getTableId(),
+                            reservation.getJourReservation(), reservation.getCreneauId());
+                    compter(reservation, true);
+                    enregistrees.add(reservation);
+                }
+            }
+            if (!enregistrees.isEmpty()) {
+                journaliser(EvenementJournal.Type.RESERVATION, enregistrees);
+            }
+        } catch (SQLException e) {
+            throw erreurBase("Erreur lors du lot de réservations", e);
         }
 
-        return jsonReservation;
+        List<ResultatReservation> resultats = new ArrayList<>(reservations.length);
+        for (int i = 0; i < reservations.length; i++) {
+            resultats.add(echecs[i] == null
+                    ? ResultatReservation.succes(reservations[i], "Réservation effectuée avec succès")
+                    : ResultatReservation.echec(0, echecs[i]));
+        }
+        return new ResultatLot(toutOuRien, resultats);
     }
 
     /**
-     * Crée une réponse d'erreur.
+     * Propose la table d'une réservation annulée à la liste d'attente de son créneau.
+     * L'annulation est déjà validée en base : un échec de promotion est seulement signalé,
+     * la table reste libre pour une réservation directe.
      */
-    private String createErrorResponse(String message, Exception e) {
-        JSONObject errorResponse = new JSONObject();
-        errorResponse.put("error", true);
-        errorResponse.put("message", message + ": " + e.getMessage());
-        errorResponse.put("timestamp", System.currentTimeMillis());
-        return errorResponse.toString();
+    private void promouvoirAttente(Reservation annulee) {
+        try {
+            TableResto table = referentiel.get().getTable(annulee.getTableId());
+            if (table == null || options.estPrise(table.getId(), annulee.getJourReservation(),
+                    annulee.getCreneauId())) {
+                return;
+            }
+            DemandeAttente promue = attentes.promouvoir(table.getRestaurantId(), annulee.getJourReservation(),
+                    annulee.getCreneauId(), table.getNbPlaces(), demande -> {
+                        Reservation reservation = new Reservation(table.getId(), demande.getCreneauId(),
+                                CodecDate.versSql(demande.getJour()), demande.getNomClient(),
+                                demande.getPrenomClient(), demande.getTelephone(), demande.getNbConvives());
+                        if (!stockage.promouvoirAttente(demande.getId(), reservation)) {
+                            return false;
+                        }
+                        demande.setReservationId(reservation.getId());
+                        disponibilites.marquerReservee(table.getId(), demande.getJour(), demande.getCreneauId());
+                        journaliser(EvenementJournal.Type.RESERVATION, Collections.singletonList(reservation));
+                        compter(table.getRestaurantId(), demande.getJour(), demande.getCreneauId(),
+                                demande.getNbConvives(), true);
+                        return true;
+                    });
+            if (promue != null) {
+                LOGGER.info("Table " + table.getId() + " attribuée à la demande d'attente " + promue.getId());
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Échec de promotion de la liste d'attente après l'annulation "
+                    + annulee.getId(), e);
+        }
     }
 
     /**
-     * Crée une erreur de validation.
+     * Compte une réservation enregistrée, ou décompte une réservation annulée,
+     * dans les compteurs d'occupation du restaurant de sa table.
+     * L'opération est déjà validée en base : si le référentiel ne peut être lu,
+     * l'erreur est seulement signalée et les compteurs de ce créneau restent en retard.
      */
-    private String createValidationError(String message) {
-        JSONObject errorResponse = new JSONObject();
-        errorResponse.put("error", true);
-        errorResponse.put("validation", true);
-        errorResponse.put("message", message);
-        errorResponse.put("timestamp", System.currentTimeMillis());
-        return errorResponse.toString();
+    private void compter(Reservation reservation, boolean ajout) {
+        TableResto table;
+        try {
+            table = referentiel.get().getTable(reservation.getTableId());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Compteurs d'occupation non mis à jour pour la réservation "
+                    + reservation.getId(), e);
+            return;
+        }
+        if (table == null) {
+            return;
+        }
+        compter(table.getRestaurantId(), reservation.getJourReservation(), reservation.getCreneauId(),
+                reservation.getnbConvives(), ajout);
     }
 
     /**
-     * Valide le format d'une date.
+     * Compte une réservation enregistrée, ou décompte une réservation annulée,
+     * et publie le changement du créneau dans le flux.
      */
-    private boolean isValidDate(String dateString) {
+    private void compter(int restaurantId, int jour, int creneauId, int couverts, boolean ajout) {
+        analyses.invalider(restaurantId, jour);
+        if (ajout) {
+            occupations.ajouter(restaurantId, jour, creneauId, couverts);
+            changements.publier(Changement.Type.RESERVATION, restaurantId, jour, creneauId);
+        } else {
+            occupations.retirer(restaurantId, jour, creneauId, couverts);
+            changements.publier(Changement.Type.ANNULATION, restaurantId, jour, creneauId);
+        }
+    }
+
+    /**
+     * Écrit des réservations ou une annulation dans le journal, s'il est actif.
+     * L'opération est déjà validée en base : une erreur de journal est seulement signalée.
+     */
+    private void journaliser(EvenementJournal.Type type, List<Reservation> reservations) {
+        if (journal == null) {
+            return;
+        }
         try {
-            DATE_FORMAT.parse(dateString);
-            return true;
-        } catch (ParseException e) {
-            return false;
+            journal.journaliser(type, reservations);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Échec d'écriture dans le journal (" + type + ", "
+                    + reservations.size() + " réservation(s))", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Journalise une erreur d'accès à la base et la convertit en erreur renvoyée à l'appelant.
+     * La cause n'est pas chaînée : ses classes (pilote JDBC) ne sont pas connues du client RMI.
+     */
+    private IllegalStateException erreurBase(String message, SQLException e) {
+        LOGGER.log(Level.SEVERE, message, e);
+        return new IllegalStateException(message + ": " + e.getMessage());
+    }
+}
@@ -0,0 +1,49 @@
+package rmi;
+
+import archivage.ArchivageReservations;
+import flux.FluxChangements;
+import journal.JournalReservations;
+import model.PartitionBD;
+
+/**
+ * Paramètres d'un {@link BaseDonnee} : composants optionnels et réglages.
+ *
+ * Chaque champ a une valeur par défaut ; l'appelant ne renseigne que ceux
+ * qu'il veut changer avant de construire le service.
+ */
+public class ParametresBaseDonnee {
+
+    /** Journal des réservations, ou null s'il est désactivé. */
+    public JournalReservations journal;
+
+    /** Partition servie par cette instance (par défaut, le service n'est pas partitionné). */
+    public PartitionBD partition = PartitionBD.lire("bd", 0, 1, "");
+
+    /**
+     * Flux où publier les réservations, annulations et invalidations ; si null,
+     * un flux est créé pour la partition, avec la rétention et l'intervalle par défaut.
+     * Dans les deux cas, le flux est arrêté par {@link BaseDonnee#close()}.
+     */
+    public FluxChangements changements;
+
+    /** Archivage des réservations anciennes, ou null s'il est désactivé. */
+    public ArchivageReservations archivage;
+
+    /** Durée de vie du cache des données de référence. */
+    public long ttlReferentielSecondes = 600;
+
+    /** Durée d'une option quand le client n'en demande pas. */
+    public int dureeOptionSecondes = 300;
+
+    /** Durée maximale d'une option. */
+    public int dureeOptionMaxSecondes = 900;
+
+    /** Nombre maximal de demandes en attente par créneau. */
+    public int attenteMaxParCreneau = 50;
+
+    /** Nombre maximal d'analyses d'occupation gardées. */
+    public int analysesMax = 256;
+
+    /** Durée de vie d'une analyse d'occupation gardée. */
+    public long ttlAnalysesSecondes = 300;
+}
@@ -0,0 +1,21 @@
+-- Migration d'une base existante : archive des réservations passées.
+
+CREATE TABLE reservation_archive (
+                                     id NUMBER PRIMARY KEY,
+                                     restaurant_id NUMBER NOT NULL,
+                                     table_id NUMBER NOT NULL,
+                                     creneau_id NUMBER NOT NULL,
+                                     date_reservation DATE NOT NULL,
+                                     nom_client VARCHAR2(100) NOT NULL,
+                                     prenom_client VARCHAR2(100) NOT NULL,
+                                     telephone VARCHAR2(20) NOT NULL,
+                                     nb_convives NUMBER NOT NULL,
+                                     date_creation TIMESTAMP,
+                                     statut VARCHAR2(20) NOT NULL,
+                                     date_archivage TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Historique archivé d'un restaurant, parcouru par clé (date_reservation, id)
+CREATE INDEX idx_archive_restaurant_date ON reservation_archive(restaurant_id, date_reservation, id);
+-- Analyses d'occupation de tous les restaurants d'une période
+CREATE INDEX idx_archive_date ON reservation_archive(date_reservation);
@@ -0,0 +1,7 @@
+-- Migration d'une base existante : index de l'historique des réservations et de
+-- la recherche par téléphone, parcourus par clé (date_reservation, id).
+
+DROP INDEX idx_reservation_table_date;
+
+CREATE INDEX idx_reservation_table_date ON reservation(table_id, date_reservation, id);
+CREATE INDEX idx_reservation_telephone ON reservation(telephone, date_reservation, id);
@@ -0,0 +1,26 @@
+-- Migration d'une base existante : liste d'attente des créneaux complets.
+
+CREATE SEQUENCE seq_liste_attente START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE liste_attente (
+                               id NUMBER PRIMARY KEY,
+                               restaurant_id NUMBER NOT NULL,
+                               creneau_id NUMBER NOT NULL,
+                               date_reservation DATE NOT NULL,
+                               nom_client VARCHAR2(100) NOT NULL,
+                               prenom_client VARCHAR2(100) NOT NULL,
+                               telephone VARCHAR2(20) NOT NULL,
+                               nb_convives NUMBER NOT NULL,
+                               date_inscription TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                               statut VARCHAR2(20) DEFAULT 'en_attente' CHECK (statut IN ('en_attente', 'promue', 'retiree')),
+                               reservation_id NUMBER,
+                               CONSTRAINT chk_attente_personnes CHECK (nb_convives BETWEEN 1 AND 20)
+);
+
+ALTER TABLE liste_attente ADD CONSTRAINT fk_attente_restaurant
+    FOREIGN KEY (restaurant_id) REFERENCES restaurant(id) ON DELETE CASCADE;
+
+ALTER TABLE liste_attente ADD CONSTRAINT fk_attente_creneau
+    FOREIGN KEY (creneau_id) REFERENCES creneau(id);
+
+CREATE INDEX idx_attente_statut_date ON liste_attente(statut, date_reservation);
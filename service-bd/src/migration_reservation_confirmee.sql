@@ -0,0 +1,10 @@
+-- Migration d'une base existante : l'unicité des réservations ne porte plus
+-- que sur les réservations confirmées, une réservation annulée libère la table.
+
+ALTER TABLE reservation DROP CONSTRAINT uk_reservation_unique DROP INDEX;
+
+CREATE UNIQUE INDEX uk_reservation_confirmee ON reservation (
+    CASE WHEN statut = 'confirmee' THEN table_id END,
+    CASE WHEN statut = 'confirmee' THEN creneau_id END,
+    CASE WHEN statut = 'confirmee' THEN date_reservation END
+);
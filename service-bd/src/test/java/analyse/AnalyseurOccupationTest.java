@@ -0,0 +1,162 @@
+package analyse;
+
+import archivage.ArchivageReservations;
+import cache.ReferentielCache;
+import dao.BaseEssai;
+import dao.StockageEmbarque;
+import model.AgregatOccupation;
+import model.AnalyseOccupation;
+import model.PartitionBD;
+import model.Reservation;
+import model.TableResto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.CodecDate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests des analyses d'occupation, sur la base d'essai ({@link BaseEssai}).
+ */
+class AnalyseurOccupationTest {
+
+    private static final int RESTAURANT = BaseEssai.RESTAURANT;
+    // Tables de 2, 4, 4, 6, 8 et 2 places
+    private static final int NB_TABLES = 6;
+    private static final int NB_PLACES = 26;
+
+    private BaseEssai<StockageEmbarque> base;
+    private StockageEmbarque stockage;
+    private ReferentielCache referentiel;
+    private List<TableResto> tables;
+    private int nbCreneaux;
+    private int jour;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = BaseEssai.ouvrir();
+        stockage = base.getStockage();
+        referentiel = new ReferentielCache(stockage, 60_000);
+        tables = stockage.findAllTablesRestaurant(RESTAURANT);
+        nbCreneaux = referentiel.get().getCreneauxActifs().size();
+        // Au-delà des réservations du jeu d'essai
+        jour = (int) LocalDate.now().plusDays(30).toEpochDay();
+    }
+
+    @AfterEach
+    void liberer() {
+        base.close();
+    }
+
+    @Test
+    void reservationsCumuleesEtCapaciteOfferteSurLesTroisAxes() throws Exception {
+        reserver(0, jour, BaseEssai.DEJEUNER, 2);
+        reserver(4, jour + 1, BaseEssai.DINER, 6);
+        Reservation annulee = reserver(1, jour + 1, BaseEssai.DEJEUNER, 4);
+        stockage.annulerReservation(annulee.getId());
+
+        AnalyseOccupation analyse = analyseur(0).analyser(RESTAURANT, jour, jour + 6);
+
+        AgregatOccupation restaurant = analyse.getParRestaurant().get(0);
+        assertEquals(1, analyse.getParRestaurant().size());
+        assertEquals(RESTAURANT, restaurant.getCle());
+        assertEquals(2, restaurant.getTablesReservees());
+        assertEquals(8, restaurant.getCouvertsReserves());
+        assertEquals(NB_TABLES * nbCreneaux * 7L, restaurant.getTablesOffertes());
+        assertEquals(NB_PLACES * nbCreneaux * 7L, restaurant.getPlacesOffertes());
+
+        AgregatOccupation dejeuner = creneau(analyse, BaseEssai.DEJEUNER);
+        assertEquals(1, dejeuner.getTablesReservees());
+        assertEquals(2, dejeuner.getCouvertsReserves());
+        assertEquals(NB_TABLES * 7L, dejeuner.getTablesOffertes());
+        assertEquals(6, creneau(analyse, BaseEssai.DINER).getCouvertsReserves());
+
+        // Sept jours : chaque jour de la semaine une fois
+        assertEquals(7, analyse.getParJourSemaine().size());
+        long tablesReservees = 0;
+        for (AgregatOccupation jourSemaine : analyse.getParJourSemaine()) {
+            assertEquals(NB_TABLES * nbCreneaux, jourSemaine.getTablesOffertes());
+            tablesReservees += jourSemaine.getTablesReservees();
+        }
+        assertEquals(2, tablesReservees);
+        assertEquals(LocalDate.ofEpochDay(jour).getDayOfWeek().getValue(),
+                analyse.getParJourSemaine().stream().filter(a -> a.getCouvertsReserves() == 2)
+                        .findFirst().orElseThrow().getCle());
+    }
+
+    @Test
+    void reservationsArchiveesToujoursComptees() throws Exception {
+        int passe = (int) LocalDate.now().minusDays(40).toEpochDay();
+        reserver(0, passe, BaseEssai.DEJEUNER, 2);
+        reserver(3, passe, BaseEssai.DINER, 5);
+        AnalyseurOccupation analyseur = analyseur(0);
+        AnalyseOccupation avant = analyseur.analyser(RESTAURANT, passe - 3, passe + 3);
+
+        try (ArchivageReservations archivage = new ArchivageReservations(stockage, 30, 7, 100, 0)) {
+            assertEquals(2, archivage.archiver());
+        }
+
+        for (int restaurantId : new int[] {RESTAURANT, 0}) {
+            AnalyseOccupation apres = analyseur.analyser(restaurantId, passe - 3, passe + 3);
+            AgregatOccupation restaurant = apres.getParRestaurant().stream()
+                    .filter(a -> a.getCle() == RESTAURANT).findFirst().orElseThrow();
+            assertEquals(2, restaurant.getTablesReservees());
+            assertEquals(7, restaurant.getCouvertsReserves());
+        }
+        assertEquals(7, avant.getParRestaurant().get(0).getCouvertsReserves());
+    }
+
+    @Test
+    void analyseGardeeJusquAUneReservationDeSaPeriode() throws Exception {
+        AnalyseurOccupation analyseur = analyseur(16);
+        AnalyseOccupation semaine = analyseur.analyser(RESTAURANT, jour, jour + 6);
+        AnalyseOccupation tous = analyseur.analyser(0, jour, jour + 6);
+        AnalyseOccupation plusTard = analyseur.analyser(RESTAURANT, jour + 10, jour + 16);
+        assertSame(semaine, analyseur.analyser(RESTAURANT, jour, jour + 6));
+        assertEquals(1, analyseur.getStatistiques().getLong("succes"));
+
+        reserver(2, jour + 3, BaseEssai.DEJEUNER, 3);
+        analyseur.invalider(RESTAURANT, jour + 3);
+
+        AnalyseOccupation recalculee = analyseur.analyser(RESTAURANT, jour, jour + 6);
+        assertNotSame(semaine, recalculee);
+        assertEquals(3, recalculee.getParRestaurant().get(0).getCouvertsReserves());
+        assertNotSame(tous, analyseur.analyser(0, jour, jour + 6));
+        assertSame(plusTard, analyseur.analyser(RESTAURANT, jour + 10, jour + 16));
+        assertEquals(2, analyseur.getStatistiques().getLong("retraits"));
+    }
+
+    @Test
+    void periodeOuRestaurantInvalidesRefuses() {
+        AnalyseurOccupation analyseur = analyseur(16);
+        assertThrows(IllegalArgumentException.class, () -> analyseur.analyser(RESTAURANT, jour, jour - 1));
+        assertThrows(IllegalArgumentException.class, () -> analyseur.analyser(RESTAURANT, jour,
+                jour + AnalyseurOccupation.NB_JOURS_MAX));
+        assertThrows(IllegalArgumentException.class, () -> analyseur.analyser(999_999, jour, jour));
+        assertEquals(0, analyseur.getStatistiques().getInt("entrees"));
+    }
+
+    private AnalyseurOccupation analyseur(int tailleMax) {
+        return new AnalyseurOccupation(stockage, referentiel, PartitionBD.lire("p0", 0, 1, ""),
+                tailleMax, 60_000);
+    }
+
+    private static AgregatOccupation creneau(AnalyseOccupation analyse, int creneauId) {
+        return analyse.getParCreneau().stream().filter(a -> a.getCle() == creneauId).findFirst().orElseThrow();
+    }
+
+    private Reservation reserver(int table, int jourReservation, int creneauId, int nbConvives) throws Exception {
+        Reservation reservation = new Reservation(tables.get(table).getId(), creneauId,
+                CodecDate.versSql(jourReservation), "Client", "Test", "0600000000", nbConvives);
+        assertTrue(stockage.reserverTable(reservation));
+        return reservation;
+    }
+}
@@ -0,0 +1,129 @@
+package archivage;
+
+import dao.BaseEssai;
+import dao.StockageEmbarque;
+import model.Reservation;
+import model.TableResto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.CodecDate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'archivage des réservations anciennes, sur la base d'essai ({@link BaseEssai}).
+ */
+class ArchivageReservationsTest {
+
+    private static final int RESTAURANT = BaseEssai.RESTAURANT;
+    private static final int HORIZON = 30;
+    private static final int HORIZON_ANNULEES = 7;
+
+    private BaseEssai<StockageEmbarque> base;
+    private StockageEmbarque stockage;
+    private List<TableResto> tables;
+    private int aujourdhui;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = BaseEssai.ouvrir();
+        stockage = base.getStockage();
+        tables = stockage.findAllTablesRestaurant(RESTAURANT);
+        aujourdhui = (int) LocalDate.now().toEpochDay();
+    }
+
+    @AfterEach
+    void liberer() {
+        base.close();
+    }
+
+    @Test
+    void horizonsInvalidesRefuses() {
+        assertThrows(IllegalArgumentException.class, () -> new ArchivageReservations(stockage, 0, 0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ArchivageReservations(stockage, 7, 30, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ArchivageReservations(stockage, 30, 7, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ArchivageReservations(stockage, 30, 7, 10, -1));
+        try (ArchivageReservations archivage = new ArchivageReservations(stockage, 30, 7, 10, 0)) {
+            assertThrows(IllegalArgumentException.class, () -> archivage.demarrer(0));
+        }
+    }
+
+    @Test
+    void seulesLesReservationsAuDelaDesHorizonsSontDeplacees() throws Exception {
+        Reservation ancienne = reserver(0, aujourdhui - HORIZON - 5);
+        Reservation ancienneAnnulee = annuler(reserver(1, aujourdhui - HORIZON - 5));
+        Reservation recente = reserver(0, aujourdhui - HORIZON + 5);
+        Reservation annulee = annuler(reserver(1, aujourdhui - HORIZON_ANNULEES - 2));
+        Reservation annuleeRecente = annuler(reserver(2, aujourdhui - HORIZON_ANNULEES + 2));
+        Reservation aVenir = reserver(3, aujourdhui + 10);
+
+        try (ArchivageReservations archivage = archivage(100)) {
+            assertEquals(3, archivage.archiver());
+            // Un second passage ne trouve plus rien
+            assertEquals(0, archivage.archiver());
+            assertEquals(2, archivage.getStatistiques().getLong("lancements"));
+            assertEquals(3, archivage.getStatistiques().getLong("archivees"));
+        }
+
+        assertEquals(Set.of(ancienne.getId(), ancienneAnnulee.getId(), annulee.getId()), archivees());
+        assertEquals(Set.of(recente.getId(), annuleeRecente.getId(), aVenir.getId()),
+                vivantes(aujourdhui - HORIZON - 10, aujourdhui + 10));
+    }
+
+    @Test
+    void deplacementParLots() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            reserver(i, aujourdhui - HORIZON - 1 - i);
+        }
+
+        try (ArchivageReservations archivage = archivage(2)) {
+            assertEquals(5, archivage.archiver());
+            assertEquals(1, archivage.getStatistiques().getLong("lancements"));
+            assertEquals(5, archivage.getStatistiques().getLong("archivees"));
+        }
+        assertEquals(5, archivees().size());
+        assertTrue(vivantes(aujourdhui - HORIZON - 10, aujourdhui - HORIZON).isEmpty());
+    }
+
+    private ArchivageReservations archivage(int tailleLot) {
+        return new ArchivageReservations(stockage, HORIZON, HORIZON_ANNULEES, tailleLot, 0);
+    }
+
+    private Reservation reserver(int table, int jour) throws Exception {
+        Reservation reservation = new Reservation(tables.get(table).getId(), BaseEssai.DEJEUNER,
+                CodecDate.versSql(jour), "Client", "Test", "0600000000", 2);
+        assertTrue(stockage.reserverTable(reservation));
+        return reservation;
+    }
+
+    private Reservation annuler(Reservation reservation) throws Exception {
+        assertTrue(stockage.annulerReservation(reservation.getId()) != null);
+        return reservation;
+    }
+
+    private Set<Integer> archivees() throws Exception {
+        Date debut = CodecDate.versSql(aujourdhui - 365);
+        Date fin = CodecDate.versSql(aujourdhui + 365);
+        return stockage.findArchivesRestaurant(RESTAURANT, debut, fin, fin, Integer.MAX_VALUE, 100).stream()
+                .map(Reservation::getId).collect(Collectors.toSet());
+    }
+
+    private Set<Integer> vivantes(int jourDebut, int jourFin) throws Exception {
+        Date debut = CodecDate.versSql(jourDebut);
+        Date fin = CodecDate.versSql(jourFin);
+        Date lendemain = CodecDate.versSql(jourFin + 1);
+        // Le jeu d'essai réserve déjà aujourd'hui et les deux jours suivants
+        return stockage.findHistoriqueRestaurant(RESTAURANT, debut, fin, lendemain, Integer.MAX_VALUE, 100).stream()
+                .filter(r -> r.getJourReservation() < aujourdhui || r.getJourReservation() > aujourdhui + 2)
+                .map(Reservation::getId).collect(Collectors.toSet());
+    }
+}
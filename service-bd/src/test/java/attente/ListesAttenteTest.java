@@ -0,0 +1,153 @@
+package attente;
+
+import dao.BaseEssai;
+import dao.StockageEmbarque;
+import model.DemandeAttente;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests des listes d'attente, écrites dans la base d'essai ({@link BaseEssai}).
+ */
+class ListesAttenteTest {
+
+    private static final int RESTAURANT = BaseEssai.RESTAURANT;
+    private static final int CRENEAU = BaseEssai.DEJEUNER;
+
+    private BaseEssai<StockageEmbarque> base;
+    private StockageEmbarque stockage;
+    private ListesAttente listes;
+    private int jour;
+    private int telephones;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = BaseEssai.ouvrir();
+        stockage = base.getStockage();
+        listes = new ListesAttente(stockage, 4);
+        jour = (int) LocalDate.now().plusDays(7).toEpochDay();
+    }
+
+    @AfterEach
+    void liberer() {
+        listes.close();
+        base.close();
+    }
+
+    @Test
+    void fileBorneeDansLOrdreDInscription() throws Exception {
+        List<DemandeAttente> inscrites = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            DemandeAttente demande = demande(2);
+            assertTrue(listes.inscrire(demande));
+            assertEquals(i + 1, demande.getPosition());
+            inscrites.add(demande);
+        }
+        assertFalse(listes.inscrire(demande(2)));
+        assertTrue(listes.inscrire(demandeAutreCreneau()));
+
+        assertEquals(ids(inscrites), ids(listes.lister(RESTAURANT, jour, CRENEAU)));
+        assertEquals(1, listes.getStatistiques().getInt("refusees"));
+        assertEquals(5, listes.getStatistiques().getInt("inscrites"));
+    }
+
+    @Test
+    void clientInscritUneSeuleFoisParCreneau() throws Exception {
+        DemandeAttente demande = demande(2);
+        assertTrue(listes.inscrire(demande));
+        DemandeAttente doublon = new DemandeAttente(RESTAURANT, jour, CRENEAU, "Autre", "Client",
+                demande.getTelephone(), 3);
+        assertThrows(IllegalArgumentException.class, () -> listes.inscrire(doublon));
+        assertEquals(1, listes.lister(RESTAURANT, jour, CRENEAU).size());
+    }
+
+    @Test
+    void promotionDuGroupeLePlusNombreuxQuiTient() throws Exception {
+        DemandeAttente deux = demande(2);
+        DemandeAttente quatre = demande(4);
+        DemandeAttente quatreSuivant = demande(4);
+        DemandeAttente six = demande(6);
+        for (DemandeAttente demande : List.of(deux, quatre, quatreSuivant, six)) {
+            listes.inscrire(demande);
+        }
+
+        assertSame(quatre, listes.promouvoir(RESTAURANT, jour, CRENEAU, 4, demande -> true));
+        assertEquals(DemandeAttente.PROMUE, quatre.getStatut());
+        assertNull(listes.consulter(quatre.getId()));
+
+        List<DemandeAttente> restantes = listes.lister(RESTAURANT, jour, CRENEAU);
+        assertEquals(List.of(deux.getId(), quatreSuivant.getId(), six.getId()), ids(restantes));
+        assertEquals(List.of(1, 2, 3), restantes.stream().map(DemandeAttente::getPosition).toList());
+        assertNull(listes.promouvoir(RESTAURANT, jour, CRENEAU, 1, demande -> true));
+        assertNull(listes.promouvoir(RESTAURANT, jour, CRENEAU + 1, 8, demande -> true));
+    }
+
+    @Test
+    void promotionManqueeLaisseLaDemandeEnFile() throws Exception {
+        DemandeAttente demande = demande(2);
+        listes.inscrire(demande);
+
+        assertNull(listes.promouvoir(RESTAURANT, jour, CRENEAU, 2, choisie -> false));
+        assertEquals(1, listes.getStatistiques().getInt("promotionsManquees"));
+        assertEquals(1, listes.consulter(demande.getId()).getPosition());
+        assertSame(demande, listes.promouvoir(RESTAURANT, jour, CRENEAU, 2, choisie -> true));
+    }
+
+    @Test
+    void retraitEtPositions() throws Exception {
+        DemandeAttente premiere = demande(2);
+        DemandeAttente seconde = demande(2);
+        listes.inscrire(premiere);
+        listes.inscrire(seconde);
+
+        assertTrue(listes.retirer(premiere.getId()));
+        assertFalse(listes.retirer(premiere.getId()));
+        assertEquals(DemandeAttente.RETIREE, premiere.getStatut());
+        assertNull(listes.consulter(premiere.getId()));
+        assertEquals(1, listes.consulter(seconde.getId()).getPosition());
+    }
+
+    @Test
+    void filesRechargeesDepuisLaBase() throws Exception {
+        DemandeAttente retiree = demande(2);
+        DemandeAttente premiere = demande(4);
+        DemandeAttente seconde = demande(2);
+        for (DemandeAttente demande : List.of(retiree, premiere, seconde)) {
+            listes.inscrire(demande);
+        }
+        listes.retirer(retiree.getId());
+
+        try (ListesAttente rechargees = new ListesAttente(stockage, 4)) {
+            rechargees.charger();
+            assertEquals(List.of(premiere.getId(), seconde.getId()),
+                    ids(rechargees.lister(RESTAURANT, jour, CRENEAU)));
+            assertEquals(2, rechargees.consulter(seconde.getId()).getPosition());
+        }
+    }
+
+    private DemandeAttente demande(int nbConvives) {
+        return new DemandeAttente(RESTAURANT, jour, CRENEAU, "Client", "Test",
+                "06" + (10_000_000 + ++telephones), nbConvives);
+    }
+
+    private DemandeAttente demandeAutreCreneau() {
+        return new DemandeAttente(RESTAURANT, jour, CRENEAU + 1, "Client", "Test",
+                "06" + (10_000_000 + ++telephones), 2);
+    }
+
+    private static List<Integer> ids(List<DemandeAttente> demandes) {
+        return demandes.stream().map(DemandeAttente::getId).toList();
+    }
+}
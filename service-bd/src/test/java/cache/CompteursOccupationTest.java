@@ -0,0 +1,137 @@
+package cache;
+
+import dao.BaseEssai;
+import dao.StockageEmbarque;
+import model.Reservation;
+import model.TableResto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.CodecDate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests des compteurs d'occupation, sur la base d'essai ({@link BaseEssai}).
+ */
+class CompteursOccupationTest {
+
+    private static final int RESTAURANT = BaseEssai.RESTAURANT;
+    private static final int CRENEAU = BaseEssai.DEJEUNER;
+
+    private BaseEssai<StockageEmbarque> base;
+    private StockageEmbarque stockage;
+    private CompteursOccupation compteurs;
+    private int jour;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = BaseEssai.ouvrir();
+        stockage = base.getStockage();
+        compteurs = new CompteursOccupation(stockage);
+        jour = (int) LocalDate.now().plusDays(30).toEpochDay();
+    }
+
+    @AfterEach
+    void liberer() {
+        compteurs.close();
+        base.close();
+    }
+
+    @Test
+    void reconstruitDesReservationsConfirmeesAVenir() throws Exception {
+        List<TableResto> tables = stockage.findAllTablesRestaurant(RESTAURANT);
+        reserver(tables.get(0), jour, 2);
+        reserver(tables.get(1), jour, 3);
+        Reservation annulee = reserver(tables.get(2), jour, 4);
+        stockage.annulerReservation(annulee.getId());
+        int passe = (int) LocalDate.now().minusDays(10).toEpochDay();
+        reserver(tables.get(0), passe, 2);
+
+        compteurs.reconstruire();
+
+        long valeur = compteurs.lire(RESTAURANT, jour, CRENEAU);
+        assertEquals(2, CompteursOccupation.tables(valeur));
+        assertEquals(5, CompteursOccupation.couverts(valeur));
+        assertEquals(0L, compteurs.lire(RESTAURANT, passe, CRENEAU));
+        assertEquals(0L, compteurs.lire(RESTAURANT, jour, CRENEAU + 1));
+        assertTrue(compteurs.getStatistiques().getLong("reconstruitLe") > 0);
+    }
+
+    @Test
+    void ajoutEtRetraitSansDebordementEntreTablesEtCouverts() {
+        for (int i = 0; i < 1000; i++) {
+            compteurs.ajouter(RESTAURANT, jour, CRENEAU, 20);
+        }
+        compteurs.retirer(RESTAURANT, jour, CRENEAU, 20);
+
+        long valeur = compteurs.lire(RESTAURANT, jour, CRENEAU);
+        assertEquals(999, CompteursOccupation.tables(valeur));
+        assertEquals(19_980, CompteursOccupation.couverts(valeur));
+
+        for (int i = 0; i < 999; i++) {
+            compteurs.retirer(RESTAURANT, jour, CRENEAU, 20);
+        }
+        assertEquals(0L, compteurs.lire(RESTAURANT, jour, CRENEAU));
+    }
+
+    @Test
+    void retraitSansCompteurIgnore() {
+        compteurs.retirer(RESTAURANT, jour, CRENEAU, 2);
+        assertEquals(0L, compteurs.lire(RESTAURANT, jour, CRENEAU));
+        assertEquals(0, compteurs.getStatistiques().getInt("entrees"));
+        assertEquals(0, compteurs.getStatistiques().getInt("misesAJour"));
+    }
+
+    @Test
+    void creneauxDistinctsParRestaurantDateEtCreneau() {
+        compteurs.ajouter(RESTAURANT, jour, CRENEAU, 2);
+        compteurs.ajouter(RESTAURANT, jour, CRENEAU + 1, 3);
+        compteurs.ajouter(RESTAURANT, jour + 1, CRENEAU, 4);
+        compteurs.ajouter(RESTAURANT + 1, jour, CRENEAU, 5);
+
+        assertEquals(2, CompteursOccupation.couverts(compteurs.lire(RESTAURANT, jour, CRENEAU)));
+        assertEquals(3, CompteursOccupation.couverts(compteurs.lire(RESTAURANT, jour, CRENEAU + 1)));
+        assertEquals(4, CompteursOccupation.couverts(compteurs.lire(RESTAURANT, jour + 1, CRENEAU)));
+        assertEquals(5, CompteursOccupation.couverts(compteurs.lire(RESTAURANT + 1, jour, CRENEAU)));
+        assertEquals(4, compteurs.getStatistiques().getInt("entrees"));
+    }
+
+    @Test
+    void misesAJourConcurrentesToutesComptees() throws InterruptedException {
+        int nbFils = 8;
+        int parFil = 10_000;
+        List<Thread> fils = new ArrayList<>();
+        for (int f = 0; f < nbFils; f++) {
+            Thread fil = new Thread(() -> {
+                for (int i = 0; i < parFil; i++) {
+                    compteurs.ajouter(RESTAURANT, jour, CRENEAU, 3);
+                    if (i % 2 == 0) {
+                        compteurs.retirer(RESTAURANT, jour, CRENEAU, 3);
+                    }
+                }
+            });
+            fils.add(fil);
+            fil.start();
+        }
+        for (Thread fil : fils) {
+            fil.join();
+        }
+
+        long valeur = compteurs.lire(RESTAURANT, jour, CRENEAU);
+        assertEquals(nbFils * parFil / 2, CompteursOccupation.tables(valeur));
+        assertEquals(nbFils * parFil / 2 * 3, CompteursOccupation.couverts(valeur));
+    }
+
+    private Reservation reserver(TableResto table, int jourReservation, int nbConvives) throws Exception {
+        Reservation reservation = new Reservation(table.getId(), CRENEAU, CodecDate.versSql(jourReservation),
+                "Client", "Test", "0600000000", nbConvives);
+        assertTrue(stockage.reserverTable(reservation));
+        return reservation;
+    }
+}
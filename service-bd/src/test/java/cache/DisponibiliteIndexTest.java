@@ -0,0 +1,160 @@
+package cache;
+
+import dao.BaseEssai;
+import dao.StockageEmbarque;
+import model.Reservation;
+import model.TableResto;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.CodecDate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'index de disponibilité, sur la base d'essai ({@link BaseEssai}).
+ */
+class DisponibiliteIndexTest {
+
+    private static final int RESTAURANT = BaseEssai.RESTAURANT;
+    private static final int CRENEAU = BaseEssai.DEJEUNER;
+
+    private BaseEssai<StockageEmbarque> base;
+    private StockageEmbarque stockage;
+    private ReferentielCache referentiel;
+    private DisponibiliteIndex index;
+    private int jour;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = BaseEssai.ouvrir();
+        stockage = base.getStockage();
+        referentiel = new ReferentielCache(stockage, 60_000);
+        index = new DisponibiliteIndex(stockage, referentiel, true, 3);
+        jour = (int) LocalDate.now().plusDays(7).toEpochDay();
+    }
+
+    @AfterEach
+    void liberer() {
+        index.close();
+        base.close();
+    }
+
+    @Test
+    void bitsetGardeApresLePremierChargement() throws Exception {
+        assertEquals(6, index.getTablesLibres(RESTAURANT, jour, CRENEAU).size());
+        assertEquals(6, index.getTablesLibres(RESTAURANT, jour, CRENEAU).size());
+
+        JSONObject stats = index.getStatistiques();
+        assertEquals(1, stats.getInt("chargements"));
+        assertEquals(1, stats.getInt("entrees"));
+    }
+
+    @Test
+    void restaurantInconnuNiChargeNiGarde() throws Exception {
+        assertTrue(index.getTablesLibres(999_999, jour, CRENEAU).isEmpty());
+        assertTrue(index.estDisponible(999_999, jour, CRENEAU));
+
+        JSONObject stats = index.getStatistiques();
+        assertEquals(0, stats.getInt("chargements"));
+        assertEquals(0, stats.getInt("entrees"));
+    }
+
+    @Test
+    void creneauInconnuEtDateLointaineNonGardes() throws Exception {
+        index.getTablesLibres(RESTAURANT, jour, 999);
+        int lointain = (int) LocalDate.now().toEpochDay() + DisponibiliteIndex.HORIZON_JOURS + 1;
+        index.getTablesLibres(RESTAURANT, lointain, CRENEAU);
+        index.getTablesLibres(RESTAURANT, lointain, CRENEAU);
+        index.getTablesLibres(RESTAURANT, jour - 30, CRENEAU);
+
+        JSONObject stats = index.getStatistiques();
+        assertEquals(0, stats.getInt("entrees"));
+        assertEquals(4, stats.getInt("chargements"));
+        assertEquals(4, stats.getInt("nonMemorises"));
+    }
+
+    @Test
+    void nombreDEntreesBorne() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            index.getTablesLibres(RESTAURANT, jour + i, CRENEAU);
+        }
+
+        JSONObject stats = index.getStatistiques();
+        assertEquals(3, stats.getInt("entrees"));
+        assertEquals(2, stats.getInt("nonMemorises"));
+    }
+
+    @Test
+    void bitsetNonGardeRelitLaBase() throws Exception {
+        int lointain = (int) LocalDate.now().toEpochDay() + DisponibiliteIndex.HORIZON_JOURS + 10;
+        TableResto table = index.prendreMeilleureTable(RESTAURANT, lointain, CRENEAU, 2);
+        assertNotNull(table);
+        assertTrue(stockage.reserverTable(new Reservation(table.getId(), CRENEAU, CodecDate.versSql(lointain),
+                "Client", "Test", "0600000000", 2)));
+        index.marquerReservee(table.getId(), lointain, CRENEAU);
+
+        assertEquals(5, index.getTablesLibres(RESTAURANT, lointain, CRENEAU).size());
+        assertFalse(index.estDisponible(table.getId(), lointain, CRENEAU));
+    }
+
+    @Test
+    void meilleureTablePlusPetiteQuiConvient() throws Exception {
+        TableResto six = index.prendreMeilleureTable(RESTAURANT, jour, CRENEAU, 5);
+        assertEquals(6, six.getNbPlaces());
+        TableResto quatre = index.prendreMeilleureTable(RESTAURANT, jour, CRENEAU, 3);
+        assertEquals(4, quatre.getNbPlaces());
+        TableResto quatreSuivante = index.prendreMeilleureTable(RESTAURANT, jour, CRENEAU, 3,
+                tableId -> false);
+        assertTrue(quatreSuivante.getNumeroTable() > quatre.getNumeroTable());
+        assertEquals(8, index.prendreMeilleureTable(RESTAURANT, jour, CRENEAU, 3).getNbPlaces());
+        assertNull(index.prendreMeilleureTable(RESTAURANT, jour, CRENEAU, 3));
+
+        // Une table rendue redevient la meilleure ; une table exclue n'est pas prise
+        index.marquerLiberee(quatre.getId(), jour, CRENEAU);
+        assertNull(index.prendreMeilleureTable(RESTAURANT, jour, CRENEAU, 3, tableId -> tableId == quatre.getId()));
+        assertEquals(quatre.getId(), index.prendreMeilleureTable(RESTAURANT, jour, CRENEAU, 3).getId());
+        assertEquals(2, index.getTablesLibres(RESTAURANT, jour, CRENEAU).size());
+    }
+
+    @Test
+    void attributionsConcurrentesSansDoublon() throws Exception {
+        ExecutorService fils = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<TableResto>> demandes = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                demandes.add(() -> index.prendreMeilleureTable(RESTAURANT, jour, CRENEAU, 1));
+            }
+            Set<Integer> prises = new HashSet<>();
+            int refusees = 0;
+            for (Future<TableResto> resultat : fils.invokeAll(demandes)) {
+                TableResto table = resultat.get();
+                if (table == null) {
+                    refusees++;
+                } else {
+                    assertTrue(prises.add(table.getId()));
+                }
+            }
+            assertEquals(6, prises.size());
+            assertEquals(34, refusees);
+            assertTrue(index.getTablesLibres(RESTAURANT, jour, CRENEAU).isEmpty());
+        } finally {
+            fils.shutdownNow();
+        }
+    }
+}
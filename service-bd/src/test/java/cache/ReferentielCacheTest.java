@@ -0,0 +1,149 @@
+package cache;
+
+import dao.BaseEssai;
+import dao.PoolConnexions;
+import dao.StockageEmbarque;
+import model.Restaurant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests du cache du référentiel, sur la base d'essai ({@link BaseEssai}).
+ */
+class ReferentielCacheTest {
+
+    private BaseEssai<StockageModifiable> base;
+    private StockageModifiable stockage;
+    private final AtomicInteger publications = new AtomicInteger();
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = new BaseEssai<>(StockageModifiable::new);
+        stockage = base.getStockage();
+    }
+
+    @AfterEach
+    void liberer() {
+        base.close();
+    }
+
+    @Test
+    void rechargementSansChangementNiVersionNiPublication() throws Exception {
+        ReferentielCache cache = new ReferentielCache(stockage, 0, publications::incrementAndGet);
+        ReferentielCache.Referentiel premier = cache.get();
+
+        Thread.sleep(5);
+        ReferentielCache.Referentiel relu = cache.get();
+        cache.invalider();
+        relu = cache.get();
+
+        assertEquals(premier.getVersion(), relu.getVersion());
+        assertEquals(0, publications.get());
+        assertEquals(3, cache.getStatistiques().getInt("chargements"));
+    }
+
+    @Test
+    void changementPublieUneSeuleFois() throws Exception {
+        ReferentielCache cache = new ReferentielCache(stockage, 60_000, publications::incrementAndGet);
+        int nbRestaurants = cache.get().getRestaurants().size();
+
+        stockage.ajouter(restaurant());
+        assertEquals(nbRestaurants, cache.get().getRestaurants().size());
+        cache.invalider();
+        ReferentielCache.Referentiel recharge = cache.get();
+
+        assertEquals(nbRestaurants + 1, recharge.getRestaurants().size());
+        assertEquals(2, recharge.getVersion());
+        assertSame(recharge, cache.get());
+        assertEquals(1, publications.get());
+    }
+
+    @Test
+    void ancienInstantaneServiSiLeRechargementEchoue() throws Exception {
+        ReferentielCache cache = new ReferentielCache(stockage, 60_000, publications::incrementAndGet);
+        ReferentielCache.Referentiel premier = cache.get();
+
+        stockage.indisponible = true;
+        cache.invalider();
+        assertSame(premier, cache.get());
+
+        // L'invalidation n'est pas oubliée : la lecture suivante recharge
+        stockage.indisponible = false;
+        stockage.ajouter(restaurant());
+        assertEquals(premier.getRestaurants().size() + 1, cache.get().getRestaurants().size());
+        assertEquals(1, publications.get());
+    }
+
+    @Test
+    void premierChargementEnEchecRemonte() {
+        ReferentielCache cache = new ReferentielCache(stockage, 60_000);
+        stockage.indisponible = true;
+        assertThrows(SQLException.class, cache::get);
+    }
+
+    @Test
+    void invalidationPendantUnRechargementNonPerdue() throws Exception {
+        ReferentielCache cache = new ReferentielCache(stockage, 0, publications::incrementAndGet);
+        int nbRestaurants = cache.get().getRestaurants().size();
+
+        // Un import termine pendant le rechargement à l'expiration, qui a déjà lu les restaurants
+        stockage.pendantLecture = () -> {
+            stockage.ajouter(restaurant());
+            cache.invalider();
+        };
+        assertEquals(nbRestaurants, cache.get().getRestaurants().size());
+
+        assertEquals(nbRestaurants + 1, cache.get().getRestaurants().size());
+        assertEquals(1, publications.get());
+    }
+
+    private static Restaurant restaurant() {
+        return new Restaurant(999, "Nouveau", "1 rue de l'Essai", "0383000000", 48.69, 6.18);
+    }
+
+    /**
+     * Stockage dont la liste des restaurants peut être complétée, ou rendue
+     * indisponible, sans passer par un import.
+     */
+    private static final class StockageModifiable extends StockageEmbarque {
+        private final List<Restaurant> ajoutes = new ArrayList<>();
+        volatile boolean indisponible;
+        volatile Runnable pendantLecture;
+
+        StockageModifiable(PoolConnexions pool, String script) throws SQLException, IOException {
+            super(pool, script);
+        }
+
+        synchronized void ajouter(Restaurant restaurant) {
+            ajoutes.add(restaurant);
+        }
+
+        @Override
+        public List<Restaurant> findAll() throws SQLException {
+            if (indisponible) {
+                throw new SQLException("Référentiel indisponible");
+            }
+            List<Restaurant> restaurants = new ArrayList<>(super.findAll());
+            synchronized (this) {
+                restaurants.addAll(ajoutes);
+            }
+            Runnable action = pendantLecture;
+            if (action != null) {
+                pendantLecture = null;
+                action.run();
+            }
+            return restaurants;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package dao;
+
+import model.Creneau;
+import model.Reservation;
+import model.TableResto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Banc de mesure de la lecture des lignes ({@link Lecteurs}, {@link ProfilLecture})
+ * sur la base embarquée : temps CPU et octets alloués par ligne lue, mesurés sur le
+ * fil courant par JMX, pour la lecture par position et pour l'ancienne lecture par
+ * nom de colonne, avec différents profils de volume.
+ *
+ * H2 garde le résultat de la dernière exécution d'une requête préparée tant que ni
+ * ses paramètres ni les données ne changent : la variante « requête seule » montre
+ * que les mesures portent alors presque entièrement sur la lecture des valeurs.
+ * Sur la base embarquée, la taille de lot ne change pas le nombre d'allers-retours :
+ * son effet ne se mesure que sur Oracle.
+ *
+ * Ignoré par défaut ; se lance par
+ * {@code mvn test -pl service-bd -am -Dtest=BancLecteursTest -Dsurefire.failIfNoSpecifiedTests=false -Dbanc.lecteurs=true}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "banc.lecteurs", matches = "true")
+class BancLecteursTest {
+
+    private static final int RESTAURANT = BaseEssai.RESTAURANT;
+    private static final int JOURS = 2000;
+    private static final int CHAUFFE = 20;
+    private static final int MESURES = 30;
+
+    private static final String SELECT = "SELECT " + Lecteurs.COLONNES_RESERVATION_COMPLETE + " " +
+            "FROM reservation r " +
+            "JOIN tables_resto t ON r.table_id = t.id " +
+            "JOIN creneau c ON r.creneau_id = c.id " +
+            "WHERE t.restaurant_id = ? " +
+            "ORDER BY r.date_reservation, r.id";
+
+    /** Lecture d'une réservation complète telle qu'elle était faite avant Lecteurs. */
+    private static final LecteurLigne<Reservation> PAR_NOM = rs -> {
+        Reservation reservation = new Reservation();
+        reservation.setId(rs.getInt("id"));
+        reservation.setTableId(rs.getInt("table_id"));
+        reservation.setCreneauId(rs.getInt("creneau_id"));
+        reservation.setDateReservation(rs.getDate("date_reservation"));
+        reservation.setNomClient(rs.getString("nom_client"));
+        reservation.setPrenomClient(rs.getString("prenom_client"));
+        reservation.setTelephone(rs.getString("telephone"));
+        reservation.setnbConvives(rs.getInt("nb_convives"));
+        reservation.setDateCreation(rs.getTimestamp("date_creation"));
+        reservation.setStatut(rs.getString("statut"));
+
+        TableResto table = new TableResto();
+        table.setId(rs.getInt("table_id"));
+        table.setNumeroTable(rs.getInt("numero_table"));
+        table.setNbPlaces(rs.getInt("nb_places"));
+        reservation.setTable(table);
+
+        Creneau creneau = new Creneau();
+        creneau.setId(rs.getInt("creneau_id"));
+        creneau.setLibelle(rs.getString("libelle"));
+        creneau.setHeureDebut(rs.getString("heure_debut"));
+        creneau.setHeureFin(rs.getString("heure_fin"));
+        reservation.setCreneau(creneau);
+
+        return reservation;
+    };
+
+    private final com.sun.management.ThreadMXBean fil =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private BaseEssai<StockageEmbarque> base;
+    private PoolConnexions pool;
+    private int nbLignes;
+
+    @BeforeAll
+    void remplir() throws Exception {
+        base = BaseEssai.ouvrir();
+        pool = base.getPool();
+        List<TableResto> tables = base.getStockage().findAllTablesRestaurant(RESTAURANT);
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO reservation " +
+                     "(id, table_id, creneau_id, date_reservation, nom_client, prenom_client, " +
+                     "telephone, nb_convives, date_creation, statut) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            conn.setAutoCommit(false);
+            // Après les réservations du jeu d'essai, qui tombent autour de la date du jour
+            LocalDate premier = LocalDate.now().plusYears(1);
+            Timestamp creation = new Timestamp(System.currentTimeMillis());
+            int id = 1_000_000;
+            for (int jour = 0; jour < JOURS; jour++) {
+                java.sql.Date date = java.sql.Date.valueOf(premier.plusDays(jour));
+                for (TableResto table : tables) {
+                    for (int creneau = 1; creneau <= 2; creneau++) {
+                        pstmt.setInt(1, id++);
+                        pstmt.setInt(2, table.getId());
+                        pstmt.setInt(3, creneau);
+                        pstmt.setDate(4, date);
+                        pstmt.setString(5, "Client" + id);
+                        pstmt.setString(6, "Prénom");
+                        pstmt.setString(7, "06" + (10_000_000 + id));
+                        pstmt.setInt(8, 2);
+                        pstmt.setTimestamp(9, creation);
+                        pstmt.setString(10, "confirmee");
+                        pstmt.addBatch();
+                    }
+                }
+                if (jour % 100 == 99) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT)) {
+            pstmt.setInt(1, RESTAURANT);
+            nbLignes = parcourir(pstmt);
+        }
+    }
+
+    @AfterAll
+    void liberer() {
+        base.close();
+    }
+
+    @Test
+    void lectureParPositionEtParNom() throws SQLException {
+        System.out.printf("%n%d lignes, %d mesures après %d tours de chauffe%n", nbLignes, MESURES, CHAUFFE);
+        System.out.printf("%-32s %12s %14s%n", "variante", "ns CPU/ligne", "octets/ligne");
+        mesurer("par nom, profil PERIODE", PAR_NOM, ProfilLecture.PERIODE);
+        mesurer("par position, profil PERIODE", Lecteurs.RESERVATION_COMPLETE, ProfilLecture.PERIODE);
+        mesurer("par position, profil UNITAIRE", Lecteurs.RESERVATION_COMPLETE, ProfilLecture.UNITAIRE);
+        mesurerSeule("requête seule, sans lecture");
+    }
+
+    private void mesurer(String variante, LecteurLigne<Reservation> lecteur, ProfilLecture profil)
+            throws SQLException {
+        RequeteLecture<Reservation> requete = new RequeteLecture<>("banc", SELECT, lecteur, profil);
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = requete.preparer(conn)) {
+            pstmt.setInt(1, RESTAURANT);
+            for (int i = 0; i < CHAUFFE; i++) {
+                assertEquals(nbLignes, requete.lister(pstmt).size());
+            }
+            long cpu = fil.getCurrentThreadCpuTime();
+            long octets = fil.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < MESURES; i++) {
+                requete.lister(pstmt);
+            }
+            afficher(variante, fil.getCurrentThreadCpuTime() - cpu,
+                    fil.getThreadAllocatedBytes(Thread.currentThread().getId()) - octets);
+        }
+    }
+
+    /** Parcourt les lignes sans rien lire : la part de H2 dans les autres mesures. */
+    private void mesurerSeule(String variante) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT)) {
+            pstmt.setInt(1, RESTAURANT);
+            pstmt.setFetchSize(ProfilLecture.PERIODE.getTailleLot());
+            for (int i = 0; i < CHAUFFE; i++) {
+                assertEquals(nbLignes, parcourir(pstmt));
+            }
+            long cpu = fil.getCurrentThreadCpuTime();
+            long octets = fil.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < MESURES; i++) {
+                parcourir(pstmt);
+            }
+            afficher(variante, fil.getCurrentThreadCpuTime() - cpu,
+                    fil.getThreadAllocatedBytes(Thread.currentThread().getId()) - octets);
+        }
+    }
+
+    private static int parcourir(PreparedStatement pstmt) throws SQLException {
+        int lignes = 0;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                lignes++;
+            }
+        }
+        return lignes;
+    }
+
+    private void afficher(String variante, long cpu, long octets) {
+        long lignes = (long) nbLignes * MESURES;
+        System.out.printf("%-32s %12d %14d%n", variante, cpu / lignes, octets / lignes);
+    }
+}
@@ -0,0 +1,80 @@
+package dao;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Base H2 embarquée des tests : une base en mémoire neuve, chargée par create_tables.sql.
+ *
+ * Le jeu d'essai du script donne au restaurant {@link #RESTAURANT} six tables de
+ * 2, 4, 4, 6, 8 et 2 places, et définit les créneaux {@link #DEJEUNER} et {@link #DINER}.
+ *
+ * @param <S> le type de stockage ouvert sur la base
+ */
+public final class BaseEssai<S extends StockageEmbarque> implements AutoCloseable {
+
+    /** Script de création, relatif au répertoire du module où les tests sont joués. */
+    public static final String SCRIPT = "src/create_tables.sql";
+
+    /** Restaurant traditionnel du jeu d'essai. */
+    public static final int RESTAURANT = 4;
+
+    public static final int DEJEUNER = 1;
+    public static final int DINER = 2;
+
+    /**
+     * Ouverture d'un stockage sur la base, pour les tests qui en dérivent un.
+     *
+     * @param <S> le type de stockage
+     */
+    @FunctionalInterface
+    public interface Ouverture<S extends StockageEmbarque> {
+        S ouvrir(PoolConnexions pool, String script) throws SQLException, IOException;
+    }
+
+    private final PoolConnexions pool;
+    private final S stockage;
+
+    /**
+     * Crée une base neuve et y ouvre un stockage.
+     *
+     * @param ouverture ouverture du stockage, StockageEmbarque::new le plus souvent
+     * @throws SQLException en cas d'erreur de création du schéma
+     * @throws IOException si le script ne peut être lu
+     */
+    public BaseEssai(Ouverture<S> ouverture) throws SQLException, IOException {
+        this.pool = new PoolConnexions("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=Oracle;DB_CLOSE_DELAY=-1",
+                "sa", "", 1, 4, 2000, 0, 2, 30000, 32);
+        try {
+            this.stockage = ouverture.ouvrir(pool, SCRIPT);
+        } catch (SQLException | IOException | RuntimeException e) {
+            pool.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Crée une base neuve avec un {@link StockageEmbarque}.
+     *
+     * @return la base
+     * @throws SQLException en cas d'erreur de création du schéma
+     * @throws IOException si le script ne peut être lu
+     */
+    public static BaseEssai<StockageEmbarque> ouvrir() throws SQLException, IOException {
+        return new BaseEssai<>(StockageEmbarque::new);
+    }
+
+    public PoolConnexions getPool() {
+        return pool;
+    }
+
+    public S getStockage() {
+        return stockage;
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
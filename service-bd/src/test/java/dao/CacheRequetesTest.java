@@ -0,0 +1,103 @@
+package dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du cache des requêtes préparées, à travers les connexions du pool
+ * (deux requêtes gardées par connexion).
+ */
+class CacheRequetesTest {
+
+    private static final String REQUETE_A = "SELECT 1";
+    private static final String REQUETE_B = "SELECT 2";
+    private static final String REQUETE_C = "SELECT 3";
+
+    private PoolConnexions pool;
+
+    @BeforeEach
+    void preparer() {
+        pool = new PoolConnexions("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "",
+                1, 1, 1000, 0, 2, 30000, 2);
+    }
+
+    @AfterEach
+    void liberer() {
+        pool.close();
+    }
+
+    @Test
+    void requeteReutiliseeApresFermeture() throws Exception {
+        try (Connection connexion = pool.getConnection()) {
+            PreparedStatement premiere = connexion.prepareStatement(REQUETE_A);
+            premiere.close();
+            PreparedStatement seconde = connexion.prepareStatement(REQUETE_A);
+            assertSame(premiere, seconde);
+            try (ResultSet rs = seconde.executeQuery()) {
+                assertTrue(rs.next());
+            }
+            seconde.close();
+        }
+        assertEquals(1, pool.getStatistiques().getInt("requetesReutilisees"));
+        assertEquals(1, pool.getStatistiques().getInt("requetesPreparees"));
+    }
+
+    @Test
+    void connexionDeLaRequeteEstCellePreteeParLePool() throws Exception {
+        Connection connexion = pool.getConnection();
+        PreparedStatement requete = connexion.prepareStatement(REQUETE_A);
+        assertSame(connexion, requete.getConnection());
+
+        // Fermer la connexion de la requête la rend au pool sans fermer la session
+        requete.getConnection().close();
+        assertEquals(0, pool.getStatistiques().getInt("connexionsActives"));
+        try (Connection suivante = pool.getConnection()) {
+            assertTrue(suivante.isValid(1));
+        }
+        assertEquals(1, pool.getStatistiques().getInt("connexionsCreees"));
+    }
+
+    @Test
+    void requeteEvinceePendantSonUtilisationFermeeALaRestitution() throws Exception {
+        PreparedStatement physique;
+        try (Connection connexion = pool.getConnection()) {
+            PreparedStatement oubliee = connexion.prepareStatement(REQUETE_A);
+            physique = oubliee.unwrap(PreparedStatement.class);
+            connexion.prepareStatement(REQUETE_B).close();
+            connexion.prepareStatement(REQUETE_C).close();
+            assertFalse(physique.isClosed());
+        }
+        assertTrue(physique.isClosed());
+    }
+
+    @Test
+    void requeteEnDoublePrepareeHorsCacheEtFermee() throws Exception {
+        PreparedStatement physique;
+        try (Connection connexion = pool.getConnection()) {
+            PreparedStatement premiere = connexion.prepareStatement(REQUETE_A);
+            PreparedStatement doublon = connexion.prepareStatement(REQUETE_A);
+            assertNotSame(premiere, doublon);
+            assertSame(connexion, doublon.getConnection());
+            physique = doublon.unwrap(PreparedStatement.class);
+        }
+        assertTrue(physique.isClosed());
+
+        // La requête du cache reste préparée pour l'emprunteur suivant
+        try (Connection connexion = pool.getConnection()) {
+            connexion.prepareStatement(REQUETE_A).close();
+        }
+        assertEquals(1, pool.getStatistiques().getInt("requetesReutilisees"));
+    }
+}
@@ -0,0 +1,129 @@
+package dao;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du pool de connexions, sur une base H2 en mémoire vide.
+ */
+class PoolConnexionsTest {
+
+    private PoolConnexions pool;
+
+    @AfterEach
+    void liberer() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void tailleMinimaleOuverteAuDemarrage() {
+        pool = pool(2, 4, 1000);
+        assertEquals(2, stats().getInt("connexionsOuvertes"));
+        assertEquals(2, stats().getInt("connexionsLibres"));
+    }
+
+    @Test
+    void connexionReutiliseeApresRestitution() throws SQLException {
+        pool = pool(1, 4, 1000);
+        for (int i = 0; i < 10; i++) {
+            try (Connection connexion = pool.getConnection()) {
+                assertTrue(connexion.isValid(1));
+            }
+        }
+        assertEquals(1, stats().getInt("connexionsCreees"));
+        assertEquals(1, stats().getInt("connexionsOuvertes"));
+    }
+
+    @Test
+    void tailleMaximaleJamaisDepassee() throws Exception {
+        pool = pool(1, 3, 5000);
+        ExecutorService fils = Executors.newFixedThreadPool(8);
+        AtomicInteger depassements = new AtomicInteger();
+        try {
+            List<Future<?>> taches = new ArrayList<>();
+            for (int f = 0; f < 8; f++) {
+                taches.add(fils.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        try (Connection connexion = pool.getConnection();
+                             Statement stmt = connexion.createStatement()) {
+                            stmt.execute("SELECT 1");
+                            if (stats().getInt("connexionsOuvertes") > 3) {
+                                depassements.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tache : taches) {
+                tache.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            fils.shutdownNow();
+        }
+        assertEquals(0, depassements.get());
+        assertTrue(stats().getInt("connexionsCreees") <= 3);
+    }
+
+    @Test
+    void empruntRefuseApresLeDelaiQuandLePoolEstSature() throws SQLException {
+        pool = pool(0, 1, 50);
+        try (Connection connexion = pool.getConnection()) {
+            SQLException refus = assertThrows(SQLException.class, pool::getConnection);
+            assertTrue(refus.getMessage().startsWith("Aucune connexion disponible après 50 ms"));
+        }
+        assertEquals(1, stats().getInt("delaisDepasses"));
+    }
+
+    @Test
+    void connexionRendueFermeeRemplaceeAussitot() throws Exception {
+        pool = pool(1, 2, 1000);
+        Connection connexion = pool.getConnection();
+        connexion.unwrap(Connection.class).close();
+        connexion.close();
+
+        attendre(() -> stats().getInt("connexionsOuvertes") == 1 && stats().getInt("connexionsLibres") == 1);
+        assertEquals(2, stats().getInt("connexionsCreees"));
+        assertEquals(1, stats().getInt("connexionsInvalidees"));
+        try (Connection remplacante = pool.getConnection()) {
+            assertTrue(remplacante.isValid(1));
+        }
+    }
+
+    private static PoolConnexions pool(int tailleMin, int tailleMax, long attenteMaxMs) {
+        return new PoolConnexions("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "",
+                tailleMin, tailleMax, attenteMaxMs, 0, 2, 30000, 8);
+    }
+
+    private JSONObject stats() {
+        return pool.getStatistiques();
+    }
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
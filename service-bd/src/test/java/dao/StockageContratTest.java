@@ -0,0 +1,299 @@
+package dao;
+
+import model.Creneau;
+import model.DemandeAttente;
+import model.OccupationCreneau;
+import model.Reservation;
+import model.Restaurant;
+import model.TableResto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.CodecDate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contrat commun des implémentations de {@link Stockage}.
+ *
+ * Chaque implémentation (Oracle, base embarquée) doit passer ces tests à l'identique :
+ * c'est ce qui garantit que les adaptations de dialecte de {@link StockageEmbarque}
+ * ne s'écartent pas du comportement de la base Oracle.
+ *
+ * Les tests travaillent sur un restaurant importé pour l'occasion, ce qui permet
+ * de les rejouer sur un schéma Oracle partagé sans qu'ils se gênent.
+ */
+abstract class StockageContratTest {
+
+    /** Places des tables créées par create_tables.sql, par type de restaurant. */
+    private static final int[] PLACES_CROUS = {4, 6, 8, 10, 12, 4};
+    private static final int[] PLACES_RAPIDE = {2, 2, 4, 4, 6, 2};
+    private static final int[] PLACES_TRADITIONNEL = {2, 4, 4, 6, 8, 2};
+
+    /** Date passée, mais postérieure à la contrainte de date des réservations. */
+    private static final int JOUR_PASSE = (int) LocalDate.of(2025, 1, 15).toEpochDay();
+
+    protected Stockage stockage;
+
+    private Restaurant restaurant;
+    private List<TableResto> tables;
+    private int creneauId;
+    private int jour;
+
+    /**
+     * Fournit le stockage à tester, sur un schéma créé par create_tables.sql.
+     *
+     * @return le stockage
+     * @throws Exception si le stockage ne peut être ouvert
+     */
+    protected abstract Stockage creerStockage() throws Exception;
+
+    /**
+     * Libère le stockage testé.
+     *
+     * @param stockage le stockage
+     * @throws Exception en cas d'erreur à la fermeture
+     */
+    protected abstract void fermerStockage(Stockage stockage) throws Exception;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        stockage = creerStockage();
+
+        String suffixe = UUID.randomUUID().toString().substring(0, 8);
+        restaurant = new Restaurant(0, "Contrat " + suffixe, suffixe + " rue du Test, Nancy",
+                "0383000000", 48.69, 6.18);
+        stockage.importerRestaurants(List.of(restaurant), List.<int[]>of(new int[]{2, 4, 6}));
+
+        tables = new ArrayList<>();
+        for (TableResto table : stockage.findAllTables()) {
+            if (table.getRestaurantId() == restaurant.getId()) {
+                tables.add(table);
+            }
+        }
+        tables.sort((a, b) -> Integer.compare(a.getNumeroTable(), b.getNumeroTable()));
+        creneauId = stockage.findAllCreneaux().get(0).getId();
+        jour = (int) LocalDate.now().plusDays(30).toEpochDay();
+    }
+
+    @AfterEach
+    void liberer() throws Exception {
+        if (stockage != null) {
+            fermerStockage(stockage);
+        }
+    }
+
+    @Test
+    void referentielInitialReprendLeScript() throws SQLException {
+        List<Creneau> creneaux = stockage.findAllCreneaux();
+        assertEquals(List.of("Déjeuner", "Dîner"), creneaux.stream().map(Creneau::getLibelle).toList());
+
+        Map<Integer, List<Integer>> places = new HashMap<>();
+        for (TableResto table : stockage.findAllTables()) {
+            places.computeIfAbsent(table.getRestaurantId(), id -> new ArrayList<>()).add(table.getNbPlaces());
+        }
+        for (int restaurantId = 1; restaurantId <= 9; restaurantId++) {
+            int[] attendues = switch (restaurantId) {
+                case 6, 7 -> PLACES_CROUS;
+                case 1, 2, 3, 9 -> PLACES_RAPIDE;
+                default -> PLACES_TRADITIONNEL;
+            };
+            int[] lues = places.getOrDefault(restaurantId, List.of()).stream().mapToInt(Integer::intValue).toArray();
+            int[] triees = attendues.clone();
+            Arrays.sort(triees);
+            Arrays.sort(lues);
+            assertArrayEquals(triees, lues, "tables du restaurant " + restaurantId);
+        }
+    }
+
+    @Test
+    void importAttribueIdentifiantEtTables() {
+        assertTrue(restaurant.getId() > 0);
+        assertEquals(3, tables.size());
+        assertEquals(List.of(1, 2, 3), tables.stream().map(TableResto::getNumeroTable).toList());
+        assertEquals(List.of(2, 4, 6), tables.stream().map(TableResto::getNbPlaces).toList());
+    }
+
+    @Test
+    void reservationUniqueParTableEtCreneau() throws SQLException {
+        Reservation premiere = reservation(0, jour, "0600000001");
+        assertTrue(stockage.reserverTable(premiere));
+        assertTrue(premiere.getId() > 0);
+
+        assertFalse(stockage.reserverTable(reservation(0, jour, "0600000002")));
+        assertEquals(List.of(tables.get(0).getId()),
+                stockage.findTablesReservees(restaurant.getId(), CodecDate.versSql(jour), creneauId));
+    }
+
+    @Test
+    void annulationLibereLaTable() throws SQLException {
+        Reservation reservation = reservation(1, jour, "0600000003");
+        assertTrue(stockage.reserverTable(reservation));
+
+        Reservation annulee = stockage.annulerReservation(reservation.getId());
+        assertNotNull(annulee);
+        assertEquals(tables.get(1).getId(), annulee.getTableId());
+        assertEquals(creneauId, annulee.getCreneauId());
+        assertEquals(jour, annulee.getJourReservation());
+        assertEquals(2, annulee.getnbConvives());
+
+        assertNull(stockage.annulerReservation(reservation.getId()));
+        assertTrue(stockage.findTablesReservees(restaurant.getId(), CodecDate.versSql(jour), creneauId).isEmpty());
+        assertTrue(stockage.reserverTable(reservation(1, jour, "0600000004")));
+    }
+
+    @Test
+    void lotToutOuRienAnnuleToutAuPremierEchec() throws SQLException {
+        assertTrue(stockage.reserverTable(reservation(2, jour, "0600000005")));
+
+        List<Reservation> lot = List.of(reservation(0, jour, "0600000006"), reservation(2, jour, "0600000007"));
+        String[] motifs = stockage.reserverTables(lot, true);
+        assertEquals(2, motifs.length);
+        assertNotNull(motifs[1]);
+        assertEquals(List.of(tables.get(2).getId()),
+                stockage.findTablesReservees(restaurant.getId(), CodecDate.versSql(jour), creneauId));
+    }
+
+    @Test
+    void lotAuMieuxGardeLesSucces() throws SQLException {
+        assertTrue(stockage.reserverTable(reservation(2, jour, "0600000008")));
+
+        List<Reservation> lot = List.of(reservation(0, jour, "0600000009"), reservation(2, jour, "0600000010"));
+        String[] motifs = stockage.reserverTables(lot, false);
+        assertNull(motifs[0]);
+        assertNotNull(motifs[1]);
+        assertTrue(lot.get(0).getId() > 0);
+        assertEquals(2, stockage.findTablesReservees(restaurant.getId(), CodecDate.versSql(jour), creneauId).size());
+    }
+
+    @Test
+    void comptesEtOccupationsIgnorentLesAnnulees() throws SQLException {
+        assertTrue(stockage.reserverTable(reservation(0, jour, "0600000011")));
+        assertTrue(stockage.reserverTable(reservation(1, jour, "0600000012")));
+        Reservation annulee = reservation(2, jour, "0600000013");
+        assertTrue(stockage.reserverTable(annulee));
+        assertNotNull(stockage.annulerReservation(annulee.getId()));
+
+        java.sql.Date date = CodecDate.versSql(jour);
+        List<OccupationCreneau> comptes = stockage.compterOccupationsRestaurant(restaurant.getId(), date, date);
+        assertEquals(1, comptes.size());
+        assertEquals(jour, comptes.get(0).getJour());
+        assertEquals(creneauId, comptes.get(0).getCreneauId());
+        assertEquals(2, comptes.get(0).getTablesReservees());
+        assertEquals(4, comptes.get(0).getCouvertsReserves());
+
+        long globaux = stockage.compterOccupations(date, date).stream()
+                .filter(o -> o.getRestaurantId() == restaurant.getId())
+                .count();
+        assertEquals(1, globaux);
+
+        assertEquals(2, stockage.findOccupationsPeriode(restaurant.getId(), date, date).size());
+        assertEquals(2, stockage.findReservationsPourDate(restaurant.getId(), date).size());
+    }
+
+    @Test
+    void historiqueEtRechercheClientPaginent() throws SQLException {
+        String telephone = "07" + restaurant.getId() % 100000000;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(stockage.reserverTable(reservation(i, jour + i, telephone)));
+        }
+
+        java.sql.Date debut = CodecDate.versSql(jour);
+        java.sql.Date fin = CodecDate.versSql(jour + 2);
+        java.sql.Date apresFin = CodecDate.versSql(jour + 3);
+        List<Reservation> page = stockage.findHistoriqueRestaurant(restaurant.getId(), debut, fin,
+                apresFin, Integer.MAX_VALUE, 2);
+        assertEquals(List.of(jour + 2, jour + 1), page.stream().map(Reservation::getJourReservation).toList());
+
+        Reservation derniere = page.get(1);
+        List<Reservation> suite = stockage.findHistoriqueRestaurant(restaurant.getId(), debut, fin,
+                CodecDate.versSql(derniere.getJourReservation()), derniere.getId(), 2);
+        assertEquals(List.of(jour), suite.stream().map(Reservation::getJourReservation).toList());
+
+        List<Reservation> client = stockage.findReservationsClient(telephone, apresFin, Integer.MAX_VALUE, 10);
+        assertEquals(3, client.size());
+        assertEquals(telephone, client.get(0).getTelephone());
+    }
+
+    @Test
+    void archivageDeplaceLesReservationsPassees() throws SQLException {
+        Reservation ancienne = reservation(0, JOUR_PASSE, "0600000014");
+        assertTrue(stockage.reserverTable(ancienne));
+        Reservation future = reservation(0, jour, "0600000015");
+        assertTrue(stockage.reserverTable(future));
+
+        java.sql.Date avant = CodecDate.versSql((int) LocalDate.now().toEpochDay());
+        int archivees = 0;
+        for (int lot; (lot = stockage.archiverReservations(avant, avant, 100)) > 0; ) {
+            archivees += lot;
+        }
+        assertTrue(archivees >= 1);
+
+        java.sql.Date passe = CodecDate.versSql(JOUR_PASSE);
+        java.sql.Date lendemain = CodecDate.versSql(JOUR_PASSE + 1);
+        assertTrue(stockage.findHistoriqueRestaurant(restaurant.getId(), passe, passe,
+                lendemain, Integer.MAX_VALUE, 10).isEmpty());
+        List<Reservation> archives = stockage.findArchivesRestaurant(restaurant.getId(), passe, passe,
+                lendemain, Integer.MAX_VALUE, 10);
+        assertEquals(List.of(ancienne.getId()), archives.stream().map(Reservation::getId).toList());
+
+        java.sql.Date date = CodecDate.versSql(jour);
+        assertEquals(1, stockage.findReservationsPourDate(restaurant.getId(), date).size());
+    }
+
+    @Test
+    void listeAttenteDeLInscriptionALaPromotion() throws SQLException {
+        assertTrue(stockage.reserverTable(reservation(0, jour, "0600000016")));
+
+        DemandeAttente promue = new DemandeAttente(restaurant.getId(), jour, creneauId,
+                "Dupont", "Alice", "0600000017", 2);
+        DemandeAttente retiree = new DemandeAttente(restaurant.getId(), jour, creneauId,
+                "Durand", "Bob", "0600000018", 2);
+        stockage.inscrireAttente(promue);
+        stockage.inscrireAttente(retiree);
+        assertTrue(promue.getId() > 0);
+
+        List<Integer> enAttente = new ArrayList<>();
+        for (DemandeAttente demande : stockage.findAttentes(CodecDate.versSql(jour))) {
+            if (demande.getRestaurantId() == restaurant.getId()) {
+                enAttente.add(demande.getId());
+            }
+        }
+        assertEquals(List.of(promue.getId(), retiree.getId()), enAttente);
+
+        Reservation reservation = reservation(0, jour, "0600000017");
+        assertFalse(stockage.promouvoirAttente(promue.getId(), reservation));
+        assertEquals(DemandeAttente.EN_ATTENTE, stockage.findAttente(promue.getId()).getStatut());
+
+        reservation = reservation(1, jour, "0600000017");
+        assertTrue(stockage.promouvoirAttente(promue.getId(), reservation));
+        DemandeAttente lue = stockage.findAttente(promue.getId());
+        assertEquals(DemandeAttente.PROMUE, lue.getStatut());
+        assertEquals(reservation.getId(), lue.getReservationId());
+        assertFalse(stockage.retirerAttente(promue.getId()));
+
+        assertTrue(stockage.retirerAttente(retiree.getId()));
+        assertFalse(stockage.retirerAttente(retiree.getId()));
+        assertEquals(DemandeAttente.RETIREE, stockage.findAttente(retiree.getId()).getStatut());
+        assertNull(stockage.findAttente(Integer.MAX_VALUE));
+    }
+
+    private Reservation reservation(int table, int jourReservation, String telephone) {
+        return new Reservation(tables.get(table).getId(), creneauId, CodecDate.versSql(jourReservation),
+                "Client", "Test", telephone, 2);
+    }
+}
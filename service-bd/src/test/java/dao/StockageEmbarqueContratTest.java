@@ -0,0 +1,22 @@
+package dao;
+
+/**
+ * Contrat du stockage sur la base embarquée, joué à chaque build.
+ *
+ * Chaque test part d'une base d'essai neuve ({@link BaseEssai}).
+ */
+class StockageEmbarqueContratTest extends StockageContratTest {
+
+    private BaseEssai<StockageEmbarque> base;
+
+    @Override
+    protected Stockage creerStockage() throws Exception {
+        base = BaseEssai.ouvrir();
+        return base.getStockage();
+    }
+
+    @Override
+    protected void fermerStockage(Stockage stockage) {
+        base.close();
+    }
+}
@@ -0,0 +1,142 @@
+package dao;
+
+import model.Restaurant;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'admission des opérations par le stockage limité, sur la base
+ * d'essai ({@link BaseEssai}) dont la lecture des restaurants peut être bloquée.
+ */
+class StockageLimiteTest {
+
+    private BaseEssai<StockageBloquant> base;
+    private StockageBloquant bloquant;
+    private final ExecutorService fils = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = new BaseEssai<>(StockageBloquant::new);
+        bloquant = base.getStockage();
+    }
+
+    @AfterEach
+    void liberer() {
+        bloquant.liberation.countDown();
+        fils.shutdownNow();
+        base.close();
+    }
+
+    @Test
+    void limitesInvalidesRefusees() {
+        assertThrows(IllegalArgumentException.class, () -> new StockageLimite(bloquant, 0, 4, 100));
+        assertThrows(IllegalArgumentException.class, () -> new StockageLimite(bloquant, 2, -1, 100));
+    }
+
+    @Test
+    void lecturesAdmisesSansFileTantQuUnPermisEstLibre() throws Exception {
+        StockageLimite limite = new StockageLimite(bloquant, 2, 0, 5_000);
+        Future<List<Restaurant>> premiere = fils.submit(limite::findAll);
+        Future<List<Restaurant>> seconde = fils.submit(limite::findAll);
+        assertTrue(bloquant.entrees.await(5, TimeUnit.SECONDS));
+
+        SQLException refus = assertThrows(SQLException.class, limite::findAllCreneaux);
+        assertTrue(refus.getMessage().startsWith("Service BD saturé"));
+
+        bloquant.liberation.countDown();
+        assertFalse(premiere.get(5, TimeUnit.SECONDS).isEmpty());
+        assertFalse(seconde.get(5, TimeUnit.SECONDS).isEmpty());
+        assertFalse(limite.findAllCreneaux().isEmpty());
+        assertEquals(1, concurrence(limite).getInt("lecturesRefusees"));
+        assertEquals(0, concurrence(limite).getInt("enAttenteMax"));
+    }
+
+    @Test
+    void lectureEnFileAdmiseQuandUnPermisSeLibere() throws Exception {
+        StockageLimite limite = new StockageLimite(bloquant, 1, 1, 5_000);
+        bloquant.entrees = new CountDownLatch(1);
+        Future<List<Restaurant>> enCours = fils.submit(limite::findAll);
+        assertTrue(bloquant.entrees.await(5, TimeUnit.SECONDS));
+        Future<?> enFile = fils.submit(limite::findAllCreneaux);
+        attendre(() -> concurrence(limite).getInt("enAttente") == 1);
+
+        assertThrows(SQLException.class, limite::findAllTables);
+        // Une écriture n'est jamais refusée : elle attend son tour
+        Future<?> ecriture = fils.submit(() -> limite.annulerReservation(-1));
+        attendre(() -> concurrence(limite).getInt("enAttente") == 2);
+
+        bloquant.liberation.countDown();
+        enCours.get(5, TimeUnit.SECONDS);
+        enFile.get(5, TimeUnit.SECONDS);
+        ecriture.get(5, TimeUnit.SECONDS);
+        assertEquals(1, concurrence(limite).getInt("lecturesRefusees"));
+        assertEquals(2, concurrence(limite).getInt("enAttenteMax"));
+        assertEquals(0, concurrence(limite).getInt("enCours"));
+    }
+
+    @Test
+    void attenteBorneeEnDuree() throws Exception {
+        StockageLimite limite = new StockageLimite(bloquant, 1, 4, 50);
+        bloquant.entrees = new CountDownLatch(1);
+        fils.submit(limite::findAll);
+        assertTrue(bloquant.entrees.await(5, TimeUnit.SECONDS));
+
+        SQLException delai = assertThrows(SQLException.class, limite::findAllCreneaux);
+        assertTrue(delai.getMessage().startsWith("Accès à la base impossible après 50 ms"));
+        assertEquals(1, concurrence(limite).getInt("delaisDepasses"));
+        assertEquals(0, concurrence(limite).getInt("enAttente"));
+    }
+
+    private static JSONObject concurrence(StockageLimite limite) {
+        return limite.getStatistiques().getJSONObject("concurrence");
+    }
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * Stockage dont la lecture des restaurants attend d'être libérée.
+     */
+    static final class StockageBloquant extends StockageEmbarque {
+        volatile CountDownLatch entrees = new CountDownLatch(2);
+        final CountDownLatch liberation = new CountDownLatch(1);
+
+        StockageBloquant(PoolConnexions pool, String script) throws SQLException, IOException {
+            super(pool, script);
+        }
+
+        @Override
+        public List<Restaurant> findAll() throws SQLException {
+            entrees.countDown();
+            try {
+                liberation.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Lecture interrompue", e);
+            }
+            return super.findAll();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package dao;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Contrat du stockage sur une base Oracle, joué seulement à la demande :
+ *
+ *   mvn test -pl service-bd -am -Dbd.test.oracle.url=jdbc:oracle:thin:@//hote:1521/service \
+ *       -Dbd.test.oracle.user=... -Dbd.test.oracle.password=...
+ *
+ * Le schéma doit avoir été créé par create_tables.sql. Les tests y importent leurs
+ * propres restaurants et archivent les réservations passées : utiliser un schéma de test.
+ */
+@EnabledIfSystemProperty(named = "bd.test.oracle.url", matches = ".+")
+class StockageOracleContratTest extends StockageContratTest {
+
+    private PoolConnexions pool;
+
+    @Override
+    protected Stockage creerStockage() {
+        pool = new PoolConnexions(System.getProperty("bd.test.oracle.url"),
+                System.getProperty("bd.test.oracle.user"), System.getProperty("bd.test.oracle.password"),
+                1, 4, 5000, 0, 2, 30000, 32);
+        return new RestaurantDAO(pool);
+    }
+
+    @Override
+    protected void fermerStockage(Stockage stockage) {
+        pool.close();
+    }
+}
@@ -0,0 +1,156 @@
+package flux;
+
+import interfaces.EcouteurChangements;
+import model.Changement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du flux de changements et de la reprise des abonnés à leur curseur.
+ */
+class FluxChangementsTest {
+
+    private static final int RESTAURANT = 4;
+    private static final int JOUR = 20_000;
+
+    private FluxChangements flux;
+
+    @AfterEach
+    void liberer() {
+        if (flux != null) {
+            flux.close();
+        }
+    }
+
+    @Test
+    void fluxInvalideRefuse() {
+        assertThrows(IllegalArgumentException.class, () -> new FluxChangements("p1", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new FluxChangements("p1", 8, 0));
+    }
+
+    @Test
+    void changementsDuMemeCreneauRegroupes() throws InterruptedException {
+        // Intervalle long : les quatre publications partent dans le même lot
+        flux = new FluxChangements("p1", 16, 300);
+        Ecouteur ecouteur = new Ecouteur();
+        assertEquals(0, flux.abonner(ecouteur, -1));
+
+        flux.publier(Changement.Type.RESERVATION, RESTAURANT, JOUR, 1);
+        flux.publier(Changement.Type.RESERVATION, RESTAURANT, JOUR + 1, 1);
+        flux.publier(Changement.Type.RESERVATION, RESTAURANT, JOUR, 1);
+        flux.publier(Changement.Type.ANNULATION, RESTAURANT, JOUR, 1);
+
+        attendre(() -> ecouteur.derniereSequence() == 4);
+        List<Changement> recus = ecouteur.recus;
+        assertEquals(3, recus.size());
+        assertEquals(Changement.Type.RESERVATION, recus.get(0).getType());
+        assertEquals(JOUR + 1, recus.get(0).getJour());
+        assertEquals(3, recus.get(1).getSequence());
+        assertEquals(2, recus.get(1).getNombre());
+        assertEquals(Changement.Type.ANNULATION, recus.get(2).getType());
+    }
+
+    @Test
+    void abonneRepriseASonCurseur() throws InterruptedException {
+        flux = new FluxChangements("p1", 16, 5);
+        for (int i = 0; i < 5; i++) {
+            flux.publier(Changement.Type.RESERVATION, RESTAURANT, JOUR + i, 1);
+        }
+        Ecouteur ecouteur = new Ecouteur();
+        assertEquals(5, flux.abonner(ecouteur, 3));
+
+        attendre(() -> ecouteur.derniereSequence() == 5);
+        assertEquals(List.of(4L, 5L), ecouteur.sequences());
+    }
+
+    @Test
+    void curseurSortiDuTamponResynchronise() throws InterruptedException {
+        flux = new FluxChangements("p1", 4, 5);
+        for (int i = 0; i < 10; i++) {
+            flux.publier(Changement.Type.RESERVATION, RESTAURANT, JOUR + i, 1);
+        }
+        Ecouteur ecouteur = new Ecouteur();
+        flux.abonner(ecouteur, 2);
+
+        attendre(() -> ecouteur.derniereSequence() == 10);
+        assertEquals(1, ecouteur.recus.size());
+        assertEquals(Changement.Type.RESYNCHRONISATION, ecouteur.recus.get(0).getType());
+        assertEquals(1, flux.getStatistiques().getInt("resynchronisations"));
+
+        // La suite est reçue normalement
+        flux.publier(Changement.Type.ANNULATION, RESTAURANT, JOUR, 1);
+        attendre(() -> ecouteur.derniereSequence() == 11);
+        assertEquals(Changement.Type.ANNULATION, ecouteur.recus.get(1).getType());
+    }
+
+    @Test
+    void sequenceInconnueResynchronise() throws InterruptedException {
+        flux = new FluxChangements("p1", 16, 5);
+        flux.publier(Changement.Type.RESERVATION, RESTAURANT, JOUR, 1);
+        Ecouteur ecouteur = new Ecouteur();
+        // Curseur d'une instance précédente, plus avancée que celle-ci
+        flux.abonner(ecouteur, 50);
+
+        attendre(() -> ecouteur.derniereSequence() == 1);
+        assertEquals(Changement.Type.RESYNCHRONISATION, ecouteur.recus.get(0).getType());
+    }
+
+    @Test
+    void abonneInjoignableRetireApresPlusieursEchecs() throws InterruptedException {
+        flux = new FluxChangements("p1", 16, 2);
+        Ecouteur ecouteur = new Ecouteur();
+        ecouteur.enPanne = true;
+        flux.abonner(ecouteur, -1);
+        flux.publier(Changement.Type.RESERVATION, RESTAURANT, JOUR, 1);
+
+        attendre(() -> flux.getStatistiques().getInt("retraits") == 1);
+        assertEquals(0, flux.getStatistiques().getInt("abonnes"));
+        assertTrue(ecouteur.recus.isEmpty());
+    }
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * Abonné local, appelé directement par le fil de diffusion.
+     */
+    private static final class Ecouteur implements EcouteurChangements {
+        private final List<Changement> recus = new CopyOnWriteArrayList<>();
+        private volatile boolean enPanne;
+
+        @Override
+        public void recevoir(String partition, List<Changement> changements) throws RemoteException {
+            if (enPanne) {
+                throw new RemoteException("abonné injoignable");
+            }
+            recus.addAll(changements);
+        }
+
+        private long derniereSequence() {
+            return recus.isEmpty() ? 0 : recus.get(recus.size() - 1).getSequence();
+        }
+
+        private List<Long> sequences() {
+            List<Long> sequences = new ArrayList<>();
+            for (Changement changement : recus) {
+                sequences.add(changement.getSequence());
+            }
+            return sequences;
+        }
+    }
+}
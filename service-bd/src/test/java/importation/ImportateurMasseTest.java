@@ -0,0 +1,106 @@
+package importation;
+
+import dao.BaseEssai;
+import dao.PoolConnexions;
+import dao.StockageEmbarque;
+import model.Restaurant;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests de l'import en masse, écrit dans la base d'essai ({@link BaseEssai}).
+ */
+class ImportateurMasseTest {
+
+    private static final String EN_TETE = "nom;adresse;telephone;latitude;longitude;tables";
+
+    @TempDir
+    Path repertoire;
+
+    private BaseEssai<StockageEnEchec> base;
+    private StockageEnEchec stockage;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = new BaseEssai<>(StockageEnEchec::new);
+        stockage = base.getStockage();
+    }
+
+    @AfterEach
+    void liberer() {
+        base.close();
+    }
+
+    @Test
+    void bilanDesRestaurantsImportesDoublonsEtRejets() throws Exception {
+        int avant = stockage.findAll().size();
+        Path fichier = csv("Import A;1 rue A;0383000001;48.69;6.18;2,4",
+                "Import B;2 rue B;0383000002;48.69;6.18;4,4,6",
+                "Import A;1 rue A;0383000001;48.69;6.18;2",
+                "Import C;3 rue C;0383000003;95;6.18;2",
+                "Import D;4 rue D;0383000004;48.69;6.18;21");
+
+        JSONObject bilan = new ImportateurMasse(stockage, 1).importer(fichier);
+
+        assertEquals(5, bilan.getInt("lus"));
+        assertEquals(2, bilan.getInt("importes"));
+        assertEquals(5, bilan.getInt("tables"));
+        assertEquals(1, bilan.getInt("doublons"));
+        assertEquals(2, bilan.getInt("rejetes"));
+        assertEquals(avant + 2, stockage.findAll().size());
+    }
+
+    @Test
+    void lotsValidesComptesMalgreUnImportInterrompu() throws Exception {
+        Path fichier = csv("Import A;1 rue A;0383000001;48.69;6.18;2",
+                "Import B;2 rue B;0383000002;48.69;6.18;2",
+                "Import C;3 rue C;0383000003;48.69;6.18;2");
+        stockage.lotsAvantEchec = 2;
+        ImportateurMasse importateur = new ImportateurMasse(stockage, 1);
+
+        assertThrows(SQLException.class, () -> importateur.importer(fichier));
+        assertEquals(2, importateur.getNbEcrits());
+    }
+
+    private Path csv(String... lignes) throws IOException {
+        Path fichier = repertoire.resolve("restaurants.csv");
+        StringBuilder contenu = new StringBuilder(EN_TETE).append('\n');
+        for (String ligne : lignes) {
+            contenu.append(ligne).append('\n');
+        }
+        Files.writeString(fichier, contenu, StandardCharsets.UTF_8);
+        return fichier;
+    }
+
+    /**
+     * Base embarquée dont l'écriture des lots échoue après un nombre donné de lots.
+     */
+    private static final class StockageEnEchec extends StockageEmbarque {
+        int lotsAvantEchec = Integer.MAX_VALUE;
+
+        StockageEnEchec(PoolConnexions pool, String script) throws SQLException, IOException {
+            super(pool, script);
+        }
+
+        @Override
+        public void importerRestaurants(List<Restaurant> restaurants, List<int[]> places) throws SQLException {
+            if (lotsAvantEchec-- <= 0) {
+                throw new SQLException("Écriture indisponible");
+            }
+            super.importerRestaurants(restaurants, places);
+        }
+    }
+}
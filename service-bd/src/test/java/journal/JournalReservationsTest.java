@@ -0,0 +1,209 @@
+package journal;
+
+import model.Reservation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.CodecDate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du journal des réservations : bascule de segment et reprise après un
+ * arrêt brutal, sur des segments écrits puis abîmés à la main.
+ */
+class JournalReservationsTest {
+
+    // Un segment de 512 octets tient six entrées de la taille de celles des tests
+    private static final int TAILLE_SEGMENT = 512;
+    private static final int PAR_SEGMENT = 6;
+
+    @TempDir
+    Path repertoire;
+
+    @Test
+    void basculeDeSegmentEtRelectureDansLOrdre() throws IOException {
+        try (JournalReservations journal = ouvrir()) {
+            for (int i = 1; i <= 20; i++) {
+                assertEquals(i, journal.journaliser(EvenementJournal.Type.RESERVATION, List.of(reservation(i))));
+            }
+            assertEquals(4, journal.getStatistiques().getInt("segments"));
+            assertEquals(20, journal.getStatistiques().getLong("derniereSequence"));
+        }
+
+        List<Long> segments = JournalReservations.listerSegments(repertoire);
+        assertEquals(List.of(1L, 1L + PAR_SEGMENT, 1L + 2 * PAR_SEGMENT, 1L + 3 * PAR_SEGMENT), segments);
+
+        try (JournalReservations journal = ouvrir()) {
+            assertEquals(ids(1, 20), relire(journal, 1));
+            // Relecture depuis le milieu d'un segment
+            assertEquals(ids(9, 20), relire(journal, 9));
+            assertEquals(21, journal.journaliser(EvenementJournal.Type.ANNULATION, List.of(reservation(3))));
+        }
+    }
+
+    @Test
+    void derniereEntreeTronqueeEffaceeALaReprise() throws IOException {
+        journaliser(1, 3);
+        List<Integer> entrees = positionsEntrees(segment(1));
+        int derniere = entrees.get(entrees.size() - 1);
+
+        // Arrêt pendant l'écriture : la fin du contenu n'a pas atteint le disque
+        try (FileChannel canal = FileChannel.open(segment(1), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int longueur = lireInt(canal, derniere);
+            canal.write(ByteBuffer.allocate(10), derniere + FormatJournal.TAILLE_ENTETE + longueur - 10);
+        }
+
+        try (JournalReservations journal = ouvrir()) {
+            assertEquals(ids(1, 2), relire(journal, 1));
+            assertEquals(2, journal.getStatistiques().getLong("derniereSequence"));
+            // La séquence de l'entrée perdue est reprise par l'écriture suivante
+            assertEquals(3, journal.journaliser(EvenementJournal.Type.RESERVATION, List.of(reservation(30))));
+        }
+        try (JournalReservations journal = ouvrir()) {
+            List<EvenementJournal> relus = evenements(journal, 1);
+            assertEquals(3, relus.size());
+            assertEquals(30, relus.get(2).getReservation().getId());
+        }
+    }
+
+    @Test
+    void derniereEntreeCorrompueRejeteeParLeCrc() throws IOException {
+        journaliser(1, 3);
+        List<Integer> entrees = positionsEntrees(segment(1));
+        int derniere = entrees.get(entrees.size() - 1);
+
+        // Longueur intacte, un octet du contenu modifié
+        try (FileChannel canal = FileChannel.open(segment(1), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int octet = derniere + FormatJournal.TAILLE_ENTETE + 20;
+            ByteBuffer valeur = ByteBuffer.allocate(1);
+            canal.read(valeur, octet);
+            canal.write(ByteBuffer.wrap(new byte[] {(byte) (valeur.get(0) ^ 0x5A)}), octet);
+        }
+
+        // Un lecteur s'arrête avant l'entrée corrompue, même avant la reprise
+        assertEquals(2, new LecteurJournal(repertoire, 1).lire(100).size());
+
+        try (JournalReservations journal = ouvrir()) {
+            assertEquals(ids(1, 2), relire(journal, 1));
+        }
+        // La fin effacée ne laisse aucun octet de l'entrée corrompue
+        assertEquals(entrees.subList(0, 2), positionsEntrees(segment(1)));
+        try (FileChannel canal = FileChannel.open(segment(1), StandardOpenOption.READ)) {
+            ByteBuffer fin = ByteBuffer.allocate(TAILLE_SEGMENT - derniere);
+            canal.read(fin, derniere);
+            for (int i = 0; i < fin.capacity(); i++) {
+                assertEquals(0, fin.get(i));
+            }
+        }
+    }
+
+    @Test
+    void segmentPleinSansSuivantALaReprise() throws IOException {
+        journaliser(1, 3);
+        List<Integer> entrees = positionsEntrees(segment(1));
+        int finDonnees = entrees.get(entrees.size() - 1) + FormatJournal.TAILLE_ENTETE
+                + lireInt(segment(1), entrees.get(entrees.size() - 1));
+
+        // Arrêt entre la marque de fin d'un segment et la création du suivant
+        try (FileChannel canal = FileChannel.open(segment(1), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(4).putInt(0, FormatJournal.FIN_SEGMENT), finDonnees);
+        }
+
+        try (JournalReservations journal = ouvrir()) {
+            assertEquals(4, journal.journaliser(EvenementJournal.Type.RESERVATION, List.of(reservation(4))));
+            assertEquals(List.of(1L, 4L), JournalReservations.listerSegments(repertoire));
+            assertEquals(ids(1, 4), relire(journal, 1));
+        }
+    }
+
+    private JournalReservations ouvrir() throws IOException {
+        return new JournalReservations(repertoire, TAILLE_SEGMENT, 5, false);
+    }
+
+    private void journaliser(int premier, int dernier) throws IOException {
+        try (JournalReservations journal = ouvrir()) {
+            for (int i = premier; i <= dernier; i++) {
+                journal.journaliser(EvenementJournal.Type.RESERVATION, List.of(reservation(i)));
+            }
+        }
+    }
+
+    private Path segment(long premiereSequence) {
+        return JournalReservations.fichierSegment(repertoire, premiereSequence);
+    }
+
+    private static Reservation reservation(int id) {
+        Reservation reservation = new Reservation(1, 1,
+                CodecDate.versSql((int) LocalDate.of(2026, 6, 15).toEpochDay()), "Client", "Test", "0600000000", 2);
+        reservation.setId(id);
+        return reservation;
+    }
+
+    private static List<EvenementJournal> evenements(JournalReservations journal, long depuis) throws IOException {
+        List<EvenementJournal> evenements = new ArrayList<>();
+        journal.rejouer(depuis, evenements::add);
+        return evenements;
+    }
+
+    /**
+     * Relit le journal et vérifie que les séquences se suivent.
+     *
+     * @return les identifiants des réservations relues
+     */
+    private static List<Integer> relire(JournalReservations journal, long depuis) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        long attendue = depuis;
+        for (EvenementJournal evenement : evenements(journal, depuis)) {
+            assertEquals(attendue++, evenement.getSequence());
+            ids.add(evenement.getReservation().getId());
+        }
+        return ids;
+    }
+
+    private static List<Integer> ids(int premier, int dernier) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = premier; i <= dernier; i++) {
+            ids.add(i);
+        }
+        return ids;
+    }
+
+    /**
+     * Positions des en-têtes des entrées d'un segment, jusqu'à la première longueur nulle.
+     */
+    private static List<Integer> positionsEntrees(Path segment) throws IOException {
+        List<Integer> positions = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(segment, StandardOpenOption.READ)) {
+            int position = 0;
+            int longueur;
+            while (position + 4 <= canal.size() && (longueur = lireInt(canal, position)) > 0) {
+                positions.add(position);
+                position += FormatJournal.TAILLE_ENTETE + longueur;
+            }
+        }
+        assertTrue(positions.size() > 0);
+        return positions;
+    }
+
+    private static int lireInt(Path segment, int position) throws IOException {
+        try (FileChannel canal = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return lireInt(canal, position);
+        }
+    }
+
+    private static int lireInt(FileChannel canal, int position) throws IOException {
+        ByteBuffer valeur = ByteBuffer.allocate(4);
+        canal.read(valeur, position);
+        return valeur.getInt(0);
+    }
+}
@@ -0,0 +1,120 @@
+package options;
+
+import model.OptionTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du registre des options sur les tables.
+ */
+class OptionsTablesTest {
+
+    private static final int TABLE = 7;
+    private static final int RESTAURANT = 2;
+    private static final int JOUR = 20_000;
+    private static final int CRENEAU = 1;
+
+    private final List<OptionTable> expirees = new CopyOnWriteArrayList<>();
+    private OptionsTables options;
+
+    @BeforeEach
+    void preparer() {
+        options = new OptionsTables(expirees::add);
+    }
+
+    @AfterEach
+    void liberer() {
+        options.close();
+    }
+
+    @Test
+    void uneSeuleOptionParCreneau() {
+        OptionTable option = options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000);
+        assertNotNull(option);
+        assertTrue(options.estPrise(TABLE, JOUR, CRENEAU));
+        assertNull(options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000));
+        assertNotNull(options.poser(TABLE, RESTAURANT, JOUR, CRENEAU + 1, 60_000));
+        assertEquals(List.of(option.getId()), options.lister(RESTAURANT, JOUR, JOUR).stream()
+                .filter(o -> o.getCreneauId() == CRENEAU).map(OptionTable::getId).toList());
+    }
+
+    @Test
+    void leveeLibereLaTable() {
+        OptionTable option = options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000);
+        assertNotNull(options.lever(option.getId()));
+        assertNull(options.lever(option.getId()));
+        assertFalse(options.estPrise(TABLE, JOUR, CRENEAU));
+        assertNull(options.consulter(option.getId()));
+        assertNotNull(options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000));
+    }
+
+    @Test
+    void tableRetenuePendantLaConfirmation() {
+        OptionTable option = options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000);
+        assertNotNull(options.confirmer(option.getId()));
+
+        assertTrue(options.estPrise(TABLE, JOUR, CRENEAU));
+        assertNull(options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000));
+        assertNull(options.consulter(option.getId()));
+        assertNull(options.confirmer(option.getId()));
+        assertNull(options.lever(option.getId()));
+
+        options.terminerConfirmation(option.getId());
+        assertFalse(options.estPrise(TABLE, JOUR, CRENEAU));
+        assertEquals(1, options.getStatistiques().getInt("confirmees"));
+        assertNotNull(options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000));
+    }
+
+    @Test
+    void confirmationAnnuleeRendLOption() {
+        OptionTable option = options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000);
+        assertNotNull(options.confirmer(option.getId()));
+        options.annulerConfirmation(option.getId());
+
+        assertTrue(options.estPrise(TABLE, JOUR, CRENEAU));
+        assertNotNull(options.consulter(option.getId()));
+        assertEquals(1, options.getStatistiques().getInt("rendues"));
+        assertNotNull(options.confirmer(option.getId()));
+    }
+
+    @Test
+    void pasDExpirationPendantLaConfirmation() throws InterruptedException {
+        OptionTable option = options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 500);
+        assertNotNull(options.confirmer(option.getId()));
+        Thread.sleep(option.getExpireLe() - System.currentTimeMillis() + 50);
+
+        assertTrue(options.estPrise(TABLE, JOUR, CRENEAU));
+        assertNull(options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000));
+
+        // Rendue après son échéance : l'option expire aussitôt
+        options.annulerConfirmation(option.getId());
+        assertFalse(options.estPrise(TABLE, JOUR, CRENEAU));
+        assertEquals(List.of(option.getId()), expirees.stream().map(OptionTable::getId).toList());
+        assertNotNull(options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 60_000));
+    }
+
+    @Test
+    void optionEchueIgnoreeEtRetireeParLaRoue() throws InterruptedException {
+        OptionTable option = options.poser(TABLE, RESTAURANT, JOUR, CRENEAU, 1);
+        Thread.sleep(10);
+        assertFalse(options.estPrise(TABLE, JOUR, CRENEAU));
+        assertNull(options.confirmer(option.getId()));
+
+        long limite = System.currentTimeMillis() + 5_000;
+        while (expirees.isEmpty() && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+        }
+        assertEquals(List.of(option.getId()), expirees.stream().map(OptionTable::getId).toList());
+        assertEquals(0, options.getStatistiques().getInt("actives"));
+    }
+}
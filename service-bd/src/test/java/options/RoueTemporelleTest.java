@@ -0,0 +1,120 @@
+package options;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de la roue temporelle.
+ */
+class RoueTemporelleTest {
+
+    private RoueTemporelle roue;
+
+    @AfterEach
+    void liberer() {
+        if (roue != null) {
+            roue.close();
+        }
+    }
+
+    @Test
+    void roueInvalideRefusee() {
+        assertThrows(IllegalArgumentException.class, () -> new RoueTemporelle("roue-test", 0, 8));
+        assertThrows(IllegalArgumentException.class, () -> new RoueTemporelle("roue-test", 10, 0));
+    }
+
+    @Test
+    void actionExecuteeApresSonDelai() throws InterruptedException {
+        roue = new RoueTemporelle("roue-test", 10, 64);
+        CountDownLatch executee = new CountDownLatch(1);
+        AtomicLong executeeLe = new AtomicLong();
+        long planifieeLe = System.nanoTime();
+        roue.planifier(200, () -> {
+            executeeLe.set(System.nanoTime());
+            executee.countDown();
+        });
+
+        assertTrue(executee.await(5, TimeUnit.SECONDS));
+        // Précision d'un pas, à la gigue de l'ordonnanceur près
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(executeeLe.get() - planifieeLe) >= 180);
+        attendre(() -> roue.getEnAttente() == 0 && roue.getNbExecutees() == 1);
+    }
+
+    @Test
+    void delaiDePlusieursToursDeRoue() throws InterruptedException {
+        // 4 godets de 5 ms : 100 ms font cinq tours
+        roue = new RoueTemporelle("roue-test", 5, 4);
+        CountDownLatch executee = new CountDownLatch(1);
+        long planifieeLe = System.nanoTime();
+        roue.planifier(100, executee::countDown);
+
+        Thread.sleep(50);
+        assertEquals(1, executee.getCount());
+        assertTrue(executee.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - planifieeLe) >= 90);
+    }
+
+    @Test
+    void echeanceAnnuleeNonExecuteeEtRetiree() throws InterruptedException {
+        roue = new RoueTemporelle("roue-test", 5, 8);
+        AtomicInteger executions = new AtomicInteger();
+        RoueTemporelle.Echeance echeance = roue.planifier(30, executions::incrementAndGet);
+        echeance.annuler();
+        assertEquals(1, roue.getEnAttente());
+
+        attendre(() -> roue.getEnAttente() == 0);
+        Thread.sleep(50);
+        assertEquals(0, executions.get());
+        assertEquals(0, roue.getNbExecutees());
+    }
+
+    @Test
+    void actionEnErreurNArretePasLaRoue() throws InterruptedException {
+        roue = new RoueTemporelle("roue-test", 5, 8);
+        CountDownLatch suivante = new CountDownLatch(1);
+        roue.planifier(10, () -> {
+            throw new IllegalStateException("action en erreur");
+        });
+        roue.planifier(40, suivante::countDown);
+
+        assertTrue(suivante.await(5, TimeUnit.SECONDS));
+        attendre(() -> roue.getEnAttente() == 0 && roue.getNbExecutees() == 1);
+    }
+
+    @Test
+    void toutesLesEcheancesExecuteesUneFois() throws InterruptedException {
+        roue = new RoueTemporelle("roue-test", 2, 16);
+        int nombre = 1000;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch toutes = new CountDownLatch(nombre);
+        for (int i = 0; i < nombre; i++) {
+            roue.planifier(i % 97, () -> {
+                executions.incrementAndGet();
+                toutes.countDown();
+            });
+        }
+
+        assertTrue(toutes.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(nombre, executions.get());
+        assertEquals(0, roue.getEnAttente());
+    }
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,200 @@
+package rmi;
+
+import dao.BaseEssai;
+import dao.PoolConnexions;
+import dao.StockageEmbarque;
+import model.OccupationCreneau;
+import model.OptionTable;
+import model.Reservation;
+import model.ResultatReservation;
+import model.TableResto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du service BD sur la base d'essai ({@link BaseEssai}).
+ */
+class BaseDonneeTest {
+
+    private static final int RESTAURANT = BaseEssai.RESTAURANT;
+    private static final int CRENEAU = BaseEssai.DEJEUNER;
+
+    private BaseEssai<StockageEnPanne> base;
+    private StockageEnPanne stockage;
+    private BaseDonnee service;
+    private String date;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        base = new BaseEssai<>(StockageEnPanne::new);
+        stockage = base.getStockage();
+        service = new BaseDonnee(stockage, new ParametresBaseDonnee());
+        date = LocalDate.now().plusDays(7).toString();
+    }
+
+    @AfterEach
+    void liberer() {
+        service.close();
+        base.close();
+    }
+
+    @Test
+    void meilleureTablePrendLaPlusPetiteQuiConvient() throws Exception {
+        ResultatReservation resultat = service.reserverMeilleureTable(RESTAURANT, date, CRENEAU, 5,
+                "Dupont", "Alice", "0600000001");
+        assertTrue(resultat.isSucces());
+        assertEquals(6, resultat.getReservation().getTable().getNbPlaces());
+    }
+
+    @Test
+    void meilleureTableRefuseUneDemandeIncomplete() {
+        assertRefusee("Créneau invalide", () -> service.reserverMeilleureTable(RESTAURANT, date, 0, 2,
+                "Dupont", "Alice", "0600000001"));
+        assertRefusee("Le nombre de convives doit être positif", () -> service.reserverMeilleureTable(
+                RESTAURANT, date, CRENEAU, 0, "Dupont", "Alice", "0600000001"));
+        assertRefusee("Nom et prénom du client obligatoires", () -> service.reserverMeilleureTable(
+                RESTAURANT, date, CRENEAU, 2, " ", "Alice", "0600000001"));
+        assertRefusee("Nom et prénom du client obligatoires", () -> service.reserverMeilleureTable(
+                RESTAURANT, date, CRENEAU, 2, "Dupont", null, "0600000001"));
+        assertRefusee("Numéro de téléphone invalide", () -> service.reserverMeilleureTable(
+                RESTAURANT, date, CRENEAU, 2, "Dupont", "Alice", ""));
+        assertThrows(IllegalArgumentException.class, () -> service.reserverMeilleureTable(
+                RESTAURANT, "2025-02-30", CRENEAU, 2, "Dupont", "Alice", "0600000001"));
+    }
+
+    @Test
+    void annulationValideeMemeSiLeReferentielNePeutEtreRelu() throws Exception {
+        Reservation reservation = reservation(1);
+        assertTrue(service.reserver(reservation).isSucces());
+
+        stockage.referentielIndisponible = true;
+        service.invaliderReferentiel();
+        assertTrue(service.annuler(reservation.getId()).isSucces());
+
+        stockage.referentielIndisponible = false;
+        assertTrue(service.estDisponible(reservation.getTableId(), date, CRENEAU));
+        assertTrue(service.reserver(reservation(1)).isSucces());
+    }
+
+    @Test
+    void reservationRefuseeAvantEcritureSiLeReferentielNePeutEtreLu() throws Exception {
+        Reservation reservation = reservation(1);
+        stockage.referentielIndisponible = true;
+        service.invaliderReferentiel();
+        assertThrows(IllegalStateException.class, () -> service.reserver(reservation));
+
+        stockage.referentielIndisponible = false;
+        assertTrue(service.estDisponible(reservation.getTableId(), date, CRENEAU));
+        assertTrue(service.reserver(reservation).isSucces());
+        assertFalse(service.estDisponible(reservation.getTableId(), date, CRENEAU));
+    }
+
+    @Test
+    void optionGardeeSiLaConfirmationEchoue() throws Exception {
+        Reservation reservation = reservation(2);
+        OptionTable option = service.poserOption(reservation.getTableId(), date, CRENEAU, 0);
+        assertNotNull(option);
+
+        stockage.ecritureIndisponible = true;
+        assertThrows(IllegalStateException.class, () -> service.confirmerOption(option.getId(), reservation));
+        assertFalse(service.estDisponible(reservation.getTableId(), date, CRENEAU));
+        assertFalse(service.reserver(reservation(2)).isSucces());
+
+        stockage.ecritureIndisponible = false;
+        assertTrue(service.confirmerOption(option.getId(), reservation).isSucces());
+        assertFalse(service.estDisponible(reservation.getTableId(), date, CRENEAU));
+        assertFalse(service.leverOption(option.getId()));
+    }
+
+    @Test
+    void dureeDOptionHorsLimitesRefusee() throws Exception {
+        int tableId = reservation(1).getTableId();
+        assertRefusee("Durée d'option invalide (0 pour la durée par défaut, ou 1 à 900 secondes)",
+                () -> service.poserOption(tableId, date, CRENEAU, 901));
+        assertRefusee("Durée d'option invalide (0 pour la durée par défaut, ou 1 à 900 secondes)",
+                () -> service.poserOption(tableId, date, CRENEAU, -1));
+        assertNotNull(service.poserOption(tableId, date, CRENEAU, 0));
+    }
+
+    @Test
+    void occupationDUnRestaurantInconnuRefusee() {
+        assertRefusee("Restaurant inconnu : 999", () -> service.getOccupation(999, date));
+    }
+
+    @Test
+    void occupationLueEnBaseParUnReplica() throws Exception {
+        assertTrue(service.reserver(reservation(2)).isSucces());
+        ParametresBaseDonnee parametres = new ParametresBaseDonnee();
+        parametres.partition = parametres.partition.enLectureSeule();
+        BaseDonnee replica = new BaseDonnee(stockage, parametres);
+        try {
+            for (BaseDonnee instance : List.of(service, replica)) {
+                List<OccupationCreneau> occupation = instance.getOccupation(RESTAURANT, date);
+                OccupationCreneau dejeuner = occupation.stream()
+                        .filter(o -> o.getCreneauId() == CRENEAU)
+                        .findFirst()
+                        .orElseThrow();
+                assertEquals(1, dejeuner.getTablesReservees());
+                assertEquals(2, dejeuner.getCouvertsReserves());
+                assertEquals(6, dejeuner.getNbTables());
+            }
+        } finally {
+            replica.close();
+        }
+    }
+
+    private Reservation reservation(int numeroTable) throws SQLException {
+        int tableId = stockage.findAllTables().stream()
+                .filter(t -> t.getRestaurantId() == RESTAURANT && t.getNumeroTable() == numeroTable)
+                .mapToInt(TableResto::getId)
+                .findFirst()
+                .orElseThrow();
+        return new Reservation(tableId, CRENEAU, java.sql.Date.valueOf(date), "Dupont", "Alice", "0600000001", 2);
+    }
+
+    private static void assertRefusee(String message, Executable appel) {
+        assertEquals(message, assertThrows(IllegalArgumentException.class, appel).getMessage());
+    }
+
+    /**
+     * Base embarquée dont la lecture des tables du référentiel et l'écriture
+     * d'une réservation peuvent être mises en échec.
+     */
+    private static final class StockageEnPanne extends StockageEmbarque {
+        volatile boolean referentielIndisponible;
+        volatile boolean ecritureIndisponible;
+
+        StockageEnPanne(PoolConnexions pool, String script) throws SQLException, IOException {
+            super(pool, script);
+        }
+
+        @Override
+        public List<TableResto> findAllTables() throws SQLException {
+            if (referentielIndisponible) {
+                throw new SQLException("Référentiel indisponible");
+            }
+            return super.findAllTables();
+        }
+
+        @Override
+        public boolean reserverTable(Reservation reservation) throws SQLException {
+            if (ecritureIndisponible) {
+                throw new SQLException("Écriture indisponible");
+            }
+            return super.reserverTable(reservation);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import utils.Configurateur;
  * - Port HTTP pour les APIs REST
  * - Configuration HTTPS (activation, port, certificats)
  * - Chemins et mots de passe des keystores SSL
+ * - Fenêtre de cohérence des lectures après une écriture
  */
 public class CentralConfig {
 
@@ -50,6 +51,29 @@ public class CentralConfig {
      */
     public final String keystorePassword;
 
+    /**
+     * Durée en millisecondes pendant laquelle les lectures d'un client qui vient
+     * d'écrire vont à la partition principale plutôt qu'à un réplica (0 pour désactiver).
+     */
+    public final long fenetreCoherenceMs;
+
+    /**
+     * Nombre maximal de réponses gardées dans le cache invalidé par le flux
+     * de changements du service BD (0 pour désactiver).
+     */
+    public final int cacheReponsesMax;
+
+    /**
+     * Nombre maximal de clés d'idempotence des réservations gardées avec leur réponse.
+     */
+    public final int idempotenceMax;
+
+    /**
+     * Durée de vie en secondes d'une clé d'idempotence : un renvoi plus tardif
+     * est traité comme une nouvelle réservation.
+     */
+    public final long idempotenceTtlSecondes;
+
     /**
      * Constructeur qui charge la configuration depuis le ConfigManager.
      *
@@ -60,6 +84,10 @@ public class CentralConfig {
      * - central.https.port : Port HTTPS
      * - central.keystore.path : Chemin du keystore
      * - central.keystore.password : Mot de passe du keystore
+     * - central.lecture.coherence.ms : Fenêtre de cohérence des lectures
+     * - central.cache.reponses.max : Taille du cache des réponses
+     * - central.idempotence.max : Nombre de clés d'idempotence gardées
+     * - central.idempotence.ttl.secondes : Durée de vie d'une clé d'idempotence
      *
      * @param config le gestionnaire de configuration initialisé
      */
@@ -70,5 +98,9 @@ public class CentralConfig {
         this.httpsPort = config.getInt("central.https.port");
         this.keystorePath = config.getString("central.keystore.path");
         this.keystorePassword = config.getString("central.keystore.password");
+        this.fenetreCoherenceMs = config.getInt("central.lecture.coherence.ms");
+        this.cacheReponsesMax = config.getInt("central.cache.reponses.max");
+        this.idempotenceMax = config.getInt("central.idempotence.max");
+        this.idempotenceTtlSecondes = config.getInt("central.idempotence.ttl.secondes");
     }
 }
\ No newline at end of file
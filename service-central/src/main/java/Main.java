@@ -1,5 +1,6 @@
 import server.HttpServerCentral;
 import interfaces.ServiceCentral;
+import cache.ReponsesIdempotentes;
 import rmi.Serveur;
 import utils.Configurateur;
 
@@ -14,6 +15,9 @@ public class Main {
 
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
 
+    /** Délai maximal d'attente d'un renvoi pendant que la réservation d'origine est en cours. */
+    private static final long IDEMPOTENCE_ATTENTE_MAX_MS = 30_000;
+
     public static void main(String[] args) {
         try {
             Configurateur configurateur = new Configurateur(args.length > 0 ? args[0] : null);
@@ -24,7 +28,9 @@ public class Main {
 
             Registry registry = createOrGetRegistry(config.rmiPort);
 
-            Serveur serveur = new Serveur();
+            Serveur serveur = new Serveur(config.fenetreCoherenceMs, config.cacheReponsesMax,
+                    new ReponsesIdempotentes(config.idempotenceMax, config.idempotenceTtlSecondes * 1000,
+                            IDEMPOTENCE_ATTENTE_MAX_MS));
 
             // EXPORTER l'objet RMI dans le main
             ServiceCentral serviceCentralStub = (ServiceCentral) UnicastRemoteObject.exportObject(serveur, 0);
@@ -59,6 +65,10 @@ public class Main {
         } else {
             LOGGER.info("HTTP Port: " + config.httpPort);
         }
+        LOGGER.info("Fenêtre de cohérence des lectures: " + config.fenetreCoherenceMs + " ms");
+        LOGGER.info("Cache des réponses: " + config.cacheReponsesMax + " réponses au plus");
+        LOGGER.info("Clés d'idempotence: " + config.idempotenceMax + " au plus, gardées "
+                + config.idempotenceTtlSecondes + " s");
     }
 
     private static Registry createOrGetRegistry(int rmiPort) throws Exception {
@@ -0,0 +1,208 @@
+package cache;
+
+import model.Changement;
+import org.json.JSONObject;
+
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Cache des réponses JSON du service central qui dépendent des réservations
+ * d'un restaurant (tables libres, statut des tables, disponibilités, occupation).
+ *
+ * Les réponses n'expirent pas : elles sont invalidées par le flux de changements
+ * du service BD. Chaque réponse est rangée sous son restaurant avec la période
+ * qu'elle couvre, et un changement sur un créneau ne retire que les réponses du
+ * restaurant dont la période contient son jour. Un changement global vide le cache.
+ *
+ * Une réponse calculée pendant qu'un changement de son restaurant est reçu n'est
+ * pas gardée : elle a pu être lue avant ce changement. La version du restaurant
+ * est relue après l'ajout d'une réponse, pour retirer celle qu'un changement
+ * reçu pendant l'ajout n'aurait pas vue. Le cache ne sert que s'il
+ * est actif, c'est-à-dire tant que toutes les partitions du service BD inscrites
+ * sont abonnées au flux.
+ */
+public class CacheReponses {
+
+    private static final Logger LOGGER = Logger.getLogger(CacheReponses.class.getName());
+
+    /**
+     * Calcul d'une réponse absente du cache.
+     */
+    @FunctionalInterface
+    public interface Calcul {
+        String calculer() throws RemoteException;
+    }
+
+    private final int tailleMax;
+    private final Map<Integer, Map<String, Entree>> parRestaurant = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong versionGlobale = new AtomicLong();
+    private final AtomicInteger taille = new AtomicInteger();
+    private volatile boolean actif;
+
+    private final LongAdder nbLectures = new LongAdder();
+    private final LongAdder nbSucces = new LongAdder();
+    private final LongAdder nbChangements = new LongAdder();
+    private final LongAdder nbRetraits = new LongAdder();
+    private final LongAdder nbVidages = new LongAdder();
+
+    /**
+     * Constructeur du cache, inactif jusqu'à {@link #activer(boolean)}.
+     *
+     * @param tailleMax nombre maximal de réponses gardées (0 pour désactiver le cache)
+     */
+    public CacheReponses(int tailleMax) {
+        this.tailleMax = tailleMax;
+    }
+
+    /**
+     * Retourne la réponse gardée pour une clé, ou la calcule et la garde.
+     *
+     * @param cle clé de la réponse, unique pour la requête
+     * @param restaurantId restaurant dont dépend la réponse
+     * @param jourDebut premier jour couvert par la réponse (voir CodecDate)
+     * @param jourFin dernier jour couvert par la réponse
+     * @param calcul calcul de la réponse ; une exception n'est pas gardée
+     * @return la réponse JSON
+     * @throws RemoteException si le calcul échoue
+     */
+    public String lire(String cle, int restaurantId, int jourDebut, int jourFin, Calcul calcul)
+            throws RemoteException {
+        if (!actif) {
+            return calcul.calculer();
+        }
+        nbLectures.increment();
+        Map<String, Entree> entrees = parRestaurant.computeIfAbsent(restaurantId, id -> new ConcurrentHashMap<>());
+        Entree entree = entrees.get(cle);
+        if (entree != null) {
+            nbSucces.increment();
+            return entree.reponse;
+        }
+
+        AtomicLong version = versions.computeIfAbsent(restaurantId, id -> new AtomicLong());
+        long versionAvant = version.get();
+        long globaleAvant = versionGlobale.get();
+        String reponse = calcul.calculer();
+        Entree nouvelle = new Entree(reponse, jourDebut, jourFin);
+        if (version.get() == versionAvant && versionGlobale.get() == globaleAvant
+                && taille.get() < tailleMax && entrees.putIfAbsent(cle, nouvelle) == null) {
+            taille.incrementAndGet();
+            // Un changement reçu entre le contrôle et l'ajout a pu parcourir les entrées
+            // avant celle-ci : elle est retirée, le retrait ne pouvant réussir qu'une fois
+            if ((version.get() != versionAvant || versionGlobale.get() != globaleAvant)
+                    && entrees.remove(cle, nouvelle)) {
+                taille.decrementAndGet();
+            }
+        }
+        return reponse;
+    }
+
+    /**
+     * Applique un changement reçu du service BD.
+     *
+     * @param changement le changement
+     */
+    public void invalider(Changement changement) {
+        nbChangements.increment();
+        if (changement.isGlobal()) {
+            vider();
+            return;
+        }
+        int restaurantId = changement.getRestaurantId();
+        // La version change avant le retrait : un calcul en cours ne sera pas gardé
+        versions.computeIfAbsent(restaurantId, id -> new AtomicLong()).incrementAndGet();
+        Map<String, Entree> entrees = parRestaurant.get(restaurantId);
+        if (entrees == null) {
+            return;
+        }
+        int jour = changement.getJour();
+        entrees.entrySet().removeIf(e -> {
+            Entree entree = e.getValue();
+            if (jour < entree.jourDebut || jour > entree.jourFin) {
+                return false;
+            }
+            taille.decrementAndGet();
+            nbRetraits.increment();
+            return true;
+        });
+    }
+
+    /**
+     * Retire toutes les réponses gardées.
+     */
+    public void vider() {
+        versionGlobale.incrementAndGet();
+        // Les entrées sont retirées une à une : un ajout concurrent reste compté juste
+        for (Map<String, Entree> entrees : parRestaurant.values()) {
+            for (String cle : entrees.keySet()) {
+                if (entrees.remove(cle) != null) {
+                    taille.decrementAndGet();
+                }
+            }
+        }
+        nbVidages.increment();
+    }
+
+    /**
+     * Active ou désactive le cache. Un cache désactivé est vidé : il ne reçoit
+     * plus tous les changements et ses réponses pourraient être périmées.
+     *
+     * @param actif true si toutes les partitions sont abonnées au flux de changements
+     */
+    public void activer(boolean actif) {
+        boolean actifDemande = actif && tailleMax > 0;
+        if (!actifDemande) {
+            vider();
+        }
+        if (this.actif != actifDemande) {
+            LOGGER.info("Cache des réponses " + (actifDemande ? "activé" : "désactivé"));
+        }
+        this.actif = actifDemande;
+    }
+
+    /**
+     * @return true si le cache sert et garde des réponses
+     */
+    public boolean isActif() {
+        return actif;
+    }
+
+    /**
+     * Retourne les statistiques du cache.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        stats.put("actif", actif);
+        stats.put("tailleMax", tailleMax);
+        stats.put("entrees", taille.get());
+        stats.put("lectures", nbLectures.sum());
+        stats.put("succes", nbSucces.sum());
+        stats.put("changements", nbChangements.sum());
+        stats.put("retraits", nbRetraits.sum());
+        stats.put("vidages", nbVidages.sum());
+        return stats;
+    }
+
+    /**
+     * Réponse gardée et période qu'elle couvre.
+     */
+    private static final class Entree {
+        private final String reponse;
+        private final int jourDebut;
+        private final int jourFin;
+
+        private Entree(String reponse, int jourDebut, int jourFin) {
+            this.reponse = reponse;
+            this.jourDebut = jourDebut;
+            this.jourFin = jourFin;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package cache;
+
+import org.json.JSONObject;
+
+import java.rmi.RemoteException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Réponses des requêtes d'écriture, gardées par clé d'idempotence.
+ *
+ * Un client qui renvoie une requête après un délai dépassé la renvoie avec la
+ * même clé : il reçoit alors la réponse de la première exécution, sans que la
+ * réservation soit tentée une seconde fois. Si la première exécution est encore
+ * en cours, le renvoi attend sa réponse. Une exécution qui échoue par exception
+ * (service BD indisponible) n'est pas gardée, et peut être retentée.
+ *
+ * Chaque clé est propre au client qui l'a choisie : deux clients peuvent tirer
+ * la même clé sans conflit, et un client ne peut pas lire la réponse d'un autre.
+ *
+ * Les clés sont gardées dans l'ordre de leur première utilisation, au plus
+ * pendant leur durée de vie et en nombre limité : les plus anciennes sont
+ * retirées en premier, sauf celles dont l'exécution est encore en cours, qu'un
+ * renvoi doit pouvoir attendre. Si toutes les clés gardées sont en cours, une
+ * nouvelle clé est refusée.
+ */
+public class ReponsesIdempotentes {
+
+    /**
+     * Exécution de la requête lors de la première utilisation d'une clé.
+     */
+    @FunctionalInterface
+    public interface Execution {
+        String executer() throws RemoteException;
+    }
+
+    private final int tailleMax;
+    private final long ttlMs;
+    private final long attenteMaxMs;
+    // Ordre d'insertion : la plus ancienne clé est aussi la première à expirer
+    private final LinkedHashMap<Cle, Entree> entrees = new LinkedHashMap<>();
+
+    private final LongAdder nbExecutions = new LongAdder();
+    private final LongAdder nbRejouees = new LongAdder();
+    private final LongAdder nbConflits = new LongAdder();
+    private final LongAdder nbRefusees = new LongAdder();
+
+    /**
+     * Constructeur.
+     *
+     * @param tailleMax nombre maximal de clés gardées
+     * @param ttlMs durée de vie d'une clé en millisecondes
+     * @param attenteMaxMs délai maximal d'attente d'une exécution en cours
+     */
+    public ReponsesIdempotentes(int tailleMax, long ttlMs, long attenteMaxMs) {
+        this.tailleMax = tailleMax;
+        this.ttlMs = ttlMs;
+        this.attenteMaxMs = attenteMaxMs;
+    }
+
+    /**
+     * Exécute une requête, ou retourne la réponse déjà obtenue pour sa clé.
+     *
+     * @param client identifiant du client qui envoie la requête
+     * @param cle clé d'idempotence de la requête, choisie par le client
+     * @param corps corps de la requête, qui doit être le même à chaque envoi de la clé
+     * @param execution exécution de la requête
+     * @return la réponse de la première exécution
+     * @throws IllegalArgumentException si la clé a déjà servi pour un autre corps
+     * @throws IllegalStateException si toutes les clés gardées sont en cours d'exécution
+     * @throws RemoteException si l'exécution échoue ou que l'attente d'une exécution en cours expire
+     */
+    public String executer(String client, String cle, String corps, Execution execution) throws RemoteException {
+        Cle cleClient = new Cle(client, cle);
+        Entree entree;
+        boolean premiere = false;
+        synchronized (entrees) {
+            purger(System.currentTimeMillis());
+            entree = entrees.get(cleClient);
+            if (entree == null) {
+                if (entrees.size() >= tailleMax && !retirerPlusAncienneTerminee()) {
+                    nbRefusees.increment();
+                    throw new IllegalStateException("Trop de requêtes en cours, réessayer plus tard");
+                }
+                entree = new Entree(corps, System.currentTimeMillis() + ttlMs);
+                entrees.put(cleClient, entree);
+                premiere = true;
+            }
+        }
+
+        if (!premiere) {
+            if (!entree.corps.equals(corps)) {
+                nbConflits.increment();
+                throw new IllegalArgumentException("Clé d'idempotence déjà utilisée pour une autre requête");
+            }
+            nbRejouees.increment();
+            return attendre(entree);
+        }
+
+        nbExecutions.increment();
+        try {
+            String reponse = execution.executer();
+            entree.reponse.complete(reponse);
+            return reponse;
+        } catch (RemoteException | RuntimeException e) {
+            synchronized (entrees) {
+                entrees.remove(cleClient, entree);
+            }
+            entree.reponse.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne les statistiques des clés d'idempotence.
+     *
+     * @return statistiques au format JSON
+     */
+    public JSONObject getStatistiques() {
+        JSONObject stats = new JSONObject();
+        synchronized (entrees) {
+            stats.put("cles", entrees.size());
+        }
+        stats.put("tailleMax", tailleMax);
+        stats.put("ttlMs", ttlMs);
+        stats.put("executions", nbExecutions.sum());
+        stats.put("rejouees", nbRejouees.sum());
+        stats.put("conflits", nbConflits.sum());
+        stats.put("refusees", nbRefusees.sum());
+        return stats;
+    }
+
+    private String attendre(Entree entree) throws RemoteException {
+        try {
+            return entree.reponse.get(attenteMaxMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Attente de la requête d'origine interrompue");
+        } catch (TimeoutException e) {
+            throw new RemoteException("Requête d'origine toujours en cours après " + attenteMaxMs + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RemoteException) {
+                throw (RemoteException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RemoteException("Échec de la requête d'origine", cause);
+        }
+    }
+
+    /**
+     * Retire les clés expirées, qui sont en tête de l'ordre d'insertion.
+     */
+    private void purger(long maintenant) {
+        Iterator<Entree> iterateur = entrees.values().iterator();
+        while (iterateur.hasNext()) {
+            Entree entree = iterateur.next();
+            if (entree.expireLe > maintenant) {
+                return;
+            }
+            iterateur.remove();
+        }
+    }
+
+    /**
+     * Retire la plus ancienne clé dont l'exécution est terminée.
+     *
+     * @return false si toutes les clés gardées sont en cours d'exécution
+     */
+    private boolean retirerPlusAncienneTerminee() {
+        Iterator<Entree> iterateur = entrees.values().iterator();
+        while (iterateur.hasNext()) {
+            if (iterateur.next().reponse.isDone()) {
+                iterateur.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clé d'idempotence, propre au client qui l'a choisie.
+     */
+    private static final class Cle {
+        private final String client;
+        private final String cle;
+
+        private Cle(String client, String cle) {
+            this.client = client;
+            this.cle = cle;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Cle)) {
+                return false;
+            }
+            Cle autre = (Cle) obj;
+            return Objects.equals(client, autre.client) && cle.equals(autre.cle);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(client, cle);
+        }
+    }
+
+    /**
+     * Corps d'une requête et réponse de sa première exécution.
+     */
+    private static final class Entree {
+        private final String corps;
+        private final long expireLe;
+        private final CompletableFuture<String> reponse = new CompletableFuture<>();
+
+        private Entree(String corps, long expireLe) {
+            this.corps = corps;
+            this.expireLe = expireLe;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import rmi.Serveur;
+import utils.CodecDate;
+import utils.HttpUtils;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Handler HTTP pour les analyses d'occupation des restaurants.
+ *
+ * Les tableaux de bord des gérants y lisent les taux d'occupation d'une période,
+ * par restaurant, par créneau et par jour de la semaine, en une seule requête.
+ * Le service BD garde les analyses calculées : un tableau de bord rafraîchi
+ * relit la même analyse tant qu'aucune réservation ne la modifie.
+ *
+ * Endpoints gérés :
+ * - GET /analyses/occupation?from=&to= : Tous les restaurants
+ * - GET /analyses/occupation/{restaurantId}?from=&to= : Un restaurant
+ */
+public class AnalysesHandler implements HttpHandler {
+
+    private static final int NB_JOURS_PAR_DEFAUT = 28;
+
+    private final Serveur serviceCentral;
+
+    /**
+     * Constructeur du handler des analyses.
+     *
+     * @param serviceCentral l'instance du service central qui fait le lien avec le service BD
+     */
+    public AnalysesHandler(Serveur serviceCentral) {
+        this.serviceCentral = serviceCentral;
+    }
+
+    /**
+     * Gère les endpoints GET /analyses/occupation et /analyses/occupation/{restaurantId}.
+     *
+     * Paramètres (optionnels) :
+     * - from, to : période au format yyyy-MM-dd (par défaut, les 28 jours qui finissent
+     *   aujourd'hui), 366 jours au plus
+     *
+     * Exemple : /analyses/occupation/1?from=2025-06-01&to=2025-06-30
+     *
+     * Structure de réponse :
+     * {
+     *   "restaurantId": 1 (si demandé),
+     *   "dateDebut": "2025-06-01",
+     *   "dateFin": "2025-06-30",
+     *   "nbJours": 30,
+     *   "total": { "tablesReservees": 210, "tablesOffertes": 900, "tauxOccupation": 0.23, ... },
+     *   "parRestaurant": [ { "restaurantId": 1, ... } ],
+     *   "parCreneau": [ { "creneauId": 1, ... } ],
+     *   "parJourSemaine": [ { "jourSemaine": 1, ... } ]  (1 = lundi)
+     * }
+     *
+     * Chaque agrégat donne les tables et couverts réservés, les tables et places
+     * offertes (chaque table à chaque créneau actif de chaque date), le taux
+     * d'occupation des tables et le taux de remplissage des places.
+     *
+     * Réponses d'erreur possibles :
+     * - 400 Bad Request : ID restaurant non numérique, date invalide ou période trop longue
+     * - 404 Not Found : Analyse inconnue
+     * - 405 Method Not Allowed : Si la méthode n'est pas GET
+     * - 500 Internal Server Error : Service BD indisponible
+     *
+     * @param exchange l'échange HTTP contenant la requête et permettant d'envoyer la réponse
+     * @throws IOException en cas d'erreur lors de l'envoi de la réponse
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        int restaurantId;
+        if (path.equals("/analyses/occupation")) {
+            restaurantId = 0;
+        } else if (path.startsWith("/analyses/occupation/")) {
+            try {
+                restaurantId = Integer.parseInt(path.substring("/analyses/occupation/".length()));
+            } catch (NumberFormatException e) {
+                HttpUtils.sendError(exchange, 400, "ID restaurant doit être un nombre");
+                return;
+            }
+        } else {
+            HttpUtils.sendError(exchange, 404, "Endpoint non trouvé");
+            return;
+        }
+
+        Map<String, String> parametres = HttpUtils.parseQueryParams(exchange.getRequestURI().getRawQuery());
+        String dateFin = parametres.getOrDefault("to", LocalDate.now().toString());
+        if (!CodecDate.estValide(dateFin)) {
+            HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+            return;
+        }
+        String dateDebut = parametres.getOrDefault("from",
+                CodecDate.formater(CodecDate.lire(dateFin) - NB_JOURS_PAR_DEFAUT + 1));
+        if (!CodecDate.estValide(dateDebut)) {
+            HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+            return;
+        }
+
+        HttpUtils.handleGetRequest(exchange, "/analyses/occupation",
+                () -> serviceCentral.getAnalyseOccupation(restaurantId, dateDebut, dateFin));
+    }
+}
@@ -0,0 +1,149 @@
+package handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import rmi.Serveur;
+import utils.HttpUtils;
+
+import java.io.IOException;
+
+/**
+ * Handler HTTP pour les listes d'attente des créneaux complets.
+ *
+ * Un groupe qui ne trouve plus de table sur un créneau s'inscrit en liste
+ * d'attente. Quand une annulation libère une table adaptée, le service BD
+ * réserve aussitôt la table pour la demande retenue : le client consulte sa
+ * demande pour connaître sa position ou la réservation obtenue, sans avoir à
+ * surveiller les tables libres.
+ *
+ * Endpoints gérés :
+ * - POST /attente : Inscrit un groupe en liste d'attente d'un créneau
+ * - GET /attente/{restaurantId}/{attenteId} : Consulte une demande
+ * - POST /attente/quitter/{restaurantId}/{attenteId} : Retire une demande
+ */
+public class AttenteHandler implements HttpHandler {
+
+    private final Serveur serviceCentral;
+
+    /**
+     * Constructeur du handler des listes d'attente.
+     *
+     * @param serviceCentral l'instance du service central qui fait le lien avec le service BD
+     */
+    public AttenteHandler(Serveur serviceCentral) {
+        this.serviceCentral = serviceCentral;
+    }
+
+    /**
+     * Traite les requêtes HTTP pour les endpoints /attente/*.
+     *
+     * @param exchange l'échange HTTP contenant la requête et permettant d'envoyer la réponse
+     * @throws IOException en cas d'erreur lors de la lecture de la requête ou l'envoi de la réponse
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+
+        if (path.equals("/attente") || path.equals("/attente/")) {
+            handleInscrire(exchange);
+        } else if (path.startsWith("/attente/quitter/")) {
+            handleQuitter(exchange, path.substring("/attente/quitter/".length()).split("/"));
+        } else {
+            handleConsulter(exchange, path.substring("/attente/".length()).split("/"));
+        }
+    }
+
+    /**
+     * Gère l'endpoint POST /attente.
+     *
+     * Même format que POST /reserver/meilleure-table :
+     * {
+     *   "restaurantId": number,
+     *   "creneauId": number,
+     *   "dateReservation": "yyyy-MM-dd",
+     *   "nbConvives": number,
+     *   "nomClient": "string",
+     *   "prenomClient": "string",
+     *   "telephone": "string"
+     * }
+     *
+     * Réponse : success, attenteId, statut et position, ou un échec si la liste
+     * d'attente du créneau est pleine.
+     *
+     * Réponses d'erreur possibles :
+     * - 400 Bad Request : Données manquantes, une table est encore libre pour le
+     *   groupe, ou aucune table du restaurant ne peut l'accueillir
+     * - 405 Method Not Allowed : Si la méthode n'est pas POST
+     * - 500 Internal Server Error : Service BD indisponible
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     */
+    private void handleInscrire(HttpExchange exchange) {
+        HttpUtils.handlePostRequest(exchange, "/attente",
+                serviceCentral::inscrireAttente,
+                new HttpUtils.DemandeTableValidator());
+    }
+
+    /**
+     * Gère l'endpoint GET /attente/{restaurantId}/{attenteId}.
+     *
+     * Exemple : /attente/1/42
+     *
+     * Structure de réponse :
+     * {
+     *   "success": true,
+     *   "attenteId": 42,
+     *   "statut": "en_attente" | "promue" | "retiree",
+     *   "position": 2 (en attente),
+     *   "reservationId": 123 (promue)
+     * }
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @param pathParts les parties du chemin après /attente/
+     * @throws IOException en cas d'erreur lors de l'envoi de la réponse
+     */
+    private void handleConsulter(HttpExchange exchange, String[] pathParts) throws IOException {
+        if (pathParts.length != 2) {
+            HttpUtils.sendError(exchange, 400, "Format: /attente/{restaurantId}/{attenteId}");
+            return;
+        }
+
+        try {
+            int restaurantId = Integer.parseInt(pathParts[0]);
+            int attenteId = Integer.parseInt(pathParts[1]);
+
+            HttpUtils.handleGetRequest(exchange, "/attente",
+                    () -> serviceCentral.consulterAttente(restaurantId, attenteId));
+
+        } catch (NumberFormatException e) {
+            HttpUtils.sendError(exchange, 400, "ID restaurant et ID demande doivent être des nombres");
+        }
+    }
+
+    /**
+     * Gère l'endpoint POST /attente/quitter/{restaurantId}/{attenteId}.
+     *
+     * Réponse : success (true si la demande attendait encore) et attenteId.
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @param pathParts les parties du chemin après /attente/quitter/
+     * @throws IOException en cas d'erreur lors de l'envoi de la réponse
+     */
+    private void handleQuitter(HttpExchange exchange, String[] pathParts) throws IOException {
+        if (pathParts.length != 2) {
+            HttpUtils.sendError(exchange, 400, "Format: /attente/quitter/{restaurantId}/{attenteId}");
+            return;
+        }
+
+        try {
+            int restaurantId = Integer.parseInt(pathParts[0]);
+            int attenteId = Integer.parseInt(pathParts[1]);
+
+            HttpUtils.handlePostRequest(exchange, "/attente/quitter",
+                    corps -> serviceCentral.quitterAttente(restaurantId, attenteId), null);
+
+        } catch (NumberFormatException e) {
+            HttpUtils.sendError(exchange, 400, "ID restaurant et ID demande doivent être des nombres");
+        }
+    }
+}
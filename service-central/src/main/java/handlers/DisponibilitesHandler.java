@@ -0,0 +1,98 @@
+package handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import rmi.Serveur;
+import utils.CodecDate;
+import utils.HttpUtils;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Handler HTTP pour la matrice de disponibilité d'un restaurant.
+ *
+ * Ce handler remplace, pour une vue sur plusieurs jours, la série d'appels
+ * à /tables/statut (un par date et par créneau) par un seul appel.
+ *
+ * Endpoint géré :
+ * - GET /disponibilites/{restaurantId}?from=yyyy-MM-dd&to=yyyy-MM-dd
+ */
+public class DisponibilitesHandler implements HttpHandler {
+
+    /** Nombre de jours couverts par défaut lorsque "to" est absent. */
+    private static final int NB_JOURS_PAR_DEFAUT = 7;
+
+    private final Serveur serviceCentral;
+
+    /**
+     * Constructeur du handler de disponibilités.
+     *
+     * @param serviceCentral l'instance du service central qui fait le lien avec le service BD
+     */
+    public DisponibilitesHandler(Serveur serviceCentral) {
+        this.serviceCentral = serviceCentral;
+    }
+
+    /**
+     * Gère l'endpoint GET /disponibilites/{restaurantId}?from=&to=.
+     *
+     * Paramètres :
+     * - restaurantId : Identifiant numérique du restaurant
+     * - from : Première date (incluse), aujourd'hui par défaut
+     * - to : Dernière date (incluse), from + 6 jours par défaut
+     *
+     * Exemple : /disponibilites/1?from=2025-12-22&to=2025-12-28
+     *
+     * Structure de réponse :
+     * {
+     *   "tables": [ { "id": 1, "numeroTable": 1, "nbPlaces": 2 }, ... ],
+     *   "creneaux": [ { "id": 1, "libelle": "Déjeuner", ... }, ... ],
+     *   "dates": [ "2025-12-22", ... ],
+     *   "matrice": [ [ "001000", "000000" ], ... ]
+     * }
+     * matrice[date][créneau] contient un caractère par table : '0' libre, '1' occupée.
+     *
+     * Réponses d'erreur possibles :
+     * - 400 Bad Request : Format d'URL invalide ou ID restaurant non numérique
+     * - 405 Method Not Allowed : Si la méthode n'est pas GET
+     * - 500 Internal Server Error : Service BD indisponible
+     *
+     * @param exchange l'échange HTTP contenant la requête et permettant d'envoyer la réponse
+     * @throws IOException en cas d'erreur lors de l'envoi de la réponse
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String[] pathParts = path.substring("/disponibilites/".length()).split("/");
+
+        if (pathParts.length != 1 || pathParts[0].isEmpty()) {
+            HttpUtils.sendError(exchange, 400, "Format: /disponibilites/{restaurantId}?from=yyyy-MM-dd&to=yyyy-MM-dd");
+            return;
+        }
+
+        try {
+            int restaurantId = Integer.parseInt(pathParts[0]);
+            Map<String, String> parametres = HttpUtils.parseQueryParams(exchange.getRequestURI().getRawQuery());
+
+            String from = parametres.getOrDefault("from", LocalDate.now().toString());
+            if (!CodecDate.estValide(from)) {
+                HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+                return;
+            }
+            String dateFin = parametres.getOrDefault("to",
+                    CodecDate.formater(CodecDate.lire(from) + NB_JOURS_PAR_DEFAUT - 1));
+            if (!CodecDate.estValide(dateFin)) {
+                HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+                return;
+            }
+
+            HttpUtils.handleGetRequest(exchange, "/disponibilites",
+                    () -> serviceCentral.getDisponibilites(restaurantId, from, dateFin));
+
+        } catch (NumberFormatException e) {
+            HttpUtils.sendError(exchange, 400, "ID restaurant doit être un nombre");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import rmi.Serveur;
+import utils.CodecDate;
+import utils.HttpUtils;
+
+import java.io.IOException;
+
+/**
+ * Handler HTTP pour l'occupation d'un restaurant.
+ *
+ * La réponse est lue dans les compteurs du service BD, sans parcourir les
+ * réservations : la carte peut l'appeler pour chaque restaurant affiché afin
+ * de colorer son marqueur.
+ *
+ * Endpoint géré :
+ * - GET /occupation/{restaurantId}/{date}
+ */
+public class OccupationHandler implements HttpHandler {
+
+    private final Serveur serviceCentral;
+
+    /**
+     * Constructeur du handler d'occupation.
+     *
+     * @param serviceCentral l'instance du service central qui fait le lien avec le service BD
+     */
+    public OccupationHandler(Serveur serviceCentral) {
+        this.serviceCentral = serviceCentral;
+    }
+
+    /**
+     * Gère l'endpoint GET /occupation/{restaurantId}/{date}.
+     *
+     * Exemple : /occupation/1/2025-12-24
+     *
+     * Structure de réponse :
+     * {
+     *   "restaurantId": 1,
+     *   "dateReservation": "2025-12-24",
+     *   "nbTables": 10,
+     *   "nbPlaces": 42,
+     *   "creneaux": [
+     *     { "creneauId": 1, "tablesReservees": 3, "couvertsReserves": 9, "tauxOccupation": 0.3 }, ...
+     *   ]
+     * }
+     *
+     * Réponses d'erreur possibles :
+     * - 400 Bad Request : Format d'URL invalide, ID restaurant non numérique ou date invalide
+     * - 405 Method Not Allowed : Si la méthode n'est pas GET
+     * - 500 Internal Server Error : Service BD indisponible
+     *
+     * @param exchange l'échange HTTP contenant la requête et permettant d'envoyer la réponse
+     * @throws IOException en cas d'erreur lors de l'envoi de la réponse
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String[] pathParts = path.substring("/occupation/".length()).split("/");
+
+        if (pathParts.length != 2) {
+            HttpUtils.sendError(exchange, 400, "Format: /occupation/{restaurantId}/{date}");
+            return;
+        }
+
+        try {
+            int restaurantId = Integer.parseInt(pathParts[0]);
+            String date = pathParts[1];
+            if (!CodecDate.estValide(date)) {
+                HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+                return;
+            }
+
+            HttpUtils.handleGetRequest(exchange, "/occupation",
+                    () -> serviceCentral.getOccupation(restaurantId, date));
+
+        } catch (NumberFormatException e) {
+            HttpUtils.sendError(exchange, 400, "ID restaurant doit être un nombre");
+        }
+    }
+}
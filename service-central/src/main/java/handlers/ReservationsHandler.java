@@ -3,9 +3,13 @@ package handlers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import rmi.Serveur;
+import utils.CodecDate;
 import utils.HttpUtils;
 
 import java.io.IOException;
+import java.rmi.RemoteException;
+import java.time.LocalDate;
+import java.util.Map;
 
 /**
  * Handler HTTP pour la gestion avancée des réservations.
@@ -16,6 +20,9 @@ import java.io.IOException;
  *
  * Endpoints gérés :
  * - GET /reservations/date/{restaurantId}/{date} : Réservations d'une date
+ * - GET /reservations/historique/{restaurantId}?from=&to=&cursor=&limit= : Historique paginé
+ * - GET /reservations/archives/{restaurantId}?from=&to=&cursor=&limit= : Historique archivé paginé
+ * - GET /reservations/client/{telephone}?cursor=&limit= : Réservations d'un client, paginées
  * - POST /reservations/annuler/{reservationId} : Annulation d'une réservation
  *
  * Ces endpoints sont particulièrement utiles pour :
@@ -26,6 +33,20 @@ import java.io.IOException;
  */
 public class ReservationsHandler implements HttpHandler {
 
+    private static final int TAILLE_PAGE_PAR_DEFAUT = 20;
+    private static final int NB_JOURS_HISTORIQUE_PAR_DEFAUT = 90;
+    // Plus ancienne date de réservation acceptée par le schéma (chk_reservation_date)
+    private static final String DATE_ARCHIVES_PAR_DEFAUT = "2025-01-01";
+
+    /**
+     * Lecture d'une page de réservations d'un restaurant sur une période.
+     */
+    @FunctionalInterface
+    private interface LecturePeriode {
+        String lire(int restaurantId, String dateDebut, String dateFin, String curseur, int taille)
+                throws RemoteException;
+    }
+
     private final Serveur serviceCentral;
 
     /**
@@ -42,6 +63,9 @@ public class ReservationsHandler implements HttpHandler {
      *
      * Cette méthode route les requêtes selon le pattern d'URL :
      * - /reservations/date/{restaurantId}/{date} : Consultation par date
+     * - /reservations/historique/{restaurantId} : Historique paginé d'un restaurant
+     * - /reservations/archives/{restaurantId} : Historique archivé paginé d'un restaurant
+     * - /reservations/client/{telephone} : Réservations paginées d'un client
      * - /reservations/annuler/{reservationId} : Annulation d'une réservation
      *
      * Le routage est basé sur l'analyse du chemin d'URL pour déterminer
@@ -56,6 +80,12 @@ public class ReservationsHandler implements HttpHandler {
 
         if (path.startsWith("/reservations/date/")) {
             handleReservationsDate(exchange);
+        } else if (path.startsWith("/reservations/historique/")) {
+            handleHistorique(exchange);
+        } else if (path.startsWith("/reservations/archives/")) {
+            handleArchives(exchange);
+        } else if (path.startsWith("/reservations/client/")) {
+            handleReservationsClient(exchange);
         } else if (path.startsWith("/reservations/annuler/")) {
             handleAnnulerReservation(exchange);
         } else {
@@ -118,6 +148,10 @@ public class ReservationsHandler implements HttpHandler {
 
             int restaurantId = Integer.parseInt(pathParts[0]);
             String date = pathParts[1];
+            if (!CodecDate.estValide(date)) {
+                HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+                return;
+            }
 
             HttpUtils.handleGetRequest(exchange, "/reservations/date",
                     () -> serviceCentral.getReservationsPourDate(restaurantId, date));
@@ -127,6 +161,127 @@ public class ReservationsHandler implements HttpHandler {
         }
     }
 
+    /**
+     * Gère l'endpoint GET /reservations/historique/{restaurantId}.
+     *
+     * Parcourt les réservations d'un restaurant sur une période, de la plus récente
+     * à la plus ancienne et tous statuts confondus, par pages de taille bornée.
+     *
+     * Paramètres (optionnels) :
+     * - from, to : période au format yyyy-MM-dd (par défaut, les 90 derniers jours)
+     * - cursor : valeur "curseurSuivant" de la page précédente
+     * - limit : taille de page, 20 par défaut, 100 au plus
+     *
+     * Exemple : /reservations/historique/1?from=2025-01-01&to=2025-06-30&limit=50
+     *
+     * Réponse : { "reservations": [...], "count": 50, "curseurSuivant": "AQAAT...", ... }
+     * "curseurSuivant" vaut null sur la dernière page.
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @throws IOException en cas d'erreur lors du traitement
+     */
+    private void handleHistorique(HttpExchange exchange) throws IOException {
+        handlePeriode(exchange, "/reservations/historique", null, serviceCentral::getHistoriqueReservations);
+    }
+
+    /**
+     * Gère l'endpoint GET /reservations/archives/{restaurantId}.
+     *
+     * Parcourt les réservations déplacées dans l'archive par le service BD, avec
+     * les mêmes paramètres et la même réponse que /reservations/historique.
+     * Sans "from", la période commence à la plus ancienne date possible.
+     *
+     * Exemple : /reservations/archives/1?to=2025-06-30&limit=50
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @throws IOException en cas d'erreur lors du traitement
+     */
+    private void handleArchives(HttpExchange exchange) throws IOException {
+        handlePeriode(exchange, "/reservations/archives", DATE_ARCHIVES_PAR_DEFAUT,
+                serviceCentral::getArchivesReservations);
+    }
+
+    /**
+     * Lit les paramètres d'une page de réservations sur une période et transmet la lecture.
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @param endpoint le chemin de l'endpoint, sans le restaurant
+     * @param debutParDefaut début de période sans "from", ou null pour les 90 jours précédant "to"
+     * @param lecture la lecture à transmettre au service central
+     * @throws IOException en cas d'erreur lors du traitement
+     */
+    private void handlePeriode(HttpExchange exchange, String endpoint, String debutParDefaut,
+                               LecturePeriode lecture) throws IOException {
+        String[] pathParts = extractPathParts(exchange.getRequestURI().getPath(), endpoint + "/");
+        if (pathParts.length != 1 || pathParts[0].isEmpty()) {
+            HttpUtils.sendError(exchange, 400, "Format: " + endpoint + "/{restaurantId}?from=&to=&cursor=&limit=");
+            return;
+        }
+
+        int restaurantId;
+        int taille;
+        Map<String, String> parametres = HttpUtils.parseQueryParams(exchange.getRequestURI().getRawQuery());
+        try {
+            restaurantId = Integer.parseInt(pathParts[0]);
+            taille = Integer.parseInt(parametres.getOrDefault("limit", String.valueOf(TAILLE_PAGE_PAR_DEFAUT)));
+        } catch (NumberFormatException e) {
+            HttpUtils.sendError(exchange, 400, "ID restaurant et limit doivent être des nombres");
+            return;
+        }
+
+        String dateFin = parametres.getOrDefault("to", LocalDate.now().toString());
+        if (!CodecDate.estValide(dateFin)) {
+            HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+            return;
+        }
+        String dateDebut = parametres.getOrDefault("from", debutParDefaut != null ? debutParDefaut
+                : CodecDate.formater(CodecDate.lire(dateFin) - NB_JOURS_HISTORIQUE_PAR_DEFAUT + 1));
+        if (!CodecDate.estValide(dateDebut)) {
+            HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+            return;
+        }
+        String curseur = parametres.get("cursor");
+
+        HttpUtils.handleGetRequest(exchange, endpoint,
+                () -> lecture.lire(restaurantId, dateDebut, dateFin, curseur, taille));
+    }
+
+    /**
+     * Gère l'endpoint GET /reservations/client/{telephone}.
+     *
+     * Parcourt les réservations passées avec un numéro de téléphone, de la plus
+     * récente à la plus ancienne et tous statuts confondus, par pages.
+     * Le numéro doit être donné tel qu'il a été saisi à la réservation.
+     *
+     * Paramètres (optionnels) : cursor et limit, comme pour l'historique.
+     *
+     * Exemple : /reservations/client/0612345678?limit=10
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @throws IOException en cas d'erreur lors du traitement
+     */
+    private void handleReservationsClient(HttpExchange exchange) throws IOException {
+        String[] pathParts = extractPathParts(exchange.getRequestURI().getPath(), "/reservations/client/");
+        if (pathParts.length != 1 || pathParts[0].isEmpty()) {
+            HttpUtils.sendError(exchange, 400, "Format: /reservations/client/{telephone}?cursor=&limit=");
+            return;
+        }
+
+        String telephone = pathParts[0];
+        Map<String, String> parametres = HttpUtils.parseQueryParams(exchange.getRequestURI().getRawQuery());
+        int taille;
+        try {
+            taille = Integer.parseInt(parametres.getOrDefault("limit", String.valueOf(TAILLE_PAGE_PAR_DEFAUT)));
+        } catch (NumberFormatException e) {
+            HttpUtils.sendError(exchange, 400, "limit doit être un nombre");
+            return;
+        }
+        String curseur = parametres.get("cursor");
+
+        HttpUtils.handleGetRequest(exchange, "/reservations/client",
+                () -> serviceCentral.getReservationsClient(telephone, curseur, taille));
+    }
+
     /**
      * Gère l'endpoint POST /reservations/annuler/{reservationId}. On a pas eu le temps de l'implementer... :(
      *
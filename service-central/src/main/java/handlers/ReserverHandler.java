@@ -14,11 +14,23 @@ import java.io.IOException;
  * Il expose l'endpoint POST /reserver qui permet aux clients de créer
  * une nouvelle réservation avec validation automatique des données.
  *
- * Endpoint géré :
+ * Endpoints gérés :
  * - POST /reserver : Crée une nouvelle réservation
+ * - POST /reserver/batch : Crée un lot de réservations en une seule transaction
+ * - POST /reserver/meilleure-table : Réserve la plus petite table libre adaptée au groupe
+ * - POST /reserver/option : Met une table en option le temps de finir la réservation
+ * - POST /reserver/option/lever : Lève une option avant son expiration
+ *
+ * Chaque endpoint accepte un en-tête Idempotency-Key : une requête renvoyée avec
+ * la même clé reçoit la réponse de la première, sans nouvelle réservation.
  */
 public class ReserverHandler implements HttpHandler {
 
+    /** En-tête portant la clé d'idempotence choisie par le client. */
+    public static final String EN_TETE_IDEMPOTENCE = "Idempotency-Key";
+
+    private static final int LONGUEUR_MAX_CLE = 128;
+
     private final Serveur serviceCentral;
 
     /**
@@ -31,7 +43,8 @@ public class ReserverHandler implements HttpHandler {
     }
 
     /**
-     * Traite les requêtes HTTP pour l'endpoint /reserver.
+     * Traite les requêtes HTTP pour les endpoints /reserver, /reserver/batch,
+     * /reserver/meilleure-table et /reserver/option.
      *
      * Cette méthode ne supporte que les requêtes POST contenant les données
      * de réservation au format JSON dans le corps de la requête.
@@ -44,7 +57,8 @@ public class ReserverHandler implements HttpHandler {
      *   "nomClient": "string",
      *   "prenomClient": "string",
      *   "telephone": "string",
-     *   "nbConvives": number
+     *   "nbConvives": number,
+     *   "optionId": "string" (facultatif, option posée sur la table)
      * }
      *
      * Le handler utilise un validateur automatique qui vérifie :
@@ -57,8 +71,13 @@ public class ReserverHandler implements HttpHandler {
      * - Content-Type: application/json
      * - Corps : JSON avec les détails de la réservation créée
      *
+     * En-tête facultatif :
+     * - Idempotency-Key : clé unique de la requête (128 caractères au plus), reprise
+     *   telle quelle lors d'un renvoi. Un renvoi reçoit la réponse de la première
+     *   requête ; une clé déjà utilisée avec un autre corps est refusée.
+     *
      * Réponses d'erreur possibles :
-     * - 400 Bad Request : Données manquantes ou invalides
+     * - 400 Bad Request : Données manquantes ou invalides, clé d'idempotence trop longue
      * - 405 Method Not Allowed : Si la méthode n'est pas POST
      * - 409 Conflict : Table déjà réservée pour ce créneau
      * - 500 Internal Server Error : Si le service BD n'est pas disponible
@@ -68,8 +87,112 @@ public class ReserverHandler implements HttpHandler {
      */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        HttpUtils.handlePostRequest(exchange, "/reserver",
-                serviceCentral::reserverTable,
-                new HttpUtils.ReservationValidator());
+        String path = exchange.getRequestURI().getPath();
+
+        String cle = exchange.getRequestHeaders().getFirst(EN_TETE_IDEMPOTENCE);
+        if (cle != null && (cle.isBlank() || cle.length() > LONGUEUR_MAX_CLE)) {
+            HttpUtils.sendError(exchange, 400, "En-tête " + EN_TETE_IDEMPOTENCE
+                    + " invalide (1 à " + LONGUEUR_MAX_CLE + " caractères)");
+            return;
+        }
+
+        if (path.equals("/reserver") || path.equals("/reserver/")) {
+            HttpUtils.handlePostRequest(exchange, "/reserver",
+                    corps -> serviceCentral.reserverTable(corps, cle),
+                    new HttpUtils.ReservationValidator());
+        } else if (path.equals("/reserver/batch")) {
+            handleReserverLot(exchange, cle);
+        } else if (path.equals("/reserver/meilleure-table")) {
+            handleReserverMeilleureTable(exchange, cle);
+        } else if (path.equals("/reserver/option")) {
+            handlePoserOption(exchange);
+        } else if (path.equals("/reserver/option/lever")) {
+            handleLeverOption(exchange);
+        } else {
+            HttpUtils.sendError(exchange, 404, "Endpoint non trouvé");
+        }
+    }
+
+    /**
+     * Gère l'endpoint POST /reserver/batch.
+     *
+     * Format JSON attendu :
+     * {
+     *   "mode": "tout-ou-rien" | "au-mieux",
+     *   "reservations": [ { ...même format que POST /reserver... }, ... ]
+     * }
+     *
+     * En mode "tout-ou-rien" (par défaut), aucune réservation n'est enregistrée
+     * si l'une d'elles échoue. En mode "au-mieux", les réservations possibles
+     * sont enregistrées et les autres sont signalées en échec.
+     *
+     * Réponse : un résultat par réservation (index, success, reservationId ou message),
+     * ainsi que les totaux "reussies" et "echecs".
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @param cle la clé d'idempotence de la requête, ou null
+     */
+    private void handleReserverLot(HttpExchange exchange, String cle) {
+        HttpUtils.handlePostRequest(exchange, "/reserver/batch",
+                corps -> serviceCentral.reserverTables(corps, cle),
+                new HttpUtils.ReservationLotValidator());
+    }
+
+    /**
+     * Gère l'endpoint POST /reserver/meilleure-table.
+     *
+     * Même format que POST /reserver, avec "restaurantId" à la place de "tableId" :
+     * le serveur choisit parmi les tables libres du créneau celle qui a le moins
+     * de places tout en accueillant le groupe.
+     *
+     * Réponse : le résultat de la réservation, avec la table attribuée, ou un échec
+     * si aucune table libre ne convient.
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @param cle la clé d'idempotence de la requête, ou null
+     */
+    private void handleReserverMeilleureTable(HttpExchange exchange, String cle) {
+        HttpUtils.handlePostRequest(exchange, "/reserver/meilleure-table",
+                corps -> serviceCentral.reserverMeilleureTable(corps, cle),
+                new HttpUtils.DemandeTableValidator());
+    }
+
+    /**
+     * Gère l'endpoint POST /reserver/option.
+     *
+     * Format JSON attendu :
+     * {
+     *   "tableId": number,
+     *   "creneauId": number,
+     *   "dateReservation": "yyyy-MM-dd",
+     *   "dureeSecondes": number (facultatif, durée par défaut du service BD sinon)
+     * }
+     *
+     * Tant que l'option court, la table est présentée comme occupée aux autres
+     * clients. Elle est confirmée par un POST /reserver portant son "optionId",
+     * ou expire d'elle-même.
+     *
+     * Réponse : success, optionId et expireLe (millisecondes depuis l'époque), ou
+     * un échec si la table est déjà réservée ou en option.
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     */
+    private void handlePoserOption(HttpExchange exchange) {
+        HttpUtils.handlePostRequest(exchange, "/reserver/option",
+                serviceCentral::poserOption,
+                new HttpUtils.OptionValidator(false));
+    }
+
+    /**
+     * Gère l'endpoint POST /reserver/option/lever.
+     *
+     * Format JSON attendu : { "optionId": "string", "tableId": number }
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     */
+    private void handleLeverOption(HttpExchange exchange) {
+        HttpUtils.handlePostRequest(exchange, "/reserver/option/lever",
+                serviceCentral::leverOption,
+                new HttpUtils.OptionValidator(true));
     }
-}
\ No newline at end of file
+}
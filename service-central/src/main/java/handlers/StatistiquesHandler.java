@@ -0,0 +1,54 @@
+package handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import rmi.Serveur;
+import utils.HttpUtils;
+
+import java.io.IOException;
+
+/**
+ * Handler HTTP pour la consultation des statistiques du service BD.
+ *
+ * Ce handler expose les métriques de fonctionnement du service BD,
+ * notamment l'état du pool de connexions JDBC et les temps d'attente
+ * d'emprunt, pour le suivi des performances en charge.
+ *
+ * Endpoint géré :
+ * - GET /services/statistiques : Statistiques du service BD
+ */
+public class StatistiquesHandler implements HttpHandler {
+
+    private final Serveur serviceCentral;
+
+    /**
+     * Constructeur du handler des statistiques.
+     *
+     * @param serviceCentral l'instance du service central qui fait le lien avec le service BD
+     */
+    public StatistiquesHandler(Serveur serviceCentral) {
+        this.serviceCentral = serviceCentral;
+    }
+
+    /**
+     * Traite les requêtes HTTP pour l'endpoint /services/statistiques.
+     *
+     * Structure de la réponse, une entrée par partition du service BD :
+     * {
+     *   "partitions": {
+     *     "bd": {
+     *       "stockage": { "pool": { "connexionsActives": 2, "attenteMoyenneMs": 0.4, ... } },
+     *       ...
+     *     }
+     *   },
+     *   "timestamp": 1234567890123
+     * }
+     *
+     * @param exchange l'échange HTTP contenant la requête et permettant d'envoyer la réponse
+     * @throws IOException en cas d'erreur lors de la lecture de la requête ou l'envoi de la réponse
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        HttpUtils.handleGetRequest(exchange, "/services/statistiques", serviceCentral::getStatistiquesBD);
+    }
+}
@@ -3,6 +3,7 @@ package handlers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import rmi.Serveur;
+import utils.CodecDate;
 import utils.HttpUtils;
 
 import java.io.IOException;
@@ -113,6 +114,10 @@ public class TablesCreneauxHandler implements HttpHandler {
 
             int restaurantId = Integer.parseInt(pathParts[0]);
             String date = pathParts[1];
+            if (!CodecDate.estValide(date)) {
+                HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+                return;
+            }
             int creneauId = Integer.parseInt(pathParts[2]);
 
             HttpUtils.handleGetRequest(exchange, "/tables/libres",
@@ -190,6 +195,10 @@ public class TablesCreneauxHandler implements HttpHandler {
 
             int restaurantId = Integer.parseInt(pathParts[0]);
             String date = pathParts[1];
+            if (!CodecDate.estValide(date)) {
+                HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+                return;
+            }
             int creneauId = Integer.parseInt(pathParts[2]);
 
             HttpUtils.handleGetRequest(exchange, "/tables/statut",
@@ -250,6 +259,10 @@ public class TablesCreneauxHandler implements HttpHandler {
 
             int tableId = Integer.parseInt(pathParts[0]);
             String date = pathParts[1];
+            if (!CodecDate.estValide(date)) {
+                HttpUtils.sendError(exchange, 400, "Date invalide. Format attendu: yyyy-MM-dd");
+                return;
+            }
             int creneauId = Integer.parseInt(pathParts[2]);
 
             HttpUtils.handleGetRequest(exchange, "/tables/disponibilite",
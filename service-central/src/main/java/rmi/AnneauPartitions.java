@@ -0,0 +1,480 @@
+package rmi;
+
+import interfaces.ServiceBDTypee;
+import model.PartitionBD;
+import model.TableResto;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Routage des appels vers les partitions du service BD.
+ *
+ * Chaque instance du service BD inscrite annonce sa {@link PartitionBD}. L'anneau
+ * associe chacune de ses positions à l'instance qui la possède : un appel
+ * portant sur un restaurant va à l'instance de la position du restaurant,
+ * un appel portant sur une table à celle du restaurant de la table, et une
+ * annulation à l'instance qui a attribué l'identifiant de la réservation.
+ *
+ * Les données de référence (restaurants, créneaux, tables) sont présentes dans
+ * toutes les partitions ; seules les réservations sont réparties.
+ *
+ * Une partition peut avoir des réplicas en lecture seule, inscrits sous le même
+ * nom. Les lectures passées par {@link #lire} vont au réplica qui a le moins
+ * d'appels en cours, et à la partition principale s'il n'y en a pas ou s'il ne
+ * répond pas ; les écritures vont toujours à la partition principale.
+ *
+ * Les lectures se font sans verrou sur un instantané, remplacé à chaque
+ * inscription ou désinscription.
+ */
+public class AnneauPartitions {
+
+    private static final Logger LOGGER = Logger.getLogger(AnneauPartitions.class.getName());
+
+    /**
+     * Lecture adressée à une instance du service BD.
+     *
+     * @param <T> type du résultat
+     */
+    @FunctionalInterface
+    public interface Lecture<T> {
+        /**
+         * @param service l'instance choisie pour la lecture
+         * @return le résultat de la lecture
+         * @throws RemoteException en cas d'erreur de communication RMI
+         */
+        T lire(ServiceBDTypee service) throws RemoteException;
+    }
+
+    /**
+     * Instance du service BD inscrite pour une partition, avec ses réplicas.
+     */
+    public static final class Inscription {
+        private final PartitionBD partition;
+        private final ServiceBDTypee service;
+        private final List<Replica> repliques;
+
+        private Inscription(PartitionBD partition, ServiceBDTypee service, List<Replica> repliques) {
+            this.partition = partition;
+            this.service = service;
+            this.repliques = Collections.unmodifiableList(repliques);
+        }
+
+        /**
+         * @return les réplicas en lecture seule de la partition
+         */
+        public List<Replica> getRepliques() {
+            return repliques;
+        }
+
+        /**
+         * @return la partition annoncée par l'instance
+         */
+        public PartitionBD getPartition() {
+            return partition;
+        }
+
+        /**
+         * @return l'instance du service BD
+         */
+        public ServiceBDTypee getService() {
+            return service;
+        }
+    }
+
+    /**
+     * Réplica en lecture seule d'une partition.
+     */
+    public static final class Replica {
+        private final PartitionBD partition;
+        private final ServiceBDTypee service;
+        private final AtomicInteger enCours = new AtomicInteger();
+        private final LongAdder nbLectures = new LongAdder();
+
+        private Replica(PartitionBD partition, ServiceBDTypee service) {
+            this.partition = partition;
+            this.service = service;
+        }
+
+        /**
+         * @return la partition annoncée par le réplica
+         */
+        public PartitionBD getPartition() {
+            return partition;
+        }
+
+        /**
+         * @return l'instance du service BD
+         */
+        public ServiceBDTypee getService() {
+            return service;
+        }
+
+        /**
+         * @return le nombre de lectures en cours sur le réplica
+         */
+        public int getEnCours() {
+            return enCours.get();
+        }
+
+        /**
+         * @return le nombre de lectures envoyées au réplica depuis son inscription
+         */
+        public long getNbLectures() {
+            return nbLectures.sum();
+        }
+    }
+
+    /**
+     * Inscriptions et index par position, publiés ensemble : un lecteur ne voit
+     * jamais l'un à jour sans l'autre.
+     */
+    private static final class Instantane {
+        private final List<Inscription> inscriptions;
+        private final Inscription[] parSlot;
+
+        private Instantane(List<Inscription> inscriptions, Inscription[] parSlot) {
+            this.inscriptions = inscriptions;
+            this.parSlot = parSlot;
+        }
+    }
+
+    private volatile Instantane instantane =
+            new Instantane(Collections.emptyList(), new Inscription[PartitionBD.NB_SLOTS]);
+
+    // Une table ne change pas de restaurant : le cache n'est jamais invalidé
+    private final Map<Integer, Integer> restaurantParTable = new ConcurrentHashMap<>();
+
+    /**
+     * Inscrit une instance du service BD. Une instance déjà inscrite sous le même
+     * nom de partition est remplacée, en gardant ses réplicas. Une instance en
+     * lecture seule est ajoutée aux réplicas de la partition de même nom.
+     *
+     * @param service l'instance du service BD
+     * @param partition la partition annoncée par l'instance
+     * @throws IllegalArgumentException si la partition est incompatible avec celles déjà inscrites
+     */
+    public synchronized void inscrire(ServiceBDTypee service, PartitionBD partition) {
+        if (partition.isLectureSeule()) {
+            inscrireReplica(service, partition);
+            return;
+        }
+        List<Inscription> suivantes = new ArrayList<>();
+        List<Replica> repliques = new ArrayList<>();
+        for (Inscription inscription : instantane.inscriptions) {
+            PartitionBD existante = inscription.partition;
+            if (existante.getNom().equals(partition.getNom())) {
+                if (existante.getNumero() == partition.getNumero()
+                        && existante.getSlots().equals(partition.getSlots())) {
+                    repliques.addAll(inscription.repliques);
+                }
+                continue;
+            }
+            if (existante.getNombrePartitions() != partition.getNombrePartitions()) {
+                throw new IllegalArgumentException("Partition " + partition.getNom() + " : "
+                        + partition.getNombrePartitions() + " partitions annoncées, "
+                        + existante.getNombrePartitions() + " attendues");
+            }
+            if (existante.getNumero() == partition.getNumero()) {
+                throw new IllegalArgumentException("Partition " + partition.getNom() + " : numéro "
+                        + partition.getNumero() + " déjà pris par " + existante.getNom());
+            }
+            if (existante.getSlots().intersects(partition.getSlots())) {
+                throw new IllegalArgumentException("Partition " + partition.getNom()
+                        + " : positions déjà possédées par " + existante.getNom());
+            }
+            suivantes.add(inscription);
+        }
+        suivantes.add(new Inscription(partition, service, repliques));
+        publier(suivantes);
+        LOGGER.info("Partition BD inscrite : " + partition);
+    }
+
+    /**
+     * Ajoute un réplica à la partition principale de même nom, qui doit déjà être inscrite.
+     * Un réplica déjà inscrit est remplacé.
+     */
+    private void inscrireReplica(ServiceBDTypee service, PartitionBD partition) {
+        List<Inscription> suivantes = new ArrayList<>(instantane.inscriptions);
+        for (int i = 0; i < suivantes.size(); i++) {
+            Inscription inscription = suivantes.get(i);
+            PartitionBD principale = inscription.partition;
+            if (!principale.getNom().equals(partition.getNom())) {
+                continue;
+            }
+            if (principale.getNumero() != partition.getNumero()
+                    || principale.getNombrePartitions() != partition.getNombrePartitions()
+                    || !principale.getSlots().equals(partition.getSlots())) {
+                throw new IllegalArgumentException("Réplica " + partition.getNom()
+                        + " : numéro ou positions différents de la partition principale");
+            }
+            List<Replica> repliques = new ArrayList<>(inscription.repliques);
+            repliques.removeIf(replica -> replica.service.equals(service));
+            repliques.add(new Replica(partition, service));
+            suivantes.set(i, new Inscription(principale, inscription.service, repliques));
+            publier(suivantes);
+            LOGGER.info("Réplica BD inscrit : " + partition + " (" + repliques.size() + " réplica(s))");
+            return;
+        }
+        throw new IllegalArgumentException("Réplica " + partition.getNom()
+                + " : partition principale non inscrite");
+    }
+
+    /**
+     * Désinscrit un réplica.
+     *
+     * @param service l'instance du réplica
+     * @return true si le réplica était inscrit
+     */
+    public synchronized boolean retirerReplica(Object service) {
+        List<Inscription> suivantes = new ArrayList<>(instantane.inscriptions);
+        for (int i = 0; i < suivantes.size(); i++) {
+            Inscription inscription = suivantes.get(i);
+            List<Replica> repliques = new ArrayList<>(inscription.repliques);
+            if (repliques.removeIf(replica -> replica.service.equals(service))) {
+                suivantes.set(i, new Inscription(inscription.partition, inscription.service, repliques));
+                publier(suivantes);
+                LOGGER.info("Réplica BD désinscrit : " + inscription.partition.getNom());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Désinscrit une partition et ses réplicas.
+     *
+     * @param nom le nom de la partition
+     * @return true si la partition était inscrite
+     */
+    public synchronized boolean retirer(String nom) {
+        List<Inscription> suivantes = new ArrayList<>(instantane.inscriptions);
+        boolean retiree = suivantes.removeIf(inscription -> inscription.partition.getNom().equals(nom));
+        if (retiree) {
+            publier(suivantes);
+            LOGGER.info("Partition BD désinscrite : " + nom);
+        }
+        return retiree;
+    }
+
+    /**
+     * Désinscrit toutes les partitions.
+     */
+    public synchronized void vider() {
+        publier(Collections.emptyList());
+    }
+
+    /**
+     * @return les instances inscrites
+     */
+    public List<Inscription> getInscriptions() {
+        return instantane.inscriptions;
+    }
+
+    /**
+     * @return true si aucune instance n'est inscrite
+     */
+    public boolean estVide() {
+        return instantane.inscriptions.isEmpty();
+    }
+
+    /**
+     * Retourne l'instance qui possède les données d'un restaurant.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @return l'instance du service BD
+     * @throws RemoteException si aucune instance ne possède le restaurant
+     */
+    public ServiceBDTypee pourRestaurant(int restaurantId) throws RemoteException {
+        return inscriptionPourRestaurant(restaurantId).service;
+    }
+
+    /**
+     * Retourne l'instance qui possède les données du restaurant d'une table.
+     *
+     * @param tableId l'identifiant de la table
+     * @return l'instance du service BD
+     * @throws RemoteException si aucune instance ne possède le restaurant de la table
+     * @throws IllegalArgumentException si la table n'existe pas
+     */
+    public ServiceBDTypee pourTable(int tableId) throws RemoteException {
+        return pourRestaurant(restaurantDeTable(tableId));
+    }
+
+    /**
+     * Retourne l'instance qui a attribué un identifiant de réservation.
+     *
+     * @param reservationId l'identifiant de la réservation
+     * @return l'instance du service BD
+     * @throws RemoteException si l'instance n'est pas inscrite
+     */
+    public ServiceBDTypee pourReservation(int reservationId) throws RemoteException {
+        List<Inscription> courantes = instantane.inscriptions;
+        if (courantes.isEmpty()) {
+            throw new RemoteException("Service BD non disponible");
+        }
+        int numero = PartitionBD.numeroPourReservation(reservationId,
+                courantes.get(0).partition.getNombrePartitions());
+        for (Inscription inscription : courantes) {
+            if (inscription.partition.getNumero() == numero) {
+                return inscription.service;
+            }
+        }
+        throw new RemoteException("Aucune partition BD pour la réservation " + reservationId);
+    }
+
+    /**
+     * Retourne une instance quelconque, pour les données de référence.
+     *
+     * @return l'instance du service BD
+     * @throws RemoteException si aucune instance n'est inscrite
+     */
+    public ServiceBDTypee quelconque() throws RemoteException {
+        List<Inscription> courantes = instantane.inscriptions;
+        if (courantes.isEmpty()) {
+            throw new RemoteException("Service BD non disponible");
+        }
+        return courantes.get(0).service;
+    }
+
+    /**
+     * Lit les données d'un restaurant, sur un réplica de sa partition si possible.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param principale true pour lire sur la partition principale
+     * @param lecture la lecture à effectuer
+     * @param <T> type du résultat
+     * @return le résultat de la lecture
+     * @throws RemoteException si aucune instance ne possède le restaurant ou ne répond
+     */
+    public <T> T lirePourRestaurant(int restaurantId, boolean principale, Lecture<T> lecture)
+            throws RemoteException {
+        return lire(inscriptionPourRestaurant(restaurantId), principale, lecture);
+    }
+
+    /**
+     * Lit les données du restaurant d'une table, sur un réplica de sa partition si possible.
+     *
+     * @param tableId l'identifiant de la table
+     * @param principale true pour lire sur la partition principale
+     * @param lecture la lecture à effectuer
+     * @param <T> type du résultat
+     * @return le résultat de la lecture
+     * @throws RemoteException si aucune instance ne possède le restaurant de la table ou ne répond
+     * @throws IllegalArgumentException si la table n'existe pas
+     */
+    public <T> T lirePourTable(int tableId, boolean principale, Lecture<T> lecture) throws RemoteException {
+        return lire(inscriptionPourRestaurant(restaurantDeTable(tableId)), principale, lecture);
+    }
+
+    /**
+     * Lit les données de référence sur une partition quelconque, sur un réplica si possible.
+     *
+     * @param principale true pour lire sur la partition principale
+     * @param lecture la lecture à effectuer
+     * @param <T> type du résultat
+     * @return le résultat de la lecture
+     * @throws RemoteException si aucune instance n'est inscrite ou ne répond
+     */
+    public <T> T lireQuelconque(boolean principale, Lecture<T> lecture) throws RemoteException {
+        List<Inscription> courantes = instantane.inscriptions;
+        if (courantes.isEmpty()) {
+            throw new RemoteException("Service BD non disponible");
+        }
+        return lire(courantes.get(0), principale, lecture);
+    }
+
+    /**
+     * Effectue une lecture sur le réplica le moins chargé d'une partition. La lecture
+     * va à la partition principale si elle est demandée, si la partition n'a pas de
+     * réplica, ou si le réplica choisi ne répond pas.
+     *
+     * @param inscription la partition à lire
+     * @param principale true pour lire sur la partition principale
+     * @param lecture la lecture à effectuer
+     * @param <T> type du résultat
+     * @return le résultat de la lecture
+     * @throws RemoteException si la partition principale ne répond pas
+     */
+    public <T> T lire(Inscription inscription, boolean principale, Lecture<T> lecture) throws RemoteException {
+        if (principale || inscription.repliques.isEmpty()) {
+            return lecture.lire(inscription.service);
+        }
+        Replica replica = moinsCharge(inscription.repliques);
+        replica.enCours.incrementAndGet();
+        replica.nbLectures.increment();
+        try {
+            return lecture.lire(replica.service);
+        } catch (RemoteException e) {
+            LOGGER.warning("Réplica de " + inscription.partition.getNom()
+                    + " injoignable, lecture sur la partition principale : " + e.getMessage());
+        } finally {
+            replica.enCours.decrementAndGet();
+        }
+        return lecture.lire(inscription.service);
+    }
+
+    /**
+     * Choisit le réplica qui a le moins de lectures en cours. Le parcours part d'un
+     * réplica tiré au hasard pour répartir les lectures entre réplicas à égalité.
+     */
+    private static Replica moinsCharge(List<Replica> repliques) {
+        int nombre = repliques.size();
+        int depart = nombre > 1 ? ThreadLocalRandom.current().nextInt(nombre) : 0;
+        Replica choisi = null;
+        for (int i = 0; i < nombre; i++) {
+            Replica replica = repliques.get((depart + i) % nombre);
+            if (choisi == null || replica.enCours.get() < choisi.enCours.get()) {
+                choisi = replica;
+            }
+        }
+        return choisi;
+    }
+
+    private Inscription inscriptionPourRestaurant(int restaurantId) throws RemoteException {
+        Instantane courant = instantane;
+        Inscription inscription = courant.parSlot[PartitionBD.slot(restaurantId)];
+        if (inscription == null) {
+            throw new RemoteException(courant.inscriptions.isEmpty() ? "Service BD non disponible"
+                    : "Aucune partition BD pour le restaurant " + restaurantId);
+        }
+        return inscription;
+    }
+
+    private int restaurantDeTable(int tableId) throws RemoteException {
+        Integer restaurantId = restaurantParTable.get(tableId);
+        if (restaurantId == null) {
+            // Sur la partition principale : un réplica en retard ignore une table tout juste importée
+            TableResto table = lireQuelconque(true, service -> service.trouverTable(tableId));
+            if (table == null) {
+                throw new IllegalArgumentException("Table inconnue : " + tableId);
+            }
+            restaurantId = table.getRestaurantId();
+            restaurantParTable.put(tableId, restaurantId);
+        }
+        return restaurantId;
+    }
+
+    /**
+     * Construit et publie l'instantané d'une liste d'inscriptions.
+     */
+    private void publier(List<Inscription> suivantes) {
+        Inscription[] slots = new Inscription[PartitionBD.NB_SLOTS];
+        for (Inscription inscription : suivantes) {
+            BitSet possedes = inscription.partition.getSlots();
+            for (int slot = possedes.nextSetBit(0); slot >= 0; slot = possedes.nextSetBit(slot + 1)) {
+                slots[slot] = inscription;
+            }
+        }
+        instantane = new Instantane(Collections.unmodifiableList(suivantes), slots);
+    }
+}
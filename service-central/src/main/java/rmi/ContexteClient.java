@@ -0,0 +1,39 @@
+package rmi;
+
+/**
+ * Identifiant du client HTTP dont la requête est en cours de traitement.
+ *
+ * Le filtre HTTP le pose avant d'appeler le handler, sur le même thread, et
+ * l'efface ensuite. {@link Serveur} s'en sert pour envoyer à la partition
+ * principale les lectures d'un client qui vient d'écrire.
+ */
+public final class ContexteClient {
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private ContexteClient() {
+    }
+
+    /**
+     * Définit le client de la requête en cours sur ce thread.
+     *
+     * @param identifiant l'identifiant du client, ou null s'il est inconnu
+     */
+    public static void definir(String identifiant) {
+        CLIENT.set(identifiant);
+    }
+
+    /**
+     * @return l'identifiant du client de la requête en cours, ou null
+     */
+    public static String getIdentifiant() {
+        return CLIENT.get();
+    }
+
+    /**
+     * Efface le client de la requête terminée.
+     */
+    public static void effacer() {
+        CLIENT.remove();
+    }
+}
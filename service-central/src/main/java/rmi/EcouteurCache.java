@@ -0,0 +1,79 @@
+package rmi;
+
+import cache.CacheReponses;
+import interfaces.EcouteurChangements;
+import model.Changement;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Abonné du service central au flux de changements des partitions du service BD.
+ *
+ * Chaque changement reçu invalide le cache des réponses. La dernière séquence
+ * reçue de chaque partition est gardée : un nouvel abonnement reprend à cette
+ * séquence, sans perdre les changements publiés entre-temps.
+ */
+public class EcouteurCache implements EcouteurChangements {
+
+    private static final Logger LOGGER = Logger.getLogger(EcouteurCache.class.getName());
+
+    private final CacheReponses cache;
+    private final Map<String, Long> sequences = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur.
+     *
+     * @param cache le cache à invalider
+     */
+    public EcouteurCache(CacheReponses cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void recevoir(String partition, List<Changement> changements) throws RemoteException {
+        if (changements.isEmpty()) {
+            return;
+        }
+        for (Changement changement : changements) {
+            if (changement.getType() == Changement.Type.RESYNCHRONISATION) {
+                LOGGER.warning("Changements perdus pour la partition " + partition + ", cache vidé");
+            }
+            cache.invalider(changement);
+        }
+        // Les lots d'une partition arrivent dans l'ordre : la dernière séquence est la plus récente
+        sequences.put(partition, changements.get(changements.size() - 1).getSequence());
+    }
+
+    /**
+     * @param partition le nom de la partition
+     * @return la dernière séquence reçue de la partition, -1 si aucune
+     */
+    public long getDerniereSequence(String partition) {
+        return sequences.getOrDefault(partition, -1L);
+    }
+
+    /**
+     * Retient la séquence d'une partition qui vient d'être abonnée, si aucun lot
+     * n'a encore été reçu : un abonnement ultérieur reprendra à partir d'elle.
+     *
+     * @param partition le nom de la partition
+     * @param sequence la séquence du dernier changement publié par la partition
+     */
+    public void initialiser(String partition, long sequence) {
+        sequences.putIfAbsent(partition, sequence);
+    }
+
+    /**
+     * Oublie la séquence d'une partition désinscrite : une nouvelle instance
+     * de la partition numérote ses changements à partir de 1.
+     *
+     * @param partition le nom de la partition
+     */
+    public void oublier(String partition) {
+        sequences.remove(partition);
+    }
+}
@@ -1,12 +1,37 @@
 package rmi;
 
+import cache.CacheReponses;
+import cache.ReponsesIdempotentes;
+import interfaces.EcouteurChangements;
 import interfaces.ServiceBD;
+import interfaces.ServiceBDTypee;
 import interfaces.ServiceProxy;
 import interfaces.ServiceCentral;
+import model.AnalyseOccupation;
+import model.DemandeAttente;
+import model.OptionTable;
+import model.PageReservations;
+import model.PartitionBD;
+import model.Reservation;
+import model.ResultatLot;
+import model.ResultatReservation;
+import model.TableResto;
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import utils.CodecDate;
+import utils.JsonModele;
 
 import java.rmi.RemoteException;
 import java.rmi.server.RemoteServer;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -19,25 +44,112 @@ import java.util.logging.Level;
  *
  * Architecture :
  * - Clients HTTP/HTTPS → Service Central → Services RMI (BD, Proxy)
+ *
+ * Le service BD est appelé via son interface typée : les réponses JSON des
+ * réservations et des tables sont rendues ici, une seule fois, avec {@link JsonModele}.
+ *
+ * Le service BD peut être réparti en plusieurs instances, une par partition :
+ * chaque appel est routé par {@link AnneauPartitions} selon le restaurant, la
+ * table ou la réservation concernée.
+ *
+ * Les lectures vont de préférence aux réplicas en lecture seule des partitions,
+ * les écritures toujours à la partition principale. Un réplica lit une base de
+ * secours qui peut être en retard : après une écriture, les lectures du même
+ * client (voir {@link ContexteClient}) vont à la partition principale pendant
+ * la fenêtre de cohérence.
+ *
+ * Les réponses qui dépendent des réservations d'un restaurant sont gardées dans
+ * un cache ({@link CacheReponses}) invalidé par le flux de changements auquel le
+ * serveur abonne chaque partition principale à son inscription.
  */
 public class Serveur implements ServiceCentral {
 
     private static final Logger LOGGER = Logger.getLogger(Serveur.class.getName());
 
-    private ServiceBD serviceBD = null;
+    private static final long FENETRE_COHERENCE_DEFAUT_MS = 5000;
+    /** Nombre de clients suivis au-delà duquel les fenêtres expirées sont purgées. */
+    private static final int SEUIL_PURGE_ECRITURES = 10_000;
+    private static final int TAILLE_CACHE_DEFAUT = 10_000;
+    private static final int IDEMPOTENCE_MAX_DEFAUT = 10_000;
+    private static final long IDEMPOTENCE_TTL_DEFAUT_MS = 600_000;
+    private static final long IDEMPOTENCE_ATTENTE_MAX_MS = 30_000;
+
+    /**
+     * Réponse calculée par une lecture du service BD.
+     */
+    @FunctionalInterface
+    private interface Reponse {
+        String calculer(boolean principale) throws RemoteException;
+    }
+
+    private final AnneauPartitions partitions = new AnneauPartitions();
     private ServiceProxy serviceProxy = null;
 
+    private final long fenetreCoherenceMs;
+    // Client -> fin de sa fenêtre de cohérence (ms)
+    private final Map<String, Long> ecrituresRecentes = new ConcurrentHashMap<>();
+
+    private final CacheReponses cacheReponses;
+    private final EcouteurCache ecouteur;
+    // Stub de l'écouteur, exporté à la première inscription d'une partition
+    private EcouteurChangements stubEcouteur;
+    private final Set<String> partitionsAbonnees = ConcurrentHashMap.newKeySet();
+
+    private final ReponsesIdempotentes reponsesIdempotentes;
+
     /**
      * Constructeur du serveur central.
      * Initialise le serveur avec support des créneaux horaires.
      */
     public Serveur() {
+        this(FENETRE_COHERENCE_DEFAUT_MS);
+    }
+
+    /**
+     * Constructeur du serveur central avec une fenêtre de cohérence donnée.
+     *
+     * @param fenetreCoherenceMs durée pendant laquelle les lectures d'un client qui
+     *                           vient d'écrire vont à la partition principale (0 pour désactiver)
+     */
+    public Serveur(long fenetreCoherenceMs) {
+        this(fenetreCoherenceMs, TAILLE_CACHE_DEFAUT);
+    }
+
+    /**
+     * Constructeur du serveur central avec une fenêtre de cohérence et une taille de cache données.
+     *
+     * @param fenetreCoherenceMs durée pendant laquelle les lectures d'un client qui
+     *                           vient d'écrire vont à la partition principale (0 pour désactiver)
+     * @param tailleCache nombre maximal de réponses gardées en cache (0 pour désactiver)
+     */
+    public Serveur(long fenetreCoherenceMs, int tailleCache) {
+        this(fenetreCoherenceMs, tailleCache, new ReponsesIdempotentes(IDEMPOTENCE_MAX_DEFAUT,
+                IDEMPOTENCE_TTL_DEFAUT_MS, IDEMPOTENCE_ATTENTE_MAX_MS));
+    }
+
+    /**
+     * Constructeur du serveur central complet.
+     *
+     * @param fenetreCoherenceMs durée pendant laquelle les lectures d'un client qui
+     *                           vient d'écrire vont à la partition principale (0 pour désactiver)
+     * @param tailleCache nombre maximal de réponses gardées en cache (0 pour désactiver)
+     * @param reponsesIdempotentes réponses des réservations gardées par clé d'idempotence
+     */
+    public Serveur(long fenetreCoherenceMs, int tailleCache, ReponsesIdempotentes reponsesIdempotentes) {
+        this.fenetreCoherenceMs = fenetreCoherenceMs;
+        this.reponsesIdempotentes = reponsesIdempotentes;
+        this.cacheReponses = new CacheReponses(tailleCache);
+        this.ecouteur = new EcouteurCache(cacheReponses);
         LOGGER.info("Service Central créé avec support des créneaux - Centre de la topologie");
     }
 
     /**
      * Enregistre un service de base de données.
      * Vérifie la connectivité du service avant de l'enregistrer.
+     * Le service doit implémenter l'interface typée {@link ServiceBDTypee}
+     * et annoncer une partition compatible avec celles déjà inscrites.
+     * Un service en lecture seule est inscrit comme réplica de sa partition ;
+     * une partition principale est abonnée au flux de changements.
      *
      * @param serviceBD le service de base de données à enregistrer
      * @return true si l'enregistrement a réussi, false sinon
@@ -46,11 +158,26 @@ public class Serveur implements ServiceCentral {
     @Override
     public boolean enregistrerServiceBD(ServiceBD serviceBD) throws RemoteException {
         try {
+            if (!(serviceBD instanceof ServiceBDTypee)) {
+                LOGGER.warning("Service BD refusé : interface typée non implémentée");
+                return false;
+            }
             serviceBD.ping();
-            this.serviceBD = serviceBD;
+            ServiceBDTypee serviceTypee = (ServiceBDTypee) serviceBD;
+            PartitionBD partition = serviceTypee.getPartition();
+            partitions.inscrire(serviceTypee, partition);
+            if (!partition.isLectureSeule()) {
+                // Nouvelle instance : ses séquences repartent de 1 et ses données ont pu changer
+                ecouteur.oublier(partition.getNom());
+                cacheReponses.vider();
+                abonner(serviceTypee, partition.getNom());
+            }
             String serviceBDHost = RemoteServer.getClientHost();
-            LOGGER.info("Service BD inscrit : " + serviceBDHost);
+            LOGGER.info("Service BD inscrit : " + serviceBDHost + " (" + partition + ")");
             return true;
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("Service BD refusé : " + e.getMessage());
+            return false;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Erreur inscription Service BD", e);
             return false;
@@ -91,7 +218,9 @@ public class Serveur implements ServiceCentral {
         try {
             switch (serviceType.toUpperCase()) {
                 case "BD":
-                    serviceBD = null;
+                    partitions.vider();
+                    partitionsAbonnees.clear();
+                    mettreAJourCache();
                     LOGGER.info("Service BD désinscrit");
                     return true;
                 case "PROXY":
@@ -108,9 +237,65 @@ public class Serveur implements ServiceCentral {
         }
     }
 
+    /**
+     * Désinscrit une seule partition du service BD.
+     *
+     * @param nomPartition le nom de la partition à retirer
+     * @return true si la partition était inscrite
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    @Override
+    public boolean supprimerServiceBD(String nomPartition) throws RemoteException {
+        return retirerPartition(nomPartition);
+    }
+
+    /**
+     * Désinscrit un réplica en lecture seule du service BD.
+     *
+     * @param replica l'instance du réplica à retirer
+     * @return true si le réplica était inscrit
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    @Override
+    public boolean supprimerReplicaBD(ServiceBD replica) throws RemoteException {
+        return partitions.retirerReplica(replica);
+    }
+
+    /**
+     * Invalide le référentiel de toutes les instances du service BD.
+     * Une instance injoignable est seulement signalée : son référentiel expirera
+     * de lui-même, et elle sera désinscrite au prochain état des services.
+     *
+     * @return le nombre d'instances invalidées
+     * @throws RemoteException en cas d'erreur de communication RMI
+     */
+    @Override
+    public int invaliderReferentiel() throws RemoteException {
+        LOGGER.info("Appel invaliderReferentiel()");
+        int invalidees = 0;
+        for (AnneauPartitions.Inscription inscription : partitions.getInscriptions()) {
+            List<ServiceBDTypee> services = new ArrayList<>();
+            services.add(inscription.getService());
+            for (AnneauPartitions.Replica replica : inscription.getRepliques()) {
+                services.add(replica.getService());
+            }
+            for (ServiceBDTypee service : services) {
+                try {
+                    service.invaliderReferentiel();
+                    invalidees++;
+                } catch (RemoteException e) {
+                    LOGGER.log(Level.WARNING, "Invalidation du référentiel impossible sur une instance de "
+                            + inscription.getPartition().getNom(), e);
+                }
+            }
+        }
+        return invalidees;
+    }
+
     /**
      * Retourne l'état de tous les services enregistrés.
      * Effectue un test de connectivité en temps réel.
+     * Les partitions et les réplicas du service BD qui ne répondent plus sont désinscrits.
      *
      * @return un JSON contenant l'état de disponibilité de chaque service
      * @throws RemoteException en cas d'erreur de communication RMI
@@ -120,14 +305,43 @@ public class Serveur implements ServiceCentral {
         JSONObject etat = new JSONObject();
 
         boolean bdDisponible = false;
-        if (serviceBD != null) {
+        JSONArray etatPartitions = new JSONArray();
+        for (AnneauPartitions.Inscription inscription : partitions.getInscriptions()) {
+            PartitionBD partition = inscription.getPartition();
+            boolean disponible = false;
             try {
-                serviceBD.ping();
+                inscription.getService().ping();
+                disponible = true;
                 bdDisponible = true;
             } catch (Exception e) {
-                LOGGER.warning("Service BD non disponible");
-                serviceBD = null;
+                LOGGER.warning("Partition BD " + partition.getNom() + " non disponible");
+                retirerPartition(partition.getNom());
+            }
+            if (disponible) {
+                // Reprend le flux à la dernière séquence reçue, au cas où l'abonnement aurait été perdu
+                abonner(inscription.getService(), partition.getNom());
+            }
+            JSONArray etatRepliques = new JSONArray();
+            for (AnneauPartitions.Replica replica : inscription.getRepliques()) {
+                boolean replicaDisponible = false;
+                try {
+                    replica.getService().ping();
+                    replicaDisponible = true;
+                } catch (Exception e) {
+                    LOGGER.warning("Réplica de la partition BD " + partition.getNom() + " non disponible");
+                    partitions.retirerReplica(replica.getService());
+                }
+                etatRepliques.put(new JSONObject()
+                        .put("disponible", replicaDisponible)
+                        .put("enCours", replica.getEnCours())
+                        .put("lectures", replica.getNbLectures()));
             }
+            etatPartitions.put(new JSONObject()
+                    .put("nom", partition.getNom())
+                    .put("numero", partition.getNumero())
+                    .put("slots", partition.getSlots().cardinality())
+                    .put("disponible", disponible)
+                    .put("repliques", etatRepliques));
         }
 
         boolean proxyDisponible = false;
@@ -141,13 +355,52 @@ public class Serveur implements ServiceCentral {
             }
         }
 
-        etat.put("serviceBD", new JSONObject().put("disponible", bdDisponible));
+        etat.put("serviceBD", new JSONObject()
+                .put("disponible", bdDisponible)
+                .put("partitions", etatPartitions));
         etat.put("serviceProxy", new JSONObject().put("disponible", proxyDisponible));
         etat.put("timestamp", System.currentTimeMillis());
 
         return etat.toString();
     }
 
+    /**
+     * Récupère les statistiques de fonctionnement du service BD
+     * (pool de connexions, temps d'attente), pour chacune de ses partitions
+     * et chacun de leurs réplicas.
+     *
+     * @return un JSON contenant les statistiques de chaque partition, par nom
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String getStatistiquesBD() throws RemoteException {
+        List<AnneauPartitions.Inscription> inscriptions = partitions.getInscriptions();
+        if (inscriptions.isEmpty()) {
+            throw new RemoteException("Service BD non disponible");
+        }
+        JSONObject parPartition = new JSONObject();
+        for (AnneauPartitions.Inscription inscription : inscriptions) {
+            JSONObject stats = new JSONObject(inscription.getService().getStatistiques());
+            if (!inscription.getRepliques().isEmpty()) {
+                JSONArray statsRepliques = new JSONArray();
+                for (AnneauPartitions.Replica replica : inscription.getRepliques()) {
+                    try {
+                        statsRepliques.put(new JSONObject(replica.getService().getStatistiques()));
+                    } catch (RemoteException e) {
+                        statsRepliques.put(new JSONObject().put("disponible", false));
+                    }
+                }
+                stats.put("repliques", statsRepliques);
+            }
+            parPartition.put(inscription.getPartition().getNom(), stats);
+        }
+        JSONObject response = new JSONObject();
+        response.put("partitions", parPartition);
+        response.put("cacheCentral", cacheReponses.getStatistiques());
+        response.put("idempotence", reponsesIdempotentes.getStatistiques());
+        response.put("timestamp", System.currentTimeMillis());
+        return response.toString();
+    }
+
     /**
      * Récupère la liste de tous les restaurants.
      * Délègue la requête au service de base de données.
@@ -156,10 +409,7 @@ public class Serveur implements ServiceCentral {
      * @throws RemoteException si le service BD n'est pas disponible
      */
     public String getAllRestaurants() throws RemoteException {
-        if (serviceBD == null) {
-            throw new RemoteException("Service BD non disponible");
-        }
-        return serviceBD.getAllRestaurants();
+        return partitions.lireQuelconque(lecturePrincipale(), ServiceBDTypee::getAllRestaurants);
     }
 
     /**
@@ -170,10 +420,7 @@ public class Serveur implements ServiceCentral {
      */
     public String getCreneauxDisponibles() throws RemoteException {
         LOGGER.info("Appel getCreneauxDisponibles()");
-        if (serviceBD == null) {
-            throw new RemoteException("Service BD non disponible");
-        }
-        return serviceBD.getCreneauxDisponibles();
+        return partitions.lireQuelconque(lecturePrincipale(), ServiceBDTypee::getCreneauxDisponibles);
     }
 
     /**
@@ -185,10 +432,7 @@ public class Serveur implements ServiceCentral {
      */
     public String getCreneauById(int creneauId) throws RemoteException {
         LOGGER.info("Appel getCreneauById(" + creneauId + ")");
-        if (serviceBD == null) {
-            throw new RemoteException("Service BD non disponible");
-        }
-        return serviceBD.getCreneauById(creneauId);
+        return partitions.lireQuelconque(lecturePrincipale(), service -> service.getCreneauById(creneauId));
     }
 
 
@@ -203,10 +447,17 @@ public class Serveur implements ServiceCentral {
      */
     public String getTablesLibresPourCreneau(int restaurantId, String dateReservation, int creneauId) throws RemoteException {
         LOGGER.info("Appel getTablesLibresPourCreneau(" + restaurantId + ", " + dateReservation + ", " + creneauId + ")");
-        if (serviceBD == null) {
-            throw new RemoteException("Service BD non disponible");
+        try {
+            int jour = CodecDate.parser(dateReservation);
+            return lireAvecOptions("tablesLibres:" + restaurantId + ":" + jour + ":" + creneauId, restaurantId, jour, jour,
+                    principale -> JsonModele.tablesLibres(partitions.lirePourRestaurant(restaurantId, principale,
+                            service -> service.listerTablesLibres(restaurantId, dateReservation, creneauId)),
+                            restaurantId, dateReservation, creneauId));
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
         }
-        return serviceBD.getTablesLibresPourCreneau(restaurantId, dateReservation, creneauId);
     }
 
     /**
@@ -220,10 +471,103 @@ public class Serveur implements ServiceCentral {
      */
     public String getTablesAvecStatut(int restaurantId, String dateReservation, int creneauId) throws RemoteException {
         LOGGER.info("Appel getTablesAvecStatut(" + restaurantId + ", " + dateReservation + ", " + creneauId + ")");
-        if (serviceBD == null) {
-            throw new RemoteException("Service BD non disponible");
+        try {
+            int jour = CodecDate.parser(dateReservation);
+            return lireAvecOptions("statut:" + restaurantId + ":" + jour + ":" + creneauId, restaurantId, jour, jour,
+                    principale -> JsonModele.tablesAvecStatut(partitions.lirePourRestaurant(restaurantId, principale,
+                            service -> service.listerTablesAvecStatut(restaurantId, dateReservation, creneauId)),
+                            restaurantId, dateReservation, creneauId));
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Récupère la matrice de disponibilité d'un restaurant sur une période.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateDebut la première date de la période
+     * @param dateFin la dernière date de la période
+     * @return un JSON contenant la matrice dates × créneaux × tables
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String getDisponibilites(int restaurantId, String dateDebut, String dateFin) throws RemoteException {
+        LOGGER.info("Appel getDisponibilites(" + restaurantId + ", " + dateDebut + ", " + dateFin + ")");
+        try {
+            int jourDebut = CodecDate.parser(dateDebut);
+            int jourFin = CodecDate.parser(dateFin);
+            return lireAvecOptions("disponibilites:" + restaurantId + ":" + jourDebut + ":" + jourFin,
+                    restaurantId, jourDebut, jourFin,
+                    principale -> JsonModele.disponibilites(partitions.lirePourRestaurant(restaurantId, principale,
+                            service -> service.calculerDisponibilites(restaurantId, dateDebut, dateFin)),
+                            dateDebut, dateFin));
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Récupère l'occupation d'un restaurant pour une date, créneau par créneau.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateReservation la date demandée
+     * @return un JSON contenant les tables et couverts réservés de chaque créneau
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String getOccupation(int restaurantId, String dateReservation) throws RemoteException {
+        try {
+            int jour = CodecDate.parser(dateReservation);
+            return lireEnCache("occupation:" + restaurantId + ":" + jour, restaurantId, jour, jour,
+                    principale -> JsonModele.occupation(partitions.lirePourRestaurant(restaurantId, principale,
+                            service -> service.getOccupation(restaurantId, dateReservation)),
+                            restaurantId, dateReservation));
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Analyse l'occupation sur une période, par restaurant, par créneau et par jour
+     * de la semaine. Sans restaurant, chaque partition analyse ses restaurants et
+     * les analyses sont cumulées.
+     *
+     * @param restaurantId l'identifiant du restaurant, ou 0 pour tous les restaurants
+     * @param dateDebut première date de la période
+     * @param dateFin dernière date de la période
+     * @return un JSON contenant le total et les taux d'occupation de chaque axe
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String getAnalyseOccupation(int restaurantId, String dateDebut, String dateFin) throws RemoteException {
+        LOGGER.info("Appel getAnalyseOccupation(" + restaurantId + ", " + dateDebut + ", " + dateFin + ")");
+        try {
+            AnalyseOccupation analyse;
+            if (restaurantId > 0) {
+                analyse = partitions.lirePourRestaurant(restaurantId, lecturePrincipale(),
+                        service -> service.analyserOccupation(restaurantId, dateDebut, dateFin));
+            } else {
+                List<AnneauPartitions.Inscription> inscriptions = partitions.getInscriptions();
+                if (inscriptions.isEmpty()) {
+                    throw new RemoteException("Service BD non disponible");
+                }
+                analyse = null;
+                for (AnneauPartitions.Inscription inscription : inscriptions) {
+                    AnalyseOccupation partielle = partitions.lire(inscription, lecturePrincipale(),
+                            service -> service.analyserOccupation(0, dateDebut, dateFin));
+                    analyse = analyse == null ? partielle : analyse.fusionner(partielle);
+                }
+            }
+            return JsonModele.analyseOccupation(analyse, restaurantId, dateDebut, dateFin);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
         }
-        return serviceBD.getTablesAvecStatut(restaurantId, dateReservation, creneauId);
     }
 
     /**
@@ -237,14 +581,34 @@ public class Serveur implements ServiceCentral {
      */
     public String verifierDisponibilite(int tableId, String dateReservation, int creneauId) throws RemoteException {
         LOGGER.info("Appel verifierDisponibilite(" + tableId + ", " + dateReservation + ", " + creneauId + ")");
-        if (serviceBD == null) {
-            throw new RemoteException("Service BD non disponible");
+        try {
+            // Les options ne sont connues que de la partition principale
+            return JsonModele.disponibilite(tableId, dateReservation, creneauId,
+                    partitions.lirePourTable(tableId, true,
+                            service -> service.estDisponible(tableId, dateReservation, creneauId)));
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
         }
-        return serviceBD.verifierDisponibilite(tableId, dateReservation, creneauId);
     }
 
     /**
-     * Effectue une réservation de table avec créneaux.
+     * Effectue une réservation de table, au plus une fois par clé d'idempotence.
+     *
+     * @param jsonReservation un JSON contenant les données de réservation
+     * @param cleIdempotence la clé choisie par le client, ou null
+     * @return un JSON contenant le résultat de la réservation, celui de la première
+     *         requête si la clé a déjà servi
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String reserverTable(String jsonReservation, String cleIdempotence) throws RemoteException {
+        return idempotent("/reserver", cleIdempotence, jsonReservation, () -> reserverTable(jsonReservation));
+    }
+
+    /**
+     * Effectue une réservation de table avec créneaux. Si le JSON porte un
+     * "optionId", la réservation confirme l'option posée sur la table.
      *
      * @param jsonReservation un JSON contenant les données de réservation
      * @return un JSON contenant le résultat de la réservation
@@ -252,10 +616,312 @@ public class Serveur implements ServiceCentral {
      */
     public String reserverTable(String jsonReservation) throws RemoteException {
         LOGGER.info("Appel reserverTable() avec créneaux");
-        if (serviceBD == null) {
+        try {
+            JSONObject json = new JSONObject(jsonReservation);
+            Reservation reservation = JsonModele.lireReservation(json);
+            String optionId = json.optString("optionId", null);
+            ServiceBDTypee serviceBD = partitions.pourTable(reservation.getTableId());
+            ResultatReservation resultat = optionId != null
+                    ? serviceBD.confirmerOption(optionId, reservation)
+                    : serviceBD.reserver(reservation);
+            noterEcriture();
+            return JsonModele.resultatReservation(resultat);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        } catch (JSONException e) {
+            return JsonModele.echecReservation("Erreur lors de la réservation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Met une table en option pour une date et un créneau, le temps que le client
+     * termine sa réservation.
+     *
+     * @param jsonDemande un JSON contenant tableId, dateReservation, creneauId
+     *                    et, facultativement, dureeSecondes
+     * @return un JSON contenant l'identifiant et l'expiration de l'option, ou un échec
+     *         si la table est déjà réservée ou en option
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String poserOption(String jsonDemande) throws RemoteException {
+        LOGGER.info("Appel poserOption()");
+        try {
+            JSONObject demande = new JSONObject(jsonDemande);
+            int tableId = demande.getInt("tableId");
+            OptionTable option = partitions.pourTable(tableId).poserOption(tableId,
+                    demande.getString("dateReservation"),
+                    demande.getInt("creneauId"),
+                    demande.optInt("dureeSecondes", 0));
+            noterEcriture();
+            return JsonModele.option(option);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        } catch (JSONException e) {
+            return JsonModele.echecReservation("Erreur lors de la pose de l'option: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lève une option avant son expiration.
+     *
+     * @param jsonDemande un JSON contenant optionId et le tableId de l'option
+     * @return un JSON indiquant si l'option courait encore
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String leverOption(String jsonDemande) throws RemoteException {
+        LOGGER.info("Appel leverOption()");
+        try {
+            JSONObject demande = new JSONObject(jsonDemande);
+            String optionId = demande.getString("optionId");
+            boolean levee = partitions.pourTable(demande.getInt("tableId")).leverOption(optionId);
+            noterEcriture();
+            return JsonModele.leveeOption(optionId, levee);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        } catch (JSONException e) {
+            return JsonModele.echecReservation("Erreur lors de la levée de l'option: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inscrit un groupe en liste d'attente d'un créneau complet. La demande est
+     * promue d'elle-même quand une annulation libère une table adaptée.
+     *
+     * @param jsonDemande un JSON contenant restaurantId, dateReservation, creneauId,
+     *                    nbConvives, nomClient, prenomClient et telephone
+     * @return un JSON contenant l'identifiant et la position de la demande, ou un échec
+     *         si la liste d'attente du créneau est pleine
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String inscrireAttente(String jsonDemande) throws RemoteException {
+        LOGGER.info("Appel inscrireAttente()");
+        try {
+            DemandeAttente demande = JsonModele.lireDemandeAttente(new JSONObject(jsonDemande));
+            DemandeAttente inscrite = partitions.pourRestaurant(demande.getRestaurantId()).inscrireAttente(demande);
+            noterEcriture();
+            return JsonModele.demandeAttente(inscrite, "La liste d'attente de ce créneau est pleine");
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        } catch (JSONException e) {
+            return JsonModele.echecReservation("Erreur lors de l'inscription en liste d'attente: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Consulte une demande de liste d'attente. Lue sur l'instance principale :
+     * seule elle tient les listes d'attente et connaît les positions.
+     *
+     * @param restaurantId l'identifiant du restaurant de la demande
+     * @param attenteId l'identifiant de la demande
+     * @return un JSON contenant le statut de la demande, sa position ou la réservation obtenue
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String consulterAttente(int restaurantId, int attenteId) throws RemoteException {
+        LOGGER.info("Appel consulterAttente(" + restaurantId + ", " + attenteId + ")");
+        try {
+            DemandeAttente demande = partitions.pourRestaurant(restaurantId).consulterAttente(attenteId);
+            return JsonModele.demandeAttente(demande != null && demande.getRestaurantId() == restaurantId
+                    ? demande : null, "Demande inconnue");
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Retire une demande de la liste d'attente.
+     *
+     * @param restaurantId l'identifiant du restaurant de la demande
+     * @param attenteId l'identifiant de la demande
+     * @return un JSON indiquant si la demande attendait encore
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String quitterAttente(int restaurantId, int attenteId) throws RemoteException {
+        LOGGER.info("Appel quitterAttente(" + restaurantId + ", " + attenteId + ")");
+        try {
+            boolean retiree = partitions.pourRestaurant(restaurantId).quitterAttente(attenteId);
+            noterEcriture();
+            return JsonModele.retraitAttente(attenteId, retiree);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        }
+    }
+
+    /**
+     * Réserve pour un groupe la plus petite table libre adaptée, au plus une fois
+     * par clé d'idempotence.
+     *
+     * @param jsonDemande un JSON contenant la demande (voir {@link #reserverMeilleureTable(String)})
+     * @param cleIdempotence la clé choisie par le client, ou null
+     * @return un JSON contenant le résultat de la réservation, celui de la première
+     *         requête si la clé a déjà servi
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String reserverMeilleureTable(String jsonDemande, String cleIdempotence) throws RemoteException {
+        return idempotent("/reserver/meilleure-table", cleIdempotence, jsonDemande,
+                () -> reserverMeilleureTable(jsonDemande));
+    }
+
+    /**
+     * Réserve pour un groupe la plus petite table libre qui peut l'accueillir.
+     *
+     * @param jsonDemande un JSON contenant restaurantId, dateReservation, creneauId,
+     *                    nbConvives, nomClient, prenomClient et telephone
+     * @return un JSON contenant le résultat de la réservation et la table attribuée
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String reserverMeilleureTable(String jsonDemande) throws RemoteException {
+        LOGGER.info("Appel reserverMeilleureTable()");
+        try {
+            JSONObject demande = new JSONObject(jsonDemande);
+            int restaurantId = demande.getInt("restaurantId");
+            ResultatReservation resultat = partitions.pourRestaurant(restaurantId).reserverMeilleureTable(
+                    restaurantId,
+                    demande.getString("dateReservation"),
+                    demande.getInt("creneauId"),
+                    demande.getInt("nbConvives"),
+                    demande.getString("nomClient"),
+                    demande.getString("prenomClient"),
+                    demande.getString("telephone"));
+            noterEcriture();
+            return JsonModele.resultatReservation(resultat);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        } catch (JSONException e) {
+            return JsonModele.echecReservation("Erreur lors de la réservation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Effectue un lot de réservations, au plus une fois par clé d'idempotence.
+     *
+     * @param jsonLot un JSON contenant le mode et la liste des réservations
+     * @param cleIdempotence la clé choisie par le client, ou null
+     * @return un JSON contenant le résultat de chaque réservation du lot, celui de
+     *         la première requête si la clé a déjà servi
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String reserverTables(String jsonLot, String cleIdempotence) throws RemoteException {
+        return idempotent("/reserver/batch", cleIdempotence, jsonLot, () -> reserverTables(jsonLot));
+    }
+
+    /**
+     * Effectue un lot de réservations en une seule transaction.
+     *
+     * @param jsonLot un JSON contenant le mode et la liste des réservations
+     * @return un JSON contenant le résultat de chaque réservation du lot
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String reserverTables(String jsonLot) throws RemoteException {
+        LOGGER.info("Appel reserverTables()");
+        if (partitions.estVide()) {
             throw new RemoteException("Service BD non disponible");
         }
-        return serviceBD.reserverTable(jsonReservation);
+        try {
+            return reserverLot(new JSONObject(jsonLot));
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.echecReservation(e.getMessage());
+        } catch (JSONException e) {
+            return JsonModele.echecReservation("Erreur lors du lot de réservations: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lit un lot de réservations et le transmet au service BD.
+     * Les réservations illisibles sont rejetées ici : en mode tout ou rien le lot entier
+     * est refusé, en mode au mieux seules les réservations lisibles sont transmises.
+     *
+     * Chaque partition reçoit les réservations de ses restaurants. Un lot tout ou rien
+     * reste une transaction unique et ne peut donc porter que sur une partition.
+     */
+    private String reserverLot(JSONObject jsonObj) throws RemoteException {
+        JSONArray jsonReservations = jsonObj.optJSONArray("reservations");
+        if (jsonReservations == null || jsonReservations.isEmpty()) {
+            return JsonModele.erreurValidation("Le lot doit contenir un tableau 'reservations' non vide");
+        }
+
+        String mode = jsonObj.optString("mode", "tout-ou-rien");
+        if (!"tout-ou-rien".equals(mode) && !"au-mieux".equals(mode)) {
+            return JsonModele.erreurValidation("Mode invalide. Valeurs possibles: tout-ou-rien, au-mieux");
+        }
+        boolean toutOuRien = "tout-ou-rien".equals(mode);
+
+        int total = jsonReservations.length();
+        String[] echecs = new String[total];
+        List<Reservation> lisibles = new ArrayList<>(total);
+        List<ServiceBDTypee> destinations = new ArrayList<>(total);
+        boolean illisible = false;
+        for (int i = 0; i < total; i++) {
+            try {
+                JSONObject item = jsonReservations.optJSONObject(i);
+                if (item == null) {
+                    throw new IllegalArgumentException("Réservation attendue sous forme d'objet JSON");
+                }
+                Reservation reservation = JsonModele.lireReservation(item);
+                destinations.add(partitions.pourTable(reservation.getTableId()));
+                lisibles.add(reservation);
+            } catch (IllegalArgumentException e) {
+                echecs[i] = e.getMessage();
+                illisible = true;
+            }
+        }
+
+        if (illisible && toutOuRien) {
+            List<ResultatReservation> resultats = new ArrayList<>(total);
+            for (String echec : echecs) {
+                resultats.add(ResultatReservation.echec(0,
+                        echec != null ? echec : "Lot refusé suite à une réservation invalide"));
+            }
+            JSONObject response = JsonModele.resultatLot(new ResultatLot(true, resultats));
+            response.put("validation", true);
+            return response.toString();
+        }
+
+        Map<ServiceBDTypee, List<Integer>> parPartition = new LinkedHashMap<>();
+        for (int i = 0; i < lisibles.size(); i++) {
+            parPartition.computeIfAbsent(destinations.get(i), service -> new ArrayList<>()).add(i);
+        }
+        if (toutOuRien && parPartition.size() > 1) {
+            return JsonModele.erreurValidation(
+                    "Un lot tout-ou-rien doit porter sur des restaurants d'une même partition");
+        }
+
+        ResultatReservation[] resultatsBD = new ResultatReservation[lisibles.size()];
+        for (Map.Entry<ServiceBDTypee, List<Integer>> envoi : parPartition.entrySet()) {
+            List<Integer> positions = envoi.getValue();
+            List<Reservation> lot = new ArrayList<>(positions.size());
+            for (int position : positions) {
+                lot.add(lisibles.get(position));
+            }
+            List<ResultatReservation> resultats = envoi.getKey().reserverLot(lot, toutOuRien).getResultats();
+            noterEcriture();
+            for (int j = 0; j < positions.size(); j++) {
+                resultatsBD[positions.get(j)] = resultats.get(j);
+            }
+        }
+
+        // Replace les résultats du service BD aux positions des réservations lisibles
+        List<ResultatReservation> resultats = new ArrayList<>(total);
+        int suivant = 0;
+        for (String echec : echecs) {
+            resultats.add(echec != null ? ResultatReservation.echec(0, echec) : resultatsBD[suivant++]);
+        }
+        return JsonModele.resultatLot(new ResultatLot(toutOuRien, resultats)).toString();
     }
 
     /**
@@ -268,10 +934,252 @@ public class Serveur implements ServiceCentral {
      */
     public String getReservationsPourDate(int restaurantId, String dateReservation) throws RemoteException {
         LOGGER.info("Appel getReservationsPourDate(" + restaurantId + ", " + dateReservation + ")");
-        if (serviceBD == null) {
+        try {
+            return JsonModele.reservations(partitions.lirePourRestaurant(restaurantId, lecturePrincipale(),
+                    service -> service.listerReservations(restaurantId, dateReservation)),
+                    restaurantId, dateReservation);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Récupère une page de l'historique des réservations d'un restaurant.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateDebut première date de la période
+     * @param dateFin dernière date de la période
+     * @param curseur curseur de la page précédente, ou null pour la première page
+     * @param taille nombre maximal de réservations
+     * @return un JSON contenant la page et le curseur de la page suivante
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String getHistoriqueReservations(int restaurantId, String dateDebut, String dateFin,
+                                            String curseur, int taille) throws RemoteException {
+        LOGGER.info("Appel getHistoriqueReservations(" + restaurantId + ", " + dateDebut + ", " + dateFin + ")");
+        try {
+            return JsonModele.historiqueReservations(
+                    partitions.lirePourRestaurant(restaurantId, lecturePrincipale(),
+                            service -> service.listerHistorique(restaurantId, dateDebut, dateFin, curseur, taille)),
+                    restaurantId, dateDebut, dateFin);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Récupère une page des réservations archivées d'un restaurant.
+     *
+     * @param restaurantId l'identifiant du restaurant
+     * @param dateDebut première date de la période
+     * @param dateFin dernière date de la période
+     * @param curseur curseur de la page précédente, ou null pour la première page
+     * @param taille nombre maximal de réservations
+     * @return un JSON contenant la page et le curseur de la page suivante
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String getArchivesReservations(int restaurantId, String dateDebut, String dateFin,
+                                          String curseur, int taille) throws RemoteException {
+        LOGGER.info("Appel getArchivesReservations(" + restaurantId + ", " + dateDebut + ", " + dateFin + ")");
+        try {
+            return JsonModele.historiqueReservations(
+                    partitions.lirePourRestaurant(restaurantId, lecturePrincipale(),
+                            service -> service.listerArchives(restaurantId, dateDebut, dateFin, curseur, taille)),
+                    restaurantId, dateDebut, dateFin);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Récupère une page des réservations d'un client.
+     *
+     * @param telephone le téléphone donné aux réservations
+     * @param curseur curseur de la page précédente, ou null pour la première page
+     * @param taille nombre maximal de réservations
+     * @return un JSON contenant la page et le curseur de la page suivante
+     * @throws RemoteException si le service BD n'est pas disponible
+     */
+    public String getReservationsClient(String telephone, String curseur, int taille) throws RemoteException {
+        LOGGER.info("Appel getReservationsClient(" + telephone + ")");
+        try {
+            return JsonModele.reservationsClient(listerReservationsClient(telephone, curseur, taille), telephone);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Parcourt les réservations d'un client sur toutes les partitions.
+     * Chacune renvoie au plus une page après le curseur ; la page fusionnée garde
+     * les plus récentes, et sa dernière réservation sert de curseur sur toutes.
+     */
+    private PageReservations listerReservationsClient(String telephone, String curseur, int taille)
+            throws RemoteException {
+        List<AnneauPartitions.Inscription> inscriptions = partitions.getInscriptions();
+        if (inscriptions.isEmpty()) {
             throw new RemoteException("Service BD non disponible");
         }
-        return serviceBD.getReservationsPourDate(restaurantId, dateReservation);
+        boolean principale = lecturePrincipale();
+        AnneauPartitions.Lecture<PageReservations> lecture =
+                service -> service.listerReservationsClient(telephone, curseur, taille);
+        if (inscriptions.size() == 1) {
+            return partitions.lire(inscriptions.get(0), principale, lecture);
+        }
+
+        List<Reservation> fusion = new ArrayList<>();
+        boolean suite = false;
+        for (AnneauPartitions.Inscription inscription : inscriptions) {
+            PageReservations page = partitions.lire(inscription, principale, lecture);
+            fusion.addAll(page.getReservations());
+            suite |= page.getCurseurSuivant() != null;
+        }
+        fusion.sort(Comparator.comparingInt(Reservation::getJourReservation)
+                .thenComparingInt(Reservation::getId).reversed());
+        if (fusion.size() > taille) {
+            fusion = new ArrayList<>(fusion.subList(0, taille));
+            suite = true;
+        }
+        return new PageReservations(fusion,
+                suite ? PageReservations.curseurApres(fusion.get(fusion.size() - 1)) : null);
+    }
+
+    /**
+     * Exécute une écriture au plus une fois par clé d'idempotence. La clé est propre
+     * au client (voir {@link ReponsesIdempotentes}) et à l'endpoint.
+     */
+    private String idempotent(String endpoint, String cle, String corps, ReponsesIdempotentes.Execution execution)
+            throws RemoteException {
+        if (cle == null) {
+            return execution.executer();
+        }
+        try {
+            return reponsesIdempotentes.executer(ContexteClient.getIdentifiant(), endpoint + " " + cle,
+                    corps, execution);
+        } catch (IllegalArgumentException e) {
+            return JsonModele.erreurValidation(e.getMessage());
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
+        }
+    }
+
+    /**
+     * Lit une réponse dans le cache, ou la calcule. Un client dans sa fenêtre de
+     * cohérence lit directement la partition principale : le flux de changements
+     * n'a peut-être pas encore invalidé la réponse gardée.
+     * Une réponse destinée au cache est lue sur la partition principale, un
+     * réplica pouvant être en retard sur le flux.
+     */
+    private String lireEnCache(String cle, int restaurantId, int jourDebut, int jourFin, Reponse reponse)
+            throws RemoteException {
+        if (lecturePrincipale()) {
+            return reponse.calculer(true);
+        }
+        return cacheReponses.lire(cle, restaurantId, jourDebut, jourFin,
+                () -> reponse.calculer(cacheReponses.isActif()));
+    }
+
+    /**
+     * Lit une réponse qui dépend des options sur les tables, comme {@link #lireEnCache},
+     * mais toujours sur la partition principale : les options sont tenues en mémoire
+     * par elle seule, et un réplica présenterait une table en option comme libre.
+     */
+    private String lireAvecOptions(String cle, int restaurantId, int jourDebut, int jourFin, Reponse reponse)
+            throws RemoteException {
+        return lireEnCache(cle, restaurantId, jourDebut, jourFin, principale -> reponse.calculer(true));
+    }
+
+    /**
+     * Abonne une partition principale au flux de changements, en reprenant à la
+     * dernière séquence reçue. Sans abonnement, le cache des réponses est désactivé.
+     */
+    private void abonner(ServiceBDTypee service, String nomPartition) {
+        try {
+            long derniere = service.abonner(stubEcouteur(), ecouteur.getDerniereSequence(nomPartition));
+            ecouteur.initialiser(nomPartition, derniere);
+            partitionsAbonnees.add(nomPartition);
+        } catch (RemoteException | RuntimeException e) {
+            partitionsAbonnees.remove(nomPartition);
+            LOGGER.log(Level.WARNING, "Abonnement au flux de changements de " + nomPartition + " impossible", e);
+        }
+        mettreAJourCache();
+    }
+
+    /**
+     * Désinscrit une partition, qui n'envoie alors plus ses changements.
+     */
+    private boolean retirerPartition(String nomPartition) {
+        boolean retiree = partitions.retirer(nomPartition);
+        partitionsAbonnees.remove(nomPartition);
+        ecouteur.oublier(nomPartition);
+        if (retiree) {
+            cacheReponses.vider();
+        }
+        mettreAJourCache();
+        return retiree;
+    }
+
+    /**
+     * Active le cache des réponses si toutes les partitions inscrites sont abonnées au flux.
+     */
+    private void mettreAJourCache() {
+        List<AnneauPartitions.Inscription> inscriptions = partitions.getInscriptions();
+        boolean toutesAbonnees = !inscriptions.isEmpty();
+        for (AnneauPartitions.Inscription inscription : inscriptions) {
+            toutesAbonnees &= partitionsAbonnees.contains(inscription.getPartition().getNom());
+        }
+        cacheReponses.activer(toutesAbonnees);
+    }
+
+    private synchronized EcouteurChangements stubEcouteur() throws RemoteException {
+        if (stubEcouteur == null) {
+            stubEcouteur = (EcouteurChangements) UnicastRemoteObject.exportObject(ecouteur, 0);
+        }
+        return stubEcouteur;
+    }
+
+    /**
+     * Ouvre la fenêtre de cohérence du client de la requête en cours, qui vient
+     * d'écrire : ses lectures iront à la partition principale jusqu'à sa fin.
+     */
+    private void noterEcriture() {
+        String client = ContexteClient.getIdentifiant();
+        if (fenetreCoherenceMs <= 0 || client == null) {
+            return;
+        }
+        long maintenant = System.currentTimeMillis();
+        if (ecrituresRecentes.size() >= SEUIL_PURGE_ECRITURES) {
+            ecrituresRecentes.values().removeIf(fin -> fin <= maintenant);
+        }
+        ecrituresRecentes.put(client, maintenant + fenetreCoherenceMs);
+    }
+
+    /**
+     * Indique si les lectures de la requête en cours doivent aller à la partition
+     * principale, le client ayant écrit pendant la fenêtre de cohérence.
+     */
+    private boolean lecturePrincipale() {
+        String client = ContexteClient.getIdentifiant();
+        if (client == null) {
+            return false;
+        }
+        Long fin = ecrituresRecentes.get(client);
+        if (fin == null) {
+            return false;
+        }
+        if (fin > System.currentTimeMillis()) {
+            return true;
+        }
+        ecrituresRecentes.remove(client, fin);
+        return false;
     }
 
     /**
@@ -283,10 +1191,14 @@ public class Serveur implements ServiceCentral {
      */
     public String annulerReservation(int reservationId) throws RemoteException {
         LOGGER.info("Appel annulerReservation(" + reservationId + ")");
-        if (serviceBD == null) {
-            throw new RemoteException("Service BD non disponible");
+        ServiceBDTypee serviceBD = partitions.pourReservation(reservationId);
+        try {
+            ResultatReservation resultat = serviceBD.annuler(reservationId);
+            noterEcriture();
+            return JsonModele.resultatAnnulation(resultat);
+        } catch (IllegalStateException e) {
+            return JsonModele.erreur(e.getMessage());
         }
-        return serviceBD.annulerReservation(reservationId);
     }
 
 
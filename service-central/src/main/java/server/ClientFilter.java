@@ -0,0 +1,60 @@
+package server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import rmi.ContexteClient;
+
+import java.io.IOException;
+
+/**
+ * Filtre qui identifie le client de chaque requête HTTP.
+ *
+ * Le client est désigné par l'en-tête X-Client-Id, que le frontend tire au
+ * hasard une fois par onglet ; à défaut, par son adresse. L'identifiant est
+ * exposé au service central par {@link ContexteClient} pendant le traitement
+ * de la requête.
+ */
+public class ClientFilter extends Filter {
+
+    /** En-tête portant l'identifiant du client. */
+    public static final String EN_TETE_CLIENT = "X-Client-Id";
+
+    private static final int LONGUEUR_MAX_IDENTIFIANT = 64;
+
+    /**
+     * Retourne la description du filtre pour les logs et le debugging.
+     *
+     * @return une description textuelle du filtre
+     */
+    @Override
+    public String description() {
+        return "Identification du client de la requête";
+    }
+
+    /**
+     * Pose l'identifiant du client pour la suite de la chaîne, puis l'efface.
+     *
+     * @param exchange l'échange HTTP en cours de traitement
+     * @param chain la chaîne de filtres à continuer
+     * @throws IOException en cas d'erreur lors du traitement de la requête
+     */
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        ContexteClient.definir(identifiant(exchange));
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            ContexteClient.effacer();
+        }
+    }
+
+    private static String identifiant(HttpExchange exchange) {
+        String enTete = exchange.getRequestHeaders().getFirst(EN_TETE_CLIENT);
+        if (enTete != null && !enTete.isBlank() && enTete.length() <= LONGUEUR_MAX_IDENTIFIANT) {
+            return enTete.trim();
+        }
+        return exchange.getRemoteAddress() != null
+                ? exchange.getRemoteAddress().getAddress().getHostAddress()
+                : null;
+    }
+}
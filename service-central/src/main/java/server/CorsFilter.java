@@ -19,7 +19,7 @@ import java.util.logging.Logger;
  * En-têtes CORS configurés :
  * - Access-Control-Allow-Origin: * (accepte toutes les origines)
  * - Access-Control-Allow-Methods: GET, POST, OPTIONS
- * - Access-Control-Allow-Headers: Content-Type, Accept
+ * - Access-Control-Allow-Headers: Content-Type, Accept, X-Client-Id, Idempotency-Key
  * - Access-Control-Max-Age: 3600 (cache preflight pendant 1 heure)
  */
 public class CorsFilter extends Filter {
@@ -58,7 +58,7 @@ public class CorsFilter extends Filter {
         // Ajout des en-têtes CORS pour toutes les réponses
         exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
         exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Accept");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Accept, X-Client-Id, Idempotency-Key");
         exchange.getResponseHeaders().add("Access-Control-Max-Age", "3600");
 
         // Gestion spéciale des requêtes preflight OPTIONS
@@ -29,9 +29,13 @@ import java.util.logging.Level;
  * - GET /restaurants - Liste des restaurants
  * - GET /creneaux - Liste des créneaux horaires
  * - GET /tables/libres/{restaurantId}/{date}/{creneauId} - Tables libres
+ * - GET /disponibilites/{restaurantId}?from=&to= - Matrice de disponibilité sur une période
  * - POST /reserver - Effectuer une réservation
+ * - POST /reserver/batch - Effectuer un lot de réservations
+ * - POST /reserver/option - Mettre une table en option
  * - GET /incidents - Incidents de circulation
  * - GET /services/etat - État des services backend
+ * - GET /services/statistiques - Statistiques du service BD
  */
 public class HttpServerCentral {
 
@@ -157,41 +161,78 @@ public class HttpServerCentral {
      */
     private void createContexts() {
         CorsFilter corsFilter = new CorsFilter();
+        ClientFilter clientFilter = new ClientFilter();
 
         // Endpoints restaurants
         HttpContext restaurantsContext = server.createContext("/restaurants",
                 new RestaurantsHandler(serviceCentral));
         restaurantsContext.getFilters().add(corsFilter);
+        restaurantsContext.getFilters().add(clientFilter);
 
         // Endpoints créneaux horaires
         HttpContext creneauxContext = server.createContext("/creneaux",
                 new CreneauxHandler(serviceCentral));
         creneauxContext.getFilters().add(corsFilter);
+        creneauxContext.getFilters().add(clientFilter);
 
         // Endpoints tables avec gestion des créneaux
         HttpContext tablesCreneauxContext = server.createContext("/tables/",
                 new TablesCreneauxHandler(serviceCentral));
         tablesCreneauxContext.getFilters().add(corsFilter);
+        tablesCreneauxContext.getFilters().add(clientFilter);
+
+        // Matrice de disponibilité sur une période
+        HttpContext disponibilitesContext = server.createContext("/disponibilites/",
+                new DisponibilitesHandler(serviceCentral));
+        disponibilitesContext.getFilters().add(corsFilter);
+        disponibilitesContext.getFilters().add(clientFilter);
+
+        // Occupation d'un restaurant (compteurs du service BD)
+        HttpContext occupationContext = server.createContext("/occupation/",
+                new OccupationHandler(serviceCentral));
+        occupationContext.getFilters().add(corsFilter);
+        occupationContext.getFilters().add(clientFilter);
+
+        // Analyses d'occupation d'une période (tableaux de bord)
+        HttpContext analysesContext = server.createContext("/analyses/",
+                new AnalysesHandler(serviceCentral));
+        analysesContext.getFilters().add(corsFilter);
+        analysesContext.getFilters().add(clientFilter);
 
         // Endpoint principal de réservation
         HttpContext reserverContext = server.createContext("/reserver",
                 new ReserverHandler(serviceCentral));
         reserverContext.getFilters().add(corsFilter);
+        reserverContext.getFilters().add(clientFilter);
+
+        // Listes d'attente des créneaux complets
+        HttpContext attenteContext = server.createContext("/attente",
+                new AttenteHandler(serviceCentral));
+        attenteContext.getFilters().add(corsFilter);
+        attenteContext.getFilters().add(clientFilter);
 
         // Endpoints de gestion des réservations
         HttpContext reservationsContext = server.createContext("/reservations/",
                 new ReservationsHandler(serviceCentral));
         reservationsContext.getFilters().add(corsFilter);
+        reservationsContext.getFilters().add(clientFilter);
 
         // Endpoints externes (incidents de circulation)
         HttpContext incidentsContext = server.createContext("/incidents",
                 new IncidentsHandler(serviceCentral));
         incidentsContext.getFilters().add(corsFilter);
+        incidentsContext.getFilters().add(clientFilter);
 
         // Endpoints système
         HttpContext etatContext = server.createContext("/services/etat",
                 new EtatServicesHandler(serviceCentral));
         etatContext.getFilters().add(corsFilter);
+        etatContext.getFilters().add(clientFilter);
+
+        HttpContext statistiquesContext = server.createContext("/services/statistiques",
+                new StatistiquesHandler(serviceCentral));
+        statistiquesContext.getFilters().add(corsFilter);
+        statistiquesContext.getFilters().add(clientFilter);
 
 
         LOGGER.info("Contextes HTTP créés avec filtres CORS");
@@ -215,9 +256,18 @@ public class HttpServerCentral {
         LOGGER.info("  GET  /tables/libres/{restaurantId}/{date}/{creneauId}    - Tables libres pour un créneau");
         LOGGER.info("  GET  /tables/statut/{restaurantId}/{date}/{creneauId}    - Statut de toutes les tables");
         LOGGER.info("  GET  /tables/disponibilite/{tableId}/{date}/{creneauId} - Vérifier disponibilité d'une table");
+        LOGGER.info("  GET  /disponibilites/{restaurantId}?from=&to=           - Matrice de disponibilité d'une période");
+        LOGGER.info("  GET  /occupation/{restaurantId}/{date}                  - Tables et couverts réservés par créneau");
+        LOGGER.info("  GET  /analyses/occupation[/{restaurantId}]?from=&to=    - Taux d'occupation d'une période");
 
         LOGGER.info("RÉSERVATIONS:");
         LOGGER.info("  POST /reserver                        - Effectuer une réservation");
+        LOGGER.info("  POST /reserver/batch                  - Effectuer un lot de réservations");
+        LOGGER.info("  POST /reserver/option                 - Mettre une table en option");
+        LOGGER.info("  POST /reserver/option/lever           - Lever une option");
+        LOGGER.info("  POST /attente                         - S'inscrire en liste d'attente d'un créneau");
+        LOGGER.info("  GET  /attente/{restaurantId}/{attenteId}                - Position ou réservation obtenue");
+        LOGGER.info("  POST /attente/quitter/{restaurantId}/{attenteId}        - Quitter la liste d'attente");
         LOGGER.info("  GET  /reservations/date/{restaurantId}/{date}           - Réservations d'une date");
         LOGGER.info("  POST /reservations/annuler/{reservationId}              - Annuler une réservation");
 
@@ -226,6 +276,7 @@ public class HttpServerCentral {
 
         LOGGER.info("SYSTÈME:");
         LOGGER.info("  GET  /services/etat                   - État des services RMI");
+        LOGGER.info("  GET  /services/statistiques           - Statistiques du service BD");
 
         LOGGER.info("=== SERVEUR OPÉRATIONNEL ===");
     }
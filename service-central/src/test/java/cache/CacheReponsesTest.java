@@ -0,0 +1,155 @@
+package cache;
+
+import model.Changement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests du cache des réponses et de son invalidation par le flux de changements.
+ */
+class CacheReponsesTest {
+
+    private static final int RESTAURANT = 4;
+    private static final int JOUR = 20_000;
+
+    private final AtomicInteger calculs = new AtomicInteger();
+
+    @Test
+    void cacheInactifCalculeChaqueFois() throws Exception {
+        CacheReponses cache = new CacheReponses(10);
+        assertEquals("r1", cache.lire("cle", RESTAURANT, JOUR, JOUR, this::calculer));
+        assertEquals("r2", cache.lire("cle", RESTAURANT, JOUR, JOUR, this::calculer));
+
+        cache.activer(true);
+        assertEquals("r3", cache.lire("cle", RESTAURANT, JOUR, JOUR, this::calculer));
+        assertEquals("r3", cache.lire("cle", RESTAURANT, JOUR, JOUR, this::calculer));
+        assertEquals(1, cache.getStatistiques().getInt("succes"));
+
+        cache.activer(false);
+        assertFalse(cache.isActif());
+        assertEquals(0, cache.getStatistiques().getInt("entrees"));
+    }
+
+    @Test
+    void changementRetireLesReponsesDeSonRestaurantEtDeSaPeriode() throws Exception {
+        CacheReponses cache = actif(10);
+        cache.lire("jour", RESTAURANT, JOUR, JOUR, this::calculer);
+        cache.lire("semaine", RESTAURANT, JOUR, JOUR + 6, this::calculer);
+        cache.lire("lendemain", RESTAURANT, JOUR + 1, JOUR + 1, this::calculer);
+        cache.lire("autre", RESTAURANT + 1, JOUR, JOUR, this::calculer);
+
+        cache.invalider(changement(Changement.Type.RESERVATION, RESTAURANT, JOUR));
+
+        assertEquals(2, cache.getStatistiques().getInt("entrees"));
+        assertEquals(2, cache.getStatistiques().getInt("retraits"));
+        assertEquals("r5", cache.lire("jour", RESTAURANT, JOUR, JOUR, this::calculer));
+        assertEquals("r6", cache.lire("semaine", RESTAURANT, JOUR, JOUR + 6, this::calculer));
+        assertEquals("r3", cache.lire("lendemain", RESTAURANT, JOUR + 1, JOUR + 1, this::calculer));
+        assertEquals("r4", cache.lire("autre", RESTAURANT + 1, JOUR, JOUR, this::calculer));
+    }
+
+    @Test
+    void changementGlobalVideLeCache() throws Exception {
+        CacheReponses cache = actif(10);
+        cache.lire("a", RESTAURANT, JOUR, JOUR, this::calculer);
+        cache.lire("b", RESTAURANT + 1, JOUR, JOUR, this::calculer);
+
+        cache.invalider(changement(Changement.Type.REFERENTIEL, 0, 0));
+
+        assertEquals(0, cache.getStatistiques().getInt("entrees"));
+        assertEquals("r3", cache.lire("a", RESTAURANT, JOUR, JOUR, this::calculer));
+        assertEquals(1, cache.getStatistiques().getInt("entrees"));
+    }
+
+    @Test
+    void reponseCalculeePendantUnChangementNonGardee() throws Exception {
+        CacheReponses cache = actif(10);
+        assertEquals("r1", cache.lire("cle", RESTAURANT, JOUR, JOUR, () -> {
+            cache.invalider(changement(Changement.Type.ANNULATION, RESTAURANT, JOUR + 30));
+            return calculer();
+        }));
+        assertEquals("r2", cache.lire("cle", RESTAURANT, JOUR, JOUR, this::calculer));
+
+        assertEquals("r3", cache.lire("global", RESTAURANT, JOUR, JOUR, () -> {
+            cache.vider();
+            return calculer();
+        }));
+        assertEquals(0, cache.getStatistiques().getInt("entrees"));
+        assertEquals("r4", cache.lire("global", RESTAURANT, JOUR, JOUR, this::calculer));
+    }
+
+    @Test
+    void tailleMaximaleRespectee() throws Exception {
+        CacheReponses cache = actif(2);
+        cache.lire("a", RESTAURANT, JOUR, JOUR, this::calculer);
+        cache.lire("b", RESTAURANT, JOUR, JOUR, this::calculer);
+        cache.lire("c", RESTAURANT, JOUR, JOUR, this::calculer);
+
+        assertEquals(2, cache.getStatistiques().getInt("entrees"));
+        assertEquals("r4", cache.lire("c", RESTAURANT, JOUR, JOUR, this::calculer));
+    }
+
+    /**
+     * Des lecteurs gardent la valeur courante pendant qu'un écrivain la change
+     * puis invalide : après chaque invalidation, aucune lecture ne doit rendre
+     * une valeur antérieure, même gardée au moment du changement.
+     */
+    @Test
+    void aucuneReponsePerimeeApresInvalidationConcurrente() throws Exception {
+        CacheReponses cache = actif(100);
+        AtomicInteger valeur = new AtomicInteger();
+        AtomicBoolean fin = new AtomicBoolean();
+        List<Thread> lecteurs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread lecteur = new Thread(() -> {
+                while (!fin.get()) {
+                    try {
+                        cache.lire("cle", RESTAURANT, JOUR, JOUR, () -> String.valueOf(valeur.get()));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            lecteurs.add(lecteur);
+            lecteur.start();
+        }
+        try {
+            for (int i = 1; i <= 20_000; i++) {
+                valeur.set(i);
+                cache.invalider(changement(Changement.Type.RESERVATION, RESTAURANT, JOUR));
+                int lue = Integer.parseInt(cache.lire("cle", RESTAURANT, JOUR, JOUR,
+                        () -> String.valueOf(valeur.get())));
+                assertEquals(i, lue, "réponse périmée gardée après l'invalidation " + i);
+            }
+        } finally {
+            fin.set(true);
+            for (Thread lecteur : lecteurs) {
+                lecteur.join();
+            }
+        }
+        int entrees = cache.getStatistiques().getInt("entrees");
+        cache.vider();
+        assertEquals(0, cache.getStatistiques().getInt("entrees"), "taille restée à " + entrees);
+    }
+
+    private CacheReponses actif(int tailleMax) {
+        CacheReponses cache = new CacheReponses(tailleMax);
+        cache.activer(true);
+        return cache;
+    }
+
+    private String calculer() {
+        return "r" + calculs.incrementAndGet();
+    }
+
+    private static Changement changement(Changement.Type type, int restaurantId, int jour) {
+        return new Changement(1, type, restaurantId, jour, restaurantId == 0 ? 0 : 1, 1);
+    }
+}
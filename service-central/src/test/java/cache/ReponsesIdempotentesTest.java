@@ -0,0 +1,128 @@
+package cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests des réponses gardées par clé d'idempotence.
+ */
+class ReponsesIdempotentesTest {
+
+    private final ExecutorService fils = Executors.newCachedThreadPool();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void liberer() {
+        fils.shutdownNow();
+    }
+
+    @Test
+    void renvoiRecoitLaPremiereReponse() throws Exception {
+        ReponsesIdempotentes reponses = new ReponsesIdempotentes(10, 60_000, 1_000);
+        assertEquals("r1", reponses.executer("client", "cle", "corps", this::executer));
+        assertEquals("r1", reponses.executer("client", "cle", "corps", this::executer));
+
+        assertEquals(1, executions.get());
+        assertEquals(1, reponses.getStatistiques().getInt("rejouees"));
+    }
+
+    @Test
+    void clePropreAuClient() throws Exception {
+        ReponsesIdempotentes reponses = new ReponsesIdempotentes(10, 60_000, 1_000);
+        assertEquals("r1", reponses.executer("alice", "cle", "corps", this::executer));
+        assertEquals("r2", reponses.executer("bob", "cle", "autre corps", this::executer));
+        assertEquals("r1", reponses.executer("alice", "cle", "corps", this::executer));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void cleReutiliseePourUnAutreCorps() throws Exception {
+        ReponsesIdempotentes reponses = new ReponsesIdempotentes(10, 60_000, 1_000);
+        reponses.executer("client", "cle", "corps", this::executer);
+        assertThrows(IllegalArgumentException.class,
+                () -> reponses.executer("client", "cle", "autre corps", this::executer));
+    }
+
+    @Test
+    void echecNonGarde() throws Exception {
+        ReponsesIdempotentes reponses = new ReponsesIdempotentes(10, 60_000, 1_000);
+        assertThrows(RemoteException.class, () -> reponses.executer("client", "cle", "corps", () -> {
+            throw new RemoteException("service BD indisponible");
+        }));
+        assertEquals("r1", reponses.executer("client", "cle", "corps", this::executer));
+    }
+
+    @Test
+    void cleExpireeReexecutee() throws Exception {
+        ReponsesIdempotentes reponses = new ReponsesIdempotentes(10, 1, 1_000);
+        reponses.executer("client", "cle", "corps", this::executer);
+        Thread.sleep(5);
+        assertEquals("r2", reponses.executer("client", "cle", "corps", this::executer));
+    }
+
+    @Test
+    void cleEnCoursJamaisRetiree() throws Exception {
+        ReponsesIdempotentes reponses = new ReponsesIdempotentes(2, 60_000, 5_000);
+        CountDownLatch demarree = new CountDownLatch(1);
+        CountDownLatch liberee = new CountDownLatch(1);
+        Future<String> enCours = fils.submit(() -> reponses.executer("client", "a", "corps",
+                () -> bloquer(demarree, liberee, "ra")));
+        assertTrue(demarree.await(5, TimeUnit.SECONDS));
+
+        // "b" est terminée : c'est elle qui laisse sa place à "c", pas "a" encore en cours
+        reponses.executer("client", "b", "corps", this::executer);
+        reponses.executer("client", "c", "corps", this::executer);
+
+        Future<String> renvoi = fils.submit(() -> reponses.executer("client", "a", "corps", this::executer));
+        liberee.countDown();
+        assertEquals("ra", enCours.get(5, TimeUnit.SECONDS));
+        assertEquals("ra", renvoi.get(5, TimeUnit.SECONDS));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void nouvelleCleRefuseeQuandToutEstEnCours() throws Exception {
+        ReponsesIdempotentes reponses = new ReponsesIdempotentes(1, 60_000, 5_000);
+        CountDownLatch demarree = new CountDownLatch(1);
+        CountDownLatch liberee = new CountDownLatch(1);
+        Future<String> enCours = fils.submit(() -> reponses.executer("client", "a", "corps",
+                () -> bloquer(demarree, liberee, "ra")));
+        assertTrue(demarree.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class, () -> reponses.executer("client", "b", "corps", this::executer));
+        assertEquals(0, executions.get());
+        assertEquals(1, reponses.getStatistiques().getInt("refusees"));
+
+        liberee.countDown();
+        assertEquals("ra", enCours.get(5, TimeUnit.SECONDS));
+        assertEquals("r1", reponses.executer("client", "b", "corps", this::executer));
+    }
+
+    private String executer() {
+        return "r" + executions.incrementAndGet();
+    }
+
+    private static String bloquer(CountDownLatch demarree, CountDownLatch liberee, String reponse)
+            throws RemoteException {
+        demarree.countDown();
+        try {
+            liberee.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("interrompue");
+        }
+        return reponse;
+    }
+}
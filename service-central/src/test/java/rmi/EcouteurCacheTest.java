@@ -0,0 +1,68 @@
+package rmi;
+
+import cache.CacheReponses;
+import model.Changement;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests de l'abonné du service central au flux de changements.
+ */
+class EcouteurCacheTest {
+
+    private static final int RESTAURANT = 4;
+    private static final int JOUR = 20_000;
+
+    @Test
+    void lotInvalideEtRetientLaDerniereSequence() throws Exception {
+        CacheReponses cache = cache();
+        EcouteurCache ecouteur = new EcouteurCache(cache);
+        cache.lire("jour", RESTAURANT, JOUR, JOUR, () -> "r1");
+        cache.lire("lendemain", RESTAURANT, JOUR + 1, JOUR + 1, () -> "r2");
+
+        ecouteur.recevoir("p1", List.of(
+                new Changement(7, Changement.Type.RESERVATION, RESTAURANT, JOUR, 1, 2),
+                new Changement(9, Changement.Type.ANNULATION, RESTAURANT, JOUR, 1, 1)));
+
+        assertEquals(1, cache.getStatistiques().getInt("entrees"));
+        assertEquals(9, ecouteur.getDerniereSequence("p1"));
+        assertEquals(-1, ecouteur.getDerniereSequence("p2"));
+    }
+
+    @Test
+    void resynchronisationVideLeCache() throws Exception {
+        CacheReponses cache = cache();
+        EcouteurCache ecouteur = new EcouteurCache(cache);
+        cache.lire("a", RESTAURANT, JOUR, JOUR, () -> "r1");
+        cache.lire("b", RESTAURANT + 1, JOUR + 10, JOUR + 10, () -> "r2");
+
+        ecouteur.recevoir("p1", List.of(new Changement(40, Changement.Type.RESYNCHRONISATION, 0, 0, 0, 0)));
+
+        assertEquals(0, cache.getStatistiques().getInt("entrees"));
+        assertEquals(1, cache.getStatistiques().getInt("vidages"));
+        assertEquals(40, ecouteur.getDerniereSequence("p1"));
+    }
+
+    @Test
+    void sequenceInitialeGardeeJusquAuPremierLot() throws Exception {
+        EcouteurCache ecouteur = new EcouteurCache(cache());
+        ecouteur.initialiser("p1", 12);
+        ecouteur.initialiser("p1", 3);
+        assertEquals(12, ecouteur.getDerniereSequence("p1"));
+
+        ecouteur.recevoir("p1", List.of());
+        assertEquals(12, ecouteur.getDerniereSequence("p1"));
+
+        ecouteur.oublier("p1");
+        assertEquals(-1, ecouteur.getDerniereSequence("p1"));
+    }
+
+    private static CacheReponses cache() {
+        CacheReponses cache = new CacheReponses(10);
+        cache.activer(true);
+        return cache;
+    }
+}